@@ -1,109 +1,165 @@
-
-import java.io.IOException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-
-/*
- * To change this license header, choose License Headers in Project Properties.
- * To change this template file, choose Tools | Templates
- * and open the template in the editor.
- */
-
-/**
- *
- * @author Enis
- */
-public class AdvanceTimeTerminal extends ChocAnTerminal
-{
-
-    public AdvanceTimeTerminal(ChocAnDPS dataCenter_)
-    {
-        super(dataCenter_);
-        
-        this.options = new String[3];
-        
-        this.options[0] = "Advance by days.";
-        this.options[1] = "Advance by hours.";
-        this.options[2] = "Exit";        
-    }
-
-    public int UseTerminal()
-    {
-        int returnVal = 0;
-        
-        try
-        {
-            returnVal = this.UseTerminalWrapper();
-        }catch(IOException ex)
-        {
-            System.out.println("ERROR! Cannot advance time because the weekly data processing doesn't work correctly!\n");
-        }
-        
-        return returnVal;
-    }
-
-    protected int GetNumberOfOptions()
-    {
-        return 3;
-    }
-
-    protected void PrintTerminalInfo()
-    {
-        System.out.println("Please indicate whether you would like to advance the time by days or hours.");
-        System.out.println("Note that the system can only advance a maximum of 7 days at a time.\n");
-    }
-
-    private int UseTerminalWrapper() throws IOException
-    {
-        int userChoice = 0;
-        do
-        {
-            this.PrintTerminalInfo();
-            switch ((userChoice = InputHandler.TerminalInput(this.options, Utilities.sc)))
-            {
-            case 0:
-                this.AdvanceByDays();
-                break;
-            case 1:
-                this.AdvanceByHours();
-                break;
-            default:
-                break;
-            }    
-        } while (userChoice != (this.GetNumberOfOptions()-1));
-        
-        return -1; //This only returns if we've exited from the terminal.        
-    }
-    
-    private void AdvanceByDays() throws IOException
-    {
-        int days = this.ExtractTimeWithinLimit("days", 7);
-        if (days >= 0)
-        {
-            this.dataCenter.AdvanceTimeByDays(days);
-            System.out.println("The time has successfully advanced by "+days+" days!\n");
-        }
-    }
-    
-    private void AdvanceByHours() throws IOException
-    {
-        int hours = this.ExtractTimeWithinLimit("hours", 24*7);
-        if (hours >= 0)
-        {
-            this.dataCenter.AdvanceTimeByHours(hours);
-            System.out.println("The time has successfully advanced by "+hours+" hours!\n");
-        }        
-    }
-    
-    private int ExtractTimeWithinLimit(String component, int limit)
-    {
-        int t = InputHandler.ExtractInt("Please enter the number of "+component+" to advance by: ", Utilities.sc);
-        if (t < 0)
-        {
-            System.out.println("ERROR! Negative time amount was entered. Cannot advance "+component+"s.\n");
-            return -1;
-        }
-        
-        return Utilities.AdjustIntToLimit(t,limit);
-    }
-}
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ *
+ * @author Enis
+ */
+public class AdvanceTimeTerminal extends ChocAnTerminal
+{
+
+    public AdvanceTimeTerminal(ChocAnDPS dataCenter_)
+    {
+        super(dataCenter_);
+        
+        this.options = new String[5];
+        
+        this.options[0] = "Advance by days.";
+        this.options[1] = "Advance by hours.";
+        this.options[2] = "Fast-forward by weeks.";
+        this.options[3] = "Replay a claims log.";
+        this.options[4] = "Exit";        
+    }
+
+    public int UseTerminal()
+    {
+        int returnVal = 0;
+        
+        try
+        {
+            returnVal = this.UseTerminalWrapper();
+        }catch(IOException ex)
+        {
+            System.out.println("ERROR! Cannot advance time because the weekly data processing doesn't work correctly!\n");
+        }
+        
+        return returnVal;
+    }
+
+    protected int GetNumberOfOptions()
+    {
+        return 5;
+    }
+
+    protected void PrintTerminalInfo()
+    {
+        System.out.println("Please indicate whether you would like to advance the time by days or hours.");
+        System.out.println("Note that the system can only advance a maximum of 7 days at a time.");
+        System.out.println("To go further, fast-forward by weeks or replay a claims log (see SimulationEngine).");
+        System.out.println("Weekly processing: "+this.dataCenter.GetWeeklyScheduler().GetStatus()+"\n");
+    }
+
+    private int UseTerminalWrapper() throws IOException
+    {
+        int userChoice = 0;
+        do
+        {
+            this.PrintTerminalInfo();
+            switch ((userChoice = InputHandler.TerminalInput(this.options, Utilities.sc)))
+            {
+            case 0:
+                this.AdvanceByDays();
+                break;
+            case 1:
+                this.AdvanceByHours();
+                break;
+            case 2:
+                this.FastForward();
+                break;
+            case 3:
+                this.ReplayClaims();
+                break;
+            default:
+                break;
+            }    
+        } while (userChoice != (this.GetNumberOfOptions()-1));
+        
+        return -1; //This only returns if we've exited from the terminal.        
+    }
+    
+    private void AdvanceByDays() throws IOException
+    {
+        int days = this.ExtractTimeWithinLimit("days", 7);
+        if (days >= 0)
+        {
+            this.dataCenter.AdvanceTimeByDays(days);
+            System.out.println("The time has successfully advanced by "+days+" days!\n");
+            this.PrintWeeklyProcessing();
+        }
+    }
+    
+    private void AdvanceByHours() throws IOException
+    {
+        int hours = this.ExtractTimeWithinLimit("hours", 24*7);
+        if (hours >= 0)
+        {
+            this.dataCenter.AdvanceTimeByHours(hours);
+            System.out.println("The time has successfully advanced by "+hours+" hours!\n");
+            this.PrintWeeklyProcessing();
+        }        
+    }
+    
+    private void FastForward() throws IOException
+    {
+        int weeks = InputHandler.ExtractInt("Please enter the number of weeks to fast-forward by: ", Utilities.sc);
+        if (weeks < 0)
+        {
+            System.out.println("ERROR! Negative time amount was entered. Cannot fast-forward.\n");
+            return;
+        }
+        
+        SimulationEngine engine = new SimulationEngine(this.dataCenter);
+        engine.FastForward(weeks*(Parameters.WEEK_LENGTH + 1));
+        System.out.println("The time has successfully been fast-forwarded by "+weeks+" weeks! The reports of "+engine.GetWeeksProcessed()+" weeks were generated.\n");
+    }
+    
+    private void ReplayClaims() throws IOException
+    {
+        String claimsPath = InputHandler.ExtractString("Please enter the path of the claims log: ", Utilities.sc).trim();
+        String outputDir = FileUtilities.FILE_LOC+"/"+FileUtilities.OUTPUT_LOC;
+        FileUtilities.CreateDirectory(outputDir);
+        String rejectionsPath = outputDir+"/"+FileUtilities.REJECTED_REPLAY_LOC;
+        
+        SimulationEngine engine = new SimulationEngine(this.dataCenter);
+        if (!engine.Replay(claimsPath, rejectionsPath))
+        {
+            System.out.println("ERROR! Could not open the claims log \""+claimsPath+"\"!\n");
+            return;
+        }
+        
+        System.out.println(engine.GetClaimsReplayed()+" claims were replayed and the reports of "+engine.GetWeeksProcessed()+" weeks were generated.");
+        if (engine.GetClaimsRejected() > 0)
+        {
+            System.out.println(engine.GetClaimsRejected()+" claims were rejected, see "+rejectionsPath+".");
+        }
+        System.out.println();
+    }
+    
+    private void PrintWeeklyProcessing()
+    {
+        if (this.dataCenter.GetWeeklyScheduler().GetPendingWeeks() > 0)
+        {
+            System.out.println("The weekly reports are being generated in the background.\n");
+        }
+    }
+    
+    private int ExtractTimeWithinLimit(String component, int limit)
+    {
+        int t = InputHandler.ExtractInt("Please enter the number of "+component+" to advance by: ", Utilities.sc);
+        if (t < 0)
+        {
+            System.out.println("ERROR! Negative time amount was entered. Cannot advance "+component+"s.\n");
+            return -1;
+        }
+        
+        return Utilities.AdjustIntToLimit(t,limit);
+    }
+}
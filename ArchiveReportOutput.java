@@ -0,0 +1,129 @@
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ *
+ * @author Enis
+ * Writes all of a week's member and provider reports into a single zip archive,
+ * ChocAnFiles/Report_Archives/Reports for <date range>.zip, instead of one directory and
+ * file per member and provider. Each report is an entry named the same as the file would
+ * have been, relative to ChocAnFiles and without the week's directory, e.g.
+ *      Members/173369347/Main.txt
+ *
+ * Zip files end with a central directory listing every entry and where it starts, so a
+ * single report can be read back without going through the rest of the archive
+ * (see ReportExtractor).
+ *
+ * The archive is written to a temporary file first and only renamed once it's complete,
+ * so a week whose reports failed partway never leaves a broken archive behind (Abort
+ * deletes the temporary file).
+ */
+public class ArchiveReportOutput implements ReportOutput
+{
+    private Path archivePath = null;
+    private Path tempPath = null;
+    private ZipOutputStream zip = null;
+
+    /**
+     * Starts the archive for the week with the given directory name.
+     *
+     * @param weekName The week's directory name, i.e. "Reports for " followed by the date range
+     * @throws IOException
+     */
+    public ArchiveReportOutput(final String weekName) throws IOException
+    {
+        String archiveDir = FileUtilities.FILE_LOC+"/"+FileUtilities.REPORT_ARCHIVE_LOC;
+        FileUtilities.CreateDirectory(archiveDir);
+        this.archivePath = Paths.get(ArchiveReportOutput.GetArchiveName(weekName));
+        this.tempPath = Paths.get(this.archivePath+".tmp");
+        this.zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(this.tempPath), FileUtilities.ROSTER_BUFFER_SIZE));
+    }
+
+    /**
+     *
+     * @param weekName
+     * @return The path of the archive holding the reports of the week having weekName
+     */
+    public static String GetArchiveName(final String weekName)
+    {
+        return FileUtilities.FILE_LOC+"/"+FileUtilities.REPORT_ARCHIVE_LOC+"/"+weekName+".zip";
+    }
+
+    /**
+     *
+     * @param entityLoc
+     * @param id
+     * @return The name of the entry holding the weekly report of the member or provider having id
+     */
+    public static String GetEntryName(final String entityLoc, final int id)
+    {
+        return entityLoc+"/"+id+"/"+FileUtilities.WEEKLY_REPORT_LOC;
+    }
+
+    public ReportWriter OpenReport(final String entityLoc, final int id, final String weekName) throws IOException
+    {
+        this.zip.putNextEntry(new ZipEntry(ArchiveReportOutput.GetEntryName(entityLoc, id)));
+        return new ReportWriter(Channels.newChannel(new EntryStream(this.zip)));
+    }
+
+    /**
+     * Writes the central directory and moves the archive into place, replacing any
+     * archive the week had already.
+     *
+     * @throws IOException
+     */
+    public void Close() throws IOException
+    {
+        this.zip.close();
+        Files.move(this.tempPath, this.archivePath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Closes the temporary file and deletes it. The archive the week had before, if any, is kept.
+     */
+    public void Abort()
+    {
+        try
+        {
+            this.zip.close();
+        }catch(IOException ex) //Most likely what went wrong in the first place, it's deleted anyway
+        {
+        }
+        try
+        {
+            Files.deleteIfExists(this.tempPath);
+        }catch(IOException ex)
+        {
+        }
+    }
+
+    /**
+     * Passes a report through to the archive. Closing it only ends the report's entry,
+     * not the whole archive.
+     */
+    private static class EntryStream extends FilterOutputStream
+    {
+        EntryStream(ZipOutputStream zip)
+        {
+            super(zip);
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            this.out.write(b, off, len); //FilterOutputStream would write them one at a time
+        }
+
+        public void close() throws IOException
+        {
+            ((ZipOutputStream)this.out).closeEntry();
+        }
+    }
+}
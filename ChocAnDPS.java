@@ -1,627 +1,996 @@
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
-import java.util.TreeSet;
-
-/**
- *
- * @author Enis 
- * This is the main data center class. It stores all of ChocAn's members, providers
- * and the service records that have been written to it, as well as the main data center
- * date. Note that the globalDate is assumed to correspond to time zone "0" (i.e. the "starting"
- * reference for all of the provider dates).
- * 
- * The data center can either be initialized from scratch, or it can read multiple files
- * to restore itself to a previous state before program termination.
- */
-public class ChocAnDPS
-{
-    /**
-     * This field houses all of ChocAn's members
-     */
-    private TreeSet<Member> members = new TreeSet<Member>();
-    
-    /**
-     * This field houses all of ChocAn's providers
-     */
-    private TreeSet<Provider> providers = new TreeSet<Provider>();
-    
-    /**
-     * This field houses all of the current service records on ChocAn's disks
-     */
-    private ServiceRecordDisk serviceRecords = new ServiceRecordDisk();
-    
-    /**
-     * This field houses the data center's date.
-     */
-    private LocalDateTime globalDate = null;
-    
-    
-    /**
-     * The constructor first sees if the main directory storing all of the files
-     * "ChocAnFiles" exists. If it does, it assumes that the data center
-     * was left off at a previous state and reads in the remaining data in
-     * the following sequence.
-     *      1) Read the parameters (i.e. the data center date)
-     *      2) Read the members
-     *      3) Read the providers
-     *      4) Read the service records
-     * 
-     * If it doesn't exist, the constructor proceeds to create this directory
-     * and the Member and Provider directories as well. Please refer to the report
-     * for more details. It also initializes the data center date to whatever
-     * the current date and time is. Effectively, it initializes a new data center
-     * from scratch.
-     * 
-     * @throws IOException 
-     */
-    public ChocAnDPS() throws IOException //Here is where the DPS is initialized
-    {
-        if (FileUtilities.FileExists(FileUtilities.FILE_LOC)) //We have pre-created data here so we read whatever was written from the previous state
-        {
-            System.out.println("Initializing data center to its previous state...");
-            this.ReadParameters();
-            this.ReadMembers();
-            this.ReadProviders();
-            this.ReadServiceRecords();  
-            System.out.println("Initialization successful!\n");
-        }
-        else //No created data, we're beginning at a blank slate
-        {
-            System.out.println("Initializing data center to the blank state...");            
-            FileUtilities.CreateDirectory(FileUtilities.FILE_LOC); //Create the ChocAnFiles directory
-            FileUtilities.CreateDirectory(FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_LOC); //Create members directory
-            FileUtilities.CreateDirectory(FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDERS_LOC); //Create providers directory            
-            this.globalDate = LocalDateTime.now(); //Get the current date and time of the system           
-            System.out.println("Initialization successful!\n");
-        }
-    }
-    
-    /**
-     * 
-     * @return The current date and time of the data center
-     */
-    public LocalDateTime GetGlobalDate()
-    {
-        return this.globalDate;
-    }
-    
-    /**
-     * 
-     * @return The members data structure
-     */
-    public TreeSet<Member> GetMemberDatabase()
-    {
-        return this.members;
-    }
-    
-    /**
-     * 
-     * @return The providers data structure
-     */
-    public TreeSet<Provider> GetProviderDatabase()
-    {
-        return this.providers;
-    }
-    
-    /**
-     * 
-     * @return The service records on disk
-     */
-    public ServiceRecordDisk GetServiceRecordDisk()
-    {
-        return this.serviceRecords;
-    }
-    
-    /**
-     * This method should be called upon program termination. It writes
-     * the current state of the DPS to several files (read the report for more details)
-     * using the following sequence:
-     *      1) Write the parameters (i.e the global date)
-     *      2) Write the members
-     *      3) Write the providers
-     *      4) Write the service records
-     * 
-     * @throws IOException 
-     */
-    public void Exit() throws IOException
-    {
-        System.out.println("Saving current state of the data center...");
-        this.WriteParameters();
-        this.WriteMembers();
-        this.WriteProviders();
-        this.WriteServiceRecords();
-        System.out.println("Save successful! Exiting the data center...\n");
-    }
-    
-    /**
-     * Adds a new member to the data center
-     * 
-     * @param newMember 
-     */
-    public void AddMember(final Member newMember)
-    {
-        this.members.add(newMember);
-    }
-    
-    /**
-     * Removes a member from the data center, if they exist.
-     * 
-     * @param member
-     * @return 
-     */
-    public boolean RemoveMember(final Member member)
-    {
-        return this.members.remove(member);
-    }
-    
-    /**
-     * Looks up a member given their member number
-     * 
-     * @param memberNum
-     * @return The member if they exist, otherwise null.
-     */
-    public Member LookUpMember(final int memberNum)
-    {
-        return Utilities.LookUpElement(memberNum, this.members);
-    }
-    
-    /**
-     * Adds a new provider to the data center
-     * 
-     * @param newProvider 
-     */
-    public void AddProvider(final Provider newProvider)
-    {
-        this.providers.add(newProvider);
-    }
-    
-    /**
-     * Removes a provider from the data center, if they exist.
-     * 
-     * @param provider
-     * @return 
-     */
-    public boolean RemoveProvider(final Provider provider)
-    {
-        return this.providers.remove(provider);
-    }
-    
-    /**
-     * Looks up a provider given their provider number
-     * 
-     * @param providerNum
-     * @return 
-     */
-    public Provider LookUpProvider(final int providerNum)
-    {
-        return Utilities.LookUpElement(providerNum, this.providers);     
-    }
-    
-    /**
-     * Advances the current date and time by numDays. User should enter
-     * a positive value when calling this function.
-     * 
-     * @param numDays The number of days to be advanced
-     * @throws IOException 
-     */
-    public void AdvanceTimeByDays(int numDays) throws IOException
-    {
-        this.AddByTemporalAmount(numDays*Parameters.SECONDS_PER_DAY);
-    }
-    
-    /**
-     * Advances the current date and time by numHours. User should enter
-     * a positive value when calling this function
-     * 
-     * @param numHours
-     * @throws IOException 
-     */
-    public void AdvanceTimeByHours(int numHours) throws IOException
-    {
-        this.AddByTemporalAmount(numHours*Parameters.SECONDS_PER_HOUR);
-    }
-    
-    /**
-     * Advances the global date and time by the temporal amount specified in timeToAdd.
-     * This is done in seconds, since the time for the project is written as HH:MM:SS.
-     * 
-     * Note that if the timeToAdd exceeds the amount required to reach the end of the week
-     * when the DPS does its weekly report generation, then the system first advances the date
-     * to this period, generates the weekly reports, and then uses the remaining time to advance
-     * it to its actual date. This is more apparent in the code.
-     * 
-     * Otherwise, the system proceeds to add timeToAdd seconds to the current date, and all
-     * of the provider dates as well.
-     * 
-     * NOTE: End of the week is the corresponding Friday, at 23:59:00
-     * 
-     * @param timeToAdd The number of seconds we're advancing the time by.
-     * 
-     * @throws IOException 
-     */
-    private void AddByTemporalAmount (long timeToAdd) throws IOException //First check to see if adding the amount would exceed Friday 11:59 PM date of the data processor
-    {
-        long timeTillEnd = Utilities.SecondsUntilWeekEnd(globalDate); //Get the number of seconds left until the end of the week.
-        
-        if (timeToAdd > timeTillEnd) //If the time we're adding exceeds what we need to reach the end of the week
-        {
-            timeToAdd -= timeTillEnd; //Decrement it
-            this.AddByTemporalAmount(timeTillEnd); //Get the system to the end of the week
-            
-            System.out.println("Generating the weekly reports...");
-            ReportGenerator.GenerateWeeklyReports(this); //Generate the weekly reports
-            System.out.println("The reports have successfully been generated!\n");
-        }    
-        
-        this.globalDate = this.globalDate.plus(timeToAdd, ChronoUnit.SECONDS);
-        Iterator<Provider> iterator = this.providers.iterator();
-        while (iterator.hasNext())
-        {
-            Provider provider = iterator.next();
-            provider.SetProviderDateTime(provider.GetProviderDateTime().plus(timeToAdd, ChronoUnit.SECONDS));
-        }                
-    }
-    
-    /**
-     * Writes the global date to its corresponding file
-     * 
-     * @throws IOException 
-     */
-    private void WriteParameters() throws IOException
-    {
-        BufferedWriter writer = FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.CHOC_AN_PARAMETERS_FILE_LOC);
-        writer.write(this.globalDate.format(DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME))+"\n");
-        writer.close();
-    }
-    
-    /**
-     * Writes all of the member numbers to their corresponding file.
-     * For each member number, it also writes the member information to its
-     * corresponding file in the corresponding directory.
-     * 
-     * See the report for more details on file organization.
-     * 
-     * @throws IOException 
-     */
-    private void WriteMembers() throws IOException
-    {
-        BufferedWriter memberNumbers = FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_NUMBERS_FILE_LOC);
-        String memberDirectory = FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_LOC;
-        Iterator<Member> iterator = members.iterator();
-        
-        if (iterator.hasNext())
-        {
-            Member currentMember = iterator.next(); //This is executed this way to avoid having a new line after the
-            memberNumbers.write(""+currentMember.GetID()); //first sentence of the file, in case there's only one member. Makes it
-            this.WriteMember(currentMember, memberDirectory+"/"+currentMember.GetID()); //easier to read from later.
-            while (iterator.hasNext())
-            {
-                currentMember = iterator.next();
-                memberNumbers.write("\n" + currentMember.GetID());
-                this.WriteMember(currentMember, memberDirectory+"/"+currentMember.GetID());                
-            }
-        }
-        
-        memberNumbers.close();
-    }
-    
-    /**
-     * Writes all of the provider numbers to their corresponding file.
-     * For each provider number, it also writes the provider information and directory
-     * to their corresponding file in the corresponding directory.
-     * 
-     * See the report for more details on file organization.
-     * 
-     * @throws IOException 
-     */
-    private void WriteProviders() throws IOException
-    {
-        BufferedWriter providerNumbers = FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDER_NUMBERS_FILE_LOC);
-        String provDirectory = FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDERS_LOC;
-        Iterator<Provider> iterator = providers.iterator();
-        
-        if (iterator.hasNext())
-        {
-            Provider currentProvider = iterator.next(); //See the comments in WriteMembers above regarding why this code is executed like it is here.
-            providerNumbers.write(""+currentProvider.GetID());
-            this.WriteProvider(currentProvider, provDirectory+"/"+currentProvider.GetID());
-            while (iterator.hasNext())
-            {
-                currentProvider = iterator.next();
-                providerNumbers.write("\n" + currentProvider.GetID());
-                this.WriteProvider(currentProvider, provDirectory+"/"+currentProvider.GetID());                
-            }
-        }
-        providerNumbers.close();        
-    }
-    
-    /**
-     * Writes the current records on disk to their corresponding file.
-     * 
-     * See the report for more details on file organization.
-     * 
-     * @throws IOException 
-     */
-    private void WriteServiceRecords() throws IOException
-    {
-        serviceRecords.WriteRecordsTo(FileUtilities.FILE_LOC+"/"+FileUtilities.SERVICE_RECORD_LOC);
-    }
-    
-    /**
-     * Reads the parameters (i.e. the global date) of the data center
-     * 
-     * @return True if the read was successful, false otherwise
-     * @throws IOException 
-     */
-    private boolean ReadParameters() throws IOException //Returns true if the read was successful, false otherwise
-    {
-        BufferedReader reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.CHOC_AN_PARAMETERS_FILE_LOC);
-        if (reader == null) //File doesn't exist, or an unsuccessful open
-        {
-            return false;
-        }
-        else
-        {
-            this.globalDate = LocalDateTime.parse(reader.readLine(), DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME));
-            
-            reader.close(); //Close the file
-            
-            return true;
-        }
-    }
-    
-    /**
-     * Reads the members of the data center. First it opens the member numbers file
-     * to read the numbers and then, for each number, it goes to its corresponding directory
-     * and reads the member information from there. Function assumes that the file and member directories
-     * exist. See report for more details.
-     * 
-     * @throws IOException 
-     */
-    private void ReadMembers() throws IOException
-    {
-        BufferedReader reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_NUMBERS_FILE_LOC);
-        if (reader != null) //File exists
-        {
-            String line = null;
-            while ((line = reader.readLine()) != null) //Members exist
-            {
-                this.members.add(this.ReadMember(Integer.parseInt(line), FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_LOC+"/"+line+"/"+FileUtilities.INFO_LOC)); //Read individual member
-            }
-            
-            reader.close();
-        }
-    }
-    
-    /**
-     * Reads the providers of the data center. First it opens the provider numbers file
-     * to read the numbers and then, for each number, it goes to its corresponding directory
-     * and reads the member information from there. Function assumes that the file and member directories
-     * exist. See report for more details.
-     * 
-     * @throws IOException 
-     */
-    private void ReadProviders() throws IOException
-    {
-        BufferedReader reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDER_NUMBERS_FILE_LOC);
-        if (reader != null) //File exists
-        {
-            String line = null;
-            while ((line = reader.readLine()) != null) //Providers exist
-            {
-                this.providers.add(this.ReadProvider(Integer.parseInt(line), FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDERS_LOC+"/"+line)); //Read individual provider
-            }
-            
-            reader.close();
-        }
-    }
-    
-    
-    /**
-     * Function reads the individual service records from disk. Assumes that
-     * the service records file exists.
-     * 
-     * Note that every record is stored by:
-     *      currentDateTime
-     *      serviceDate
-     *      providerNum
-     *      memberNum
-     *      serviceCode
-     *      SERVICE_RECORD_SEPARATOR
-     *      comments
-     * 
-     * which is shown in the code.
-     * 
-     * Note that the separator is used to tell the system that it is about to read the comments.
-     * Otherwise the loop would assume  that its still reading one of the other fields.
-     * 
-     * @throws IOException 
-     */
-    private void ReadServiceRecords() throws IOException
-    {
-        BufferedReader reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.SERVICE_RECORD_LOC);
-        if (reader != null)
-        {
-            String line = null;
-            while ((line = reader.readLine()) != null)
-            {
-                LocalDateTime currentDateTime = LocalDateTime.parse(line, DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME));
-                LocalDate serviceDate = LocalDate.parse(reader.readLine(), DateTimeFormatter.ofPattern(Format.DATE));
-                int providerNum = Integer.parseInt(reader.readLine());
-                int memberNum = Integer.parseInt(reader.readLine());
-                int serviceCode = Integer.parseInt(reader.readLine());
-                
-                String comments = "";                
-                if (!((line = reader.readLine()).equals(Format.SERVICE_RECORD_SEPARATOR))) //To write comments correctly per line
-                {
-                    comments = line; //This is executed this way since we shouldn't have a new line after the first commment.
-                    while (!((line = reader.readLine()).equals(Format.SERVICE_RECORD_SEPARATOR))) //While we are not at the separator, we want to get the comments
-                    {
-                        comments += "\n"+line;
-                    }                    
-                }
-                
-                this.serviceRecords.WriteToDisk(new ServiceRecord(currentDateTime, serviceDate, providerNum, memberNum, serviceCode, comments));
-            }
-            reader.close();
-        }
-    }
-    
-    /**
-     * Reads the "Information" object components contained in reader, and places them in the info array.
-     * Note that the indices are mapped as:
-     * 
-     *      0 = Name
-     *      1 = Street address
-     *      2 = City
-     *      3 = State
-     *      4 = ZIP
-     * 
-     * @param reader
-     * @param info
-     * @throws IOException 
-     */
-    private void ReadInfo(BufferedReader reader, String[] info) throws IOException
-    {
-        info[0] = reader.readLine();
-        info[1] = reader.readLine();
-        info[2] = reader.readLine();
-        info[3] = reader.readLine();
-        info[4] = reader.readLine();
-    }
-    
-    /**
-     * Reads the member located in filePath. Note that a member is written as
-     *      1. Name
-     *      2. Street address
-     *      3. City
-     *      4. State
-     *      5. ZIP
-     *      6. Member status
-     * 
-     * And this is the order that the reader reads the information.
-     * 
-     * @param id_ Member number
-     * @param filePath Location of the file containing the member information
-     * @return the member corresponding to the information just read.
-     * 
-     * @throws IOException 
-     */
-    private Member ReadMember(int id_, String filePath) throws IOException
-    {
-        BufferedReader reader = FileUtilities.OpenReader(filePath);
-        String[] info = new String[5]; //0 = name, 1 = Street, 2 = city, 3 = state, 4 = ZIP
-        this.ReadInfo(reader, info);
-        boolean status = Boolean.parseBoolean(reader.readLine());
-        
-        reader.close();
-        return (new Member(id_, info[0], info[1], info[2], info[3], info[4], status)); //CHANGE THIS LATER TO AN ACTUAL MEMBER
-    }
-    
-    /**
-     * Reads the provider located in filePath. Note that a provider is written as
-     *      1. Name
-     *      2. Street address
-     *      3. City
-     *      4. State
-     *      5. ZIP
-     *      6. Provider date and time
-     * 
-     * After reading this information, it proceeds to read the provider directory
-     * associated with the provider. Services are stored as
-     *      1) Service code
-     *      2) Service name
-     *      3) Service fee
-     * 
-     * @param id_ Provider number
-     * @param dirLoc Location of the individual provider directory to do the read
-     * @return the provider corresponding to the info just read.
-     * @throws IOException 
-     */
-    private Provider ReadProvider(int id_, String dirLoc) throws IOException
-    {
-        BufferedReader reader = FileUtilities.OpenReader(dirLoc+"/"+FileUtilities.INFO_LOC);
-        String[] info = new String[5]; //0 = name, 1 = Street, 2 = city, 3 = state, 4 = ZIP
-        this.ReadInfo(reader, info);
-        LocalDateTime provDate = LocalDateTime.parse(reader.readLine(), DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME));
-        reader.close();
-        
-        Provider provider = new Provider(id_, info[0], info[1], info[2], info[3], info[4], provDate); //Create the object
-        
-        reader = FileUtilities.OpenReader(dirLoc+"/"+FileUtilities.PROVIDER_DIR_LOC); //Read the services from the provider directory
-        String curInfo = null;
-        while ((curInfo = reader.readLine()) != null)
-        {
-            int serviceCode = Integer.parseInt(curInfo);
-            String name = reader.readLine();
-            BigDecimal fee = new BigDecimal(reader.readLine());
-            provider.AddService(new Service(serviceCode, name, fee));
-        }        
-        reader.close();
-        
-        return provider; //CHANGE THIS LATER TO AN ACTUAL PROVIDER
-    }    
-    
-    /**
-     * Writes a member to its corresponding file. The file is formatted in the same way as outlined in the ReadMember method
-     * java doc.
-     * 
-     * @param member
-     * @param dirLoc
-     * @throws IOException 
-     */
-    private void WriteMember(Member member, String dirLoc) throws IOException
-    {
-        BufferedWriter writer = FileUtilities.OpenWriter(dirLoc+"/"+FileUtilities.INFO_LOC); //First write the info
-        writer.write(member.GetName()+"\n"+member.GetStreetAddress()+"\n"+member.GetCity()+"\n"+member.GetState()+"\n"+member.GetZipCode()+"\n"+member.GetStatus());
-        writer.close();
-    }
-    
-    /**
-     * Writes a provider to its corresponding file. The file is formatted in the same way as outlined in the ReadProvider method.
-     * 
-     * @param provider
-     * @param dirLoc
-     * @throws IOException 
-     */
-    private void WriteProvider(Provider provider, String dirLoc) throws IOException
-    {     
-        BufferedWriter writer = FileUtilities.OpenWriter(dirLoc+"/"+FileUtilities.INFO_LOC); //First write the info
-        writer.write(provider.GetName()+"\n"+provider.GetStreetAddress()+"\n"+provider.GetCity()+"\n"+provider.GetState()+"\n"+provider.GetZipCode()+"\n"
-                        + provider.GetProviderDateTime().format(DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME)));
-        writer.close();
-
-        provider.WriteServicesTo(dirLoc+"/"+FileUtilities.PROVIDER_DIR_LOC); //Now write the services
-    }
-    
-    /**
-     * Used for debugging purposes. Please ignore.
-     * 
-     * @return 
-     */
-    public String toString()
-    {
-        String info = "Date: " + (globalDate.format(DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME))) + "\n";
-        
-        info += "MEMBERS " + "\n";
-        info += members.toString() + "\n";
-        
-        info += "PROVIDERS " + "\n";
-        info += providers.toString() + "\n";
-        
-        info += "SERVICE RECORDS ON FILE: " + "\n";
-        info += serviceRecords.toString();
-        
-        return info;
-    }
-}
-
-
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ *
+ * @author Enis 
+ * This is the main data center class. It stores all of ChocAn's members, providers
+ * and the service records that have been written to it, as well as the main data center
+ * date. Note that the globalDate is assumed to correspond to time zone "0" (i.e. the "starting"
+ * reference for all of the provider dates). Each provider's date is kept as an offset from it,
+ * so advancing the time only changes the globalDate.
+ * 
+ * The data center can either be initialized from scratch, or it can read multiple files
+ * to restore itself to a previous state before program termination.
+ * 
+ * The data center is safe to use from several threads at once (e.g. by the claim server).
+ * The member and provider databases are concurrent sets, and changes to an individual member
+ * or provider should be made while holding the lock returned by GetMemberLock or GetProviderLock.
+ * These are striped by ID, so terminals working on different members or providers don't block
+ * one another.
+ * 
+ * When the time is advanced past the end of the week, the weekly reports are generated on a
+ * background thread by the WeeklyScheduler, so advancing the time doesn't wait for them.
+ * 
+ * How long the lookups, loading and saving take is recorded in the Metrics registry, along with
+ * gauges for the sizes of the databases and the claim queue. Reading and writing each file also
+ * emits a PersistenceEvent for the Java Flight Recorder.
+ */
+public class ChocAnDPS
+{
+    //Metrics, see Metrics.java
+    private static final LatencyHistogram MEMBER_LOOKUP_TIME = Metrics.Histogram("member.lookup");
+    private static final LatencyHistogram PROVIDER_LOOKUP_TIME = Metrics.Histogram("provider.lookup");
+    private static final LatencyHistogram LOAD_TIME = Metrics.Histogram("datacenter.load");
+    private static final LatencyHistogram SAVE_TIME = Metrics.Histogram("datacenter.save");
+    private static final LatencyHistogram MEMBERS_READ_TIME = Metrics.Histogram("persistence.members.read");
+    private static final LatencyHistogram MEMBERS_WRITE_TIME = Metrics.Histogram("persistence.members.write");
+    private static final LatencyHistogram PROVIDERS_READ_TIME = Metrics.Histogram("persistence.providers.read");
+    private static final LatencyHistogram PROVIDERS_WRITE_TIME = Metrics.Histogram("persistence.providers.write");
+    private static final LatencyHistogram RECORDS_READ_TIME = Metrics.Histogram("persistence.records.read");
+    private static final LatencyHistogram RECORDS_WRITE_TIME = Metrics.Histogram("persistence.records.write");
+    private static final LatencyHistogram CATALOG_READ_TIME = Metrics.Histogram("persistence.catalog.read");
+    private static final LatencyHistogram CATALOG_WRITE_TIME = Metrics.Histogram("persistence.catalog.write");
+    
+    /**
+     * This field houses all of ChocAn's members
+     */
+    private ConcurrentSkipListSet<Member> members = new ConcurrentSkipListSet<Member>();
+    
+    /**
+     * This field houses all of ChocAn's providers
+     */
+    private ConcurrentSkipListSet<Provider> providers = new ConcurrentSkipListSet<Provider>();
+    
+    /**
+     * This field houses all of the current service records on ChocAn's disks
+     */
+    private ServiceRecordDisk serviceRecords = new ServiceRecordDisk();
+    
+    /**
+     * Collects the records of new claims from the terminals and writes them to serviceRecords in batches
+     */
+    private ClaimIngestQueue claimQueue = new ClaimIngestQueue(this.serviceRecords, ClaimIngestQueue.DEFAULT_CAPACITY);
+    
+    /**
+     * This field houses the data center's date. It is volatile since provider terminals
+     * on other threads read it while the time is being advanced.
+     */
+    private volatile LocalDateTime globalDate = null;
+    
+    /**
+     * The clock every provider in the data center follows, see Provider.SetClock
+     */
+    private final Supplier<LocalDateTime> clock = this::GetGlobalDate;
+    
+    /**
+     * Guards changes to individual members (e.g. their status or information), striped by member number
+     */
+    private StripedLock memberLocks = new StripedLock(64);
+    
+    /**
+     * Guards changes to individual providers (e.g. their directory or date), striped by provider number
+     */
+    private StripedLock providerLocks = new StripedLock(64);
+    
+    /**
+     * Held while new member or provider numbers are picked and until their members or providers
+     * are added, so that two enrolments can't pick the same number
+     */
+    private final ReentrantLock enrolmentLock = new ReentrantLock();
+    
+    /**
+     * Makes sure only one thread advances the time (and does the weekly processing) at once.
+     */
+    private final Object clockLock = new Object();
+    
+    /**
+     * Generates the weekly reports in the background, see WeeklyScheduler
+     */
+    private WeeklyScheduler weeklyScheduler = new WeeklyScheduler();
+    
+    /**
+     * What is done at the end of every week, see WeeklyProcessing
+     */
+    private volatile WeeklyProcessing weeklyProcessing = this.weeklyScheduler;
+    
+    /**
+     * Whether the weekly member and provider reports go into one archive per week (see ArchiveReportOutput)
+     * instead of each member's and provider's directory. Set with -Dchocan.archiveReports=true.
+     */
+    private volatile boolean archiveWeeklyReports = Boolean.getBoolean("chocan.archiveReports");
+    
+    /**
+     * Every report written so far, see ReportCatalog
+     */
+    private ReportCatalog reportCatalog = new ReportCatalog();
+    
+    /**
+     * The last manager requested report of each member and provider, see ReportCache
+     */
+    private ReportCache reportCache = new ReportCache();
+    
+    
+    /**
+     * The constructor first sees if the main directory storing all of the files
+     * "ChocAnFiles" exists. If it does, it assumes that the data center
+     * was left off at a previous state and reads in the remaining data in
+     * the following sequence.
+     *      1) Read the parameters (i.e. the data center date)
+     *      2) Read the members
+     *      3) Read the providers
+     *      4) Read the service records
+     *      5) Read the report catalog
+     * 
+     * If it doesn't exist, the constructor proceeds to create this directory
+     * and the Member and Provider directories as well. Please refer to the report
+     * for more details. It also initializes the data center date to whatever
+     * the current date and time is. Effectively, it initializes a new data center
+     * from scratch.
+     * 
+     * @throws IOException 
+     */
+    public ChocAnDPS() throws IOException //Here is where the DPS is initialized
+    {
+        long start = System.nanoTime();
+        if (FileUtilities.FileExists(FileUtilities.FILE_LOC)) //We have pre-created data here so we read whatever was written from the previous state
+        {
+            System.out.println("Initializing data center to its previous state...");
+            this.ReadParameters();
+            this.Persist(this::ReadMembers, ChocAnDPS.MEMBERS_READ_TIME, "Read", "Members", () -> this.members.size(), FileUtilities.MEMBER_ROSTER_LOC);
+            this.Persist(this::ReadProviders, ChocAnDPS.PROVIDERS_READ_TIME, "Read", "Providers", () -> this.providers.size(), FileUtilities.PROVIDER_ROSTER_LOC);
+            this.Persist(this::ReadServiceRecords, ChocAnDPS.RECORDS_READ_TIME, "Read", "ServiceRecords", () -> this.serviceRecords.GetRecords().size(), FileUtilities.SERVICE_RECORD_LOC);
+            this.Persist(this.reportCatalog::Read, ChocAnDPS.CATALOG_READ_TIME, "Read", "ReportCatalog", () -> this.reportCatalog.Size(), ReportCatalog.CATALOG_LOC);
+            System.out.println("Initialization successful!\n");
+        }
+        else //No created data, we're beginning at a blank slate
+        {
+            System.out.println("Initializing data center to the blank state...");            
+            FileUtilities.CreateDirectory(FileUtilities.FILE_LOC); //Create the ChocAnFiles directory
+            FileUtilities.CreateDirectory(FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_LOC); //Create members directory
+            FileUtilities.CreateDirectory(FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDERS_LOC); //Create providers directory            
+            this.globalDate = LocalDateTime.now(); //Get the current date and time of the system           
+            System.out.println("Initialization successful!\n");
+        }
+        ChocAnDPS.LOAD_TIME.RecordSince(start);
+        
+        this.RegisterGauges();
+    }
+    
+    /**
+     * 
+     * @return The current date and time of the data center
+     */
+    public LocalDateTime GetGlobalDate()
+    {
+        return this.globalDate;
+    }
+    
+    /**
+     * 
+     * @return The members data structure
+     */
+    public ConcurrentSkipListSet<Member> GetMemberDatabase()
+    {
+        return this.members;
+    }
+    
+    /**
+     * 
+     * @return The providers data structure
+     */
+    public ConcurrentSkipListSet<Provider> GetProviderDatabase()
+    {
+        return this.providers;
+    }
+    
+    /**
+     * 
+     * @return The service records on disk
+     */
+    public ServiceRecordDisk GetServiceRecordDisk()
+    {
+        this.claimQueue.Flush(); //Make sure every claim submitted so far is on the disk
+        return this.serviceRecords;
+    }
+    
+    /**
+     * 
+     * @return The queue that new claims go through on their way to the disk
+     */
+    public ClaimIngestQueue GetClaimQueue()
+    {
+        return this.claimQueue;
+    }
+    
+    /**
+     * Queues a new service record to be written to the disk. This should be used
+     * instead of writing to the ServiceRecordDisk directly, so that claims coming
+     * in from several terminals at once don't contend with each other.
+     * If the queue is full, this waits until there is room.
+     * 
+     * @param newRecord 
+     */
+    public void SubmitClaim(final ServiceRecord newRecord)
+    {
+        this.claimQueue.Submit(newRecord);
+    }
+    
+    /**
+     * 
+     * @param memberNum
+     * @return The lock that must be held while changing the member having memberNum
+     */
+    public ReentrantLock GetMemberLock(final int memberNum)
+    {
+        return this.memberLocks.GetLock(memberNum);
+    }
+    
+    /**
+     * 
+     * @param providerNum
+     * @return The lock that must be held while changing the provider having providerNum
+     */
+    public ReentrantLock GetProviderLock(final int providerNum)
+    {
+        return this.providerLocks.GetLock(providerNum);
+    }
+    
+    /**
+     * 
+     * @return The lock that must be held from picking a new member or provider number until
+     * the member or provider having it is added (see InformationExtractionTerminal.ExtractID
+     * and EnrolmentLoader)
+     */
+    public ReentrantLock GetEnrolmentLock()
+    {
+        return this.enrolmentLock;
+    }
+    
+    /**
+     * This method should be called upon program termination. It writes
+     * the current state of the DPS to several files (read the report for more details)
+     * using the following sequence:
+     *      1) Write the parameters (i.e the global date)
+     *      2) Write the members
+     *      3) Write the providers
+     *      4) Write the service records
+     *      5) Write the report catalog
+     * 
+     * Any weekly reports still being generated in the background are finished first.
+     * 
+     * @throws IOException 
+     */
+    public void Exit() throws IOException
+    {
+        System.out.println("Saving current state of the data center...");
+        long start = System.nanoTime();
+        this.weeklyScheduler.Close(); //Finish the weekly reports, so their records aren't saved
+        this.claimQueue.Close(); //Write out any claims still in the queue
+        this.WriteParameters();
+        this.Persist(this::WriteMembers, ChocAnDPS.MEMBERS_WRITE_TIME, "Write", "Members", () -> this.members.size(), FileUtilities.MEMBER_ROSTER_LOC);
+        this.Persist(this::WriteProviders, ChocAnDPS.PROVIDERS_WRITE_TIME, "Write", "Providers", () -> this.providers.size(), FileUtilities.PROVIDER_ROSTER_LOC);
+        this.Persist(this::WriteServiceRecords, ChocAnDPS.RECORDS_WRITE_TIME, "Write", "ServiceRecords", () -> this.serviceRecords.GetRecords().size(), FileUtilities.SERVICE_RECORD_LOC);
+        this.Persist(this.reportCatalog::Write, ChocAnDPS.CATALOG_WRITE_TIME, "Write", "ReportCatalog", () -> this.reportCatalog.Size(), ReportCatalog.CATALOG_LOC);
+        ChocAnDPS.SAVE_TIME.RecordSince(start);
+        System.out.println("Save successful! Exiting the data center...\n");
+    }
+    
+    /**
+     * 
+     * @return The index of every report written, see ReportCatalog
+     */
+    public ReportCatalog GetReportCatalog()
+    {
+        return this.reportCatalog;
+    }
+    
+    /**
+     * 
+     * @return The last manager requested report of each member and provider, see ReportCache
+     */
+    public ReportCache GetReportCache()
+    {
+        return this.reportCache;
+    }
+    
+    /**
+     * Adds a new member to the data center
+     * 
+     * @param newMember 
+     */
+    public void AddMember(final Member newMember)
+    {
+        this.members.add(newMember);
+    }
+    
+    /**
+     * Adds a batch of new members to the data center. Adding them in order of their
+     * member numbers (as EnrolmentLoader does) is fastest.
+     * 
+     * @param newMembers 
+     */
+    public void AddMembers(final Collection<Member> newMembers)
+    {
+        this.members.addAll(newMembers);
+    }
+    
+    /**
+     * Removes a member from the data center, if they exist.
+     * 
+     * @param member
+     * @return 
+     */
+    public boolean RemoveMember(final Member member)
+    {
+        return this.members.remove(member);
+    }
+    
+    /**
+     * Looks up a member given their member number
+     * 
+     * @param memberNum
+     * @return The member if they exist, otherwise null.
+     */
+    public Member LookUpMember(final int memberNum)
+    {
+        long start = System.nanoTime();
+        Member member = Utilities.LookUpElement(memberNum, this.members, Member::new);
+        ChocAnDPS.MEMBER_LOOKUP_TIME.RecordSince(start);
+        
+        return member;
+    }
+    
+    /**
+     * Adds a new provider to the data center
+     * 
+     * @param newProvider 
+     */
+    public void AddProvider(final Provider newProvider)
+    {
+        newProvider.SetClock(this.clock);
+        this.providers.add(newProvider);
+    }
+    
+    /**
+     * Adds a batch of new providers to the data center. Adding them in order of their
+     * provider numbers (as EnrolmentLoader does) is fastest.
+     * 
+     * @param newProviders 
+     */
+    public void AddProviders(final Collection<Provider> newProviders)
+    {
+        Iterator<Provider> iterator = newProviders.iterator();
+        while (iterator.hasNext())
+        {
+            iterator.next().SetClock(this.clock);
+        }
+        this.providers.addAll(newProviders);
+    }
+    
+    /**
+     * Removes a provider from the data center, if they exist.
+     * 
+     * @param provider
+     * @return 
+     */
+    public boolean RemoveProvider(final Provider provider)
+    {
+        return this.providers.remove(provider);
+    }
+    
+    /**
+     * Looks up a provider given their provider number
+     * 
+     * @param providerNum
+     * @return 
+     */
+    public Provider LookUpProvider(final int providerNum)
+    {
+        long start = System.nanoTime();
+        Provider provider = Utilities.LookUpElement(providerNum, this.providers, Provider::new);
+        ChocAnDPS.PROVIDER_LOOKUP_TIME.RecordSince(start);
+        
+        return provider;
+    }
+    
+    /**
+     * Replaces what is done at the end of every week. Pass null to go back to the
+     * WeeklyScheduler. Any weeks the scheduler still has queued are processed first.
+     * 
+     * @param weeklyProcessing_
+     * @return What was done before
+     */
+    public WeeklyProcessing SetWeeklyProcessing(final WeeklyProcessing weeklyProcessing_)
+    {
+        synchronized (this.clockLock) //Don't change it halfway through advancing the time
+        {
+            this.weeklyScheduler.AwaitIdle();
+            WeeklyProcessing previous = this.weeklyProcessing;
+            this.weeklyProcessing = (weeklyProcessing_ == null ? this.weeklyScheduler : weeklyProcessing_);
+            return previous;
+        }
+    }
+    
+    /**
+     * 
+     * @return True if the weekly member and provider reports go into one archive per week
+     */
+    public boolean IsArchivingWeeklyReports()
+    {
+        return this.archiveWeeklyReports;
+    }
+    
+    /**
+     * Sets whether the weekly member and provider reports go into one archive per week
+     * (see ArchiveReportOutput) or into each member's and provider's directory.
+     * Takes effect from the next week processed.
+     * 
+     * @param archiveWeeklyReports_ 
+     */
+    public void SetArchivingWeeklyReports(final boolean archiveWeeklyReports_)
+    {
+        this.archiveWeeklyReports = archiveWeeklyReports_;
+    }
+    
+    /**
+     * 
+     * @return The scheduler that generates the weekly reports in the background
+     */
+    public WeeklyScheduler GetWeeklyScheduler()
+    {
+        return this.weeklyScheduler;
+    }
+    
+    /**
+     * Waits until the weekly reports of every week that has ended so far are generated,
+     * and their records filtered out. Reports for the current week need this, otherwise
+     * the records of a week that just ended could still be on the disk.
+     */
+    public void AwaitWeeklyProcessing()
+    {
+        this.weeklyScheduler.AwaitIdle();
+    }
+    
+    /**
+     * Advances the current date and time by numDays. User should enter
+     * a positive value when calling this function.
+     * 
+     * @param numDays The number of days to be advanced
+     * @throws IOException 
+     */
+    public void AdvanceTimeByDays(int numDays) throws IOException
+    {
+        this.AddByTemporalAmount(numDays*Parameters.SECONDS_PER_DAY);
+    }
+    
+    /**
+     * Advances the current date and time by numHours. User should enter
+     * a positive value when calling this function
+     * 
+     * @param numHours
+     * @throws IOException 
+     */
+    public void AdvanceTimeByHours(int numHours) throws IOException
+    {
+        this.AddByTemporalAmount(numHours*Parameters.SECONDS_PER_HOUR);
+    }
+    
+    /**
+     * Advances the current date and time by numSeconds. User should enter
+     * a positive value when calling this function
+     * 
+     * @param numSeconds
+     * @throws IOException 
+     */
+    public void AdvanceTimeBySeconds(long numSeconds) throws IOException
+    {
+        this.AddByTemporalAmount(numSeconds);
+    }
+    
+    /**
+     * Advances the global date and time by the temporal amount specified in timeToAdd.
+     * This is done in seconds, since the time for the project is written as HH:MM:SS.
+     * 
+     * Note that if the timeToAdd exceeds the amount required to reach the end of the week
+     * when the DPS does its weekly report generation, then the system first advances the date
+     * to this period, does the weekly processing (see SetWeeklyProcessing), and then uses the remaining time to advance
+     * it to its actual date. This is more apparent in the code.
+     * 
+     * Otherwise, the system proceeds to add timeToAdd seconds to the current date. The provider
+     * dates follow the current date (see Provider.SetClock), so this takes the same time no
+     * matter how many providers there are. If timeToAdd spans several weeks, the reports are
+     * generated at the end of each of them in turn.
+     * 
+     * NOTE: End of the week is the corresponding Friday, at 23:59:00
+     * 
+     * @param timeToAdd The number of seconds we're advancing the time by.
+     * 
+     * @throws IOException 
+     */
+    private void AddByTemporalAmount (long timeToAdd) throws IOException
+    {
+        synchronized (this.clockLock)
+        {
+            this.AddByTemporalAmountLocked(timeToAdd);
+        }
+    }
+    
+    /**
+     * Does the work of AddByTemporalAmount. The caller must hold clockLock.
+     * 
+     * @param timeToAdd The number of seconds we're advancing the time by.
+     * @throws IOException 
+     */
+    private void AddByTemporalAmountLocked (long timeToAdd) throws IOException //First check to see if adding the amount would exceed Friday 11:59 PM date of the data processor
+    {
+        long timeTillEnd = Utilities.SecondsUntilWeekEnd(globalDate); //Get the number of seconds left until the end of the week.
+        
+        while (timeToAdd > timeTillEnd) //If the time we're adding exceeds what we need to reach the end of the week
+        {
+            timeToAdd -= timeTillEnd; //Decrement it
+            this.globalDate = this.globalDate.plus(timeTillEnd, ChronoUnit.SECONDS); //Get the system to the end of the week
+            
+            this.weeklyProcessing.Process(this); //Generate the weekly reports
+            
+            timeTillEnd = Parameters.SECONDS_PER_WEEK; //The next end of the week is a whole week away
+        }    
+        
+        this.globalDate = this.globalDate.plus(timeToAdd, ChronoUnit.SECONDS);
+    }
+    
+    /**
+     * Runs one of the Read or Write methods, recording how long it took in time and emitting
+     * a PersistenceEvent for it if a flight recording wants one.
+     * 
+     * @param step The Read or Write method
+     * @param time Where the time taken is recorded
+     * @param operation Read or Write
+     * @param entity Members, Providers, ServiceRecords or ReportCatalog
+     * @param count Gives the number of entities read or written, only called if the event is committed
+     * @param fileLoc The file read or written, relative to FILE_LOC
+     * @throws IOException 
+     */
+    private void Persist(PersistenceStep step, LatencyHistogram time, final String operation, final String entity, IntSupplier count, final String fileLoc) throws IOException
+    {
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        long start = System.nanoTime();
+        
+        step.Run();
+        
+        time.RecordSince(start);
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.operation = operation;
+            event.entity = entity;
+            event.count = count.getAsInt();
+            event.bytes = FileUtilities.FileSize(FileUtilities.FILE_LOC+"/"+fileLoc);
+            event.commit();
+        }
+    }
+    
+    /**
+     * One of the Read or Write methods, see Persist
+     */
+    private interface PersistenceStep
+    {
+        void Run() throws IOException;
+    }
+    
+    /**
+     * Registers the gauges reading this data center's sizes. If another data center
+     * was created before this one, its gauges are replaced.
+     */
+    private void RegisterGauges()
+    {
+        Metrics.Gauge("members.count", () -> this.members.size());
+        Metrics.Gauge("providers.count", () -> this.providers.size());
+        Metrics.Gauge("records.ondisk", () -> this.serviceRecords.GetRecords().size());
+        Metrics.Gauge("claimqueue.depth", () -> this.claimQueue.GetDepth());
+        Metrics.Gauge("claimqueue.highwatermark", () -> this.claimQueue.GetHighWaterMark());
+        Metrics.Gauge("claimqueue.batches", () -> this.claimQueue.GetBatchCount());
+        Metrics.Gauge("claimqueue.rejected", () -> this.claimQueue.GetRejectedCount());
+        Metrics.Gauge("claimqueue.stalls", () -> this.claimQueue.GetStallCount());
+        Metrics.Gauge("weekly.pending", () -> this.weeklyScheduler.GetPendingWeeks());
+    }
+    
+    /**
+     * Writes the global date to its corresponding file
+     * 
+     * @throws IOException 
+     */
+    private void WriteParameters() throws IOException
+    {
+        BufferedWriter writer = FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.CHOC_AN_PARAMETERS_FILE_LOC);
+        writer.write(this.globalDate.format(DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME))+"\n");
+        writer.close();
+    }
+    
+    /**
+     * Writes every member to the member roster file, one after the other, in a single
+     * sequential write. Each member is written as
+     *      1. Member number
+     *      2. Name
+     *      3. Street address
+     *      4. City
+     *      5. State
+     *      6. ZIP
+     *      7. Member status
+     * 
+     * This replaced writing the member numbers file plus one Info.txt file per member
+     * directory, which took one file (and for new members, one directory) per member.
+     * Member directories are now only created when a report is written to them.
+     * 
+     * @throws IOException 
+     */
+    private void WriteMembers() throws IOException
+    {
+        BufferedWriter writer = new BufferedWriter(FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_ROSTER_LOC), FileUtilities.ROSTER_BUFFER_SIZE);
+        Iterator<Member> iterator = members.iterator();
+        while (iterator.hasNext())
+        {
+            Member member = iterator.next();
+            writer.write(member.GetID()+"\n"+member.GetName()+"\n"+member.GetStreetAddress()+"\n"+member.GetCity()+"\n"+member.GetState()+"\n"+member.GetZipCode()+"\n"+member.GetStatus()+"\n");
+        }
+        
+        writer.close();
+    }
+    
+    /**
+     * Writes every provider, along with their provider directory, to the provider roster file
+     * in a single sequential write. Each provider is written as
+     *      1. Provider number
+     *      2. Name
+     *      3. Street address
+     *      4. City
+     *      5. State
+     *      6. ZIP
+     *      7. Provider date and time
+     *      8. Number of services in the provider directory
+     * followed by each service as its code, name and fee on separate lines.
+     * 
+     * @throws IOException 
+     */
+    private void WriteProviders() throws IOException
+    {
+        BufferedWriter writer = new BufferedWriter(FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDER_ROSTER_LOC), FileUtilities.ROSTER_BUFFER_SIZE);
+        DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME);
+        Iterator<Provider> iterator = providers.iterator();
+        while (iterator.hasNext())
+        {
+            Provider provider = iterator.next();
+            Provider.Directory directory = provider.GetDirectory(); //Never changes, so the count matches what's written even if a service is being added
+            writer.write(provider.GetID()+"\n"+provider.GetName()+"\n"+provider.GetStreetAddress()+"\n"+provider.GetCity()+"\n"+provider.GetState()+"\n"+provider.GetZipCode()+"\n"
+                            +provider.GetProviderDateTime().format(dateTimeFormat)+"\n"+directory.GetServiceCount()+"\n");
+            for (int i = 0; i < directory.GetServiceCount(); ++i)
+            {
+                writer.write(directory.GetCode(i)+"\n"+directory.GetName(i)+"\n"+directory.GetFee(i).toPlainString()+"\n");
+            }
+        }
+        
+        writer.close();
+    }
+    
+    /**
+     * Writes the current records on disk to their corresponding file.
+     * 
+     * See the report for more details on file organization.
+     * 
+     * @throws IOException 
+     */
+    private void WriteServiceRecords() throws IOException
+    {
+        serviceRecords.WriteRecordsTo(FileUtilities.FILE_LOC+"/"+FileUtilities.SERVICE_RECORD_LOC);
+    }
+    
+    /**
+     * Reads the parameters (i.e. the global date) of the data center
+     * 
+     * @return True if the read was successful, false otherwise
+     * @throws IOException 
+     */
+    private boolean ReadParameters() throws IOException //Returns true if the read was successful, false otherwise
+    {
+        BufferedReader reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.CHOC_AN_PARAMETERS_FILE_LOC);
+        if (reader == null) //File doesn't exist, or an unsuccessful open
+        {
+            return false;
+        }
+        else
+        {
+            this.globalDate = LocalDateTime.parse(reader.readLine(), DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME));
+            
+            reader.close(); //Close the file
+            
+            return true;
+        }
+    }
+    
+    /**
+     * Reads the members of the data center from the member roster file (see WriteMembers).
+     * 
+     * Data centers saved before the roster file existed have a member numbers file and one
+     * directory per member instead. If there's no roster file, the members are read from
+     * those: for each number in the member numbers file, it goes to its corresponding directory
+     * and reads the member information from there. They're saved to the roster file on exit.
+     * 
+     * @throws IOException 
+     */
+    private void ReadMembers() throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_ROSTER_LOC);
+        if (reader != null) //Roster exists
+        {
+            String line = null;
+            while ((line = reader.readLine()) != null)
+            {
+                int id = Integer.parseInt(line);
+                String[] info = new String[5]; //0 = name, 1 = Street, 2 = city, 3 = state, 4 = ZIP
+                this.ReadInfo(reader, info);
+                this.members.add(new Member(id, info[0], info[1], info[2], info[3], info[4], Boolean.parseBoolean(reader.readLine())));
+            }
+            
+            reader.close();
+            return;
+        }
+        
+        reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_NUMBERS_FILE_LOC);
+        if (reader != null) //File exists
+        {
+            String line = null;
+            while ((line = reader.readLine()) != null) //Members exist
+            {
+                this.members.add(this.ReadMember(Integer.parseInt(line), FileUtilities.FILE_LOC+"/"+FileUtilities.MEMBER_LOC+"/"+line+"/"+FileUtilities.INFO_LOC)); //Read individual member
+            }
+            
+            reader.close();
+        }
+    }
+    
+    /**
+     * Reads the providers of the data center from the provider roster file (see WriteProviders).
+     * 
+     * As with the members, if there's no roster file the providers are read from the provider
+     * numbers file and each provider's directory instead.
+     * 
+     * @throws IOException 
+     */
+    private void ReadProviders() throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDER_ROSTER_LOC);
+        if (reader != null) //Roster exists
+        {
+            DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME);
+            String line = null;
+            while ((line = reader.readLine()) != null)
+            {
+                int id = Integer.parseInt(line);
+                String[] info = new String[5]; //0 = name, 1 = Street, 2 = city, 3 = state, 4 = ZIP
+                this.ReadInfo(reader, info);
+                Provider provider = new Provider(id, info[0], info[1], info[2], info[3], info[4], LocalDateTime.parse(reader.readLine(), dateTimeFormat));
+                
+                int numServices = Integer.parseInt(reader.readLine());
+                for (int i = 0; i < numServices; ++i)
+                {
+                    int serviceCode = Integer.parseInt(reader.readLine());
+                    String name = reader.readLine();
+                    BigDecimal fee = new BigDecimal(reader.readLine());
+                    provider.AddService(serviceCode, name, fee);
+                }
+                
+                this.AddProvider(provider);
+            }
+            
+            reader.close();
+            return;
+        }
+        
+        reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDER_NUMBERS_FILE_LOC);
+        if (reader != null) //File exists
+        {
+            String line = null;
+            while ((line = reader.readLine()) != null) //Providers exist
+            {
+                this.AddProvider(this.ReadProvider(Integer.parseInt(line), FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDERS_LOC+"/"+line)); //Read individual provider
+            }
+            
+            reader.close();
+        }
+    }
+    
+    
+    /**
+     * Function reads the individual service records from disk. Assumes that
+     * the service records file exists.
+     * 
+     * Note that every record is stored by:
+     *      currentDateTime
+     *      serviceDate
+     *      providerNum
+     *      memberNum
+     *      serviceCode
+     *      SERVICE_RECORD_SEPARATOR
+     *      comments
+     * 
+     * which is shown in the code.
+     * 
+     * Note that the separator is used to tell the system that it is about to read the comments.
+     * Otherwise the loop would assume  that its still reading one of the other fields.
+     * 
+     * @throws IOException 
+     */
+    private void ReadServiceRecords() throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(FileUtilities.FILE_LOC+"/"+FileUtilities.SERVICE_RECORD_LOC);
+        if (reader != null)
+        {
+            String line = null;
+            while ((line = reader.readLine()) != null)
+            {
+                LocalDateTime currentDateTime = LocalDateTime.parse(line, DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME));
+                LocalDate serviceDate = LocalDate.parse(reader.readLine(), DateTimeFormatter.ofPattern(Format.DATE));
+                int providerNum = Integer.parseInt(reader.readLine());
+                int memberNum = Integer.parseInt(reader.readLine());
+                int serviceCode = Integer.parseInt(reader.readLine());
+                
+                String comments = "";                
+                if (!((line = reader.readLine()).equals(Format.SERVICE_RECORD_SEPARATOR))) //To write comments correctly per line
+                {
+                    comments = line; //This is executed this way since we shouldn't have a new line after the first commment.
+                    while (!((line = reader.readLine()).equals(Format.SERVICE_RECORD_SEPARATOR))) //While we are not at the separator, we want to get the comments
+                    {
+                        comments += "\n"+line;
+                    }                    
+                }
+                
+                this.serviceRecords.WriteToDisk(new ServiceRecord(currentDateTime, serviceDate, providerNum, memberNum, serviceCode, comments));
+            }
+            reader.close();
+        }
+    }
+    
+    /**
+     * Reads the "Information" object components contained in reader, and places them in the info array.
+     * Note that the indices are mapped as:
+     * 
+     *      0 = Name
+     *      1 = Street address
+     *      2 = City
+     *      3 = State
+     *      4 = ZIP
+     * 
+     * @param reader
+     * @param info
+     * @throws IOException 
+     */
+    private void ReadInfo(BufferedReader reader, String[] info) throws IOException
+    {
+        info[0] = reader.readLine();
+        info[1] = reader.readLine();
+        info[2] = reader.readLine();
+        info[3] = reader.readLine();
+        info[4] = reader.readLine();
+    }
+    
+    /**
+     * Reads the member located in filePath, for data centers saved before the member roster
+     * file existed. Note that a member is written as
+     *      1. Name
+     *      2. Street address
+     *      3. City
+     *      4. State
+     *      5. ZIP
+     *      6. Member status
+     * 
+     * And this is the order that the reader reads the information.
+     * 
+     * @param id_ Member number
+     * @param filePath Location of the file containing the member information
+     * @return the member corresponding to the information just read.
+     * 
+     * @throws IOException 
+     */
+    private Member ReadMember(int id_, String filePath) throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(filePath);
+        String[] info = new String[5]; //0 = name, 1 = Street, 2 = city, 3 = state, 4 = ZIP
+        this.ReadInfo(reader, info);
+        boolean status = Boolean.parseBoolean(reader.readLine());
+        
+        reader.close();
+        return (new Member(id_, info[0], info[1], info[2], info[3], info[4], status)); //CHANGE THIS LATER TO AN ACTUAL MEMBER
+    }
+    
+    /**
+     * Reads the provider located in filePath, for data centers saved before the provider roster
+     * file existed. Note that a provider is written as
+     *      1. Name
+     *      2. Street address
+     *      3. City
+     *      4. State
+     *      5. ZIP
+     *      6. Provider date and time
+     * 
+     * After reading this information, it proceeds to read the provider directory
+     * associated with the provider. Services are stored as
+     *      1) Service code
+     *      2) Service name
+     *      3) Service fee
+     * 
+     * @param id_ Provider number
+     * @param dirLoc Location of the individual provider directory to do the read
+     * @return the provider corresponding to the info just read.
+     * @throws IOException 
+     */
+    private Provider ReadProvider(int id_, String dirLoc) throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(dirLoc+"/"+FileUtilities.INFO_LOC);
+        String[] info = new String[5]; //0 = name, 1 = Street, 2 = city, 3 = state, 4 = ZIP
+        this.ReadInfo(reader, info);
+        LocalDateTime provDate = LocalDateTime.parse(reader.readLine(), DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME));
+        reader.close();
+        
+        Provider provider = new Provider(id_, info[0], info[1], info[2], info[3], info[4], provDate); //Create the object
+        
+        reader = FileUtilities.OpenReader(dirLoc+"/"+FileUtilities.PROVIDER_DIR_LOC); //Read the services from the provider directory
+        String curInfo = null;
+        while ((curInfo = reader.readLine()) != null)
+        {
+            int serviceCode = Integer.parseInt(curInfo);
+            String name = reader.readLine();
+            BigDecimal fee = new BigDecimal(reader.readLine());
+            provider.AddService(serviceCode, name, fee);
+        }        
+        reader.close();
+        
+        return provider; //CHANGE THIS LATER TO AN ACTUAL PROVIDER
+    }    
+    
+    /**
+     * Used for debugging purposes. Please ignore.
+     * 
+     * @return 
+     */
+    public String toString()
+    {
+        String info = "Date: " + (globalDate.format(DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME))) + "\n";
+        
+        info += "MEMBERS " + "\n";
+        info += members.toString() + "\n";
+        
+        info += "PROVIDERS " + "\n";
+        info += providers.toString() + "\n";
+        
+        info += "SERVICE RECORDS ON FILE: " + "\n";
+        info += serviceRecords.toString();
+        
+        return info;
+    }
+}
+
+
@@ -0,0 +1,127 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+
+/**
+ *
+ * @author Enis
+ * This is the provider terminal's end of the claim server connection. Each method sends
+ * one request to the ClaimServer and waits for its response, returning the decoded fields.
+ * The first field of every response is either ClaimProtocol.OK or ClaimProtocol.ERROR.
+ *
+ * A client holds a single connection and is not meant to be shared between threads;
+ * each provider terminal should open its own.
+ */
+public class ClaimClient implements Closeable
+{
+    private Socket socket = null;
+    private BufferedReader reader = null;
+    private BufferedWriter writer = null;
+
+    /**
+     * Connects to the claim server listening on host:port.
+     *
+     * @param host
+     * @param port
+     * @throws IOException
+     */
+    public ClaimClient(final String host, final int port) throws IOException
+    {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true); //Requests are small and we wait on every reply
+        this.reader = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), FileUtilities.FILE_DECODING));
+        this.writer = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(), FileUtilities.FILE_DECODING));
+    }
+
+    /**
+     * See ClaimProcessor.ServeMember
+     *
+     * @return OK, member name, service name, fee; or ERROR, message
+     * @throws IOException
+     */
+    public String[] ServeMember(final int providerNum, final int memberNum, final int serviceCode, final String comments) throws IOException
+    {
+        return this.Send(ClaimProtocol.Encode(ClaimProtocol.SERVE, providerNum, memberNum, serviceCode, comments));
+    }
+
+    /**
+     * See ClaimProcessor.WriteServiceRecord
+     *
+     * @return OK, message; or ERROR, message
+     * @throws IOException
+     */
+    public String[] WriteServiceRecord(final int providerNum, final int memberNum, final int serviceCode, final LocalDate serviceDate, final String comments) throws IOException
+    {
+        return this.Send(ClaimProtocol.Encode(ClaimProtocol.WRITE, providerNum, memberNum, serviceCode, serviceDate.format(DateTimeFormatter.ofPattern(Format.DATE)), comments));
+    }
+
+    /**
+     * See ClaimProcessor.RequestProviderDirectory
+     *
+     * @param providerNum
+     * @return The provider's services in alphabetical order, or null if the provider doesn't exist
+     * @throws IOException
+     */
+    public ArrayList<Service> RequestProviderDirectory(final int providerNum) throws IOException
+    {
+        String[] response = this.Send(ClaimProtocol.Encode(ClaimProtocol.DIRECTORY, providerNum));
+        if (!response[0].equals(ClaimProtocol.OK))
+        {
+            return null;
+        }
+
+        int numServices = Integer.parseInt(response[1]);
+        ArrayList<Service> services = new ArrayList<Service>(numServices);
+        for (int i = 0; i < numServices; ++i)
+        {
+            services.add(ClaimProtocol.DecodeService(this.reader.readLine()));
+        }
+
+        return services;
+    }
+
+    /**
+     * Tells the server we're done and closes the connection.
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException
+    {
+        try
+        {
+            this.writer.write(ClaimProtocol.QUIT+"\n");
+            this.writer.flush();
+        }finally
+        {
+            this.socket.close();
+        }
+    }
+
+    /**
+     * Sends a request and reads the first line of the response.
+     *
+     * @param request The encoded request
+     * @return The decoded fields of the response
+     * @throws IOException If the server closed the connection
+     */
+    private String[] Send(final String request) throws IOException
+    {
+        this.writer.write(request+"\n");
+        this.writer.flush();
+
+        String response = this.reader.readLine();
+        if (response == null)
+        {
+            throw new IOException("Claim server closed the connection");
+        }
+
+        return ClaimProtocol.Decode(response);
+    }
+}
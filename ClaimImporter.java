@@ -0,0 +1,366 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author Enis
+ * This class imports a provider's service records in bulk from a claims file, for providers
+ * whose practice-management systems can export the week's claims instead of having them typed
+ * into the provider terminal one by one.
+ *
+ * The claims file is plain text with one claim per line:
+ *      member number,service code,service date (MM-DD-YYYY),comments
+ *
+ * The comments are everything after the third comma, so they may contain commas themselves.
+ * They may also be wrapped in double quotes, in which case "" stands for a single quote.
+ * Blank lines, lines starting with # and a header line (one whose first field isn't a number)
+ * are skipped.
+ *
+ * Each claim is checked the same way ProviderTerminal checks one typed in by hand:
+ *      1) The member number must exist and the member must not be suspended
+ *      2) The service code must be in the provider's directory
+ *      3) The service date must not be later than the provider's date
+ * Claims that fail are copied to the rejection file as they were, each under a # line giving
+ * its line number and the reason. Since # lines are skipped, the rejection file can be fixed
+ * and imported again as it is. The rest of the claims are written to the disk.
+ *
+ * Since the file may have millions of claims, it is never read into memory all at once.
+ * It is read in chunks of CHUNK_SIZE lines, and each chunk is checked on a thread pool while
+ * the next ones are being read. At most MAX_CHUNKS_IN_FLIGHT chunks are read ahead, which bounds
+ * the memory used. The chunks are finished in the order they were read, so the rejection file
+ * is in the same order as the claims file, and each chunk's accepted claims are written to the
+ * disk as one batch.
+ */
+public class ClaimImporter
+{
+    /**
+     * Number of lines checked together as one task
+     */
+    public static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Most chunks that can be read ahead of the one being written
+     */
+    public static final int MAX_CHUNKS_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+
+    private ChocAnDPS dataCenter = null;
+    private Provider provider = null;
+
+    /**
+     * The provider's directory when the import started, the service codes are checked against it
+     */
+    private Provider.Directory directory = null;
+
+    /**
+     * The provider's date when the import started. Every imported record is stamped with it,
+     * and no service date may be later than it.
+     */
+    private LocalDateTime receivedDateTime = null;
+
+    private DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(Format.DATE);
+
+    //Totals of the last import
+    private long linesRead = 0;
+    private long accepted = 0;
+    private long rejected = 0;
+
+    /**
+     *
+     * @param dataCenter_ The data center the claims are written to
+     * @param provider_ The provider the claims are being imported for
+     */
+    public ClaimImporter(final ChocAnDPS dataCenter_, final Provider provider_)
+    {
+        this.dataCenter = dataCenter_;
+        this.provider = provider_;
+    }
+
+    /**
+     * Imports the claims in claimsPath, writing the ones that are rejected to rejectionsPath.
+     *
+     * @param claimsPath The claims file
+     * @param rejectionsPath Where the rejected claims are written. The file is always created, even if nothing is rejected.
+     * @return True if the file was imported, false if it couldn't be opened
+     * @throws IOException
+     */
+    public boolean Import(final String claimsPath, final String rejectionsPath) throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(claimsPath);
+        if (reader == null)
+        {
+            return false;
+        }
+        BufferedWriter rejections = FileUtilities.OpenWriter(rejectionsPath);
+        if (rejections == null)
+        {
+            reader.close();
+            return false;
+        }
+
+        this.Prepare();
+
+        ExecutorService validators = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "claim-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<Future<Chunk>>();
+        ServiceRecordDisk disk = this.dataCenter.GetServiceRecordDisk();
+
+        try
+        {
+            Chunk chunk = null;
+            while ((chunk = this.ReadChunk(reader)) != null)
+            {
+                if (inFlight.size() >= ClaimImporter.MAX_CHUNKS_IN_FLIGHT) //Don't read further ahead until the oldest chunk is written
+                {
+                    this.WriteChunk(inFlight.poll(), disk, rejections);
+                }
+
+                final Chunk toValidate = chunk;
+                inFlight.add(validators.submit(() -> this.ValidateChunk(toValidate)));
+            }
+
+            while (!inFlight.isEmpty())
+            {
+                this.WriteChunk(inFlight.poll(), disk, rejections);
+            }
+        }finally
+        {
+            validators.shutdownNow();
+            reader.close();
+            rejections.close();
+        }
+
+        return true;
+    }
+
+    /**
+     *
+     * @return The number of lines in the claims file
+     */
+    public long GetLinesRead()
+    {
+        return this.linesRead;
+    }
+
+    /**
+     *
+     * @return The number of claims written to the disk
+     */
+    public long GetAcceptedCount()
+    {
+        return this.accepted;
+    }
+
+    /**
+     *
+     * @return The number of claims written to the rejection file
+     */
+    public long GetRejectedCount()
+    {
+        return this.rejected;
+    }
+
+    /**
+     * Resets the totals and takes the provider's directory and date for a new import.
+     */
+    private void Prepare()
+    {
+        this.linesRead = 0;
+        this.accepted = 0;
+        this.rejected = 0;
+
+        this.directory = this.provider.GetDirectory();
+
+        this.receivedDateTime = this.provider.GetProviderDateTime();
+    }
+
+    /**
+     * Reads the next CHUNK_SIZE lines of the claims file.
+     *
+     * @param reader
+     * @return The chunk, or null if the end of the file was reached
+     * @throws IOException
+     */
+    private Chunk ReadChunk(BufferedReader reader) throws IOException
+    {
+        Chunk chunk = new Chunk(this.linesRead + 1);
+        String line = null;
+        while (chunk.lines.size() < ClaimImporter.CHUNK_SIZE && (line = reader.readLine()) != null)
+        {
+            chunk.lines.add(line);
+        }
+        this.linesRead += chunk.lines.size();
+
+        return (chunk.lines.isEmpty() ? null : chunk);
+    }
+
+    /**
+     * Checks every claim in chunk, filling in its accepted records and rejection messages.
+     * Runs on the thread pool, so besides the data center's members, which can be looked up from any
+     * thread, it only reads the fields set up by Prepare.
+     *
+     * @param chunk
+     * @return chunk
+     */
+    private Chunk ValidateChunk(Chunk chunk)
+    {
+        for (int i = 0; i < chunk.lines.size(); ++i)
+        {
+            String line = chunk.lines.get(i);
+            long lineNumber = chunk.firstLine + i;
+            if (line.trim().isEmpty() || line.startsWith("#") || (lineNumber == 1 && !Character.isDigit(line.trim().charAt(0))))
+            {
+                continue;
+            }
+
+            String error = this.ValidateClaim(line, chunk.records);
+            if (error != null)
+            {
+                chunk.rejections.add("# Line "+lineNumber+": "+error+"\n"+line);
+            }
+        }
+
+        chunk.lines = null; //Done with the text, let it be collected while the chunk waits to be written
+
+        return chunk;
+    }
+
+    /**
+     * Checks a single claim and, if it's valid, adds its service record to records.
+     *
+     * @param line The claim
+     * @param records Where the record is added
+     * @return null if the claim is valid, otherwise why it was rejected
+     */
+    private String ValidateClaim(final String line, ArrayList<ServiceRecord> records)
+    {
+        String[] fields = line.split(",", 4);
+        if (fields.length < 3)
+        {
+            return "ERROR: Expected member number, service code, service date and comments";
+        }
+
+        int memberNum = 0;
+        int serviceCode = 0;
+        try
+        {
+            memberNum = Integer.parseInt(fields[0].trim());
+            serviceCode = Integer.parseInt(fields[1].trim());
+        }catch(NumberFormatException ex)
+        {
+            return "ERROR: Invalid member number or service code";
+        }
+
+        Member member = this.dataCenter.LookUpMember(memberNum);
+        if (member == null)
+        {
+            return "ERROR: Invalid/nonexistant member number entered!";
+        }
+        if (!member.GetStatus())
+        {
+            return "ERROR: Member "+memberNum+"'s membership is suspended!";
+        }
+        if (this.directory.IndexOf(serviceCode) < 0)
+        {
+            return "ERROR: Invalid/nonexistant service code entered!";
+        }
+
+        LocalDate serviceDate = null;
+        try
+        {
+            serviceDate = LocalDate.parse(fields[2].trim(), this.dateFormat);
+        }catch(DateTimeParseException ex)
+        {
+        }
+        if (serviceDate == null || !Utilities.IsWithinDate(serviceDate, this.receivedDateTime.toLocalDate()))
+        {
+            return "ERROR: Invalid/incorrect service date was entered!";
+        }
+
+        String comments = (fields.length > 3 ? ClaimImporter.Unquote(fields[3].trim()) : "");
+        records.add(new ServiceRecord(this.receivedDateTime, serviceDate, this.provider.GetID(), memberNum, serviceCode,
+                                      Utilities.AdjustStringToLimit(comments, Limits.COMMENT_LENGTH_LIMIT)));
+
+        return null;
+    }
+
+    /**
+     * Waits for a chunk to be checked, then writes its records to the disk and its rejections to the rejection file.
+     *
+     * @param future
+     * @param disk
+     * @param rejections
+     * @throws IOException
+     */
+    private void WriteChunk(Future<Chunk> future, ServiceRecordDisk disk, BufferedWriter rejections) throws IOException
+    {
+        Chunk chunk = null;
+        try
+        {
+            chunk = future.get();
+        }catch(InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("The claim import was interrupted", ex);
+        }catch(ExecutionException ex)
+        {
+            throw new IOException("A chunk of the claims file could not be checked", ex.getCause());
+        }
+
+        disk.WriteToDisk(chunk.records);
+        this.accepted += chunk.records.size();
+
+        Iterator<String> iterator = chunk.rejections.iterator();
+        while (iterator.hasNext())
+        {
+            rejections.write(iterator.next()+"\n");
+        }
+        this.rejected += chunk.rejections.size();
+    }
+
+    /**
+     * Removes the double quotes around a quoted field, turning "" back into ".
+     *
+     * @param field
+     * @return
+     */
+    private static String Unquote(final String field)
+    {
+        if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\""))
+        {
+            return field.substring(1, field.length() - 1).replace("\"\"", "\"");
+        }
+
+        return field;
+    }
+
+    /**
+     * A block of consecutive lines from the claims file, along with the results of checking them.
+     */
+    private static class Chunk
+    {
+        long firstLine = 0; //Line number of the first line
+        ArrayList<String> lines = new ArrayList<String>(ClaimImporter.CHUNK_SIZE);
+        ArrayList<ServiceRecord> records = new ArrayList<ServiceRecord>();
+        ArrayList<String> rejections = new ArrayList<String>();
+
+        Chunk(final long firstLine_)
+        {
+            this.firstLine = firstLine_;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *
+ * @author Enis
+ * This class sits in front of the ServiceRecordDisk and takes in the service records of
+ * validated claims from any number of threads (the provider terminals, the claim server's
+ * sessions, ...). A single background thread drains them in batches and writes them to the disk.
+ *
+ * The queue is a fixed size ring buffer that doesn't use any locks. Each slot has a sequence
+ * number that says whose turn it is to use it:
+ *      sequence == position        the slot is free for the producer claiming position
+ *      sequence == position + 1    the slot holds a record for the consumer to take
+ * Producers claim a position by incrementing tail with a compare and set, fill in the slot and
+ * then publish it by bumping its sequence. The consumer is the only one that moves head, so it
+ * doesn't need a compare and set at all. Once the consumer empties a slot, it sets the sequence
+ * to position + capacity, handing the slot back to the producer that will wrap around to it.
+ *
+ * If the queue is full, Offer fails right away and Submit waits for room, so that a burst of
+ * claims slows the producers down instead of using up the memory. The counters below keep
+ * track of how often that happens, along with how big the batches are, so that the capacity
+ * can be tuned.
+ *
+ * Anything that reads the disk should call Flush first (ChocAnDPS.GetServiceRecordDisk does
+ * this) so that it sees every claim that was submitted before it.
+ *
+ * A producer can find the queue open, and then publish its record after Close has already
+ * flushed it. So after publishing, a producer checks closed again and, if it was set, flushes
+ * the queue itself, writing its record to the disk before Offer returns. Either that check sees
+ * closed, or Close's Flush sees the producer's position in tail and waits for it.
+ */
+public class ClaimIngestQueue
+{
+    /**
+     * Default number of slots in the ring buffer
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Most records the consumer writes to the disk in one batch
+     */
+    public static final int MAX_BATCH_SIZE = 256;
+
+    /**
+     * Where the drained records go
+     */
+    private ServiceRecordDisk disk = null;
+
+    /**
+     * The records waiting to be written, and the sequence number of each slot (see above).
+     * The length is a power of two so that a position's slot is position & mask.
+     */
+    private AtomicReferenceArray<ServiceRecord> slots = null;
+    private AtomicLongArray sequences = null;
+    private int mask = 0;
+
+    /**
+     * Next position a producer will claim
+     */
+    private AtomicLong tail = new AtomicLong();
+
+    /**
+     * Next position the consumer will take. Only written by the consumer.
+     */
+    private volatile long head = 0;
+
+    /**
+     * The thread draining the queue. It parks itself when the queue is empty, after setting
+     * consumerWaiting so that the next producer knows to wake it up.
+     */
+    private Thread consumer = null;
+    private volatile boolean consumerWaiting = false;
+    private volatile boolean closed = false;
+
+    //These are the back-pressure and batching statistics
+    private AtomicLong offered = new AtomicLong(); //Records accepted into the queue
+    private AtomicLong rejected = new AtomicLong(); //Offers that failed because the queue was full
+    private AtomicLong stalls = new AtomicLong(); //Times Submit had to wait for room
+    private volatile long drained = 0; //Records written to the disk. Only written by the consumer.
+    private volatile long batches = 0; //Batches written to the disk. Only written by the consumer.
+    private volatile int maxBatch = 0; //Largest batch written so far. Only written by the consumer.
+    private volatile long highWaterMark = 0; //Most records ever seen waiting in the queue. Only written by the consumer.
+
+    /**
+     * Creates the queue and starts the thread draining it.
+     *
+     * @param disk_ The disk the records are written to
+     * @param capacity The minimum number of slots. Rounded up to the next power of two.
+     */
+    public ClaimIngestQueue(final ServiceRecordDisk disk_, final int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        this.disk = disk_;
+        this.slots = new AtomicReferenceArray<ServiceRecord>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; ++i)
+        {
+            this.sequences.set(i, i);
+        }
+
+        this.consumer = new Thread(() -> this.Drain(), "claim-ingest");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Tries to add record to the queue without waiting.
+     *
+     * @param record
+     * @return True if the record was added, false if the queue is full
+     */
+    public boolean Offer(final ServiceRecord record)
+    {
+        if (this.closed) //Nobody is draining the queue anymore, so write the record ourselves
+        {
+            this.disk.WriteToDisk(record);
+            return true;
+        }
+
+        long position = this.tail.get();
+        while (true)
+        {
+            int slot = (int)position & this.mask;
+            long difference = this.sequences.get(slot) - position;
+            if (difference == 0) //The slot is free, try to claim it
+            {
+                if (this.tail.compareAndSet(position, position + 1))
+                {
+                    this.slots.set(slot, record);
+                    this.sequences.set(slot, position + 1); //Publish the record to the consumer
+                    this.offered.incrementAndGet();
+                    if (this.closed) //Closed meanwhile, Close may already have flushed the queue (see above)
+                    {
+                        this.Flush();
+                    }
+                    else
+                    {
+                        this.WakeConsumer();
+                    }
+                    return true;
+                }
+                position = this.tail.get(); //Another producer got it first
+            }
+            else if (difference < 0) //The slot still holds a record from one lap ago, so the queue is full
+            {
+                this.rejected.incrementAndGet();
+                this.WakeConsumer();
+                return false;
+            }
+            else //Another producer claimed this position already, catch up
+            {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Adds record to the queue, waiting for room if it's full.
+     *
+     * @param record
+     */
+    public void Submit(final ServiceRecord record)
+    {
+        if (this.Offer(record))
+        {
+            return;
+        }
+
+        this.stalls.incrementAndGet();
+        do
+        {
+            LockSupport.parkNanos(10000); //Give the consumer a chance to catch up
+        } while (!this.Offer(record));
+    }
+
+    /**
+     * Waits until every record submitted before this call has been written to the disk.
+     * This is cheap if the queue is already empty.
+     */
+    public void Flush()
+    {
+        if (Thread.currentThread() == this.consumer)
+        {
+            return;
+        }
+
+        long target = this.tail.get();
+        while (this.head < target)
+        {
+            if (this.closed && !this.consumer.isAlive()) //Nobody is draining the queue, so take over as the consumer
+            {
+                synchronized (this)
+                {
+                    this.DrainBatch(new ArrayList<ServiceRecord>());
+                }
+            }
+            else
+            {
+                this.WakeConsumer();
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Writes out whatever is left in the queue and stops the consumer thread.
+     * Records submitted afterwards are written straight to the disk.
+     */
+    public void Close()
+    {
+        this.closed = true;
+        LockSupport.unpark(this.consumer);
+        try
+        {
+            this.consumer.join();
+        }catch(InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+        this.Flush(); //Writes anything a producer added after the consumer stopped
+    }
+
+    /**
+     *
+     * @return The number of records currently waiting to be written
+     */
+    public long GetDepth()
+    {
+        return Math.max(0, this.tail.get() - this.head);
+    }
+
+    public int GetCapacity()
+    {
+        return this.mask + 1;
+    }
+
+    public long GetOfferedCount()
+    {
+        return this.offered.get();
+    }
+
+    public long GetRejectedCount()
+    {
+        return this.rejected.get();
+    }
+
+    public long GetStallCount()
+    {
+        return this.stalls.get();
+    }
+
+    public long GetDrainedCount()
+    {
+        return this.drained;
+    }
+
+    public long GetBatchCount()
+    {
+        return this.batches;
+    }
+
+    public int GetMaxBatchSize()
+    {
+        return this.maxBatch;
+    }
+
+    public long GetHighWaterMark()
+    {
+        return this.highWaterMark;
+    }
+
+    /**
+     * Wakes up the consumer if it's waiting for records.
+     */
+    private void WakeConsumer()
+    {
+        if (this.consumerWaiting)
+        {
+            LockSupport.unpark(this.consumer);
+        }
+    }
+
+    /**
+     * The consumer thread's loop. Writes batches to the disk until the queue is closed,
+     * parking when there is nothing to do.
+     */
+    private void Drain()
+    {
+        ArrayList<ServiceRecord> batch = new ArrayList<ServiceRecord>(ClaimIngestQueue.MAX_BATCH_SIZE);
+        while (true)
+        {
+            if (this.DrainBatch(batch) > 0)
+            {
+                continue;
+            }
+
+            if (this.closed)
+            {
+                return;
+            }
+
+            this.consumerWaiting = true;
+            long position = this.head;
+            if (this.sequences.get((int)position & this.mask) != position + 1 && !this.closed) //Check again so a wakeup isn't missed
+            {
+                LockSupport.park(this);
+            }
+            this.consumerWaiting = false;
+        }
+    }
+
+    /**
+     * Takes up to MAX_BATCH_SIZE published records off the queue and writes them to the disk.
+     * Only the consumer may call this.
+     *
+     * @param batch An empty list to collect the records in
+     * @return The number of records written
+     */
+    private int DrainBatch(ArrayList<ServiceRecord> batch)
+    {
+        long start = this.head;
+        long position = start;
+        long depth = this.tail.get() - position;
+        if (depth > this.highWaterMark)
+        {
+            this.highWaterMark = depth;
+        }
+
+        while (batch.size() < ClaimIngestQueue.MAX_BATCH_SIZE)
+        {
+            int slot = (int)position & this.mask;
+            if (this.sequences.get(slot) != position + 1) //Not published yet
+            {
+                break;
+            }
+            batch.add(this.slots.get(slot));
+            this.slots.set(slot, null);
+            ++position;
+        }
+
+        int size = batch.size();
+        if (size == 0)
+        {
+            return 0;
+        }
+
+        this.disk.WriteToDisk(batch);
+
+        //Only hand the slots back once the records are on the disk, so that Flush can go by head
+        for (long p = start; p < position; ++p)
+        {
+            this.sequences.set((int)p & this.mask, p + this.mask + 1);
+        }
+        this.head = position;
+        this.drained += size;
+        this.batches++;
+        if (size > this.maxBatch)
+        {
+            this.maxBatch = size;
+        }
+        batch.clear();
+
+        return size;
+    }
+
+    /**
+     * Summary of the statistics, one per line
+     *
+     * @return
+     */
+    public String toString()
+    {
+        return "Claim ingest queue capacity: "+this.GetCapacity()+"\n"+
+               "Records currently queued: "+this.GetDepth()+"\n"+
+               "Most records ever queued: "+this.highWaterMark+"\n"+
+               "Records accepted: "+this.offered.get()+"\n"+
+               "Records written to disk: "+this.drained+"\n"+
+               "Batches written to disk: "+this.batches+"\n"+
+               "Largest batch: "+this.maxBatch+"\n"+
+               "Offers rejected (queue full): "+this.rejected.get()+"\n"+
+               "Submits that had to wait: "+this.stalls.get()+"\n";
+    }
+}
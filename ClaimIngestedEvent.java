@@ -0,0 +1,33 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *
+ * @author Enis
+ * Java Flight Recorder event for a service record being written to the ServiceRecordDisk.
+ * Its duration is how long the write took. See ServiceRecordDisk.WriteToDisk.
+ *
+ * Like the other ChocAn events, it can be recorded with e.g.
+ *      java -XX:StartFlightRecording=filename=chocan.jfr Main
+ * and costs next to nothing when no recording is running.
+ */
+@Name("chocan.ClaimIngested")
+@Label("Claim Ingested")
+@Category({"ChocAn", "Claims"})
+@Description("A service record was written to the disk")
+@StackTrace(false)
+public class ClaimIngestedEvent extends Event
+{
+    @Label("Provider Number")
+    public int providerNumber;
+
+    @Label("Member Number")
+    public int memberNumber;
+
+    @Label("Service Code")
+    public int serviceCode;
+}
@@ -0,0 +1,266 @@
+import java.time.LocalDate;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ * @author Enis
+ * This class carries out the provider terminal operations (serve member, write service
+ * record, request provider directory) without any user interaction. Every argument that
+ * ProviderTerminal would prompt for is passed in directly, and the outcome is returned
+ * as a ClaimResult instead of being printed.
+ *
+ * It is what the claim server uses to process requests coming in from remote provider
+ * terminals, so the validation rules here must match the ones in ProviderTerminal:
+ *      1) The provider and member numbers must exist
+ *      2) The member must not be suspended (serve member only)
+ *      3) The service code must be in the provider's directory
+ *      4) The service date must not be later than the provider's date (write record only)
+ *
+ * Since several provider terminals may submit claims at the same time, every claim is
+ * validated and its record made while holding the provider's and the member's locks (see
+ * ChocAnDPS.GetProviderLock and GetMemberLock), so that e.g. a member can't be suspended halfway
+ * through a claim. Claims for different providers and members run in parallel. The provider
+ * lock is always taken before the member lock to avoid deadlocks. The record is only queued for
+ * the disk (see ChocAnDPS.SubmitClaim) once the locks are released, since that waits when the
+ * queue is full, and nobody else should have to wait for the locks meanwhile.
+ *
+ * The time each claim takes (including waiting for the locks) and how many are accepted
+ * and rejected are recorded in the Metrics registry.
+ */
+public class ClaimProcessor
+{
+    //Metrics, see Metrics.java
+    private static final LatencyHistogram SERVE_TIME = Metrics.Histogram("claim.serve");
+    private static final LatencyHistogram WRITE_TIME = Metrics.Histogram("claim.write");
+    private static final LatencyHistogram VALIDATE_TIME = Metrics.Histogram("claim.validate");
+    private static final LongAdder ACCEPTED = Metrics.Counter("claims.accepted");
+    private static final LongAdder REJECTED = Metrics.Counter("claims.rejected");
+
+    /**
+     * The data center that the claims are written to.
+     */
+    private ChocAnDPS dataCenter = null;
+
+    public ClaimProcessor(final ChocAnDPS dataCenter_)
+    {
+        this.dataCenter = dataCenter_;
+    }
+
+    /**
+     * Non-interactive version of ProviderTerminal.ServeMember. The record is written
+     * using the provider's date and time, and the data center's date as the service date.
+     *
+     * @param providerNum The provider serving the member
+     * @param memberNum The member being served
+     * @param serviceCode The service provided to the member
+     * @param comments Comments on the service, truncated to the comment limit
+     * @return The result of the claim. On success the fee to be billed is in result.service.
+     */
+    public ClaimResult ServeMember(final int providerNum, final int memberNum, final int serviceCode, final String comments)
+    {
+        long start = System.nanoTime();
+        ClaimResult result = this.Serve(providerNum, memberNum, serviceCode, comments);
+        ClaimProcessor.SERVE_TIME.RecordSince(start);
+        
+        return ClaimProcessor.Count(result);
+    }
+
+    /**
+     * Non-interactive version of ProviderTerminal.WriteNewServiceRecord, used when the service
+     * was provided during a hardware failure and is being written afterwards.
+     *
+     * @param providerNum The provider who provided the service
+     * @param memberNum The member who was served
+     * @param serviceCode The service that was provided
+     * @param serviceDate The date the service was provided
+     * @param comments Comments on the service, truncated to the comment limit
+     * @return The result of the claim
+     */
+    public ClaimResult WriteServiceRecord(final int providerNum, final int memberNum, final int serviceCode, final LocalDate serviceDate, final String comments)
+    {
+        long start = System.nanoTime();
+        ClaimResult result = this.Write(providerNum, memberNum, serviceCode, serviceDate, comments);
+        ClaimProcessor.WRITE_TIME.RecordSince(start);
+        
+        return ClaimProcessor.Count(result);
+    }
+
+    /**
+     * Does the work of ServeMember
+     *
+     * @param providerNum
+     * @param memberNum
+     * @param serviceCode
+     * @param comments
+     * @return
+     */
+    private ClaimResult Serve(final int providerNum, final int memberNum, final int serviceCode, final String comments)
+    {
+        ClaimResult result = new ClaimResult();
+        ServiceRecord record = null;
+        ReentrantLock providerLock = this.dataCenter.GetProviderLock(providerNum);
+        ReentrantLock memberLock = this.dataCenter.GetMemberLock(memberNum);
+
+        providerLock.lock();
+        memberLock.lock();
+        try
+        {
+            if (!this.ValidateClaim(result, providerNum, memberNum, serviceCode))
+            {
+                return result;
+            }
+
+            if (!result.member.GetStatus()) //Check if member is suspended before proceeding
+            {
+                return result.Reject("ERROR: Member "+memberNum+"'s membership is suspended!");
+            }
+
+            record = new ServiceRecord(result.provider.GetProviderDateTime(), this.dataCenter.GetGlobalDate().toLocalDate(),
+                                       providerNum, memberNum, serviceCode, Utilities.AdjustStringToLimit(comments, Limits.COMMENT_LENGTH_LIMIT));
+        }finally
+        {
+            memberLock.unlock();
+            providerLock.unlock();
+        }
+
+        this.dataCenter.SubmitClaim(record); //Outside the locks, see above
+        return result.Accept(result.member.GetName()+" has successfully been provided the service of \""+result.service.GetName()+"\"!");
+    }
+
+    /**
+     * Does the work of WriteServiceRecord
+     *
+     * @param providerNum
+     * @param memberNum
+     * @param serviceCode
+     * @param serviceDate
+     * @param comments
+     * @return
+     */
+    private ClaimResult Write(final int providerNum, final int memberNum, final int serviceCode, final LocalDate serviceDate, final String comments)
+    {
+        ClaimResult result = new ClaimResult();
+        ServiceRecord record = null;
+        ReentrantLock providerLock = this.dataCenter.GetProviderLock(providerNum);
+        ReentrantLock memberLock = this.dataCenter.GetMemberLock(memberNum);
+
+        providerLock.lock();
+        memberLock.lock();
+        try
+        {
+            if (!this.ValidateClaim(result, providerNum, memberNum, serviceCode))
+            {
+                return result;
+            }
+
+            if (serviceDate == null || !Utilities.IsWithinDate(serviceDate, result.provider.GetProviderDateTime().toLocalDate())) //A date greater than the provider date was entered
+            {
+                return result.Reject("ERROR: Invalid/incorrect service date was entered!");
+            }
+
+            record = new ServiceRecord(result.provider.GetProviderDateTime(), serviceDate,
+                                       providerNum, memberNum, serviceCode, Utilities.AdjustStringToLimit(comments, Limits.COMMENT_LENGTH_LIMIT));
+        }finally
+        {
+            memberLock.unlock();
+            providerLock.unlock();
+        }
+
+        this.dataCenter.SubmitClaim(record); //Outside the locks, see above
+        return result.Accept("The service record was successfully added to the disk!");
+    }
+
+    /**
+     * Non-interactive version of ProviderTerminal.RequestProviderDirectory. Instead of writing
+     * the directory to a file, the services are returned in alphabetical order.
+     *
+     * @param providerNum The provider whose directory is requested
+     * @return The provider's services in alphabetical order, or null if the provider doesn't exist
+     */
+    public TreeSet<Service> RequestProviderDirectory(final int providerNum)
+    {
+        TreeSet<Service> servAlphabetical = new TreeSet<Service>(new ServiceAlphabetical());
+        ReentrantLock providerLock = this.dataCenter.GetProviderLock(providerNum);
+
+        providerLock.lock();
+        try
+        {
+            Provider provider = this.dataCenter.LookUpProvider(providerNum);
+            if (provider == null)
+            {
+                return null;
+            }
+
+            provider.ExtractServicesInAlphabeticalOrder(servAlphabetical);
+        }finally
+        {
+            providerLock.unlock();
+        }
+
+        return servAlphabetical;
+    }
+
+    /**
+     * Checks the provider number, member number and service code shared by both types of claims,
+     * filling in the corresponding fields of result as it goes.
+     *
+     * @param result Where the looked up provider, member and service are stored
+     * @param providerNum
+     * @param memberNum
+     * @param serviceCode
+     * @return True if all three are valid, false otherwise (result holds the error message)
+     */
+    private boolean ValidateClaim(ClaimResult result, final int providerNum, final int memberNum, final int serviceCode)
+    {
+        long start = System.nanoTime();
+        boolean valid = this.ValidateClaimFields(result, providerNum, memberNum, serviceCode);
+        ClaimProcessor.VALIDATE_TIME.RecordSince(start);
+        
+        return valid;
+    }
+
+    /**
+     * Does the work of ValidateClaim
+     *
+     * @param result
+     * @param providerNum
+     * @param memberNum
+     * @param serviceCode
+     * @return
+     */
+    private boolean ValidateClaimFields(ClaimResult result, final int providerNum, final int memberNum, final int serviceCode)
+    {
+        if ((result.provider = this.dataCenter.LookUpProvider(providerNum)) == null)
+        {
+            result.Reject("ERROR: Invalid/nonexistant provider number entered!");
+        }
+        else if ((result.member = this.dataCenter.LookUpMember(memberNum)) == null)
+        {
+            result.Reject("ERROR: Invalid/nonexistant member number entered!");
+        }
+        else if ((result.service = result.provider.LookUpService(serviceCode)) == null)
+        {
+            result.Reject("ERROR: Invalid/nonexistant service code entered!");
+        }
+        else
+        {
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Counts result as an accepted or a rejected claim
+     *
+     * @param result
+     * @return result
+     */
+    private static ClaimResult Count(final ClaimResult result)
+    {
+        (result.accepted ? ClaimProcessor.ACCEPTED : ClaimProcessor.REJECTED).increment();
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+import java.math.BigDecimal;
+
+/**
+ *
+ * @author Enis
+ * This class stores the message format spoken between remote provider terminals
+ * (ClaimClient) and the data center's claim server (ClaimServer).
+ *
+ * Every request and response is a single line of ASCII text whose fields are separated
+ * by FIELD_SEPARATOR. The requests are:
+ *      SERVE       provider number, member number, service code, comments
+ *      WRITE       provider number, member number, service code, service date (MM-DD-YYYY), comments
+ *      DIRECTORY   provider number
+ *      QUIT
+ *
+ * and the responses are:
+ *      OK      followed by the fields of the reply
+ *      ERROR   followed by the error message
+ *
+ * A successful DIRECTORY reply is "OK" followed by the number of services, after which each
+ * service is sent on its own line as service code, service name and service fee.
+ *
+ * Since comments can span multiple lines, any new lines (\n or \r, as readLine ends a line at
+ * either), tabs and backslashes in a field are escaped before being sent (see Escape and Unescape).
+ */
+public class ClaimProtocol
+{
+    /**
+     * Port the claim server listens on if none is given.
+     */
+    public static final int DEFAULT_PORT = 7300;
+
+    /**
+     * Separates the fields of a message
+     */
+    public static final String FIELD_SEPARATOR = "\t";
+
+    //These are the request types
+    public static final String SERVE = "SERVE";
+    public static final String WRITE = "WRITE";
+    public static final String DIRECTORY = "DIRECTORY";
+    public static final String QUIT = "QUIT";
+
+    //These are the response types
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR";
+
+    /**
+     * Builds a message out of fields, escaping each field and separating them with FIELD_SEPARATOR.
+     *
+     * @param fields The fields of the message. The first one should be the request or response type.
+     * @return The message, without the trailing new line
+     */
+    public static String Encode(final Object... fields)
+    {
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < fields.length; ++i)
+        {
+            if (i > 0)
+            {
+                message.append(ClaimProtocol.FIELD_SEPARATOR);
+            }
+            message.append(ClaimProtocol.Escape(String.valueOf(fields[i])));
+        }
+
+        return message.toString();
+    }
+
+    /**
+     * Splits a message back into its (unescaped) fields.
+     *
+     * @param message The message, without the trailing new line
+     * @return The fields of the message
+     */
+    public static String[] Decode(final String message)
+    {
+        String[] fields = message.split(ClaimProtocol.FIELD_SEPARATOR, -1);
+        for (int i = 0; i < fields.length; ++i)
+        {
+            fields[i] = ClaimProtocol.Unescape(fields[i]);
+        }
+
+        return fields;
+    }
+
+    /**
+     * Builds the line describing a single service in a DIRECTORY reply.
+     *
+     * @param service
+     * @return
+     */
+    public static String EncodeService(final Service service)
+    {
+        return ClaimProtocol.Encode(service.GetID(), service.GetName(), service.GetFee().toPlainString());
+    }
+
+    /**
+     * Inverse of EncodeService.
+     *
+     * @param line
+     * @return
+     */
+    public static Service DecodeService(final String line)
+    {
+        String[] fields = ClaimProtocol.Decode(line);
+        return new Service(Integer.parseInt(fields[0]), fields[1], new BigDecimal(fields[2]));
+    }
+
+    /**
+     * Escapes the backslashes, tabs, new lines and carriage returns in field so that it can be sent as a single field.
+     *
+     * @param field
+     * @return
+     */
+    private static String Escape(final String field)
+    {
+        return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    /**
+     * Inverse of Escape.
+     *
+     * @param field
+     * @return
+     */
+    private static String Unescape(final String field)
+    {
+        if (field.indexOf('\\') < 0) //Nothing was escaped, which is the common case
+        {
+            return field;
+        }
+
+        StringBuilder unescaped = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); ++i)
+        {
+            char c = field.charAt(i);
+            if (c == '\\' && i+1 < field.length())
+            {
+                c = field.charAt(++i);
+                c = (c == 'n' ? '\n' : (c == 'r' ? '\r' : (c == 't' ? '\t' : c)));
+            }
+            unescaped.append(c);
+        }
+
+        return unescaped.toString();
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ *
+ * @author Enis
+ * This class serves the purpose of a C-struct, in the same spirit as ReportParameters.
+ * It lumps together the outcome of a claim processed by ClaimProcessor so that
+ * the caller (e.g. the claim server) can build its response without having to
+ * look up the member, provider or service a second time.
+ *
+ * If accepted is false, message holds the error message explaining why the claim
+ * was rejected and the remaining fields may be null.
+ */
+public class ClaimResult
+{
+    public boolean accepted = false;
+    public String message = "";
+    public Provider provider = null;
+    public Member member = null;
+    public Service service = null;
+
+    ClaimResult()
+    {
+    }
+
+    /**
+     * Marks the result as rejected with the given error message.
+     *
+     * @param message_ The reason the claim was rejected
+     * @return this, to allow "return result.Reject(...)"
+     */
+    ClaimResult Reject(final String message_)
+    {
+        this.accepted = false;
+        this.message = message_;
+
+        return this;
+    }
+
+    /**
+     * Marks the result as accepted with the given message.
+     *
+     * @param message_ The success message
+     * @return this, to allow "return result.Accept(...)"
+     */
+    ClaimResult Accept(final String message_)
+    {
+        this.accepted = true;
+        this.message = message_;
+
+        return this;
+    }
+}
@@ -0,0 +1,327 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Enis
+ * This is the data center's claim submission server. It lets remote provider terminals
+ * (see ClaimClient) serve members, write service records and request their provider
+ * directories over a socket, instead of through the Scanner-driven ProviderTerminal.
+ *
+ * The server listens on the loopback address only. Every connection is handled on its
+ * own thread so that many provider terminals can submit claims at the same time. When
+ * the JVM supports them, these are virtual threads, so that hundreds of idle terminals
+ * don't each tie up a platform thread. Otherwise a cached thread pool is used.
+ *
+ * Stopping the server closes the socket of every open connection, since a thread blocked reading
+ * one doesn't notice being interrupted, and then waits for the handlers to finish. So once Stop
+ * returns, every claim a terminal was told was written has been handed to the data center, and
+ * it can be saved.
+ *
+ * See ClaimProtocol for the format of the messages.
+ */
+public class ClaimServer
+{
+    /**
+     * How long Stop waits for the connection handlers to finish
+     */
+    public static final long STOP_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Carries out the requests. Shared by every connection.
+     */
+    private ClaimProcessor processor = null;
+
+    /**
+     * Port the server listens on. 0 means any free port.
+     */
+    private int port = 0;
+
+    private ServerSocket serverSocket = null;
+
+    /**
+     * Runs the accept loop and the connection handlers.
+     */
+    private ExecutorService sessions = null;
+
+    /**
+     * The sockets of the open connections, so that Stop can close them
+     */
+    private Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopped = false;
+
+    public ClaimServer(final ChocAnDPS dataCenter_, final int port_)
+    {
+        this.processor = new ClaimProcessor(dataCenter_);
+        this.port = port_;
+    }
+
+    /**
+     * Binds the server to the loopback address and starts accepting connections
+     * in the background.
+     *
+     * @throws IOException If the port cannot be bound
+     */
+    public void Start() throws IOException
+    {
+        this.serverSocket = new ServerSocket(this.port, 0, InetAddress.getLoopbackAddress());
+        this.sessions = ClaimServer.NewSessionExecutor();
+        this.sessions.execute(() -> this.AcceptConnections());
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and waits (at most STOP_TIMEOUT_SECONDS)
+     * for the requests they were carrying out to finish.
+     *
+     * @throws IOException
+     */
+    public void Stop() throws IOException
+    {
+        this.stopped = true;
+        this.serverSocket.close(); //This makes accept() throw, ending the accept loop
+        this.sessions.shutdown();
+
+        Iterator<Socket> iterator = this.connections.iterator();
+        while (iterator.hasNext())
+        {
+            ClaimServer.CloseQuietly(iterator.next()); //Makes a blocked readLine() throw
+        }
+
+        try
+        {
+            if (!this.sessions.awaitTermination(ClaimServer.STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            {
+                System.out.println("ERROR! Some provider terminal connections didn't close in time.");
+                this.sessions.shutdownNow();
+            }
+        }catch(InterruptedException ex)
+        {
+            this.sessions.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     *
+     * @return The port the server is listening on
+     */
+    public int GetPort()
+    {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server socket is closed, handing
+     * each one off to its own thread.
+     */
+    private void AcceptConnections()
+    {
+        try
+        {
+            while (true)
+            {
+                Socket socket = this.serverSocket.accept();
+                this.connections.add(socket);
+                if (this.stopped) //Stop() may have closed the connections before this one was added
+                {
+                    this.connections.remove(socket);
+                    ClaimServer.CloseQuietly(socket);
+                    break;
+                }
+
+                try
+                {
+                    this.sessions.execute(() -> this.ServeConnection(socket));
+                }catch(RejectedExecutionException ex) //Stopping
+                {
+                    this.connections.remove(socket);
+                    ClaimServer.CloseQuietly(socket);
+                }
+            }
+        }catch(IOException ex) //Server socket was closed by Stop()
+        {
+        }
+    }
+
+    /**
+     * Reads requests from a provider terminal and answers them one at a time,
+     * until the terminal sends QUIT or closes the connection.
+     *
+     * @param socket The connection to the provider terminal
+     */
+    private void ServeConnection(Socket socket)
+    {
+        try (Socket s = socket)
+        {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), FileUtilities.FILE_DECODING));
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), FileUtilities.FILE_DECODING));
+
+            String line = null;
+            while ((line = reader.readLine()) != null && !line.equals(ClaimProtocol.QUIT))
+            {
+                writer.write(this.HandleRequest(ClaimProtocol.Decode(line)));
+                writer.flush();
+            }
+        }catch(SocketException ex) //Terminal disconnected, or the server is stopping
+        {
+        }catch(IOException ex)
+        {
+            System.out.println("ERROR! Lost connection to a provider terminal: "+ex.getMessage());
+        }finally
+        {
+            this.connections.remove(socket);
+        }
+    }
+
+    /**
+     * Carries out a single request and returns the response (including its trailing new line).
+     *
+     * @param request The decoded fields of the request
+     * @return The response to send back to the terminal
+     */
+    private String HandleRequest(final String[] request)
+    {
+        try
+        {
+            switch (request[0])
+            {
+            case ClaimProtocol.SERVE:
+                return this.ServeMember(request);
+            case ClaimProtocol.WRITE:
+                return this.WriteServiceRecord(request);
+            case ClaimProtocol.DIRECTORY:
+                return this.RequestProviderDirectory(request);
+            default:
+                return ClaimProtocol.Encode(ClaimProtocol.ERROR, "ERROR: Unknown request "+request[0]+"!")+"\n";
+            }
+        }catch(NumberFormatException | ArrayIndexOutOfBoundsException ex)
+        {
+            return ClaimProtocol.Encode(ClaimProtocol.ERROR, "ERROR: Invalidly formatted "+request[0]+" request!")+"\n";
+        }
+    }
+
+    /**
+     * SERVE provider member service comments
+     *
+     * Replies with OK, the member name, the service name and the fee to be billed.
+     *
+     * @param request
+     * @return
+     */
+    private String ServeMember(final String[] request)
+    {
+        ClaimResult result = this.processor.ServeMember(Integer.parseInt(request[1]), Integer.parseInt(request[2]), Integer.parseInt(request[3]), request[4]);
+        if (!result.accepted)
+        {
+            return ClaimProtocol.Encode(ClaimProtocol.ERROR, result.message)+"\n";
+        }
+
+        BigDecimal fee = result.service.GetFee();
+        return ClaimProtocol.Encode(ClaimProtocol.OK, result.member.GetName(), result.service.GetName(), fee.toPlainString())+"\n";
+    }
+
+    /**
+     * WRITE provider member service date comments
+     *
+     * Replies with OK and the success message.
+     *
+     * @param request
+     * @return
+     */
+    private String WriteServiceRecord(final String[] request)
+    {
+        LocalDate serviceDate = null;
+        try
+        {
+            serviceDate = LocalDate.parse(request[4], DateTimeFormatter.ofPattern(Format.DATE));
+        }catch(DateTimeParseException ex) //ClaimProcessor rejects the null date
+        {
+        }
+
+        ClaimResult result = this.processor.WriteServiceRecord(Integer.parseInt(request[1]), Integer.parseInt(request[2]), Integer.parseInt(request[3]), serviceDate, request[5]);
+        return ClaimProtocol.Encode((result.accepted ? ClaimProtocol.OK : ClaimProtocol.ERROR), result.message)+"\n";
+    }
+
+    /**
+     * DIRECTORY provider
+     *
+     * Replies with OK and the number of services, followed by one line per service
+     * in alphabetical order.
+     *
+     * @param request
+     * @return
+     */
+    private String RequestProviderDirectory(final String[] request)
+    {
+        TreeSet<Service> services = this.processor.RequestProviderDirectory(Integer.parseInt(request[1]));
+        if (services == null)
+        {
+            return ClaimProtocol.Encode(ClaimProtocol.ERROR, "ERROR: Invalid/nonexistant provider number entered!")+"\n";
+        }
+
+        StringBuilder response = new StringBuilder(ClaimProtocol.Encode(ClaimProtocol.OK, services.size())).append("\n");
+        Iterator<Service> iterator = services.iterator();
+        while (iterator.hasNext())
+        {
+            response.append(ClaimProtocol.EncodeService(iterator.next())).append("\n");
+        }
+
+        return response.toString();
+    }
+
+    /**
+     * Closes the socket, ignoring any error, as it's being dropped anyway
+     *
+     * @param socket
+     */
+    private static void CloseQuietly(Socket socket)
+    {
+        try
+        {
+            socket.close();
+        }catch(IOException ex)
+        {
+        }
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread per task if the JVM has them
+     * (Java 21 and later). Otherwise it falls back to a cached pool of platform threads.
+     * Reflection is used so that the project still compiles on older JDKs.
+     *
+     * @return
+     */
+    private static ExecutorService NewSessionExecutor()
+    {
+        try
+        {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }catch(ReflectiveOperationException ex) //No virtual threads on this JVM
+        {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "claim-session");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+
+/**
+ *
+ * @author Enis
+ * This class writes the data center's members, providers and service records on disk
+ * to the corresponding files in the "Output" directory. It is shared by the DisplayTerminal
+ * and the ScriptRunner, so that an interactive export and a scripted one give the same files.
+ */
+public class DataExporter
+{
+    private ChocAnDPS dataCenter = null;
+
+    public DataExporter(final ChocAnDPS dataCenter_)
+    {
+        this.dataCenter = dataCenter_;
+
+        FileUtilities.CreateDirectory(FileUtilities.FILE_LOC+"/"+FileUtilities.OUTPUT_LOC);
+    }
+
+    /**
+     * This function outputs all of ChocAn's current members to the corresponding file in the output directory
+     *
+     * @return The number of members written
+     * @throws IOException
+     */
+    public int ExportMembers() throws IOException
+    {
+        BufferedWriter writer = FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.OUTPUT_LOC+"/"+FileUtilities.MEMBER_OUTPUT_LOC);
+        int size = this.dataCenter.GetMemberDatabase().size();
+        writer.write("Below you will find the most updated list of ChocAn's members.\n");
+        writer.write("There are currently "+size+".\n\n");
+        Iterator<Member> iterator = this.dataCenter.GetMemberDatabase().iterator();
+
+        while (iterator.hasNext())
+        {
+            this.WriteMemberTo(writer, iterator.next());
+        }
+
+        writer.close();
+
+        return size;
+    }
+
+    /**
+     * This function outputs all of ChocAn's current providers to the corresponding file in the output directory
+     *
+     * @return The number of providers written
+     * @throws IOException
+     */
+    public int ExportProviders() throws IOException
+    {
+        BufferedWriter writer = FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.OUTPUT_LOC+"/"+FileUtilities.PROVIDER_OUTPUT_LOC);
+        int size = this.dataCenter.GetProviderDatabase().size();
+        writer.write("Below you will find the most updated list of ChocAn's providers.\n");
+        writer.write("There are currently "+size+".\n\n");
+
+        Iterator<Provider> iterator = this.dataCenter.GetProviderDatabase().iterator();
+
+        while (iterator.hasNext())
+        {
+            this.WriteProviderTo(writer, iterator.next());
+        }
+
+        writer.close();
+
+        return size;
+    }
+
+    /**
+     * This function outputs all of ChocAn's current service records on disk to the corresponding
+     * file in the output directory.
+     *
+     * @return The number of service records written
+     * @throws IOException
+     */
+    public int ExportServiceRecords() throws IOException
+    {
+        BufferedWriter writer = FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.OUTPUT_LOC+"/"+FileUtilities.SERVICE_RECORDS_OUTPUT_LOC);
+        ServiceRecordDisk disk = this.dataCenter.GetServiceRecordDisk();
+        int size = disk.GetRecords().size();
+        writer.write("Below you will find the current service records in ChocAn's disk.\n");
+        writer.write("There are currently "+size+" records on file.\n\n");
+        Iterator<ServiceRecord> iterator = disk.GetRecords().iterator();
+
+        while (iterator.hasNext())
+        {
+            this.WriteServiceRecordTo(writer, iterator.next());
+        }
+
+        writer.close();
+
+        return size;
+    }
+
+    /**
+     * This function writes the data center's current metrics (see Metrics) to the corresponding
+     * file in the output directory.
+     *
+     * @return The metrics that were written
+     * @throws IOException
+     */
+    public String ExportMetrics() throws IOException
+    {
+        String metrics = Metrics.Dump();
+        BufferedWriter writer = FileUtilities.OpenWriter(FileUtilities.FILE_LOC+"/"+FileUtilities.OUTPUT_LOC+"/"+FileUtilities.METRICS_OUTPUT_LOC);
+        writer.write("Below you will find the data center's metrics as of "+this.dataCenter.GetGlobalDate().format(DateTimeFormatter.ofPattern(Format.DATE+" "+Format.TIME))+".\n\n");
+        writer.write(metrics);
+        writer.close();
+
+        return metrics;
+    }
+
+    /**
+     * This function takes a member, and writes his or her information and status to the open file.
+     *
+     * @param writer open file
+     * @param member member to be written
+     * @throws IOException
+     */
+    private void WriteMemberTo(BufferedWriter writer, Member member) throws IOException
+    {
+        ReportGenerator.WriteInfo(writer, member, "Member");
+        writer.write("Member status: "+(member.GetStatus() ? "Valid" : "Suspended")+"\n\n");
+    }
+
+    /**
+     * This function takes a provider, writes its information to the file, and also
+     * its services. Note the "*******" components are used to separate providers from
+     * one another and to delineate when services, instead of providers, are being written.
+     *
+     * @param writer open file
+     * @param provider provider to be written
+     * @throws IOException
+     */
+    private void WriteProviderTo(BufferedWriter writer, Provider provider) throws IOException
+    {
+        writer.write("**********Provider Information**********\n\n");
+        ReportGenerator.WriteInfo(writer, provider, "provider");
+
+        writer.write("\n**********Services offered by this provider**********\n\n:");
+        Iterator<Service> iterator = provider.GetProviderDirectory().iterator();
+
+        while (iterator.hasNext())
+        {
+            this.WriteServiceTo(writer, iterator.next());
+        }
+        writer.write("**********End Provider Information**********\n\n\n\n");
+    }
+
+    /**
+     * This function writes a service to the file opened by writer
+     *
+     * @param writer open file
+     * @param service provider to be written
+     * @throws IOException
+     */
+    private void WriteServiceTo(BufferedWriter writer, Service service) throws IOException
+    {
+        writer.write("Service name: "+(service.GetName())+"\n");
+        writer.write("Service code: "+(service.GetID())+"\n");
+        writer.write("Service fee: "+(Format.USD_COST_FORMAT.format(service.GetFee().doubleValue()))+"\n\n");
+    }
+
+    /**
+     * This function writes a service record to an open file.
+     *
+     * @param writer open file
+     * @param record service record to be written
+     * @throws IOException
+     */
+    private void WriteServiceRecordTo(BufferedWriter writer, ServiceRecord record) throws IOException
+    {
+        writer.write("Date and time record was written: "+(record.GetCurrentDateTime().format(DateTimeFormatter.ofPattern(Format.DATE+" "+Format.TIME)))+"\n");
+        writer.write("Date of service: "+(record.GetServiceDate().format(DateTimeFormatter.ofPattern(Format.DATE)))+"\n");
+        writer.write("Provider number: "+(record.GetProviderNumber())+"\n");
+        writer.write("Member number: "+(record.GetMemberNumber())+"\n");
+        writer.write("Service code: "+(record.GetServiceCode())+"\n");
+        writer.write("Comments:\n");
+        writer.write(record.GetComments()+"\n\n\n");
+    }
+}
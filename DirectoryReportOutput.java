@@ -0,0 +1,29 @@
+import java.io.IOException;
+
+/**
+ *
+ * @author Enis
+ * Writes each weekly report to its own file, Main.txt in the week's directory under the
+ * member's or provider's directory. This is how the reports were always written.
+ */
+public class DirectoryReportOutput implements ReportOutput
+{
+    public ReportWriter OpenReport(final String entityLoc, final int id, final String weekName) throws IOException
+    {
+        String reportDir = FileUtilities.FILE_LOC+"/"+entityLoc+"/"+id+"/"+weekName;
+        FileUtilities.CreateDirectory(reportDir);
+
+        return FileUtilities.OpenReportWriter(reportDir+"/"+FileUtilities.WEEKLY_REPORT_LOC);
+    }
+
+    public void Close()
+    {
+    }
+
+    /**
+     * Nothing to do, each report was closed already. Any written so far are replaced by the next attempt.
+     */
+    public void Abort()
+    {
+    }
+}
@@ -0,0 +1,285 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ *
+ * @author Enis
+ * This writes the week's electronic funds transfers as a fixed-width file for the bank transfer
+ * step, next to the EFT report (EFT.dat in the week's EFT directory). The EFT report is meant to
+ * be read by people; this file is meant to be read by a program, which can take every field by
+ * its position without parsing anything.
+ *
+ * Every record is RECORD_LENGTH bytes of ASCII, including the line feed that ends it. Numbers
+ * are right-justified and padded with zeros, text is left-justified and padded with spaces, and
+ * amounts are in cents. Positions start at 1.
+ *
+ *      Header, the first record
+ *          1       H
+ *          2-9     First day of the week (YYYYMMDD)
+ *          10-17   Last day of the week (YYYYMMDD)
+ *          18-31   When the week was closed (YYYYMMDDHHMMSS)
+ *          32-79   Spaces
+ *
+ *      Detail, one per provider to be paid
+ *          1       D
+ *          2-10    Provider number
+ *          11-35   Provider name, cut off after 25 characters
+ *          36-46   Amount to be transferred, in cents
+ *          47-79   Spaces
+ *
+ *      Trailer, the last record
+ *          1       T
+ *          2-10    Number of detail records
+ *          11-25   Sum of the amounts, in cents
+ *          26-40   Sum of the provider numbers (modulo 10^15), to check that none were changed
+ *          41-79   Spaces
+ *
+ * The records are put into a single buffer, which is written to the file whenever it's full and
+ * when the file is closed. The file is only complete once the trailer is written, by Close.
+ * Until then it's written to a temporary file next to it, which Close renames, so the bank
+ * transfer step never finds a partial EFT.dat (Abort deletes the temporary file).
+ */
+public class EFTFileWriter
+{
+    /**
+     * Length of every record in bytes, including the line feed
+     */
+    public static final int RECORD_LENGTH = 80;
+
+    /**
+     * Number of records the buffer holds
+     */
+    private static final int BUFFER_RECORDS = 512;
+
+    private static final int NAME_LENGTH = Limits.INFO_NAME_LENGTH_LIMIT;
+    private static final long HASH_MODULUS = 1000000000000000L; //10^15, what fits in the trailer's field
+
+    private Path filePath = null;
+    private Path tempPath = null; //What's written until Close
+    private FileChannel channel = null;
+    private ByteBuffer buffer = ByteBuffer.allocate(EFTFileWriter.RECORD_LENGTH*EFTFileWriter.BUFFER_RECORDS);
+
+    //Control totals, written to the trailer
+    private int records = 0;
+    private long totalCents = 0;
+    private long providerHash = 0;
+
+    /**
+     * Creates the file's temporary file and writes the header. The file itself is only
+     * replaced by Close.
+     *
+     * @param fileName
+     * @param weekStart The first day of the week
+     * @param closeDate When the week was closed
+     * @throws IOException If the file couldn't be created
+     */
+    public EFTFileWriter(final String fileName, final LocalDate weekStart, final LocalDateTime closeDate) throws IOException
+    {
+        this.filePath = Paths.get(fileName);
+        this.tempPath = Paths.get(fileName+".tmp");
+        this.channel = FileChannel.open(this.tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        this.StartRecord('H');
+        this.PutDate(weekStart);
+        this.PutDate(weekStart.plusDays(Parameters.WEEK_LENGTH));
+        this.PutDate(closeDate.toLocalDate());
+        this.PutNumber(closeDate.getHour(), 2);
+        this.PutNumber(closeDate.getMinute(), 2);
+        this.PutNumber(closeDate.getSecond(), 2);
+        this.EndRecord();
+    }
+
+    /**
+     * Writes the detail record of a transfer to a provider.
+     *
+     * @param providerNumber
+     * @param providerName
+     * @param amount The amount to be transferred, in dollars. Rounded to the cent.
+     * @throws IOException
+     */
+    public void AddEntry(final int providerNumber, final String providerName, final BigDecimal amount) throws IOException
+    {
+        long cents = amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        if (cents < 0)
+        {
+            throw new IllegalArgumentException("Negative transfer to provider "+providerNumber);
+        }
+
+        this.StartRecord('D');
+        this.PutNumber(providerNumber, Limits.INFO_NUMBER_LENGTH_LIMIT);
+        this.PutText(providerName, EFTFileWriter.NAME_LENGTH);
+        this.PutNumber(cents, 11);
+        this.EndRecord();
+
+        ++this.records;
+        this.totalCents += cents;
+        this.providerHash = (this.providerHash + providerNumber) % EFTFileWriter.HASH_MODULUS;
+    }
+
+    /**
+     * Writes the trailer, closes the file and puts it in place, replacing the one there was.
+     *
+     * @throws IOException
+     */
+    public void Close() throws IOException
+    {
+        try
+        {
+            this.StartRecord('T');
+            this.PutNumber(this.records, Limits.INFO_NUMBER_LENGTH_LIMIT);
+            this.PutNumber(this.totalCents, 15);
+            this.PutNumber(this.providerHash, 15);
+            this.EndRecord();
+            this.Flush();
+        }finally
+        {
+            this.channel.close();
+        }
+        Files.move(this.tempPath, this.filePath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Closes the temporary file and deletes it, so no partial file is left behind.
+     * The file the week had before, if any, is kept.
+     */
+    public void Abort()
+    {
+        try
+        {
+            this.channel.close();
+        }catch(IOException ex)
+        {
+        }
+        try
+        {
+            Files.deleteIfExists(this.tempPath);
+        }catch(IOException ex)
+        {
+        }
+    }
+
+    /**
+     *
+     * @return The number of detail records written so far
+     */
+    public int GetRecordCount()
+    {
+        return this.records;
+    }
+
+    /**
+     *
+     * @return The sum of the amounts written so far, in cents
+     */
+    public long GetTotalCents()
+    {
+        return this.totalCents;
+    }
+
+    /**
+     * Makes sure there's room for a whole record and puts its type
+     *
+     * @param type
+     * @throws IOException
+     */
+    private void StartRecord(final char type) throws IOException
+    {
+        if (this.buffer.remaining() < EFTFileWriter.RECORD_LENGTH)
+        {
+            this.Flush();
+        }
+        this.buffer.put((byte)type);
+    }
+
+    /**
+     * Pads the record with spaces and puts the line feed
+     */
+    private void EndRecord()
+    {
+        int end = this.buffer.position() - (this.buffer.position() % EFTFileWriter.RECORD_LENGTH) + EFTFileWriter.RECORD_LENGTH - 1;
+        while (this.buffer.position() < end)
+        {
+            this.buffer.put((byte)' ');
+        }
+        this.buffer.put((byte)'\n');
+    }
+
+    /**
+     * Puts n right-justified in width digits, padded with zeros
+     *
+     * @param n Must not be negative or have more than width digits
+     * @param width
+     */
+    private void PutNumber(long n, final int width)
+    {
+        int start = this.buffer.position();
+        for (int i = width - 1; i >= 0; --i)
+        {
+            this.buffer.put(start + i, (byte)('0' + (n % 10)));
+            n /= 10;
+        }
+        if (n != 0)
+        {
+            throw new IllegalArgumentException("Number too long for a field of "+width+" digits");
+        }
+        this.buffer.position(start + width);
+    }
+
+    /**
+     * Puts text left-justified in width characters, padded with spaces and cut off if longer.
+     * Characters that aren't ASCII are replaced with "?".
+     *
+     * @param text
+     * @param width
+     */
+    private void PutText(final String text, final int width)
+    {
+        int length = Math.min(text.length(), width);
+        for (int i = 0; i < length; ++i)
+        {
+            char c = text.charAt(i);
+            this.buffer.put((byte)(c < 0x80 && c >= ' ' ? c : '?'));
+        }
+        for (int i = length; i < width; ++i)
+        {
+            this.buffer.put((byte)' ');
+        }
+    }
+
+    /**
+     * Puts date as YYYYMMDD
+     *
+     * @param date
+     */
+    private void PutDate(final LocalDate date)
+    {
+        this.PutNumber(date.getYear(), 4);
+        this.PutNumber(date.getMonthValue(), 2);
+        this.PutNumber(date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * Writes the buffer to the file
+     *
+     * @throws IOException
+     */
+    private void Flush() throws IOException
+    {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining())
+        {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,453 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.NavigableSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ *
+ * @author Enis
+ * This class enrols members and providers in bulk from a roster file, for open enrolment
+ * when there are far too many of them to type in through ModifyMembersTerminal and
+ * ModifyProvidersTerminal.
+ *
+ * A member roster has one member per line:
+ *      name,street address,city,state,zip code[,status]
+ * where status is "true" (active, the default) or "false" (suspended).
+ *
+ * A provider roster has one provider per line, each followed by the services in their directory:
+ *      P,name,street address,city,state,zip code,provider date and time (MM-DD-YYYY HH:MM:SS)
+ *      S,service code,service name,service fee
+ *
+ * Blank lines and lines starting with # are skipped. Every field is cut down to its limit
+ * in Limits the same way the terminals do it, and states are upper-cased. Lines that can't be
+ * loaded (e.g. missing fields, or a provider date beyond the time zone limit) are copied to the
+ * rejection file under a # line giving the line number and the reason.
+ *
+ * The roster is read in batches of BATCH_SIZE entries rather than all at once. Each batch gets
+ * its member or provider numbers allocated together, is sorted by number, and is then added to
+ * the data center in that order. Nothing is written per member or provider: the new entries are
+ * saved along with everyone else in the roster files when the data center exits (see ChocAnDPS.Exit).
+ */
+public class EnrolmentLoader
+{
+    /**
+     * Number of members or providers enrolled together
+     */
+    public static final int BATCH_SIZE = 8192;
+
+    private ChocAnDPS dataCenter = null;
+
+    private DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern(Format.DATE+" "+Format.TIME);
+
+    //Totals of the last load
+    private long loaded = 0;
+    private long rejected = 0;
+
+    //The line number of the line being read
+    private long lineNumber = 0;
+
+    public EnrolmentLoader(final ChocAnDPS dataCenter_)
+    {
+        this.dataCenter = dataCenter_;
+    }
+
+    /**
+     * Enrols the members in rosterPath.
+     *
+     * @param rosterPath The member roster
+     * @param rejectionsPath Where the lines that couldn't be loaded are written
+     * @return True if the roster was loaded, false if it couldn't be opened
+     * @throws IOException
+     */
+    public boolean LoadMembers(final String rosterPath, final String rejectionsPath) throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(rosterPath);
+        if (reader == null)
+        {
+            return false;
+        }
+        BufferedWriter rejections = FileUtilities.OpenWriter(rejectionsPath);
+        if (rejections == null)
+        {
+            reader.close();
+            return false;
+        }
+
+        this.loaded = 0;
+        this.rejected = 0;
+        this.lineNumber = 0;
+
+        try
+        {
+            ArrayList<String[]> batch = new ArrayList<String[]>(EnrolmentLoader.BATCH_SIZE);
+            String line = null;
+            while ((line = this.ReadLine(reader)) != null)
+            {
+                String[] fields = line.split(",", -1);
+                if (fields.length != 5 && fields.length != 6)
+                {
+                    this.Reject(rejections, line, "ERROR: Expected name, street address, city, state, zip code and (optionally) status");
+                }
+                else if (fields.length == 6 && !fields[5].trim().equalsIgnoreCase("true") && !fields[5].trim().equalsIgnoreCase("false"))
+                {
+                    this.Reject(rejections, line, "ERROR: The status must be true or false");
+                }
+                else
+                {
+                    batch.add(fields);
+                }
+
+                if (batch.size() == EnrolmentLoader.BATCH_SIZE)
+                {
+                    this.EnrolMembers(batch);
+                }
+            }
+            this.EnrolMembers(batch);
+        }finally
+        {
+            reader.close();
+            rejections.close();
+        }
+
+        return true;
+    }
+
+    /**
+     * Enrols the providers (and their services) in rosterPath.
+     *
+     * @param rosterPath The provider roster
+     * @param rejectionsPath Where the lines that couldn't be loaded are written
+     * @return True if the roster was loaded, false if it couldn't be opened
+     * @throws IOException
+     */
+    public boolean LoadProviders(final String rosterPath, final String rejectionsPath) throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(rosterPath);
+        if (reader == null)
+        {
+            return false;
+        }
+        BufferedWriter rejections = FileUtilities.OpenWriter(rejectionsPath);
+        if (rejections == null)
+        {
+            reader.close();
+            return false;
+        }
+
+        this.loaded = 0;
+        this.rejected = 0;
+        this.lineNumber = 0;
+
+        try
+        {
+            ArrayList<Provider> batch = new ArrayList<Provider>(EnrolmentLoader.BATCH_SIZE);
+            Provider current = null; //The provider the S lines are added to. null if the last P line was rejected.
+            String line = null;
+            while ((line = this.ReadLine(reader)) != null)
+            {
+                String[] fields = line.split(",", -1);
+                if (fields[0].trim().equalsIgnoreCase("P"))
+                {
+                    if (batch.size() == EnrolmentLoader.BATCH_SIZE) //Only end a batch between providers, so that every provider keeps all its services
+                    {
+                        this.EnrolProviders(batch);
+                    }
+
+                    current = this.ParseProvider(fields, rejections, line);
+                    if (current != null)
+                    {
+                        batch.add(current);
+                    }
+                }
+                else if (fields[0].trim().equalsIgnoreCase("S"))
+                {
+                    this.ParseService(fields, current, rejections, line);
+                }
+                else
+                {
+                    this.Reject(rejections, line, "ERROR: Lines must start with P (provider) or S (service)");
+                }
+            }
+            this.EnrolProviders(batch);
+        }finally
+        {
+            reader.close();
+            rejections.close();
+        }
+
+        return true;
+    }
+
+    /**
+     *
+     * @return The number of members or providers enrolled by the last load
+     */
+    public long GetLoadedCount()
+    {
+        return this.loaded;
+    }
+
+    /**
+     *
+     * @return The number of lines written to the rejection file by the last load
+     */
+    public long GetRejectedCount()
+    {
+        return this.rejected;
+    }
+
+    /**
+     * Reads the next line that isn't blank or a comment.
+     *
+     * @param reader
+     * @return The line, or null at the end of the file
+     * @throws IOException
+     */
+    private String ReadLine(BufferedReader reader) throws IOException
+    {
+        String line = null;
+        while ((line = reader.readLine()) != null)
+        {
+            ++this.lineNumber;
+            if (!line.trim().isEmpty() && !line.startsWith("#"))
+            {
+                return line;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Copies line to the rejection file under a comment saying why it was rejected.
+     *
+     * @param rejections
+     * @param line
+     * @param error
+     * @throws IOException
+     */
+    private void Reject(BufferedWriter rejections, final String line, final String error) throws IOException
+    {
+        rejections.write("# Line "+this.lineNumber+": "+error+"\n"+line+"\n");
+        ++this.rejected;
+    }
+
+    /**
+     * Gives each member in batch a new member number, then adds them all to the data center
+     * in order of their numbers. Empties batch afterwards.
+     *
+     * @param batch The fields of each member
+     */
+    private void EnrolMembers(ArrayList<String[]> batch)
+    {
+        if (batch.isEmpty())
+        {
+            return;
+        }
+
+        ReentrantLock enrolmentLock = this.dataCenter.GetEnrolmentLock();
+        enrolmentLock.lock(); //So that nobody else takes the numbers before they're added, see ChocAnDPS.GetEnrolmentLock
+        try
+        {
+            int[] ids = EnrolmentLoader.AllocateIDs(this.dataCenter.GetMemberDatabase(), batch.size(), id -> new Member(id));
+            ArrayList<Member> members = new ArrayList<Member>(batch.size());
+            for (int i = 0; i < batch.size(); ++i)
+            {
+                String[] fields = batch.get(i);
+                boolean status = (fields.length < 6 || Boolean.parseBoolean(fields[5].trim()));
+                Member member = new Member(ids[i], "", "", "", "", "", status);
+                EnrolmentLoader.SetInformation(member, fields, 0);
+                members.add(member);
+            }
+
+            this.dataCenter.AddMembers(members); //Already sorted, since the IDs are
+        }finally
+        {
+            enrolmentLock.unlock();
+        }
+        this.loaded += batch.size();
+        batch.clear();
+    }
+
+    /**
+     * Gives each provider in batch a new provider number, then adds them all to the data center
+     * in order of their numbers. Empties batch afterwards.
+     *
+     * @param batch The providers, with a placeholder number
+     */
+    private void EnrolProviders(ArrayList<Provider> batch)
+    {
+        if (batch.isEmpty())
+        {
+            return;
+        }
+
+        ReentrantLock enrolmentLock = this.dataCenter.GetEnrolmentLock();
+        enrolmentLock.lock(); //So that nobody else takes the numbers before they're added, see ChocAnDPS.GetEnrolmentLock
+        try
+        {
+            int[] ids = EnrolmentLoader.AllocateIDs(this.dataCenter.GetProviderDatabase(), batch.size(), id -> new Provider(id));
+            ArrayList<Provider> providers = new ArrayList<Provider>(batch.size());
+            for (int i = 0; i < batch.size(); ++i)
+            {
+                Provider parsed = batch.get(i);
+                Provider provider = new Provider(ids[i], parsed.GetName(), parsed.GetStreetAddress(), parsed.GetCity(), parsed.GetState(), parsed.GetZipCode(), parsed.GetProviderDateTime());
+                provider.AddServices(parsed.GetProviderDirectory());
+                providers.add(provider);
+            }
+
+            this.dataCenter.AddProviders(providers);
+        }finally
+        {
+            enrolmentLock.unlock();
+        }
+        this.loaded += batch.size();
+        batch.clear();
+    }
+
+    /**
+     * Parses a P line into a provider, with a placeholder number until the batch gets its numbers.
+     *
+     * @param fields
+     * @param rejections
+     * @param line
+     * @return The provider, or null if the line was rejected
+     * @throws IOException
+     */
+    private Provider ParseProvider(final String[] fields, BufferedWriter rejections, final String line) throws IOException
+    {
+        if (fields.length != 7)
+        {
+            this.Reject(rejections, line, "ERROR: Expected P, name, street address, city, state, zip code and provider date and time");
+            return null;
+        }
+
+        LocalDateTime providerDate = null;
+        try
+        {
+            providerDate = LocalDateTime.parse(fields[6].trim(), this.dateTimeFormat);
+        }catch(DateTimeParseException ex)
+        {
+            this.Reject(rejections, line, "ERROR: Invalid date and time entered! Cannot add provider!");
+            return null;
+        }
+
+        if (!Utilities.IsWithinValidTimeZone(providerDate, this.dataCenter.GetGlobalDate()))
+        {
+            this.Reject(rejections, line, "ERROR: Entered date and time is beyond the maximum allowable time zone difference! Cannot add provider!");
+            return null;
+        }
+
+        Provider provider = new Provider(0, providerDate);
+        EnrolmentLoader.SetInformation(provider, fields, 1);
+
+        return provider;
+    }
+
+    /**
+     * Parses an S line and adds the service to provider's directory.
+     *
+     * @param fields
+     * @param provider The provider on the last P line, or null if it was rejected
+     * @param rejections
+     * @param line
+     * @throws IOException
+     */
+    private void ParseService(final String[] fields, Provider provider, BufferedWriter rejections, final String line) throws IOException
+    {
+        if (provider == null)
+        {
+            this.Reject(rejections, line, "ERROR: The service's provider was rejected or is missing");
+            return;
+        }
+        if (fields.length != 4)
+        {
+            this.Reject(rejections, line, "ERROR: Expected S, service code, service name and service fee");
+            return;
+        }
+
+        int serviceCode = 0;
+        BigDecimal fee = null;
+        try
+        {
+            serviceCode = Integer.parseInt(fields[1].trim());
+            fee = new BigDecimal(fields[3].trim());
+        }catch(NumberFormatException ex)
+        {
+            this.Reject(rejections, line, "ERROR: Invalid service code or fee");
+            return;
+        }
+
+        if (serviceCode <= 0 || String.valueOf(serviceCode).length() > Limits.SERVICE_CODE_LENGTH_LIMIT || fee.signum() < 0)
+        {
+            this.Reject(rejections, line, "ERROR: Invalid service code or fee");
+            return;
+        }
+
+        if (!provider.AddService(new Service(serviceCode, Utilities.AdjustStringToLimit(fields[2].trim(), Limits.SERVICE_NAME_LENGTH_LIMIT),
+                                             Utilities.AdjustFeeToLimit(fee, Limits.SERVICE_FEE_LIMIT))))
+        {
+            this.Reject(rejections, line, "ERROR: The provider already has a service with this code");
+        }
+    }
+
+    /**
+     * Sets the name and address of destination from the five fields starting at fields[start],
+     * cutting each down to its limit the same way InformationExtractionTerminal.ExtractInformation does.
+     *
+     * @param destination
+     * @param fields
+     * @param start
+     */
+    private static void SetInformation(Information destination, final String[] fields, final int start)
+    {
+        destination.SetNameTo(Utilities.AdjustStringToLimit(fields[start].trim(), Limits.INFO_NAME_LENGTH_LIMIT));
+        destination.ChangeStreetAddress(Utilities.AdjustStringToLimit(fields[start+1].trim(), Limits.STREET_ADDRESS_LENGTH_LIMIT));
+        destination.ChangeCity(Utilities.AdjustStringToLimit(fields[start+2].trim(), Limits.CITY_NAME_LENGTH_LIMIT));
+        destination.ChangeState(Utilities.AdjustStringToLimit(fields[start+3].trim(), Limits.STATE_LENGTH_LIMIT).toUpperCase());
+        destination.ChangeZip(Utilities.AdjustStringToLimit(fields[start+4].trim(), Limits.ZIP_CODE_LENGTH_LIMIT));
+    }
+
+    /**
+     * Draws count distinct random 9-digit numbers that aren't used by anyone in container.
+     * Like InformationExtractionTerminal.ExtractID, each number is checked with a single lookup
+     * in the sorted container.
+     *
+     * @param <E> Member or Provider
+     * @param container The members or providers
+     * @param count How many numbers to draw
+     * @param probe Makes an element with a given number, to look it up in container
+     * @return The numbers in increasing order
+     */
+    private static <E> int[] AllocateIDs(NavigableSet<E> container, final int count, IntFunction<E> probe)
+    {
+        HashSet<Integer> drawn = new HashSet<Integer>();
+        while (drawn.size() < count)
+        {
+            int id = Utilities.RandomNDigitNumber(Limits.INFO_NUMBER_LENGTH_LIMIT);
+            if (!container.contains(probe.apply(id)))
+            {
+                drawn.add(id);
+            }
+        }
+
+        ArrayList<Integer> sorted = new ArrayList<Integer>(drawn);
+        Collections.sort(sorted);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; ++i)
+        {
+            ids[i] = sorted.get(i);
+        }
+
+        return ids;
+    }
+}
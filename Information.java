@@ -1,159 +1,507 @@
-import java.util.LinkedList;
-import java.util.ListIterator;
-
-/**
- *
- * @author Enis
- * This is the information class, which houses all of the elements that providers and members
- * share in common. Effectively, it is different from the Identification class in that it
- * also stores address info of the object, as can be seen from its fields below.
- * The class consists of setters and getters for these fields.
- * 
- */
-public class Information extends Identification
-{
-    private String street = "";
-    private String city = "";
-    private String state = "";
-    private String zip = "";
-    
-    /**
-     * 
-     * @param id_ 
-     */
-    public Information(final int id_)
-    {
-        super(id_);
-    }
-    
-    /**
-     * 
-     * @param id_
-     * @param name_ 
-     */
-    public Information(final int id_, final String name_)
-    {
-        super(id_, name_);
-    }
-    
-    /**
-     * 
-     * @param id_
-     * @param name_
-     * @param street_
-     * @param city_
-     * @param state_
-     * @param zip_ 
-     */
-    public Information(final int id_, final String name_, final String street_, final String city_, final String state_, final String zip_)
-    {
-        super(id_, name_);
-        this.street = street_;
-        this.city = city_;
-        this.state = state_;
-        this.zip = zip_;
-    }
-    
-    /**
-     * 
-     * @param original 
-     */
-    public Information(final Information original)
-    {
-        super(original); //Copy the base class parameters
-        
-        this.street = original.street;
-        this.city = original.city;
-        this.state = original.state;
-        this.zip = original.zip;
-    }
-    
-    /**
-     * 
-     * @return Street address
-     */
-    public String GetStreetAddress()
-    {
-        return this.street;
-    }
-    
-    /**
-     * 
-     * @return City
-     */
-    public String GetCity()
-    {
-        return this.city;
-    }
-    
-    /**
-     * 
-     * @return State
-     */
-    public String GetState()
-    {
-        return this.state;
-    }
-    
-    /**
-     * 
-     * @return Zip code
-     */
-    public String GetZipCode()
-    {
-        return this.zip;
-    }
-    
-    /**
-     * 
-     * @param newAddress 
-     */
-    public void ChangeStreetAddress(final String newAddress)
-    {
-        this.street = newAddress;
-    }
-    
-    /**
-     * 
-     * @param newCity 
-     */
-    public void ChangeCity(final String newCity)
-    {
-        this.city = newCity;
-    }
-    
-    /**
-     * 
-     * @param newState 
-     */
-    public void ChangeState(final String newState)
-    {
-        this.state = newState;
-    }
- 
-    /**
-     * 
-     * @param newZip 
-     */
-    public void ChangeZip(final String newZip)
-    {
-        this.zip = newZip;
-    }    
-    
-    /**
-     * This method was overridden for debugging purposes.
-     * 
-     * @return String
-     */
-    public String toString()
-    {
-        String info = "ID: " + (this.GetID()) + "\n"
-                + "Name: " + (this.GetName()) + "\n"
-                + "Street: " + (this.street) + "\n"
-                + "City: " + (this.city) + "\n"
-                + "State: " + (this.state) + "\n"
-                + "Zip: " + (this.zip) + "\n";
-      
-        return info;
-    }
-}
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+/**
+ *
+ * @author Enis
+ * This is the information class, which houses all of the elements that providers and members
+ * share in common. Effectively, it is different from the Identification class in that it
+ * also stores address info of the object, as can be seen from its fields below.
+ * The class consists of setters and getters for these fields.
+ * 
+ * Since there can be hundreds of thousands of members, the name and address aren't kept as five
+ * Strings. They're packed into a single block of BLOCK_SIZE bytes, as ASCII:
+ *      name            length byte + 25 characters, padded with zeros
+ *      street          length byte + 25 characters
+ *      city            its code in StringDictionary.CITIES, an int
+ *      state           2 characters, the second one (or both) 0 if it's shorter
+ *      zip code        an int, then the number of digits so leading zeros aren't lost
+ * The ints are big-endian. The getters make a String out of the block every time they're called
+ * (the city is the one in the dictionary); nothing else is kept. The city and state codes can be
+ * compared directly, see GetCityCode and GetStateCode.
+ * 
+ * A value that doesn't fit its field (longer than its limit, not ASCII, or a zip code that isn't
+ * all digits) is kept as a String in overflow instead, and its length byte is OVERFLOW. The
+ * limits are what the terminals and loaders cut the values to, so that only happens to data
+ * that was written to the files by hand.
+ * 
+ * The block and overflow are never changed once they're set: a setter copies them, changes the
+ * copies and then replaces both at once (see Packed). So reports and claims can read a member on
+ * other threads while a terminal is updating them, and always see each field either before or
+ * after the change.
+ */
+public class Information extends Identification
+{
+    //The layout of the block, the offset of each field
+    private static final int NAME = 0;
+    private static final int STREET = Information.NAME + 1 + Limits.INFO_NAME_LENGTH_LIMIT;
+    private static final int CITY = Information.STREET + 1 + Limits.STREET_ADDRESS_LENGTH_LIMIT;
+    private static final int STATE = Information.CITY + 4;
+    private static final int ZIP = Information.STATE + Limits.STATE_LENGTH_LIMIT;
+    private static final int ZIP_DIGITS = Information.ZIP + 4;
+    
+    /**
+     * Size of the block in bytes
+     */
+    public static final int BLOCK_SIZE = Information.ZIP_DIGITS + 1;
+    
+    /**
+     * Length byte of a field that is in overflow instead
+     */
+    private static final byte OVERFLOW = (byte)0xFF;
+    
+    //Index of each field in overflow
+    private static final int NAME_INDEX = 0;
+    private static final int STREET_INDEX = 1;
+    private static final int CITY_INDEX = 2;
+    private static final int STATE_INDEX = 3;
+    private static final int ZIP_INDEX = 4;
+    
+    /**
+     * The block and the overflow that goes with it. They're replaced together, so whoever sees a
+     * field marked OVERFLOW in the block also sees its value in overflow.
+     */
+    private static final class Packed
+    {
+        private final byte[] block;
+        private final String[] overflow; //null until a value doesn't fit
+        
+        private Packed(final byte[] block_, final String[] overflow_)
+        {
+            this.block = block_;
+            this.overflow = overflow_;
+        }
+    }
+    
+    private static final Packed EMPTY = new Packed(Information.EmptyBlock(), null);
+    
+    //Volatile because reports and claims read it from other threads while a terminal may be updating it
+    private volatile Packed packed = Information.EMPTY;
+    
+    /**
+     * 
+     * @param id_ 
+     */
+    public Information(final int id_)
+    {
+        super(id_);
+    }
+    
+    /**
+     * 
+     * @param id_
+     * @param name_ 
+     */
+    public Information(final int id_, final String name_)
+    {
+        super(id_);
+        this.Pack(Information.NAME_INDEX, name_);
+    }
+    
+    /**
+     * 
+     * @param id_
+     * @param name_
+     * @param street_
+     * @param city_
+     * @param state_
+     * @param zip_ 
+     */
+    public Information(final int id_, final String name_, final String street_, final String city_, final String state_, final String zip_)
+    {
+        super(id_);
+        this.Pack(Information.NAME_INDEX, name_);
+        this.Pack(Information.STREET_INDEX, street_);
+        this.Pack(Information.CITY_INDEX, city_);
+        this.Pack(Information.STATE_INDEX, state_);
+        this.Pack(Information.ZIP_INDEX, zip_);
+    }
+    
+    /**
+     * 
+     * @param original 
+     */
+    public Information(final Information original)
+    {
+        super(original); //Copy the base class parameters
+        
+        this.packed = original.packed; //Never changed, so it can be shared
+    }
+    
+    /**
+     * 
+     * @return Name
+     */
+    @Override
+    public String GetName()
+    {
+        return this.Unpack(Information.NAME_INDEX);
+    }
+    
+    /**
+     * 
+     * @param name_ 
+     */
+    @Override
+    public void SetNameTo(String name_)
+    {
+        this.Pack(Information.NAME_INDEX, name_);
+        Identification.Revise();
+    }
+    
+    /**
+     * 
+     * @return Street address
+     */
+    public String GetStreetAddress()
+    {
+        return this.Unpack(Information.STREET_INDEX);
+    }
+    
+    /**
+     * 
+     * @return City
+     */
+    public String GetCity()
+    {
+        return this.Unpack(Information.CITY_INDEX);
+    }
+    
+    /**
+     * 
+     * @return State
+     */
+    public String GetState()
+    {
+        return this.Unpack(Information.STATE_INDEX);
+    }
+    
+    /**
+     * 
+     * @return Zip code
+     */
+    public String GetZipCode()
+    {
+        return this.Unpack(Information.ZIP_INDEX);
+    }
+    
+    /**
+     * 
+     * @return The city's code in StringDictionary.CITIES. Two members or providers are in the same
+     * city iff their codes are equal.
+     */
+    public int GetCityCode()
+    {
+        return Information.GetInt(this.packed.block, Information.CITY);
+    }
+    
+    /**
+     * 
+     * @return The state's two characters as an int, the first one in the high byte. Two members or
+     * providers are in the same state iff their codes are equal, unless the state didn't fit (which
+     * gives -1).
+     */
+    public int GetStateCode()
+    {
+        byte[] current = this.packed.block;
+        return (current[Information.STATE] == Information.OVERFLOW ? -1 : ((current[Information.STATE] & 0xFF) << 8) | (current[Information.STATE + 1] & 0xFF));
+    }
+    
+    /**
+     * 
+     * @param newAddress 
+     */
+    public void ChangeStreetAddress(final String newAddress)
+    {
+        this.Pack(Information.STREET_INDEX, newAddress);
+    }
+    
+    /**
+     * 
+     * @param newCity 
+     */
+    public void ChangeCity(final String newCity)
+    {
+        this.Pack(Information.CITY_INDEX, newCity);
+    }
+    
+    /**
+     * 
+     * @param newState 
+     */
+    public void ChangeState(final String newState)
+    {
+        this.Pack(Information.STATE_INDEX, newState);
+    }
+ 
+    /**
+     * 
+     * @param newZip 
+     */
+    public void ChangeZip(final String newZip)
+    {
+        this.Pack(Information.ZIP_INDEX, newZip);
+    }    
+    
+    /**
+     * Replaces the field at index (NAME_INDEX, ...) with value, in a copy of the block (and of overflow if it changes).
+     * Synchronized so that two changes at once don't undo each other.
+     * 
+     * @param index
+     * @param value 
+     */
+    private synchronized void Pack(final int index, final String value)
+    {
+        Packed current = this.packed;
+        byte[] newBlock = current.block.clone();
+        String[] newOverflow = current.overflow;
+        boolean fits = false;
+        switch (value == null && index != Information.CITY_INDEX ? -1 : index) //null is kept in overflow, the dictionary has a code for it
+        {
+            case Information.NAME_INDEX:
+                fits = Information.PackText(newBlock, Information.NAME, Limits.INFO_NAME_LENGTH_LIMIT, value);
+                break;
+            case Information.STREET_INDEX:
+                fits = Information.PackText(newBlock, Information.STREET, Limits.STREET_ADDRESS_LENGTH_LIMIT, value);
+                break;
+            case Information.CITY_INDEX:
+                Information.PutInt(newBlock, Information.CITY, StringDictionary.CITIES.Encode(value));
+                fits = true;
+                break;
+            case Information.STATE_INDEX:
+                fits = Information.PackState(newBlock, value);
+                break;
+            case Information.ZIP_INDEX:
+                fits = Information.PackZip(newBlock, value);
+                break;
+        }
+        
+        if (!fits) //Keep it in overflow, marked in the block
+        {
+            newOverflow = (newOverflow == null ? new String[Information.ZIP_INDEX + 1] : newOverflow.clone());
+            newOverflow[index] = value;
+            newBlock[Information.LengthOffset(index)] = Information.OVERFLOW;
+        }
+        else if (newOverflow != null && newOverflow[index] != null) //Don't keep the old value around
+        {
+            newOverflow = newOverflow.clone();
+            newOverflow[index] = null;
+        }
+        
+        this.packed = new Packed(newBlock, newOverflow);
+    }
+    
+    /**
+     * Makes a String out of the field at index
+     * 
+     * @param index
+     * @return 
+     */
+    private String Unpack(final int index)
+    {
+        Packed fields = this.packed; //The block and overflow have to come from the same one
+        byte[] current = fields.block;
+        if (index == Information.CITY_INDEX) //Never in overflow
+        {
+            return StringDictionary.CITIES.Decode(Information.GetInt(current, Information.CITY));
+        }
+        if (current[Information.LengthOffset(index)] == Information.OVERFLOW)
+        {
+            return fields.overflow[index];
+        }
+        
+        switch (index)
+        {
+            case Information.NAME_INDEX:
+                return Information.UnpackText(current, Information.NAME);
+            case Information.STREET_INDEX:
+                return Information.UnpackText(current, Information.STREET);
+            case Information.STATE_INDEX:
+                int length = (current[Information.STATE] == 0 ? 0 : (current[Information.STATE + 1] == 0 ? 1 : 2));
+                return new String(current, Information.STATE, length, FileUtilities.FILE_DECODING);
+            default:
+                int digits = current[Information.ZIP_DIGITS];
+                if (digits == 0)
+                {
+                    return "";
+                }
+                String zip = Integer.toString(Information.GetInt(current, Information.ZIP));
+                return (zip.length() < digits ? "0".repeat(digits - zip.length()) + zip : zip);
+        }
+    }
+    
+    /**
+     * 
+     * @param index
+     * @return The offset in the block of the byte that is OVERFLOW if the field at index is in overflow
+     */
+    private static int LengthOffset(final int index)
+    {
+        switch (index)
+        {
+            case Information.NAME_INDEX:
+                return Information.NAME;
+            case Information.STREET_INDEX:
+                return Information.STREET;
+            case Information.STATE_INDEX:
+                return Information.STATE;
+            default:
+                return Information.ZIP_DIGITS;
+        }
+    }
+    
+    /**
+     * Puts text into the length-prefixed field at offset, if it fits
+     * 
+     * @param block
+     * @param offset
+     * @param limit
+     * @param text
+     * @return False if text is longer than limit or isn't ASCII, in which case the block is unchanged
+     */
+    private static boolean PackText(byte[] block, final int offset, final int limit, final String text)
+    {
+        if (text.length() > limit || !Information.IsASCII(text))
+        {
+            return false;
+        }
+        
+        block[offset] = (byte)text.length();
+        for (int i = 0; i < limit; ++i)
+        {
+            block[offset + 1 + i] = (byte)(i < text.length() ? text.charAt(i) : 0);
+        }
+        return true;
+    }
+    
+    /**
+     * 
+     * @param block
+     * @param offset
+     * @return The text in the length-prefixed field at offset
+     */
+    private static String UnpackText(final byte[] block, final int offset)
+    {
+        return new String(block, offset + 1, block[offset], FileUtilities.FILE_DECODING);
+    }
+    
+    /**
+     * Puts state into its two bytes, if it fits
+     * 
+     * @param block
+     * @param state
+     * @return False if state is longer than two characters or isn't ASCII
+     */
+    private static boolean PackState(byte[] block, final String state)
+    {
+        if (state.length() > Limits.STATE_LENGTH_LIMIT || !Information.IsASCII(state))
+        {
+            return false;
+        }
+        
+        block[Information.STATE] = (byte)(state.length() > 0 ? state.charAt(0) : 0);
+        block[Information.STATE + 1] = (byte)(state.length() > 1 ? state.charAt(1) : 0);
+        return true;
+    }
+    
+    /**
+     * Puts zip into its int and number of digits, if it fits
+     * 
+     * @param block
+     * @param zip
+     * @return False if zip isn't all digits, or has more than an int can hold
+     */
+    private static boolean PackZip(byte[] block, final String zip)
+    {
+        if (zip.length() > Limits.INFO_NUMBER_LENGTH_LIMIT)
+        {
+            return false;
+        }
+        
+        int value = 0;
+        for (int i = 0; i < zip.length(); ++i)
+        {
+            char c = zip.charAt(i);
+            if (c < '0' || c > '9')
+            {
+                return false;
+            }
+            value = value*10 + (c - '0');
+        }
+        
+        Information.PutInt(block, Information.ZIP, value);
+        block[Information.ZIP_DIGITS] = (byte)zip.length();
+        return true;
+    }
+    
+    /**
+     * 
+     * @return A block with every field empty
+     */
+    private static byte[] EmptyBlock()
+    {
+        byte[] empty = new byte[Information.BLOCK_SIZE];
+        Information.PutInt(empty, Information.CITY, StringDictionary.CITIES.Encode(""));
+        return empty;
+    }
+    
+    /**
+     * 
+     * @param block
+     * @param offset
+     * @param value Put at offset, big-endian
+     */
+    private static void PutInt(byte[] block, final int offset, final int value)
+    {
+        block[offset] = (byte)(value >>> 24);
+        block[offset + 1] = (byte)(value >>> 16);
+        block[offset + 2] = (byte)(value >>> 8);
+        block[offset + 3] = (byte)value;
+    }
+    
+    /**
+     * 
+     * @param block
+     * @param offset
+     * @return The big-endian int at offset
+     */
+    private static int GetInt(final byte[] block, final int offset)
+    {
+        return ((block[offset] & 0xFF) << 24) | ((block[offset + 1] & 0xFF) << 16) | ((block[offset + 2] & 0xFF) << 8) | (block[offset + 3] & 0xFF);
+    }
+    
+    /**
+     * 
+     * @param text
+     * @return True if every character of text is ASCII, other than NUL (which pads the fields)
+     */
+    private static boolean IsASCII(final String text)
+    {
+        for (int i = 0; i < text.length(); ++i)
+        {
+            char c = text.charAt(i);
+            if (c == 0 || c >= 0x80)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * This method was overridden for debugging purposes.
+     * 
+     * @return String
+     */
+    public String toString()
+    {
+        String info = "ID: " + (this.GetID()) + "\n"
+                + "Name: " + (this.GetName()) + "\n"
+                + "Street: " + (this.GetStreetAddress()) + "\n"
+                + "City: " + (this.GetCity()) + "\n"
+                + "State: " + (this.GetState()) + "\n"
+                + "Zip: " + (this.GetZipCode()) + "\n";
+      
+        return info;
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author Enis
+ * This class is a histogram of latencies (or any other non-negative values), in the style of
+ * an HDR histogram. Each power of two is split into SUB_BUCKETS linear buckets, so any percentile
+ * read back is within about 1/SUB_BUCKETS (3%) of the true value, while the memory used stays
+ * fixed however many values are recorded.
+ *
+ * Recording is a few shifts and one atomic increment, and never locks, so it can be done on every
+ * claim from any number of threads. Reading the percentiles goes over every bucket, so it's meant
+ * for reports, not for the hot path.
+ */
+public class LatencyHistogram
+{
+    public static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+
+    private AtomicLongArray counts = new AtomicLongArray((64 - LatencyHistogram.SUB_BUCKET_BITS + 1) * LatencyHistogram.SUB_BUCKETS);
+    private LongAdder total = new LongAdder();
+    private LongAdder sum = new LongAdder();
+    private AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram()
+    {
+    }
+
+    /**
+     * Records one value
+     *
+     * @param value
+     */
+    public void Record(long value)
+    {
+        value = Math.max(0, value);
+        this.counts.incrementAndGet(LatencyHistogram.Index(value));
+        this.total.increment();
+        this.sum.add(value);
+        if (value > this.max.get()) //Only compare and set when there's a new maximum, which is rare
+        {
+            this.max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time since start, a System.nanoTime() reading
+     *
+     * @param start
+     */
+    public void RecordSince(final long start)
+    {
+        this.Record(System.nanoTime() - start);
+    }
+
+    /**
+     * Adds every value recorded in other to this histogram
+     *
+     * @param other
+     */
+    public void Add(final LatencyHistogram other)
+    {
+        for (int i = 0; i < this.counts.length(); ++i)
+        {
+            long count = other.counts.get(i);
+            if (count != 0)
+            {
+                this.counts.addAndGet(i, count);
+            }
+        }
+        this.total.add(other.total.sum());
+        this.sum.add(other.sum.sum());
+        this.max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long GetCount()
+    {
+        return this.total.sum();
+    }
+
+    public long GetMax()
+    {
+        return this.max.get();
+    }
+
+    public double GetMean()
+    {
+        long count = this.total.sum();
+        return (count == 0 ? 0 : (double)this.sum.sum() / count);
+    }
+
+    /**
+     *
+     * @param percent
+     * @return The smallest value that at least percent of the recorded values are at or below, 0 if nothing was recorded
+     */
+    public long Percentile(final double percent)
+    {
+        long rank = Math.max(1, (long)Math.ceil(this.total.sum() * percent / 100));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length(); ++i)
+        {
+            if ((seen += this.counts.get(i)) >= rank)
+            {
+                return Math.min(this.max.get(), LatencyHistogram.UpperBound(i));
+            }
+        }
+
+        return this.max.get();
+    }
+
+    /**
+     * Summary of the histogram, with the values taken to be nanoseconds and shown in microseconds
+     *
+     * @return
+     */
+    public String toString()
+    {
+        return String.format("count %d  mean %.1f  p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f (us)", this.GetCount(), this.GetMean() / 1e3,
+                             this.Percentile(50) / 1e3, this.Percentile(90) / 1e3, this.Percentile(99) / 1e3, this.Percentile(99.9) / 1e3, this.GetMax() / 1e3);
+    }
+
+    /**
+     * Values below SUB_BUCKETS get a bucket each. Above that, a value whose highest bit is b
+     * goes in one of the SUB_BUCKETS buckets of [2^b, 2^(b+1)), picked by the next SUB_BUCKET_BITS bits.
+     *
+     * @param value
+     * @return
+     */
+    private static int Index(final long value)
+    {
+        if (value < LatencyHistogram.SUB_BUCKETS)
+        {
+            return (int)value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - LatencyHistogram.SUB_BUCKET_BITS;
+
+        return (shift + 1) * LatencyHistogram.SUB_BUCKETS + (int)((value >> shift) - LatencyHistogram.SUB_BUCKETS);
+    }
+
+    /**
+     *
+     * @param index
+     * @return The largest value that goes in the bucket at index
+     */
+    private static long UpperBound(final int index)
+    {
+        if (index < LatencyHistogram.SUB_BUCKETS)
+        {
+            return index;
+        }
+        int shift = index / LatencyHistogram.SUB_BUCKETS - 1;
+
+        return ((LatencyHistogram.SUB_BUCKETS + (long)(index % LatencyHistogram.SUB_BUCKETS) + 1) << shift) - 1;
+    }
+}
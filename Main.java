@@ -1,22 +1,100 @@
-import java.io.IOException;
-/**
- *
- * @author Enis
- * The main class of the program.
- */
-public class Main
-{
-
-    /**
-     * @param args the command line arguments
-     */
-    public static void main(String[] args) throws IOException
-    {
-        System.out.println("File loc: "+FileUtilities.FILE_LOC+"\n");
-        ChocAnDPS dataCenter = new ChocAnDPS();
-        GlobalTerminal terminal = new GlobalTerminal(dataCenter);        
-        terminal.UseTerminal();
-        dataCenter.Exit();
-    }
-
-}
+import java.io.IOException;
+/**
+ *
+ * @author Enis
+ * The main class of the program.
+ *
+ * Running it with no arguments starts the interactive terminals. Running it as
+ *      java Main -server [port]
+ * instead starts the claim server (see ClaimServer) so that remote provider terminals
+ * can submit claims. The server runs until "stop" is entered.
+ *
+ * For unattended jobs, the terminals can be skipped altogether with
+ *      java Main -script FILE          (FILE may be - for the standard input)
+ *      java Main -run COMMAND...       (each argument is one command)
+ * which run the commands described in ScriptRunner, save the data center and exit with
+ * a status of 1 if any command failed.
+ */
+public class Main
+{
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        System.out.println("File loc: "+FileUtilities.FILE_LOC+"\n");
+        ChocAnDPS dataCenter = new ChocAnDPS();
+        if (args.length > 0 && args[0].equals("-server"))
+        {
+            Main.RunClaimServer(dataCenter, (args.length > 1 ? Integer.parseInt(args[1]) : ClaimProtocol.DEFAULT_PORT));
+        }
+        else if (args.length > 0 && (args[0].equals("-script") || args[0].equals("-run")))
+        {
+            int failed = Main.RunScript(dataCenter, args);
+            dataCenter.Exit();
+            System.exit(failed == 0 ? 0 : 1);
+        }
+        else
+        {
+            GlobalTerminal terminal = new GlobalTerminal(dataCenter);
+            terminal.UseTerminal();
+        }
+        dataCenter.Exit();
+    }
+
+    /**
+     * Serves claims on the given port until the operator enters "stop" (or the input ends).
+     *
+     * @param dataCenter
+     * @param port
+     * @throws IOException
+     */
+    private static void RunClaimServer(ChocAnDPS dataCenter, int port) throws IOException
+    {
+        ClaimServer server = new ClaimServer(dataCenter, port);
+        server.Start();
+        System.out.println("Claim server is listening on port "+server.GetPort()+". Enter \"stop\" to shut it down.\n");
+
+        while (Utilities.sc.hasNextLine() && !Utilities.sc.nextLine().trim().equalsIgnoreCase("stop"));
+
+        server.Stop();
+        System.out.println("Claim server has been shut down.\n");
+        System.out.println(dataCenter.GetClaimQueue());
+    }
+
+    /**
+     * Runs the script given after -script, or the commands given after -run.
+     *
+     * @param dataCenter
+     * @param args
+     * @return The number of commands that failed, or -1 if the script couldn't be opened
+     * @throws IOException
+     */
+    private static int RunScript(ChocAnDPS dataCenter, String[] args) throws IOException
+    {
+        ScriptRunner runner = new ScriptRunner(dataCenter);
+        int failed = 0;
+        if (args[0].equals("-script"))
+        {
+            if (args.length < 2)
+            {
+                System.out.println("ERROR: No script was given!");
+                return -1;
+            }
+            failed = runner.RunScript(args[1]);
+        }
+        else
+        {
+            for (int i = 1; i < args.length; ++i)
+            {
+                runner.Execute(args[i]);
+            }
+            failed = runner.GetCommandsFailed();
+        }
+
+        System.out.println(runner.GetCommandsRun()+" commands run, "+runner.GetCommandsFailed()+" failed.");
+        return failed;
+    }
+
+}
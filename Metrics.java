@@ -0,0 +1,105 @@
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ *
+ * @author Enis
+ * This class is the data center's registry of metrics. There are three kinds:
+ *      1) Counters, which count events (e.g. claims accepted). They're LongAdders, so that
+ *         threads incrementing the same counter don't fight over one cache line.
+ *      2) Gauges, which read some current value when the metrics are displayed (e.g. the
+ *         number of members). They cost nothing until then.
+ *      3) Histograms, which record how long an operation took (see LatencyHistogram).
+ *
+ * Metrics are named with dots, e.g. "claims.accepted", and displayed in alphabetical order,
+ * so related metrics end up next to each other. Looking a metric up by name goes through a map,
+ * so the hot paths look theirs up once and keep them in static fields, e.g.
+ *      private static final LatencyHistogram LOOKUP_TIME = Metrics.Histogram("member.lookup");
+ *      ...
+ *      long start = System.nanoTime();
+ *      ...
+ *      LOOKUP_TIME.RecordSince(start);
+ */
+public class Metrics
+{
+    private static ConcurrentSkipListMap<String, LongAdder> counters = new ConcurrentSkipListMap<String, LongAdder>();
+    private static ConcurrentSkipListMap<String, LongSupplier> gauges = new ConcurrentSkipListMap<String, LongSupplier>();
+    private static ConcurrentSkipListMap<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<String, LatencyHistogram>();
+
+    /**
+     * Returns the counter called name, creating it if it doesn't exist yet.
+     *
+     * @param name
+     * @return
+     */
+    public static LongAdder Counter(final String name)
+    {
+        return Metrics.counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Registers a gauge called name that reads its value from supplier, replacing any gauge
+     * that had the same name (e.g. from a data center that has been replaced).
+     *
+     * @param name
+     * @param supplier
+     */
+    public static void Gauge(final String name, final LongSupplier supplier)
+    {
+        Metrics.gauges.put(name, supplier);
+    }
+
+    /**
+     * Returns the histogram called name, creating it if it doesn't exist yet.
+     *
+     * @param name
+     * @return
+     */
+    public static LatencyHistogram Histogram(final String name)
+    {
+        return Metrics.histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Every metric and its current value, one per line, for display or for writing to a file.
+     * Histograms that haven't recorded anything are left out.
+     *
+     * @return
+     */
+    public static String Dump()
+    {
+        StringBuilder dump = new StringBuilder();
+
+        dump.append("Counters:\n");
+        Iterator<Map.Entry<String, LongAdder>> counterIterator = Metrics.counters.entrySet().iterator();
+        while (counterIterator.hasNext())
+        {
+            Map.Entry<String, LongAdder> counter = counterIterator.next();
+            dump.append(String.format("\t%-32s %d\n", counter.getKey(), counter.getValue().sum()));
+        }
+
+        dump.append("\nGauges:\n");
+        Iterator<Map.Entry<String, LongSupplier>> gaugeIterator = Metrics.gauges.entrySet().iterator();
+        while (gaugeIterator.hasNext())
+        {
+            Map.Entry<String, LongSupplier> gauge = gaugeIterator.next();
+            dump.append(String.format("\t%-32s %d\n", gauge.getKey(), gauge.getValue().getAsLong()));
+        }
+
+        dump.append("\nLatencies:\n");
+        Iterator<Map.Entry<String, LatencyHistogram>> histogramIterator = Metrics.histograms.entrySet().iterator();
+        while (histogramIterator.hasNext())
+        {
+            Map.Entry<String, LatencyHistogram> histogram = histogramIterator.next();
+            if (histogram.getValue().GetCount() > 0)
+            {
+                dump.append(String.format("\t%-32s %s\n", histogram.getKey(), histogram.getValue()));
+            }
+        }
+
+        return dump.toString();
+    }
+}
@@ -0,0 +1,38 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *
+ * @author Enis
+ * Java Flight Recorder event for the data center reading or writing one of its files
+ * when it starts up or exits (see ChocAnDPS). Its duration is how long the read or write took.
+ */
+@Name("chocan.Persistence")
+@Label("Persistence")
+@Category({"ChocAn", "Persistence"})
+@Description("The data center read or wrote its members, providers or service records")
+@StackTrace(false)
+public class PersistenceEvent extends Event
+{
+    @Label("Operation")
+    @Description("Read or Write")
+    public String operation;
+
+    @Label("Entity")
+    @Description("Members, Providers, ServiceRecords or ReportCatalog")
+    public String entity;
+
+    @Label("Count")
+    @Description("Number of members, providers or service records read or written")
+    public int count;
+
+    @Label("Bytes")
+    @Description("Size of the file, 0 if the members or providers were read from the older Info.txt files")
+    @DataAmount
+    public long bytes;
+}
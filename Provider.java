@@ -1,197 +1,509 @@
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Iterator;
-import java.util.ListIterator;
-import java.util.NoSuchElementException;
-import java.util.SortedSet;
-import java.util.TreeSet;
-
-/**
- *
- * @author Enis
- * This is a ChocAn provider class. A ChocAn provider, in addition to the parameters
- * in the Information class, also has its own provider directory to store its services
- * as well as its own date (since there could be different providers in different
- * time zones).
- * 
- * 
- */
-public class Provider extends Information
-{
-    private TreeSet<Service> provDir = new TreeSet<Service>();
-    private LocalDateTime provDate = null;
-    
-    /**
-     * 
-     * @param id_ 
-     */
-    public Provider(final int id_)
-    {
-        super(id_);
-    }
-    
-    /**
-     * 
-     * @param id_
-     * @param date_ 
-     */
-    public Provider(final int id_, final LocalDateTime date_)
-    {
-        super(id_);
-        this.provDate = date_;
-    }
-
-    /**
-     * 
-     * @param id_
-     * @param name_
-     * @param street_
-     * @param city_
-     * @param state_
-     * @param zip_
-     * @param provDate_ 
-     */
-    public Provider(final int id_, final String name_, final String street_, final String city_, final String state_, final String zip_, final LocalDateTime provDate_)
-    {
-        super(id_,name_,street_,city_,state_,zip_);
-        this.provDate = provDate_;
-    }
-    
-    /**
-     * 
-     * @param original 
-     */
-    public Provider(final Provider original) //COPY THE DATE STUFF LATER
-    {
-        super(original); //Copy the parent parameters
-        Iterator<Service> current = original.provDir.iterator();
-        while (current.hasNext()) //Now copy the provider directory
-        {
-            this.provDir.add(new Service(current.next()));
-        }
-    }
-    
-    /**
-     * This method takes in a service code, and looks up the corresponding service
-     * inside the provider directory.
-     * 
-     * @param serviceCode
-     * @return The service if it exists, otherwise null
-     */
-    public Service LookUpService(final int serviceCode)
-    {
-        return Utilities.LookUpElement(serviceCode, this.provDir);
-    }
-    
-    /**
-     * This method inserts a new service into the provider directory
-     * 
-     * @param newService
-     * @return true if the add was successful, false otherwise
-     */
-    public boolean AddService(final Service newService)
-    {
-        return this.provDir.add(newService);
-    }
-    
-    /**
-     * This method removes a service, if it exists
-     * 
-     * @param service
-     * @return true if the remove was successful, false otherwise 
-     */
-    public boolean RemoveService(final Service service)
-    {
-        return this.provDir.remove(service);
-    }
-    
-    /**
-     * 
-     * @return The current date and time of this provider
-     */
-    public LocalDateTime GetProviderDateTime()
-    {
-        return this.provDate;
-    }
-    
-    /**
-     * 
-     * @param date_ 
-     */
-    public void SetProviderDateTime(LocalDateTime date_)
-    {
-        this.provDate = date_;
-    }    
-    
-    /**
-     * 
-     * @return A reference to the provider directory
-     */
-    public TreeSet<Service> GetProviderDirectory()
-    {
-        return this.provDir;
-    }
- 
-    /**
-     * Ignore, used for debugging purposes
-     * 
-     * @param filePath
-     * @throws IOException 
-     */
-    public void WriteServicesTo(final String filePath) throws IOException
-    {
-        BufferedWriter writer = FileUtilities.OpenWriter(filePath); //First write the info
-        Iterator<Service> iterator = this.provDir.iterator();
-        if (iterator.hasNext())
-        {
-            Service currentService = iterator.next();
-            writer.write(currentService.toString());
-            while (iterator.hasNext())
-            {
-                currentService = iterator.next();
-                writer.write("\n"+currentService.toString());
-            }
-        }
-        writer.close();
-    }
-    
-    /**
-     * Extracts this provider's services in alphabetical order and places them in
-     * container. Note that container should use ServiceAlphabetical as its Comparator
-     * object.
-     * 
-     * @param container The data structure for which the services will be extracted to
-     */
-    public void ExtractServicesInAlphabeticalOrder(TreeSet<Service> container)
-    {
-        Iterator<Service> iterator = this.provDir.iterator();
-        while (iterator.hasNext())
-        {
-            container.add(iterator.next());
-        }
-    }
-
-    /**
-     * Ignore, used for debugging purposes.
-     * 
-     * @return 
-     */
-    public String toString()
-    {
-        String info = super.toString();
-        info += "Date: " + (this.provDate.format(DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME))) + "\n";
-        
-        String services = "SERVICES OFFERED: \n";
-        Iterator<Service> current = this.provDir.iterator();
-        while (current.hasNext())
-        {
-            services += current.next().toString() + "\n";
-        }
-        
-        info += services+"\n\n";
-        
-        return info;
-    }
-}
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ *
+ * @author Enis
+ * This is a ChocAn provider class. A ChocAn provider, in addition to the parameters
+ * in the Information class, also has its own provider directory to store its services
+ * as well as its own date (since there could be different providers in different
+ * time zones).
+ * 
+ * The provider's date isn't stored as such. Instead the provider keeps how far ahead of the
+ * data center's date it is (its time zone offset, in seconds) and works its date out from the
+ * data center's clock whenever it's asked for it. That way advancing the data center's time
+ * moves every provider along with it without touching any of them. A provider that hasn't been
+ * added to a data center yet keeps the date it was created with (see SetClock).
+ * 
+ * The provider directory doesn't keep a Service for each entry. It is three arrays in order of
+ * service code: the codes, the codes of the names (see StringDictionary.SERVICE_NAMES), and the
+ * fees, where a fee is null if it's the same as the one in the ServiceCatalog. Looking a service
+ * up is a binary search over the codes, and gives a new Service that writes any change to its
+ * name or fee back to the directory.
+ * 
+ * The arrays are never changed once they're set: a change copies them and then replaces them,
+ * so claims can look services up while the provider is adding or removing services, and
+ * GetDirectory can hand them out to be read without copying them. Changes should be made
+ * while holding the provider's lock in the data center (see ChocAnDPS.GetProviderLock).
+ */
+public class Provider extends Information
+{
+    /**
+     * The provider directory. A new one replaces it whenever it changes, so one that was read
+     * with GetDirectory never changes: going through it sees every service as it was at that time.
+     */
+    public static final class Directory
+    {
+        private final int[] codes; //Sorted
+        private final int[] names; //Codes in StringDictionary.SERVICE_NAMES
+        private final BigDecimal[] fees; //null where it's the catalog's fee
+        
+        private Directory(final int[] codes_, final int[] names_, final BigDecimal[] fees_)
+        {
+            this.codes = codes_;
+            this.names = names_;
+            this.fees = fees_;
+        }
+        
+        /**
+         * 
+         * @return The number of services
+         */
+        public int GetServiceCount()
+        {
+            return this.codes.length;
+        }
+        
+        /**
+         * 
+         * @param serviceCode
+         * @return Where the service is, or a negative number if it isn't there
+         */
+        public int IndexOf(final int serviceCode)
+        {
+            return Arrays.binarySearch(this.codes, serviceCode);
+        }
+        
+        /**
+         * 
+         * @param index From 0 to GetServiceCount()-1, in order of the codes
+         * @return The code of the service at index
+         */
+        public int GetCode(final int index)
+        {
+            return this.codes[index];
+        }
+        
+        /**
+         * 
+         * @param index
+         * @return The name of the service at index
+         */
+        public String GetName(final int index)
+        {
+            return StringDictionary.SERVICE_NAMES.Decode(this.names[index]);
+        }
+        
+        /**
+         * 
+         * @param index
+         * @return The fee of the service at index
+         */
+        public BigDecimal GetFee(final int index)
+        {
+            BigDecimal fee = this.fees[index];
+            return (fee == null ? ServiceCatalog.GLOBAL.LookUp(this.codes[index]).GetFee() : fee);
+        }
+    }
+    
+    /**
+     * A service looked up in the directory. Changing its name or fee also changes the directory.
+     */
+    private class DirectoryService extends Service
+    {
+        private DirectoryService(final int code, final int nameCode, final BigDecimal fee)
+        {
+            super(code, nameCode, fee);
+        }
+        
+        @Override
+        public void SetNameTo(String name_)
+        {
+            super.SetNameTo(name_);
+            Provider.this.ChangeService(this.GetID(), this.GetNameCode(), this.GetFee());
+        }
+        
+        @Override
+        public boolean SetFee(final BigDecimal newFee)
+        {
+            if (!super.SetFee(newFee))
+            {
+                return false;
+            }
+            Provider.this.ChangeService(this.GetID(), this.GetNameCode(), newFee);
+            return true;
+        }
+    }
+    
+    private static final Directory EMPTY_DIRECTORY = new Directory(new int[0], new int[0], new BigDecimal[0]);
+    
+    private volatile Directory provDir = Provider.EMPTY_DIRECTORY;
+    
+    /**
+     * Held while the directory is being replaced, so two changes at once don't undo each other
+     */
+    private final Object directoryLock = new Object();
+    
+    /**
+     * Gives the date the offset is relative to, usually the data center's date (see SetClock)
+     */
+    private volatile Supplier<LocalDateTime> clock = null;
+    
+    /**
+     * Number of seconds this provider's date is ahead of the clock
+     */
+    private volatile long offset = 0;
+    
+    /**
+     * 
+     * @param id_ 
+     */
+    public Provider(final int id_)
+    {
+        super(id_);
+    }
+    
+    /**
+     * 
+     * @param id_
+     * @param date_ 
+     */
+    public Provider(final int id_, final LocalDateTime date_)
+    {
+        super(id_);
+        this.clock = () -> date_;
+    }
+
+    /**
+     * 
+     * @param id_
+     * @param name_
+     * @param street_
+     * @param city_
+     * @param state_
+     * @param zip_
+     * @param provDate_ 
+     */
+    public Provider(final int id_, final String name_, final String street_, final String city_, final String state_, final String zip_, final LocalDateTime provDate_)
+    {
+        super(id_,name_,street_,city_,state_,zip_);
+        this.clock = () -> provDate_;
+    }
+    
+    /**
+     * 
+     * @param original 
+     */
+    public Provider(final Provider original) //COPY THE DATE STUFF LATER
+    {
+        super(original); //Copy the parent parameters
+        this.provDir = original.provDir; //Never changed, so it can be shared
+    }
+    
+    /**
+     * This method takes in a service code, and looks up the corresponding service
+     * inside the provider directory.
+     * 
+     * @param serviceCode
+     * @return The service if it exists, otherwise null
+     */
+    public Service LookUpService(final int serviceCode)
+    {
+        Directory directory = this.provDir;
+        int index = directory.IndexOf(serviceCode);
+        return (index < 0 ? null : this.GetService(directory, index));
+    }
+    
+    /**
+     * This method inserts a new service into the provider directory.
+     * Only its code, name and fee are kept, not newService itself.
+     * 
+     * @param newService
+     * @return true if the add was successful, false otherwise
+     */
+    public boolean AddService(final Service newService)
+    {
+        return this.AddService(newService.GetID(), newService.GetName(), newService.GetFee());
+    }
+    
+    /**
+     * This method inserts a new service into the provider directory
+     * 
+     * @param serviceCode
+     * @param name
+     * @param fee
+     * @return true if the add was successful, false if the code is already in the directory
+     */
+    public boolean AddService(final int serviceCode, final String name, final BigDecimal fee)
+    {
+        Service canonical = ServiceCatalog.GLOBAL.Register(serviceCode, name, fee);
+        synchronized (this.directoryLock)
+        {
+            Directory directory = this.provDir;
+            int index = Arrays.binarySearch(directory.codes, serviceCode);
+            if (index >= 0)
+            {
+                return false;
+            }
+            
+            index = -(index + 1); //Where it goes
+            int length = directory.codes.length;
+            int[] codes = new int[length + 1];
+            int[] names = new int[length + 1];
+            BigDecimal[] fees = new BigDecimal[length + 1];
+            System.arraycopy(directory.codes, 0, codes, 0, index);
+            System.arraycopy(directory.names, 0, names, 0, index);
+            System.arraycopy(directory.fees, 0, fees, 0, index);
+            System.arraycopy(directory.codes, index, codes, index + 1, length - index);
+            System.arraycopy(directory.names, index, names, index + 1, length - index);
+            System.arraycopy(directory.fees, index, fees, index + 1, length - index);
+            codes[index] = serviceCode;
+            names[index] = StringDictionary.SERVICE_NAMES.Encode(name);
+            fees[index] = (fee.equals(canonical.GetFee()) ? null : fee);
+            
+            this.provDir = new Directory(codes, names, fees);
+        }
+        Identification.Revise();
+        return true;
+    }
+    
+    /**
+     * Inserts every service in newServices into the provider directory, skipping the ones
+     * whose codes are already in it
+     * 
+     * @param newServices 
+     */
+    public void AddServices(final Collection<Service> newServices)
+    {
+        Iterator<Service> iterator = newServices.iterator();
+        while (iterator.hasNext())
+        {
+            this.AddService(iterator.next());
+        }
+    }
+    
+    /**
+     * This method removes a service, if it exists
+     * 
+     * @param service
+     * @return true if the remove was successful, false otherwise 
+     */
+    public boolean RemoveService(final Service service)
+    {
+        synchronized (this.directoryLock)
+        {
+            Directory directory = this.provDir;
+            int index = Arrays.binarySearch(directory.codes, service.GetID());
+            if (index < 0)
+            {
+                return false;
+            }
+            
+            int length = directory.codes.length;
+            int[] codes = new int[length - 1];
+            int[] names = new int[length - 1];
+            BigDecimal[] fees = new BigDecimal[length - 1];
+            System.arraycopy(directory.codes, 0, codes, 0, index);
+            System.arraycopy(directory.names, 0, names, 0, index);
+            System.arraycopy(directory.fees, 0, fees, 0, index);
+            System.arraycopy(directory.codes, index + 1, codes, index, length - index - 1);
+            System.arraycopy(directory.names, index + 1, names, index, length - index - 1);
+            System.arraycopy(directory.fees, index + 1, fees, index, length - index - 1);
+            
+            this.provDir = new Directory(codes, names, fees);
+        }
+        Identification.Revise();
+        return true;
+    }
+    
+    /**
+     * 
+     * @return The number of services in the provider directory
+     */
+    public int GetServiceCount()
+    {
+        return this.provDir.GetServiceCount();
+    }
+    
+    /**
+     * 
+     * @return The provider directory as it is now. Unlike GetProviderDirectory, this doesn't
+     * make a Service for each entry, so it's what should be used to go through all of them.
+     */
+    public Directory GetDirectory()
+    {
+        return this.provDir;
+    }
+    
+    /**
+     * Sets the name and fee of the service with serviceCode, if it's in the directory
+     * (see DirectoryService)
+     * 
+     * @param serviceCode
+     * @param nameCode
+     * @param fee 
+     */
+    private void ChangeService(final int serviceCode, final int nameCode, final BigDecimal fee)
+    {
+        synchronized (this.directoryLock)
+        {
+            Directory directory = this.provDir;
+            int index = Arrays.binarySearch(directory.codes, serviceCode);
+            if (index < 0) //Removed since it was looked up
+            {
+                return;
+            }
+            
+            Service canonical = ServiceCatalog.GLOBAL.LookUp(serviceCode);
+            int[] names = directory.names.clone();
+            BigDecimal[] fees = directory.fees.clone();
+            names[index] = nameCode;
+            fees[index] = (fee.equals(canonical.GetFee()) ? null : fee);
+            
+            this.provDir = new Directory(directory.codes, names, fees);
+        }
+    }
+    
+    /**
+     * 
+     * @param directory
+     * @param index
+     * @return The service at index in directory
+     */
+    private Service GetService(final Directory directory, final int index)
+    {
+        return new DirectoryService(directory.codes[index], directory.names[index], directory.GetFee(index));
+    }
+    
+    /**
+     * 
+     * @return The current date and time of this provider, or null if it was never given one
+     */
+    public LocalDateTime GetProviderDateTime()
+    {
+        Supplier<LocalDateTime> current = this.clock;
+        return (current == null ? null : current.get().plusSeconds(this.offset));
+    }
+    
+    /**
+     * Sets the provider's date, by changing its offset from the clock.
+     * 
+     * @param date_ 
+     */
+    public void SetProviderDateTime(LocalDateTime date_)
+    {
+        Supplier<LocalDateTime> current = this.clock;
+        if (current == null)
+        {
+            this.clock = () -> date_;
+        }
+        else
+        {
+            this.offset = ChronoUnit.SECONDS.between(current.get(), date_);
+        }
+    }
+    
+    /**
+     * Makes the provider's date follow clock_ (the data center calls this with its own date
+     * when the provider is added). The offset is worked out so that the provider's date is
+     * the same right after the call as it was before.
+     * 
+     * @param clock_ 
+     */
+    public void SetClock(Supplier<LocalDateTime> clock_)
+    {
+        LocalDateTime date = this.GetProviderDateTime();
+        this.offset = (date == null ? 0 : ChronoUnit.SECONDS.between(clock_.get(), date));
+        this.clock = clock_;
+    }
+    
+    /**
+     * 
+     * @return The number of seconds this provider's date is ahead of the data center's
+     */
+    public long GetOffset()
+    {
+        return this.offset;
+    }
+    
+    /**
+     * 
+     * @return The services in the provider directory, in order of their codes. This is a copy:
+     * adding or removing services in it doesn't change the directory (use AddService and RemoveService
+     * for that), but changing the name or fee of one of them does.
+     */
+    public NavigableSet<Service> GetProviderDirectory()
+    {
+        Directory directory = this.provDir;
+        TreeSet<Service> services = new TreeSet<Service>();
+        for (int i = 0; i < directory.codes.length; ++i)
+        {
+            services.add(this.GetService(directory, i));
+        }
+        return services;
+    }
+ 
+    /**
+     * Ignore, used for debugging purposes
+     * 
+     * @param filePath
+     * @throws IOException 
+     */
+    public void WriteServicesTo(final String filePath) throws IOException
+    {
+        BufferedWriter writer = FileUtilities.OpenWriter(filePath); //First write the info
+        Iterator<Service> iterator = this.GetProviderDirectory().iterator();
+        if (iterator.hasNext())
+        {
+            Service currentService = iterator.next();
+            writer.write(currentService.toString());
+            while (iterator.hasNext())
+            {
+                currentService = iterator.next();
+                writer.write("\n"+currentService.toString());
+            }
+        }
+        writer.close();
+    }
+    
+    /**
+     * Extracts this provider's services in alphabetical order and places them in
+     * container. Note that container should use ServiceAlphabetical as its Comparator
+     * object.
+     * 
+     * @param container The data structure for which the services will be extracted to
+     */
+    public void ExtractServicesInAlphabeticalOrder(TreeSet<Service> container)
+    {
+        Iterator<Service> iterator = this.GetProviderDirectory().iterator();
+        while (iterator.hasNext())
+        {
+            container.add(iterator.next());
+        }
+    }
+
+    /**
+     * Ignore, used for debugging purposes.
+     * 
+     * @return 
+     */
+    public String toString()
+    {
+        String info = super.toString();
+        info += "Date: " + (this.GetProviderDateTime().format(DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME))) + "\n";
+        
+        String services = "SERVICES OFFERED: \n";
+        Iterator<Service> current = this.GetProviderDirectory().iterator();
+        while (current.hasNext())
+        {
+            services += current.next().toString() + "\n";
+        }
+        
+        info += services+"\n\n";
+        
+        return info;
+    }
+}
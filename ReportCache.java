@@ -0,0 +1,123 @@
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author Enis
+ * This keeps the last manager requested member and provider report of each entity, so that
+ * asking for the same report again doesn't go through the records and look up every provider,
+ * member and service in them again.
+ *
+ * Only the part of the report after the header is kept (the service records, and the totals
+ * of a provider report), as the ASCII bytes that were written. The header is rendered every time,
+ * since it holds the entity's own name and address, which can change without any new records.
+ * A kept report is used again iff all of these are still the same:
+ *      1) The reference date, which decides the week and which records are in it
+ *      2) The version of the entity's record list on the disk (see ServiceRecordList.GetVersion),
+ *         which changes whenever ServiceRecordDisk.WriteToDisk adds a record for that entity
+ *         or one is filtered out
+ *      3) The revision of the names, fees and provider directories (see Identification.GetRevision),
+ *         since the records are written with the names and fees they currently have
+ * Otherwise the report is rendered again and replaces the kept one. A claim for one member
+ * therefore doesn't throw away the reports of any other member, or of providers who didn't
+ * provide it.
+ *
+ * Weekly reports aren't kept, each of them is only written once. The cache lives as long as the
+ * data center and isn't saved. It can be used from several threads.
+ */
+public class ReportCache
+{
+    //Metrics, see Metrics.java
+    private static final LongAdder HITS = Metrics.Counter("report.cache.hits");
+    private static final LongAdder MISSES = Metrics.Counter("report.cache.misses");
+
+    /**
+     * Most reports kept at once. When there are more, an arbitrary one is dropped.
+     */
+    public static final int MAX_ENTRIES = 4096;
+
+    /**
+     * The rendered part of one report, and what it was rendered from
+     */
+    public static class Entry
+    {
+        public LocalDateTime refDate = null;
+        public long version = 0; //Version of the entity's record list
+        public long revision = 0; //Identification.GetRevision() at the time
+        public byte[] body = null; //Everything after the header
+        public int entries = 0; //Number of service records in the report
+        public int totalConsultations = 0; //Provider reports only
+        public BigDecimal totalFees = null; //Provider reports only
+    }
+
+    /**
+     * The kept reports, by "entityLoc/id"
+     */
+    private ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Returns the report kept for the entity, if it was rendered from the same records
+     * and names as it would be now.
+     *
+     * @param entityLoc FileUtilities.MEMBER_LOC or PROVIDERS_LOC
+     * @param id Member or provider number
+     * @param refDate
+     * @param version The current version of the entity's record list, read before its records are
+     * @param revision The current Identification.GetRevision()
+     * @return The kept report, or null if there's none or it's out of date
+     */
+    public Entry Get(final String entityLoc, final int id, final LocalDateTime refDate, final long version, final long revision)
+    {
+        Entry entry = this.entries.get(entityLoc+"/"+id);
+        if (entry != null && entry.version == version && entry.revision == revision && entry.refDate.equals(refDate))
+        {
+            ReportCache.HITS.increment();
+            return entry;
+        }
+
+        ReportCache.MISSES.increment();
+        return null;
+    }
+
+    /**
+     * Keeps entry as the entity's report, replacing the one kept before.
+     * The entry must not be changed afterwards.
+     *
+     * @param entityLoc
+     * @param id
+     * @param entry
+     */
+    public void Put(final String entityLoc, final int id, final Entry entry)
+    {
+        if (this.entries.size() >= ReportCache.MAX_ENTRIES)
+        {
+            Iterator<String> keys = this.entries.keySet().iterator();
+            if (keys.hasNext())
+            {
+                keys.next();
+                keys.remove();
+            }
+        }
+        this.entries.put(entityLoc+"/"+id, entry);
+    }
+
+    /**
+     * Drops every kept report
+     */
+    public void Clear()
+    {
+        this.entries.clear();
+    }
+
+    /**
+     *
+     * @return The number of reports kept
+     */
+    public int Size()
+    {
+        return this.entries.size();
+    }
+}
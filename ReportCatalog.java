@@ -0,0 +1,536 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ *
+ * @author Enis
+ * This is the index of every report the data center has written. For each member, provider
+ * (and the EFT and summary reports, which are kept under number 0) it knows, week by week,
+ * whether the weekly report was written (and whether it went into the week's archive, see
+ * ArchiveReportOutput) and how many manager requested reports there are.
+ *
+ * Manager reports are numbered 1.txt, 2.txt, ... within the week's directory. Finding the next
+ * number used to mean checking whether each of the files before it existed; with the catalog
+ * it's just the count kept for that week plus one. Likewise, listing an entity's reports
+ * doesn't need to go through its directories.
+ *
+ * The catalog is saved to ReportCatalog.txt on exit, one line per entity and week:
+ *      Members, Providers, EFT_Reports or Summary_Reports,number,first day of the week (MM-DD-YYYY),manager reports,weekly,archived
+ *
+ * If that file doesn't exist (e.g. the data center was saved before the catalog was added),
+ * or has a line that can't be read, the catalog is built once from the report directories and
+ * archives instead. The file is deleted once it's read, so if the data center stops without
+ * saving it again (e.g. it crashed), the next start rebuilds the catalog rather than reading
+ * one that's missing the reports written since.
+ *
+ * The catalog can be used from several threads (e.g. the manager terminal and the weekly
+ * scheduler), each entity's entries are locked separately.
+ */
+public class ReportCatalog
+{
+    /**
+     * The reports of one entity for one week. Entries handed out by the catalog are copies.
+     */
+    public static class Entry
+    {
+        public String entityLoc = null; //FileUtilities.MEMBER_LOC, PROVIDERS_LOC, EFT_LOC or SUMMARY_LOC
+        public int id = 0; //Member or provider number, 0 for the EFT and summary reports
+        public LocalDate weekStart = null; //First day of the week
+        public int managerReports = 0; //Number of manager requested reports, named 1.txt to managerReports.txt
+        public boolean weekly = false; //Whether the weekly report was written
+        public boolean archived = false; //Whether the weekly report is in the week's archive rather than the directory
+
+        public Entry(final String entityLoc_, final int id_, final LocalDate weekStart_)
+        {
+            this.entityLoc = entityLoc_;
+            this.id = id_;
+            this.weekStart = weekStart_;
+        }
+
+        private Entry(final Entry other)
+        {
+            this(other.entityLoc, other.id, other.weekStart);
+            this.managerReports = other.managerReports;
+            this.weekly = other.weekly;
+            this.archived = other.archived;
+        }
+
+        /**
+         *
+         * @return The name of the week's report directory, "Reports for MM-DD-YYYY to MM-DD-YYYY"
+         */
+        public String GetWeekName()
+        {
+            return ReportCatalog.GetWeekName(this.weekStart);
+        }
+
+        /**
+         *
+         * @return The directory the week's reports are written to
+         */
+        public String GetDirectory()
+        {
+            return ReportCatalog.GetDirectory(this.entityLoc, this.id, this.GetWeekName());
+        }
+
+        /**
+         * Returns where each of the reports is, the weekly one first. An archived weekly report
+         * is given as the archive's path and the entry's name, separated by "!".
+         *
+         * @return
+         */
+        public List<String> GetFiles()
+        {
+            ArrayList<String> files = new ArrayList<String>(this.managerReports + 1);
+            if (this.weekly)
+            {
+                files.add(this.archived ? ArchiveReportOutput.GetArchiveName(this.GetWeekName())+"!"+ArchiveReportOutput.GetEntryName(this.entityLoc, this.id)
+                                        : this.GetDirectory()+"/"+FileUtilities.WEEKLY_REPORT_LOC);
+            }
+            for (int i = 1; i <= this.managerReports; ++i)
+            {
+                files.add(this.GetDirectory()+"/"+i+".txt");
+            }
+
+            return files;
+        }
+    }
+
+    /**
+     * File holding the catalog, relative to FILE_LOC
+     */
+    public static final String CATALOG_LOC = "ReportCatalog.txt";
+
+    private static final String WEEK_PREFIX = "Reports for ";
+
+    /**
+     * Each entity's entries in order of week, keyed by "entityLoc/id"
+     */
+    private ConcurrentHashMap<String, List<Entry>> entities = new ConcurrentHashMap<String, List<Entry>>();
+
+    /**
+     * Number of entity and week entries in the catalog
+     */
+    private volatile int size = 0;
+
+    /**
+     * Returns the number of the next manager report of the entity for the week starting
+     * at weekStart, and counts it.
+     *
+     * @param entityLoc
+     * @param id
+     * @param weekStart
+     * @return The report's number, i.e. it is named number.txt
+     */
+    public int NextReportNumber(final String entityLoc, final int id, final LocalDate weekStart)
+    {
+        List<Entry> list = this.GetList(entityLoc, id);
+        synchronized (list)
+        {
+            return ++this.GetEntry(list, entityLoc, id, weekStart).managerReports;
+        }
+    }
+
+    /**
+     * Records that the weekly report of the entity for the week starting at weekStart was written.
+     * Writing it again (e.g. when the week is retried) doesn't change anything.
+     *
+     * @param entityLoc
+     * @param id
+     * @param weekStart
+     * @param archived True if it was written to the week's archive
+     */
+    public void AddWeeklyReport(final String entityLoc, final int id, final LocalDate weekStart, final boolean archived)
+    {
+        List<Entry> list = this.GetList(entityLoc, id);
+        synchronized (list)
+        {
+            Entry entry = this.GetEntry(list, entityLoc, id, weekStart);
+            entry.weekly = true;
+            entry.archived = archived;
+        }
+    }
+
+    /**
+     *
+     * @param entityLoc
+     * @param id
+     * @return The entity's reports, one entry per week in order of week. Empty if there are none.
+     */
+    public List<Entry> ListReports(final String entityLoc, final int id)
+    {
+        List<Entry> list = this.entities.get(ReportCatalog.GetKey(entityLoc, id));
+        ArrayList<Entry> copy = new ArrayList<Entry>();
+        if (list != null)
+        {
+            synchronized (list)
+            {
+                for (Entry entry : list)
+                {
+                    copy.add(new Entry(entry));
+                }
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     *
+     * @param entityLoc
+     * @param id
+     * @param weekStart
+     * @return The entity's reports for the week starting at weekStart, null if there are none
+     */
+    public Entry ListReports(final String entityLoc, final int id, final LocalDate weekStart)
+    {
+        List<Entry> list = this.entities.get(ReportCatalog.GetKey(entityLoc, id));
+        if (list == null)
+        {
+            return null;
+        }
+
+        synchronized (list)
+        {
+            int index = ReportCatalog.Find(list, weekStart);
+            return (index < 0 ? null : new Entry(list.get(index)));
+        }
+    }
+
+    /**
+     *
+     * @return The number of entity and week entries in the catalog
+     */
+    public int Size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns the first day of the week date is in
+     *
+     * @param date
+     * @return
+     */
+    public static LocalDate GetWeekStart(final LocalDateTime date)
+    {
+        return date.toLocalDate().minusDays(Utilities.DayDifference(Parameters.WEEK_START, date.getDayOfWeek()));
+    }
+
+    /**
+     *
+     * @param weekStart
+     * @return The name of the report directory of the week starting at weekStart
+     */
+    public static String GetWeekName(final LocalDate weekStart)
+    {
+        return ReportCatalog.WEEK_PREFIX+Format.GetDateRange(weekStart.atStartOfDay(), weekStart.plusDays(Parameters.WEEK_LENGTH).atStartOfDay());
+    }
+
+    /**
+     *
+     * @param entityLoc
+     * @param id
+     * @param weekName
+     * @return The directory the entity's reports for the week having weekName are written to
+     */
+    public static String GetDirectory(final String entityLoc, final int id, final String weekName)
+    {
+        return (id == 0 ? FileUtilities.FILE_LOC+"/"+entityLoc+"/"+weekName : FileUtilities.FILE_LOC+"/"+entityLoc+"/"+id+"/"+weekName);
+    }
+
+    /**
+     * Reads the catalog from CATALOG_LOC and deletes it, or builds it from the report directories
+     * if it doesn't exist or a line in it is malformed.
+     *
+     * @throws IOException
+     */
+    public void Read() throws IOException
+    {
+        String path = FileUtilities.FILE_LOC+"/"+ReportCatalog.CATALOG_LOC;
+        BufferedReader reader = FileUtilities.OpenReader(path);
+        if (reader == null)
+        {
+            this.Rebuild();
+            return;
+        }
+
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(Format.DATE);
+        String line = null;
+        try
+        {
+            while ((line = reader.readLine()) != null)
+            {
+                String[] fields = line.split(",");
+                List<Entry> list = this.GetList(fields[0], Integer.parseInt(fields[1]));
+                Entry entry = this.GetEntry(list, fields[0], Integer.parseInt(fields[1]), LocalDate.parse(fields[2], dateFormat));
+                entry.managerReports = Integer.parseInt(fields[3]);
+                entry.weekly = Boolean.parseBoolean(fields[4]);
+                entry.archived = Boolean.parseBoolean(fields[5]);
+            }
+        }catch(NumberFormatException | DateTimeParseException | ArrayIndexOutOfBoundsException ex) //Cut off or damaged, e.g. by a crash while saving
+        {
+            System.out.println("ERROR! "+path+" has a malformed line (\""+line+"\"), rebuilding the report catalog from the report directories.");
+            this.entities.clear();
+            this.size = 0;
+            this.Rebuild();
+        }finally
+        {
+            reader.close();
+        }
+
+        Files.deleteIfExists(Paths.get(path)); //Written again on exit, see above
+    }
+
+    /**
+     * Writes the catalog to CATALOG_LOC (see above). It's written to a temporary file first,
+     * so stopping partway doesn't leave half a catalog behind.
+     *
+     * @throws IOException
+     */
+    public void Write() throws IOException
+    {
+        String path = FileUtilities.FILE_LOC+"/"+ReportCatalog.CATALOG_LOC;
+        BufferedWriter writer = new BufferedWriter(Files.newBufferedWriter(Paths.get(path+".tmp"), FileUtilities.FILE_DECODING), FileUtilities.ROSTER_BUFFER_SIZE);
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(Format.DATE);
+        try
+        {
+            for (List<Entry> list : this.entities.values())
+            {
+                synchronized (list)
+                {
+                    for (Entry entry : list)
+                    {
+                        writer.write(entry.entityLoc+","+entry.id+","+entry.weekStart.format(dateFormat)+","+entry.managerReports+","+entry.weekly+","+entry.archived+"\n");
+                    }
+                }
+            }
+        }finally
+        {
+            writer.close();
+        }
+
+        Files.move(Paths.get(path+".tmp"), Paths.get(path), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Builds the catalog from the reports on the disk. Only done when there's no catalog file that can be read.
+     *
+     * @throws IOException
+     */
+    private void Rebuild() throws IOException
+    {
+        String[] entityLocs = {FileUtilities.MEMBER_LOC, FileUtilities.PROVIDERS_LOC};
+        for (String entityLoc : entityLocs)
+        {
+            File[] entityDirs = new File(FileUtilities.FILE_LOC+"/"+entityLoc).listFiles(File::isDirectory);
+            for (int i = 0; entityDirs != null && i < entityDirs.length; ++i)
+            {
+                try
+                {
+                    this.AddDirectory(entityLoc, Integer.parseInt(entityDirs[i].getName()), entityDirs[i]);
+                }catch(NumberFormatException ex) //Not a member or provider directory
+                {
+                }
+            }
+        }
+
+        this.AddDirectory(FileUtilities.EFT_LOC, 0, new File(FileUtilities.FILE_LOC+"/"+FileUtilities.EFT_LOC));
+        this.AddDirectory(FileUtilities.SUMMARY_LOC, 0, new File(FileUtilities.FILE_LOC+"/"+FileUtilities.SUMMARY_LOC));
+
+        File[] archives = new File(FileUtilities.FILE_LOC+"/"+FileUtilities.REPORT_ARCHIVE_LOC).listFiles((dir, name) -> name.endsWith(".zip"));
+        for (int i = 0; archives != null && i < archives.length; ++i)
+        {
+            LocalDate weekStart = ReportCatalog.ParseWeekName(archives[i].getName().substring(0, archives[i].getName().length() - 4));
+            if (weekStart == null)
+            {
+                continue;
+            }
+
+            ZipFile archive = new ZipFile(archives[i], FileUtilities.FILE_DECODING);
+            try
+            {
+                Enumeration<? extends ZipEntry> entries = archive.entries();
+                while (entries.hasMoreElements())
+                {
+                    String[] parts = entries.nextElement().getName().split("/"); //entityLoc/id/Main.txt
+                    try
+                    {
+                        if (parts.length == 3)
+                        {
+                            this.AddWeeklyReport(parts[0], Integer.parseInt(parts[1]), weekStart, true);
+                        }
+                    }catch(NumberFormatException ex) //Not a report
+                    {
+                    }
+                }
+            }finally
+            {
+                archive.close();
+            }
+        }
+    }
+
+    /**
+     * Adds the reports in each week directory under entityDir to the catalog
+     *
+     * @param entityLoc
+     * @param id
+     * @param entityDir
+     */
+    private void AddDirectory(final String entityLoc, final int id, final File entityDir)
+    {
+        File[] weekDirs = entityDir.listFiles(File::isDirectory);
+        for (int i = 0; weekDirs != null && i < weekDirs.length; ++i)
+        {
+            LocalDate weekStart = ReportCatalog.ParseWeekName(weekDirs[i].getName());
+            String[] names = weekDirs[i].list();
+            if (weekStart == null || names == null)
+            {
+                continue;
+            }
+
+            int managerReports = 0;
+            boolean weekly = false;
+            for (String name : names)
+            {
+                if (name.equals(FileUtilities.WEEKLY_REPORT_LOC))
+                {
+                    weekly = true;
+                }
+                else if (name.endsWith(".txt"))
+                {
+                    try
+                    {
+                        managerReports = Math.max(managerReports, Integer.parseInt(name.substring(0, name.length() - 4)));
+                    }catch(NumberFormatException ex)
+                    {
+                    }
+                }
+            }
+
+            List<Entry> list = this.GetList(entityLoc, id);
+            Entry entry = this.GetEntry(list, entityLoc, id, weekStart);
+            entry.managerReports = managerReports;
+            entry.weekly = weekly;
+        }
+    }
+
+    /**
+     *
+     * @param weekName
+     * @return The first day of the week having weekName, null if it isn't a week's name
+     */
+    private static LocalDate ParseWeekName(final String weekName)
+    {
+        if (!weekName.startsWith(ReportCatalog.WEEK_PREFIX) || weekName.length() < ReportCatalog.WEEK_PREFIX.length() + Format.DATE.length())
+        {
+            return null;
+        }
+
+        try
+        {
+            return LocalDate.parse(weekName.substring(ReportCatalog.WEEK_PREFIX.length(), ReportCatalog.WEEK_PREFIX.length() + Format.DATE.length()), DateTimeFormatter.ofPattern(Format.DATE));
+        }catch(DateTimeParseException ex)
+        {
+            return null;
+        }
+    }
+
+    private static String GetKey(final String entityLoc, final int id)
+    {
+        return entityLoc+"/"+id;
+    }
+
+    /**
+     * Returns the entity's list of entries, adding an empty one first if there isn't any.
+     *
+     * @param entityLoc
+     * @param id
+     * @return
+     */
+    private List<Entry> GetList(final String entityLoc, final int id)
+    {
+        return this.entities.computeIfAbsent(ReportCatalog.GetKey(entityLoc, id), key -> new ArrayList<Entry>(4));
+    }
+
+    /**
+     * Returns the entry in list for the week starting at weekStart, adding it first if there isn't one.
+     * The caller must hold list's lock (or be the only one using the catalog).
+     *
+     * @param list
+     * @param entityLoc
+     * @param id
+     * @param weekStart
+     * @return
+     */
+    private Entry GetEntry(List<Entry> list, final String entityLoc, final int id, final LocalDate weekStart)
+    {
+        int index = ReportCatalog.Find(list, weekStart);
+        if (index >= 0)
+        {
+            return list.get(index);
+        }
+
+        Entry entry = new Entry(entityLoc, id, weekStart);
+        list.add(-index - 1, entry);
+        synchronized (this)
+        {
+            this.size++;
+        }
+        return entry;
+    }
+
+    /**
+     * Binary search for the entry of the week starting at weekStart. Reports are nearly always
+     * for the latest week, so the last entry is checked first.
+     *
+     * @param list Entries in order of week
+     * @param weekStart
+     * @return The entry's index, or (-(insertion point) - 1) if there is none
+     */
+    private static int Find(List<Entry> list, final LocalDate weekStart)
+    {
+        int low = 0;
+        int high = list.size() - 1;
+        if (high >= 0 && list.get(high).weekStart.isBefore(weekStart))
+        {
+            return -(high + 1) - 1;
+        }
+
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int comparison = list.get(middle).weekStart.compareTo(weekStart);
+            if (comparison < 0)
+            {
+                low = middle + 1;
+            }
+            else if (comparison > 0)
+            {
+                high = middle - 1;
+            }
+            else
+            {
+                return middle;
+            }
+        }
+
+        return -low - 1;
+    }
+}
@@ -0,0 +1,138 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ *
+ * @author Enis
+ * This is the tool for getting weekly reports back out of a week's report archive
+ * (see ArchiveReportOutput). It is run from the directory holding ChocAnFiles as
+ *      java ReportExtractor ARCHIVE                            Lists the reports in ARCHIVE
+ *      java ReportExtractor ARCHIVE member|provider N          Prints the report of member or provider N
+ *      java ReportExtractor ARCHIVE member|provider N -save    Writes it where it would be without the archive,
+ *                                                              i.e. ChocAnFiles/Members/N/Reports for .../Main.txt
+ *
+ * ARCHIVE is the path of the archive, e.g. "ChocAnFiles/Report_Archives/Reports for 10-31-2015 to 11-06-2015.zip".
+ * Only the report asked for is read, using the archive's central directory to find it.
+ */
+public class ReportExtractor
+{
+    private ZipFile archive = null;
+
+    /**
+     * Opens the archive and reads its central directory.
+     *
+     * @param archivePath
+     * @throws IOException If it doesn't exist or isn't an archive
+     */
+    public ReportExtractor(final String archivePath) throws IOException
+    {
+        this.archive = new ZipFile(archivePath, FileUtilities.FILE_DECODING);
+    }
+
+    /**
+     *
+     * @return The entry names of every report in the archive, in the order they were written
+     */
+    public List<String> ListReports()
+    {
+        ArrayList<String> names = new ArrayList<String>(this.archive.size());
+        Enumeration<? extends ZipEntry> entries = this.archive.entries();
+        while (entries.hasMoreElements())
+        {
+            names.add(entries.nextElement().getName());
+        }
+
+        return names;
+    }
+
+    /**
+     * Reads the weekly report of the member or provider having id.
+     *
+     * @param entityLoc FileUtilities.MEMBER_LOC or FileUtilities.PROVIDERS_LOC
+     * @param id
+     * @return The report, or null if the archive doesn't have one for them
+     * @throws IOException
+     */
+    public String ReadReport(final String entityLoc, final int id) throws IOException
+    {
+        ZipEntry entry = this.archive.getEntry(ArchiveReportOutput.GetEntryName(entityLoc, id));
+        if (entry == null)
+        {
+            return null;
+        }
+
+        InputStream in = this.archive.getInputStream(entry);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int)Math.max(0, entry.getSize()));
+        try
+        {
+            in.transferTo(bytes);
+        }finally
+        {
+            in.close();
+        }
+
+        return bytes.toString(FileUtilities.FILE_DECODING);
+    }
+
+    public void Close() throws IOException
+    {
+        this.archive.close();
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 1 && args.length != 3 && args.length != 4)
+        {
+            System.out.println("Usage: java ReportExtractor ARCHIVE [member|provider N [-save]]");
+            System.exit(2);
+        }
+
+        ReportExtractor extractor = new ReportExtractor(args[0]);
+        try
+        {
+            if (args.length == 1)
+            {
+                List<String> names = extractor.ListReports();
+                for (int i = 0; i < names.size(); ++i)
+                {
+                    System.out.println(names.get(i));
+                }
+                return;
+            }
+
+            String entityLoc = (args[1].equalsIgnoreCase("member") ? FileUtilities.MEMBER_LOC : FileUtilities.PROVIDERS_LOC);
+            int id = Integer.parseInt(args[2]);
+            String report = extractor.ReadReport(entityLoc, id);
+            if (report == null)
+            {
+                System.out.println("ERROR: The archive has no report for "+args[1]+" "+id+"!");
+                System.exit(1);
+            }
+
+            if (args.length == 4 && args[3].equals("-save"))
+            {
+                String weekName = Paths.get(args[0]).getFileName().toString().replaceFirst("\\.zip$", "");
+                String reportDir = FileUtilities.FILE_LOC+"/"+entityLoc+"/"+id+"/"+weekName;
+                FileUtilities.CreateDirectory(reportDir);
+                ReportWriter writer = FileUtilities.OpenReportWriter(reportDir+"/"+FileUtilities.WEEKLY_REPORT_LOC);
+                writer.write(report);
+                writer.close();
+                System.out.println("Saved to "+reportDir+"/"+FileUtilities.WEEKLY_REPORT_LOC);
+            }
+            else
+            {
+                System.out.print(report);
+            }
+        }finally
+        {
+            extractor.Close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *
+ * @author Enis
+ * Java Flight Recorder event for a report being generated by the ReportGenerator.
+ * Its duration is how long the report took to write.
+ */
+@Name("chocan.ReportGenerated")
+@Label("Report Generated")
+@Category({"ChocAn", "Reports"})
+@Description("A member, provider, EFT or summary report was written")
+@StackTrace(false)
+public class ReportGeneratedEvent extends Event
+{
+    @Label("Report Type")
+    public String reportType;
+
+    @Label("Entity Number")
+    @Description("The member or provider the report is for, 0 for EFT and summary reports")
+    public int entityNumber;
+
+    @Label("Weekly")
+    @Description("True if written by the weekly processing, false if requested by a manager")
+    public boolean weekly;
+
+    @Label("Entries")
+    @Description("Service records (member and provider reports) or providers (EFT and summary reports) in the report")
+    public int entries;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+}
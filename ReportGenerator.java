@@ -1,452 +1,803 @@
-import java.math.BigDecimal;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.IOException;
-import java.math.MathContext;
-import java.time.DayOfWeek;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.AbstractMap;
-import java.util.Iterator;
-import java.util.ListIterator;
-import java.util.TreeSet;
-
-/**
- *
- * @author Enis
- * This class generates all four reports required in the requirements document,
- * and also does the weekly data processing for the data center.
- */
-public class ReportGenerator
-{
-    /**
-     * This method generates an individual member report using the information provided in args,
-     * and it also takes in the database to look up the necessary information.
-     * 
-     * Note that this method should be called iff the member has at least one service record
-     * that is within the reference date in args. Otherwise it will fail.
-     * 
-     * @param args Contains the information needed to generate the individual report
-     * @param database Used to look up additional information associated with the record (e.g. service provider, service name).
-     * 
-     * @throws IOException 
-     */
-    public static void GenerateMemberReport(ReportParameters args, ChocAnDPS database) throws IOException
-    {
-        Utilities.SetInfoParameters("Member", "member", "to"); //Set the information to tell ReportGeneratorIntro that we're generating the intro of a member report.
-        BufferedWriter writer = ReportGenerator.GenerateReportIntro(args,FileUtilities.MEMBER_LOC, Utilities.info); //First write the introduction of the report and the member information fields
-        
-        String tabOffset = "\t";
-        
-        ServiceRecord currentRecord = args.iterator.next(); //Now write the service records associated with that member.
-        do
-        {           
-            writer.write(tabOffset+"Date of service: "+currentRecord.GetServiceDate().format(DateTimeFormatter.ofPattern(Format.DATE))+"\n");
-            Provider servProvider = database.LookUpProvider(currentRecord.GetProviderNumber());
-            writer.write(tabOffset+"Provider name: "+servProvider.GetName()+"\n");
-            writer.write(tabOffset+"Service name: "+servProvider.LookUpService(currentRecord.GetServiceCode()).GetName()+"\n\n");
-        } while (args.iterator.hasNext() && (Utilities.IsWithinDate((currentRecord = args.iterator.next()).GetCurrentDateTime(), args.refDate)));
-        
-        writer.close();
-    }
-    
-    /**
-     * This method generates an individual provider report using the information provided in args,
-     * and it also takes in the database to look up the necessary information.
-     * 
-     * Note that this method should be called iff the provider has at least one service record
-     * that is within the reference date in args. Otherwise it will fail.
-     * 
-     * 
-     * 
-     * @param args
-     * @param database Used to look up additional information associated with the record
-     * 
-     * @return A two-tuple containing the total number of consultations and fees for the provider. This is returned
-     * so as to facilitate concurrent generation of the EFT and summary reports during the DPS' weekly processing.
-     * Note that these values are within their specified limits. If during the processing one of them is found to exceed
-     * the limit (e.g. fee becomes greater than $99999.99), then it is brought back down to the limit before written
-     * and returned.
-     * @throws IOException 
-     */
-    public static AbstractMap.SimpleEntry<Integer, BigDecimal> GenerateProviderReport(ReportParameters args, ChocAnDPS database) throws IOException
-    {
-        Utilities.SetInfoParameters("Provider", "provider", "by");
-        BufferedWriter writer = ReportGenerator.GenerateReportIntro(args, FileUtilities.PROVIDERS_LOC, Utilities.info); //Write the introduction of the report and the member information fields.
-        
-        String tabOffset = "\t";
-        int totalConsultations = 0;
-        BigDecimal totalFees = new BigDecimal("0");
-        
-        ServiceRecord currentRecord = args.iterator.next();    //Now write the services associated with that provider.     
-        do
-        {
-            int memberNumber = currentRecord.GetMemberNumber();
-            int serviceCode = currentRecord.GetServiceCode();
-            int providerNumber = currentRecord.GetProviderNumber();
-            BigDecimal fee = database.LookUpProvider(providerNumber).LookUpService(serviceCode).GetFee();
-            writer.write(tabOffset+"Date of service: "+currentRecord.GetServiceDate().format(DateTimeFormatter.ofPattern(Format.DATE))+"\n");
-            writer.write(tabOffset+"Date and time data were received by the computer: "+currentRecord.GetCurrentDateTime().format(DateTimeFormatter.ofPattern(Format.DATE+" "+Format.TIME))+"\n");
-            writer.write(tabOffset+"Member name: "+database.LookUpMember(memberNumber).GetName()+"\n");
-            writer.write(tabOffset+"Member code: "+memberNumber+"\n");
-            writer.write(tabOffset+"Service code: "+serviceCode+"\n");
-            writer.write(tabOffset+"Fee to be paid: "+Format.USD_COST_FORMAT.format(fee.doubleValue())+"\n\n");
-
-            ++totalConsultations;
-            totalFees = totalFees.add(fee);
-        } while (args.iterator.hasNext() && (Utilities.IsWithinDate((currentRecord = args.iterator.next()).GetCurrentDateTime(), args.refDate)));
-        
-        totalConsultations = Utilities.AdjustIntToLimit(totalConsultations, Limits.MEMBER_CONSULTATIONS_LIMIT); //Make sure the consultations and fees are within the specified limits.   
-        totalFees = Utilities.AdjustFeeToLimit(totalFees, Limits.WEEKLY_FEE_LIMIT);
-        
-        writer.write("Total number of consultations with members: "+totalConsultations+"\n");
-        writer.write("Total fee for the week: "+Format.USD_COST_FORMAT.format(totalFees.doubleValue()));
-        
-        writer.close();
-        
-        return new AbstractMap.SimpleEntry<Integer, BigDecimal>(totalConsultations, totalFees);
-    }
-    
-    /**
-     * This method generates the EFT report corresponding to "database".
-     * It contains all of the fields specified in the Requirements Document.
-     * 
-     * Note that this method is only called when a manager requests an EFT report.
-     * The weekly ones are done concurrently with the provider reports. Also,
-     * we only include the providers who have at least one service record
-     * that is within the database's global date
-     * 
-     * @param database
-     * @throws IOException 
-     */
-    public static void GenerateEFTReport(ChocAnDPS database) throws IOException
-    {
-        LocalDateTime globalDate = database.GetGlobalDate(); //Get the necessary data structures to do it
-        TreeSet<Provider> providers = database.GetProviderDatabase();
-        ServiceRecordDisk records = database.GetServiceRecordDisk();
-
-        LocalDateTime startDate = globalDate.minusDays(Utilities.DayDifference(Parameters.WEEK_START,globalDate.getDayOfWeek()));
-        String dateName = "Reports for "+Format.GetDateRange(startDate,startDate.plusDays(Parameters.WEEK_LENGTH)); //Get the "startDate" to "endDate" directory name
-        String eftDir = FileUtilities.FILE_LOC+"/"+FileUtilities.EFT_LOC; //Get the EFT directory name
-        
-        FileUtilities.CreateDirectory(eftDir); //Create the EFT directory
-        FileUtilities.CreateDirectory(eftDir+"/"+dateName); //Create the date directory
-        
-        BufferedWriter eftWriter = FileUtilities.OpenWriter(ReportGenerator.GetReportName(true, eftDir+"/"+dateName)); //Get the file name      
-        
-        Iterator<Provider> provIterator = providers.iterator();
-        while (provIterator.hasNext()) //While there are providers, we keep writing
-        {
-            Provider prov = provIterator.next();
-            ListIterator<ServiceRecord> iterator = records.StartAtProvider(prov.GetID());
-            if (iterator.hasNext() && (Utilities.IsWithinDate(iterator.next().GetCurrentDateTime(), database.GetGlobalDate()))) //Provider does have a service record list for this week, so we can write to the EFT report
-            {
-                AbstractMap.SimpleEntry<Integer, BigDecimal> returnVals = ReportGenerator.ExtractRecordTotals(prov, records.StartAtProvider(prov.GetID()), database.GetGlobalDate());
-                ReportGenerator.WriteEFTEntry(eftWriter, prov, returnVals.getValue());
-            }
-        }
-
-        eftWriter.close();
-    }
-    
-    /**
-     * This method generates the summary report corresponding to "database".
-     * It contains all of the fields specified in the Requirements Document.
-     * 
-     * Note that this method is only called when a manager requests a summary report.
-     * The weekly ones are done concurrently with the provider reports. Also,
-     * we only include the providers who have at least one service record
-     * that is within the database's global date 
-     * 
-     * @param database
-     * @throws IOException 
-     */
-    public static void GenerateSummaryReport(ChocAnDPS database) throws IOException
-    {
-        LocalDateTime globalDate = database.GetGlobalDate(); //Get the necessary data structures to do it
-        TreeSet<Provider> providers = database.GetProviderDatabase();
-        ServiceRecordDisk records = database.GetServiceRecordDisk();
-
-        LocalDateTime startDate = globalDate.minusDays(Utilities.DayDifference(Parameters.WEEK_START,globalDate.getDayOfWeek()));
-        String dateName = "Reports for "+Format.GetDateRange(startDate,startDate.plusDays(Parameters.WEEK_LENGTH));  //Get the "startDate" to "endDate" directory name
-        String summaryDir = FileUtilities.FILE_LOC+"/"+FileUtilities.SUMMARY_LOC; //Get the summary directory name
-        
-        FileUtilities.CreateDirectory(summaryDir); //Create the summary directory
-        FileUtilities.CreateDirectory(summaryDir+"/"+dateName); //Create the date directory
-        
-        BufferedWriter summaryWriter = FileUtilities.OpenWriter(ReportGenerator.GetReportName(true, summaryDir+"/"+dateName)); 
-        ReportGenerator.WriteSummaryIntro(summaryWriter);
-        
-        int totalProviders = 0;
-        int totalConsultations = 0;
-        BigDecimal totalFees = new BigDecimal("0");
-        
-        Iterator<Provider> provIterator = providers.iterator();
-        while (provIterator.hasNext())
-        {
-            Provider prov = provIterator.next();
-            ListIterator<ServiceRecord> iterator = records.StartAtProvider(prov.GetID());
-            if (iterator.hasNext() && (Utilities.IsWithinDate(iterator.next().GetCurrentDateTime(), database.GetGlobalDate()))) //Provider does have a service record list for this week, so we can write the summary report entry
-            {
-                ++totalProviders;
-                AbstractMap.SimpleEntry<Integer, BigDecimal> returnVals = ReportGenerator.ExtractRecordTotals(prov, records.StartAtProvider(prov.GetID()), database.GetGlobalDate());
-                ReportGenerator.WriteSummaryEntry(summaryWriter, prov, returnVals.getKey(), returnVals.getValue());
-                totalConsultations += returnVals.getKey();
-                totalFees = totalFees.add(returnVals.getValue());
-            }
-        }
-
-        summaryWriter.write("Total number of providers who provided services: "+totalProviders+"\n");
-        summaryWriter.write("Total consultations: "+totalConsultations+"\n");
-        summaryWriter.write("Total fees: "+Format.USD_COST_FORMAT.format(totalFees.doubleValue())+"\n");        
-
-        summaryWriter.close();        
-    }
-    
-    /**
-     * This method generates all four reports corresponding to the ChocAnDPS object database.
-     * It does the weekly processing specified in the requirements document.
-     * 
-     * Note that to make the method more efficient, this generates the EFT and summary reports
-     * using the data obtained from GenerateProviderReport instead of calling the individual
-     * methods themselves.
-     * 
-     * After generating the reports, the method proceeds to filter out the service records
-     * whose dates are within database.globalDate in order to avoid redundant services being
-     * written after the week has ended.
-     * 
-     * Weekly processing is as follows.
-     *      1) Generate all of the member reports.
-     *      2) Generate all of the provider reports
-     *          -After each provider report, update the EFT and summary report files to include
-     *              the summary of this provider.
-     *      3) Finish writing the EFT and summary reports
-     *      4) Filter out the service records used to generate the four reports to avoid
-     *              rewriting them in the future.
-     * 
-     * @param database
-     * @throws IOException 
-     */
-    public static void GenerateWeeklyReports(ChocAnDPS database) throws IOException
-    {
-        LocalDateTime globalDate = database.GetGlobalDate(); //Get the necessary data structures.
-        TreeSet<Member> members = database.GetMemberDatabase();
-        TreeSet<Provider> providers = database.GetProviderDatabase();
-        ServiceRecordDisk records = database.GetServiceRecordDisk();
-        
-        LocalDateTime startDate = globalDate.minusDays((int)Utilities.DayDifference(Parameters.WEEK_START,globalDate.getDayOfWeek()));
-        String dateName = "Reports for "+Format.GetDateRange(startDate,startDate.plusDays(Parameters.WEEK_LENGTH)); //Get the date range directory name
-        
-        String eftDir = FileUtilities.FILE_LOC+"/"+FileUtilities.EFT_LOC; //Create the EFT and summary report directories here, as well as the corresponding date directories
-        String summaryDir = FileUtilities.FILE_LOC+"/"+FileUtilities.SUMMARY_LOC;
-        FileUtilities.CreateDirectory(eftDir);
-        FileUtilities.CreateDirectory(summaryDir);
-        FileUtilities.CreateDirectory(eftDir+"/"+dateName);        
-        FileUtilities.CreateDirectory(summaryDir+"/"+dateName);      
-      
-        BufferedWriter eftWriter = FileUtilities.OpenWriter(ReportGenerator.GetReportName(false, eftDir+"/"+dateName)); //Open the file writes for the EFT and summary reports
-        BufferedWriter summaryWriter = FileUtilities.OpenWriter(ReportGenerator.GetReportName(false,summaryDir+"/"+dateName));
-        ReportGenerator.WriteSummaryIntro(summaryWriter); //Summary report has an introduction, EFT doesn't. So write it before writing anything else
-        
-        int totalProviders = 0;
-        int totalConsultations = 0;
-        BigDecimal totalFees = new BigDecimal("0");
-        ReportParameters params = new ReportParameters(); //The report parameters. Use this object to avoid creating multiple ReportParameters objects
-        
-        //Generate member reports
-        Iterator<Member> membIterator = members.iterator();
-        while (membIterator.hasNext())
-        {
-            Member current = membIterator.next();
-            ListIterator<ServiceRecord> recordStart = records.StartAtMember(current.GetID());
-            if (recordStart.hasNext() && (Utilities.IsWithinDate(recordStart.next().GetCurrentDateTime(), database.GetGlobalDate()))) //Only generate report for members who have services for this week
-            {
-                params.SetParameters(current, records.StartAtMember(current.GetID()), globalDate, false);
-                ReportGenerator.GenerateMemberReport(params,database);
-            }
-        }
-        
-        //Now generate provider reports, while concurrently updating EFT and Summary ones
-        Iterator<Provider> provIterator = providers.iterator();
-        while (provIterator.hasNext())
-        {
-            Provider current = provIterator.next();
-            ListIterator<ServiceRecord> recordStart = records.StartAtProvider(current.GetID());
-            if (recordStart.hasNext() && (Utilities.IsWithinDate(recordStart.next().GetCurrentDateTime(), database.GetGlobalDate()))) //Check if this provider has provided services for this week
-            {
-                ++totalProviders;
-                params.SetParameters(current, records.StartAtProvider(current.GetID()), globalDate, false);
-                AbstractMap.SimpleEntry<Integer, BigDecimal> returnVals = ReportGenerator.GenerateProviderReport(params,database);
-                
-                //After generating the provider report, write the corresponding EFT and summary entries.
-                ReportGenerator.WriteEFTEntry(eftWriter, current, returnVals.getValue());
-                ReportGenerator.WriteSummaryEntry(summaryWriter, current, returnVals.getKey(), returnVals.getValue());
-            
-                totalConsultations += returnVals.getKey().intValue();
-                totalFees = totalFees.add(returnVals.getValue());
-            }
-        }
-        
-        summaryWriter.write("Total number of providers who provided services: "+totalProviders+"\n");        
-        summaryWriter.write("Total consultations: "+totalConsultations+"\n");
-        summaryWriter.write("Total fees: "+Format.USD_COST_FORMAT.format(totalFees.doubleValue())+"\n");
-        
-        eftWriter.close();
-        summaryWriter.close();
-        
-        database.GetServiceRecordDisk().Filter(database.GetGlobalDate()); //Now filter the records.
-    }
-    
-    /**
-     * This method writes the information fields corresponding to identifier, where identifier is either "member" or "provider",
-     * to the file stream pointed to by writer.
-     * 
-     * @param writer the open file stream
-     * @param info the information object
-     * @param identifier to classify if we're writing the information of a member or a provider.
-     * @throws IOException 
-     */
-    public static void WriteInfo(BufferedWriter writer, final Information info, String identifier) throws IOException
-    {
-        writer.write(identifier+" name: "+info.GetName()+"\n");
-        writer.write(identifier+" number: "+info.GetID()+"\n");
-        writer.write(identifier+" street address: "+info.GetStreetAddress()+"\n");
-        writer.write(identifier+" city: "+info.GetCity()+"\n");
-        writer.write(identifier+" state: "+info.GetState()+"\n");
-        writer.write(identifier+" zip code: "+info.GetZipCode()+"\n");
-    }    
-    
-    /**
-     * This method generates the first part of the report for members and providers. It writes the Information components (e.g. name, address)
-     * and also gives a brief description of the file, whether it is manager generated or a result of the weekly processing, and
-     * if it is a member report or provider report
-     * 
-     * @param args Report parameters
-     * @param dirLoc Location of the directory for which to write the information in
-     * @param info 0 = "Member" or "Provider," 1 = "member" or "provider, 2 = "to" or "by", respectively. Used to describe whether we're creating a member report or provider report
-     * 
-     * @return writer An open file stream so that the calling method can write the remaining parts of the report
-     * @throws IOException 
-     */
-    private static BufferedWriter GenerateReportIntro(ReportParameters args, String dirLoc, String[] info) throws IOException
-    {        
-        LocalDateTime startDate = args.refDate.minusDays((int)Utilities.DayDifference(Parameters.WEEK_START, args.refDate.getDayOfWeek()));
-        LocalDateTime endDate = startDate.plusDays(Parameters.WEEK_LENGTH);
-        String reportDir = FileUtilities.FILE_LOC+"/"+dirLoc+"/"+args.info.GetID()+"/"+"Reports for "+Format.GetDateRange(startDate,endDate);
-        FileUtilities.CreateDirectory(reportDir);
-        
-        BufferedWriter writer = FileUtilities.OpenWriter(ReportGenerator.GetReportName(args.isManagerReport,reportDir));
-        ReportGenerator.WriteInfo(writer, args.info, info[0]);
-        writer.write("\n");
-        String typeOfRequest = (args.isManagerReport ? "manager requested" : "weekly");
-        writer.write("Below is your "+typeOfRequest+" "+info[1]+" report of all services provided "+info[2]+" you for the\n");
-        writer.write("dates of "+(Format.GetDateRange(startDate,args.refDate))+":\n\n");  
-        
-        return writer;
-    }    
-    
-    /**
-     * Returns the path of the report file. This is either some numerical valued file name if it is manager generated,
-     * or it has the name "Main.txt" if it is a result of the weekly processing.
-     * 
-     * Note that manager reports have the numerical values because different managers could request the same member or
-     * provider report several times during the week - the numerical values allows one to distinguish between newest
-     * and oldest reports. For example if a report "1.txt" existed already and a manager requested another report of this
-     * same kind, the new report would have the name "2.txt".
-     * 
-     * @param isManagerReport to see if it is a manager report or not
-     * @param reportDir the directory in which the report file will be located
-     * @return 
-     */
-    private static String GetReportName(final boolean isManagerReport, final String reportDir)
-    {
-        String reportPath = null;
-        if (isManagerReport) //Get a file name if it is a manager report
-        {
-            int i = 0;
-            File file = null;
-            do
-            {
-                i=i+1;
-                reportPath = reportDir+"/"+i+".txt";
-                file = new File(reportDir+"/"+i+".txt");
-            } while (file.exists());
-        }
-        else //Weekly generated, so the name is simply "Main.txt"
-        {
-            reportPath = reportDir+"/"+"Main"+".txt";
-        }      
-        
-        return reportPath;
-    }
-    
-    /**
-     * This method writes the summary report introduction to the file stream referenced by writer.
-     * 
-     * @param writer
-     * @throws IOException 
-     */
-    private static void WriteSummaryIntro(BufferedWriter writer) throws IOException
-    {
-        writer.write("This is the summary report. Below you will find all of the providers that need to be\n");
-        writer.write("paid for that week, the number of consultations that each of them had, and the total\n");
-        writer.write("amount that needs to be paid to them.\n\n");
-    }
-    
-    /**
-     * This method writes an individual entry in the EFT report
-     * 
-     * @param writer file to write to
-     * @param prov provider that we're writing the EFT entry about
-     * @param transferAmt the total amount of money that needs to be transferred
-     * @throws IOException 
-     */
-    private static void WriteEFTEntry(BufferedWriter writer, Provider prov, BigDecimal transferAmt) throws IOException
-    {
-        writer.write("Provider name: "+prov.GetName()+"\n");
-        writer.write("Provider number: "+prov.GetID()+"\n");
-        writer.write("Amount to be transferred: "+Format.USD_COST_FORMAT.format(transferAmt.doubleValue())+"\n\n");
-    }
-    
-    /**
-     * This method writes an individual entry in the summary report
-     * 
-     * @param writer file to write to
-     * @param prov provider that we're writing the summary about
-     * @param totalConsultations total consultations for the provider
-     * @param totalFee total fees that are owed
-     * @throws IOException 
-     */
-    private static void WriteSummaryEntry(BufferedWriter writer, Provider prov, int totalConsultations, BigDecimal totalFee) throws IOException
-    {
-        writer.write("Provider name: "+prov.GetName()+"\n");
-        writer.write("Number of consultations: "+totalConsultations+"\n");
-        writer.write("Overall fee total: "+Format.USD_COST_FORMAT.format(totalFee.doubleValue())+"\n\n");
-    }
-    
-
-    /**
-     * This method extracts the total consultations and total fees of the provider from all of the records that are within refDate.
-     * Note that this assumes the provider has at least one record that satisfies the above criteria.
-     * 
-     * @param prov The provider whose totals we're extracting
-     * @param records The records associated with that provider
-     * @param refDate The reference date with which to compare to
-     * @return A (Integer, BIgDecial) tuple containing the totalConsltations and totalFees for the provider
-     */
-    private static AbstractMap.SimpleEntry<Integer, BigDecimal> ExtractRecordTotals(Provider prov, ListIterator<ServiceRecord> records, LocalDateTime refDate)
-    {
-        int totalConsultations = 0;
-        BigDecimal totalFees = new BigDecimal("0");
-        
-        ServiceRecord curRecord = records.next();
-        do
-        {
-            ++totalConsultations;
-            totalFees = totalFees.add(prov.LookUpService(curRecord.GetServiceCode()).GetFee());
-        } while (records.hasNext() && Utilities.IsWithinDate((curRecord = records.next()).GetCurrentDateTime(), refDate));
-        
-        return new AbstractMap.SimpleEntry<Integer, BigDecimal>(totalConsultations, totalFees);
-    }
-}
+import java.math.BigDecimal;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.MathContext;
+import java.nio.channels.Channels;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Enis
+ * This class generates all four reports required in the requirements document,
+ * and also does the weekly data processing for the data center.
+ * How long each kind of report takes is recorded in the Metrics registry, and every report
+ * also emits a ReportGeneratedEvent for the Java Flight Recorder.
+ * The reports are written with a ReportWriter, which appends the text, numbers, dates and
+ * fees as ASCII bytes into buffers reused by each thread. Their layouts are ReportTemplates,
+ * compiled once when the class is loaded; see the templates below for the fields each one has.
+ * Manager requested member and provider reports are kept in the data center's ReportCache, so
+ * asking for one again before the entity has any new records doesn't render it all again.
+ */
+public class ReportGenerator
+{
+    //Metrics, see Metrics.java
+    private static final LatencyHistogram MEMBER_REPORT_TIME = Metrics.Histogram("report.member");
+    private static final LatencyHistogram PROVIDER_REPORT_TIME = Metrics.Histogram("report.provider");
+    private static final LatencyHistogram EFT_REPORT_TIME = Metrics.Histogram("report.eft");
+    private static final LatencyHistogram SUMMARY_REPORT_TIME = Metrics.Histogram("report.summary");
+    private static final LatencyHistogram WEEKLY_PROCESSING_TIME = Metrics.Histogram("report.weekly");
+    
+    //The report layouts, see ReportTemplate. Each can be replaced by a file in ChocAnFiles/Templates named after it.
+    private static final String[] HEADER_FIELDS = {"request", "name", "number", "street", "city", "state", "zip", "start", "end"};
+    private static final ReportTemplate MEMBER_HEADER = ReportTemplate.Load("member.header",
+            "Member name: ${name}\nMember number: ${number}\nMember street address: ${street}\nMember city: ${city}\nMember state: ${state}\nMember zip code: ${zip}\n\n"
+            + "Below is your ${request} member report of all services provided to you for the\ndates of ${start} to ${end}:\n\n", ReportGenerator.HEADER_FIELDS);
+    private static final ReportTemplate MEMBER_ENTRY = ReportTemplate.Load("member.entry",
+            "\tDate of service: ${serviceDate}\n\tProvider name: ${providerName}\n\tService name: ${serviceName}\n\n", "serviceDate", "providerName", "serviceName");
+    private static final ReportTemplate PROVIDER_HEADER = ReportTemplate.Load("provider.header",
+            "Provider name: ${name}\nProvider number: ${number}\nProvider street address: ${street}\nProvider city: ${city}\nProvider state: ${state}\nProvider zip code: ${zip}\n\n"
+            + "Below is your ${request} provider report of all services provided by you for the\ndates of ${start} to ${end}:\n\n", ReportGenerator.HEADER_FIELDS);
+    private static final ReportTemplate PROVIDER_ENTRY = ReportTemplate.Load("provider.entry",
+            "\tDate of service: ${serviceDate}\n\tDate and time data were received by the computer: ${received}\n\tMember name: ${memberName}\n"
+            + "\tMember code: ${memberNumber}\n\tService code: ${serviceCode}\n\tFee to be paid: ${fee}\n\n", "serviceDate", "received", "memberName", "memberNumber", "serviceCode", "fee");
+    private static final ReportTemplate PROVIDER_TOTALS = ReportTemplate.Load("provider.totals",
+            "Total number of consultations with members: ${consultations}\nTotal fee for the week: ${fees}", "consultations", "fees");
+    private static final ReportTemplate EFT_ENTRY = ReportTemplate.Load("eft.entry",
+            "Provider name: ${name}\nProvider number: ${number}\nAmount to be transferred: ${amount}\n\n", "name", "number", "amount");
+    private static final ReportTemplate SUMMARY_HEADER = ReportTemplate.Load("summary.header",
+            "This is the summary report. Below you will find all of the providers that need to be\npaid for that week, the number of consultations that each of them had, and the total\n"
+            + "amount that needs to be paid to them.\n\n");
+    private static final ReportTemplate SUMMARY_ENTRY = ReportTemplate.Load("summary.entry",
+            "Provider name: ${name}\nNumber of consultations: ${consultations}\nOverall fee total: ${fees}\n\n", "name", "consultations", "fees");
+    private static final ReportTemplate SUMMARY_TOTALS = ReportTemplate.Load("summary.totals",
+            "Total number of providers who provided services: ${providers}\nTotal consultations: ${consultations}\nTotal fees: ${fees}\n", "providers", "consultations", "fees");
+    
+    /**
+     * This method generates an individual member report using the information provided in args,
+     * and it also takes in the database to look up the necessary information.
+     * 
+     * Note that this method should be called iff the member has at least one service record
+     * that is within the reference date in args. Otherwise it will fail.
+     * 
+     * @param args Contains the information needed to generate the individual report
+     * @param database Used to look up additional information associated with the record (e.g. service provider, service name).
+     * 
+     * @throws IOException 
+     */
+    public static void GenerateMemberReport(ReportParameters args, ChocAnDPS database) throws IOException
+    {
+        long start = System.nanoTime();
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
+        long version = database.GetServiceRecordDisk().GetMemberVersion(args.info.GetID()); //Before the records are gone through, see ReportCache
+        ReportWriter writer = ReportGenerator.GenerateReportIntro(args,FileUtilities.MEMBER_LOC, ReportGenerator.MEMBER_HEADER, database.GetReportCatalog()); //First write the introduction of the report and the member information fields
+        
+        ReportLookups lookups = (args.lookups != null ? args.lookups : new ReportLookups(database));
+        ReportCache.Entry body = null;
+        try
+        {
+            body = ReportGenerator.WriteBody(writer, args, FileUtilities.MEMBER_LOC, version, database, bodyWriter -> ReportGenerator.WriteMemberEntries(bodyWriter, args, lookups));
+        }finally
+        {
+            writer.close();
+        }
+        ReportGenerator.MEMBER_REPORT_TIME.RecordSince(start);
+        ReportGenerator.CommitReportEvent(event, "Member", args.info.GetID(), !args.isManagerReport, body.entries, writer);
+    }
+    
+    /**
+     * This method generates an individual provider report using the information provided in args,
+     * and it also takes in the database to look up the necessary information.
+     * 
+     * Note that this method should be called iff the provider has at least one service record
+     * that is within the reference date in args. Otherwise it will fail.
+     * 
+     * 
+     * 
+     * @param args
+     * @param database Used to look up additional information associated with the record
+     * 
+     * @return A two-tuple containing the total number of consultations and fees for the provider. This is returned
+     * so as to facilitate concurrent generation of the EFT and summary reports during the DPS' weekly processing.
+     * Note that these values are within their specified limits. If during the processing one of them is found to exceed
+     * the limit (e.g. fee becomes greater than $99999.99), then it is brought back down to the limit before written
+     * and returned.
+     * @throws IOException 
+     */
+    public static AbstractMap.SimpleEntry<Integer, BigDecimal> GenerateProviderReport(ReportParameters args, ChocAnDPS database) throws IOException
+    {
+        long start = System.nanoTime();
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
+        long version = database.GetServiceRecordDisk().GetProviderVersion(args.info.GetID()); //Before the records are gone through, see ReportCache
+        ReportWriter writer = ReportGenerator.GenerateReportIntro(args, FileUtilities.PROVIDERS_LOC, ReportGenerator.PROVIDER_HEADER, database.GetReportCatalog()); //Write the introduction of the report and the member information fields.
+        
+        ReportLookups lookups = (args.lookups != null ? args.lookups : new ReportLookups(database));
+        ReportCache.Entry body = null;
+        try
+        {
+            body = ReportGenerator.WriteBody(writer, args, FileUtilities.PROVIDERS_LOC, version, database, bodyWriter -> ReportGenerator.WriteProviderEntries(bodyWriter, args, lookups));
+        }finally
+        {
+            writer.close();
+        }
+        ReportGenerator.PROVIDER_REPORT_TIME.RecordSince(start);
+        ReportGenerator.CommitReportEvent(event, "Provider", args.info.GetID(), !args.isManagerReport, body.entries, writer);
+        
+        return new AbstractMap.SimpleEntry<Integer, BigDecimal>(body.totalConsultations, body.totalFees);
+    }
+    
+    /**
+     * This method generates the EFT report corresponding to "database".
+     * It contains all of the fields specified in the Requirements Document.
+     * 
+     * Note that this method is only called when a manager requests an EFT report.
+     * The weekly ones are done concurrently with the provider reports. Also,
+     * we only include the providers who have at least one service record
+     * that is within the database's global date. The report is generated from
+     * a snapshot of those records (see ServiceRecordSnapshot).
+     * 
+     * @param database
+     * @throws IOException 
+     */
+    public static void GenerateEFTReport(ChocAnDPS database) throws IOException
+    {
+        long start = System.nanoTime();
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
+        LocalDateTime globalDate = database.GetGlobalDate(); //Get the necessary data structures to do it
+        ConcurrentSkipListSet<Provider> providers = database.GetProviderDatabase();
+        ServiceRecordSnapshot records = database.GetServiceRecordDisk().Snapshot(globalDate); //Work off a fixed copy of the records, since claims may still be coming in
+        ReportLookups lookups = new ReportLookups(database);
+
+        LocalDateTime startDate = globalDate.minusDays(Utilities.DayDifference(Parameters.WEEK_START,globalDate.getDayOfWeek()));
+        String dateName = "Reports for "+Format.GetDateRange(startDate,startDate.plusDays(Parameters.WEEK_LENGTH)); //Get the "startDate" to "endDate" directory name
+        String eftDir = FileUtilities.FILE_LOC+"/"+FileUtilities.EFT_LOC; //Get the EFT directory name
+        
+        FileUtilities.CreateDirectory(eftDir); //Create the EFT directory
+        FileUtilities.CreateDirectory(eftDir+"/"+dateName); //Create the date directory
+        
+        ReportWriter eftWriter = FileUtilities.OpenReportWriter(ReportGenerator.GetReportName(database.GetReportCatalog(), FileUtilities.EFT_LOC, 0, startDate.toLocalDate(), true)); //Get the file name      
+        int entries = 0;
+        
+        Iterator<Provider> provIterator = providers.iterator();
+        while (provIterator.hasNext()) //While there are providers, we keep writing
+        {
+            Provider prov = provIterator.next();
+            Iterator<ServiceRecord> iterator = records.StartAtProvider(prov.GetID());
+            if (iterator.hasNext()) //Provider does have a service record list for this week, so we can write to the EFT report
+            {
+                AbstractMap.SimpleEntry<Integer, BigDecimal> returnVals = ReportGenerator.ExtractRecordTotals(prov, records.StartAtProvider(prov.GetID()), globalDate, lookups);
+                ReportGenerator.WriteEFTEntry(eftWriter, prov, returnVals.getValue());
+                ++entries;
+            }
+        }
+
+        eftWriter.close();
+        ReportGenerator.EFT_REPORT_TIME.RecordSince(start);
+        ReportGenerator.CommitReportEvent(event, "EFT", 0, false, entries, eftWriter);
+    }
+    
+    /**
+     * This method generates the summary report corresponding to "database".
+     * It contains all of the fields specified in the Requirements Document.
+     * 
+     * Note that this method is only called when a manager requests a summary report.
+     * The weekly ones are done concurrently with the provider reports. Also,
+     * we only include the providers who have at least one service record
+     * that is within the database's global date. The report is generated from
+     * a snapshot of those records (see ServiceRecordSnapshot).
+     * 
+     * @param database
+     * @throws IOException 
+     */
+    public static void GenerateSummaryReport(ChocAnDPS database) throws IOException
+    {
+        long start = System.nanoTime();
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
+        LocalDateTime globalDate = database.GetGlobalDate(); //Get the necessary data structures to do it
+        ConcurrentSkipListSet<Provider> providers = database.GetProviderDatabase();
+        ServiceRecordSnapshot records = database.GetServiceRecordDisk().Snapshot(globalDate); //Work off a fixed copy of the records, since claims may still be coming in
+        ReportLookups lookups = new ReportLookups(database);
+
+        LocalDateTime startDate = globalDate.minusDays(Utilities.DayDifference(Parameters.WEEK_START,globalDate.getDayOfWeek()));
+        String dateName = "Reports for "+Format.GetDateRange(startDate,startDate.plusDays(Parameters.WEEK_LENGTH));  //Get the "startDate" to "endDate" directory name
+        String summaryDir = FileUtilities.FILE_LOC+"/"+FileUtilities.SUMMARY_LOC; //Get the summary directory name
+        
+        FileUtilities.CreateDirectory(summaryDir); //Create the summary directory
+        FileUtilities.CreateDirectory(summaryDir+"/"+dateName); //Create the date directory
+        
+        ReportWriter summaryWriter = FileUtilities.OpenReportWriter(ReportGenerator.GetReportName(database.GetReportCatalog(), FileUtilities.SUMMARY_LOC, 0, startDate.toLocalDate(), true));
+        ReportGenerator.SUMMARY_HEADER.Render(summaryWriter);
+        
+        int totalProviders = 0;
+        int totalConsultations = 0;
+        BigDecimal totalFees = new BigDecimal("0");
+        
+        Iterator<Provider> provIterator = providers.iterator();
+        while (provIterator.hasNext())
+        {
+            Provider prov = provIterator.next();
+            Iterator<ServiceRecord> iterator = records.StartAtProvider(prov.GetID());
+            if (iterator.hasNext()) //Provider does have a service record list for this week, so we can write the summary report entry
+            {
+                ++totalProviders;
+                AbstractMap.SimpleEntry<Integer, BigDecimal> returnVals = ReportGenerator.ExtractRecordTotals(prov, records.StartAtProvider(prov.GetID()), globalDate, lookups);
+                ReportGenerator.WriteSummaryEntry(summaryWriter, prov, returnVals.getKey(), returnVals.getValue());
+                totalConsultations += returnVals.getKey();
+                totalFees = totalFees.add(returnVals.getValue());
+            }
+        }
+
+        ReportGenerator.SUMMARY_TOTALS.Render(summaryWriter, totalProviders, totalConsultations, totalFees);
+
+        summaryWriter.close();        
+        ReportGenerator.SUMMARY_REPORT_TIME.RecordSince(start);
+        ReportGenerator.CommitReportEvent(event, "Summary", 0, false, totalProviders, summaryWriter);
+    }
+    
+    /**
+     * This method generates all four reports corresponding to the ChocAnDPS object database.
+     * It does the weekly processing specified in the requirements document.
+     * 
+     * The reports are generated from a snapshot of the records written up to database.globalDate
+     * (see ServiceRecordSnapshot), so provider terminals can keep submitting claims for the new
+     * week while the reports are being written.
+     * 
+     * After generating the reports, the method proceeds to filter out the records in the snapshot
+     * in order to avoid redundant services being written after the week has ended.
+     * 
+     * Weekly processing is as follows.
+     *      1) Take a snapshot of the week's service records
+     *      2) Generate the reports from the snapshot (see the other GenerateWeeklyReports)
+     *      3) Filter out the service records in the snapshot to avoid
+     *              rewriting them in the future.
+     * 
+     * @param database
+     * @throws IOException 
+     */
+    public static void GenerateWeeklyReports(ChocAnDPS database) throws IOException
+    {
+        ServiceRecordSnapshot snapshot = database.GetServiceRecordDisk().Snapshot(database.GetGlobalDate());
+        ReportGenerator.ProcessWeek(database, snapshot);
+    }
+    
+    /**
+     * Does steps 2 and 3 of the weekly processing for a snapshot that was already taken.
+     * Since the snapshot fixes the week's records, this can run on another thread while the
+     * time moves on and claims for the following weeks are written (see SimulationEngine and
+     * WeeklyScheduler).
+     * The snapshot of the following week must not be taken before this returns, otherwise
+     * it would include this week's records as well.
+     * 
+     * @param database
+     * @param snapshot The week's service records
+     * @throws IOException 
+     */
+    public static void ProcessWeek(ChocAnDPS database, ServiceRecordSnapshot snapshot) throws IOException
+    {
+        ReportGenerator.ProcessWeek(database, snapshot, null);
+    }
+    
+    /**
+     * Same as ProcessWeek, also counting the member and provider reports written in progress.
+     * 
+     * @param database
+     * @param snapshot The week's service records
+     * @param progress Incremented after every member and provider report, may be null
+     * @throws IOException 
+     */
+    public static void ProcessWeek(ChocAnDPS database, ServiceRecordSnapshot snapshot, AtomicInteger progress) throws IOException
+    {
+        long start = System.nanoTime();
+        
+        ReportGenerator.GenerateWeeklyReports(database, snapshot, progress);
+        
+        database.GetServiceRecordDisk().Filter(snapshot); //Now filter the records.
+        ReportGenerator.WEEKLY_PROCESSING_TIME.RecordSince(start);
+    }
+    
+    /**
+     * Checks that a report can be generated from record: its member and provider must still exist,
+     * and the service must still be in the provider's directory. The reports look all three up
+     * for every record, so a week with a record that fails this can't be reported on.
+     * 
+     * @param lookups
+     * @param record
+     * @return Whether the record can be reported on
+     */
+    public static boolean IsReportable(ReportLookups lookups, final ServiceRecord record)
+    {
+        return (lookups.LookUpMember(record.GetMemberNumber()) != null
+                && lookups.LookUpService(record.GetProviderNumber(), record.GetServiceCode()) != null);
+    }
+    
+    /**
+     * This method generates all four weekly reports from the records in snapshot, for the week
+     * ending at the snapshot's closing date. It doesn't touch the disk, so it's safe to call
+     * while new claims are still being written.
+     * 
+     * Note that to make the method more efficient, this generates the EFT and summary reports
+     * using the data obtained from GenerateProviderReport instead of calling the individual
+     * methods themselves.
+     * 
+     *      1) Generate all of the member reports (into the week's archive, if the data center
+     *          archives them, see ArchiveReportOutput).
+     *      2) Generate all of the provider reports
+     *          -After each provider report, update the EFT and summary report files to include
+     *              the summary of this provider.
+     *      3) Finish writing the EFT and summary reports
+     * 
+     * Alongside the EFT report, the transfers are also written to the week's fixed-width EFT file
+     * (see EFTFileWriter).
+     * 
+     * @param database Used to look up the members and providers
+     * @param snapshot The week's service records
+     * @throws IOException 
+     */
+    public static void GenerateWeeklyReports(ChocAnDPS database, ServiceRecordSnapshot snapshot) throws IOException
+    {
+        ReportGenerator.GenerateWeeklyReports(database, snapshot, null);
+    }
+    
+    /**
+     * Same as GenerateWeeklyReports, also counting the member and provider reports written in progress.
+     * 
+     * @param database Used to look up the members and providers
+     * @param snapshot The week's service records
+     * @param progress Incremented after every member and provider report, may be null
+     * @throws IOException 
+     */
+    public static void GenerateWeeklyReports(ChocAnDPS database, ServiceRecordSnapshot snapshot, AtomicInteger progress) throws IOException
+    {
+        LocalDateTime globalDate = snapshot.GetCloseDate(); //Get the necessary data structures.
+        ConcurrentSkipListSet<Member> members = database.GetMemberDatabase();
+        ConcurrentSkipListSet<Provider> providers = database.GetProviderDatabase();
+        
+        LocalDateTime startDate = globalDate.minusDays((int)Utilities.DayDifference(Parameters.WEEK_START,globalDate.getDayOfWeek()));
+        String dateName = "Reports for "+Format.GetDateRange(startDate,startDate.plusDays(Parameters.WEEK_LENGTH)); //Get the date range directory name
+        
+        String eftDir = FileUtilities.FILE_LOC+"/"+FileUtilities.EFT_LOC; //Create the EFT and summary report directories here, as well as the corresponding date directories
+        String summaryDir = FileUtilities.FILE_LOC+"/"+FileUtilities.SUMMARY_LOC;
+        FileUtilities.CreateDirectory(eftDir);
+        FileUtilities.CreateDirectory(summaryDir);
+        FileUtilities.CreateDirectory(eftDir+"/"+dateName);        
+        FileUtilities.CreateDirectory(summaryDir+"/"+dateName);      
+      
+        ReportGeneratedEvent eftEvent = new ReportGeneratedEvent(); //The EFT and summary reports are written alongside the provider reports, so their events span all of them
+        ReportGeneratedEvent summaryEvent = new ReportGeneratedEvent();
+        eftEvent.begin();
+        summaryEvent.begin();
+        ReportWriter eftWriter = null;
+        ReportWriter summaryWriter = null;
+        EFTFileWriter eftFile = null;
+        ReportParameters params = new ReportParameters(); //The report parameters. Use this object to avoid creating multiple ReportParameters objects
+        int totalProviders = 0;
+        boolean finished = false;
+        try
+        {
+            eftWriter = FileUtilities.OpenReportWriter(ReportGenerator.GetReportName(database.GetReportCatalog(), FileUtilities.EFT_LOC, 0, startDate.toLocalDate(), false)); //Open the file writes for the EFT and summary reports
+            summaryWriter = FileUtilities.OpenReportWriter(ReportGenerator.GetReportName(database.GetReportCatalog(), FileUtilities.SUMMARY_LOC, 0, startDate.toLocalDate(), false));
+            ReportGenerator.SUMMARY_HEADER.Render(summaryWriter); //Summary report has an introduction, EFT doesn't. So write it before writing anything else
+            eftFile = new EFTFileWriter(eftDir+"/"+dateName+"/"+FileUtilities.EFT_FILE_LOC, startDate.toLocalDate(), globalDate); //The fixed-width transfers for the bank
+            
+            int totalConsultations = 0;
+            BigDecimal totalFees = new BigDecimal("0");
+            params.output = (database.IsArchivingWeeklyReports() ? new ArchiveReportOutput(dateName) : null); //null writes them to the member and provider directories
+            params.archived = new ArrayList<AbstractMap.SimpleEntry<String, Integer>>();
+            params.lookups = new ReportLookups(database); //Shared by every report of the week, since they mostly look up the same providers and members
+            
+            //Generate member reports
+            Iterator<Member> membIterator = members.iterator();
+            while (membIterator.hasNext())
+            {
+                Member current = membIterator.next();
+                Iterator<ServiceRecord> recordStart = snapshot.StartAtMember(current.GetID());
+                if (recordStart.hasNext()) //Only generate report for members who have services for this week
+                {
+                    params.SetParameters(current, recordStart, globalDate, false);
+                    ReportGenerator.GenerateMemberReport(params,database);
+                    ReportGenerator.CountProgress(progress);
+                }
+            }
+            
+            //Now generate provider reports, while concurrently updating EFT and Summary ones
+            Iterator<Provider> provIterator = providers.iterator();
+            while (provIterator.hasNext())
+            {
+                Provider current = provIterator.next();
+                Iterator<ServiceRecord> recordStart = snapshot.StartAtProvider(current.GetID());
+                if (recordStart.hasNext()) //Check if this provider has provided services for this week
+                {
+                    ++totalProviders;
+                    params.SetParameters(current, recordStart, globalDate, false);
+                    AbstractMap.SimpleEntry<Integer, BigDecimal> returnVals = ReportGenerator.GenerateProviderReport(params,database);
+                    
+                    //After generating the provider report, write the corresponding EFT and summary entries.
+                    ReportGenerator.WriteEFTEntry(eftWriter, current, returnVals.getValue());
+                    ReportGenerator.WriteSummaryEntry(summaryWriter, current, returnVals.getKey(), returnVals.getValue());
+                    eftFile.AddEntry(current.GetID(), current.GetName(), returnVals.getValue());
+                
+                    totalConsultations += returnVals.getKey().intValue();
+                    totalFees = totalFees.add(returnVals.getValue());
+                    ReportGenerator.CountProgress(progress);
+                }
+            }
+            
+            if (params.output != null)
+            {
+                params.output.Close(); //Finish the archive
+                for (AbstractMap.SimpleEntry<String, Integer> report : params.archived) //Only catalogued now that the archive is in place
+                {
+                    database.GetReportCatalog().AddWeeklyReport(report.getKey(), report.getValue(), startDate.toLocalDate(), true);
+                }
+            }
+            
+            ReportGenerator.SUMMARY_TOTALS.Render(summaryWriter, totalProviders, totalConsultations, totalFees);
+            
+            eftWriter.close();
+            summaryWriter.close();
+            eftFile.Close();
+            finished = true;
+        }finally
+        {
+            if (!finished) //Don't leave anything open, the next attempt starts over (see WeeklyScheduler)
+            {
+                ReportGenerator.Abort(eftWriter, summaryWriter, eftFile, params.output);
+            }
+        }
+        
+        ReportGenerator.CommitReportEvent(eftEvent, "EFT", 0, true, totalProviders, eftWriter);
+        ReportGenerator.CommitReportEvent(summaryEvent, "Summary", 0, true, totalProviders, summaryWriter);
+    }
+    
+    /**
+     * Closes whatever a failed run of GenerateWeeklyReports had open. Neither the EFT file nor the
+     * archive is moved into place, and their temporary files are deleted. Nothing is
+     * thrown, so the exception that made the run fail is the one that's reported.
+     * 
+     * @param eftWriter May be null, as may all of the others
+     * @param summaryWriter
+     * @param eftFile
+     * @param output 
+     */
+    private static void Abort(ReportWriter eftWriter, ReportWriter summaryWriter, EFTFileWriter eftFile, ReportOutput output)
+    {
+        try
+        {
+            if (eftWriter != null)
+            {
+                eftWriter.close();
+            }
+        }catch(IOException ex)
+        {
+        }
+        try
+        {
+            if (summaryWriter != null)
+            {
+                summaryWriter.close();
+            }
+        }catch(IOException ex)
+        {
+        }
+        if (eftFile != null)
+        {
+            eftFile.Abort();
+        }
+        if (output != null)
+        {
+            output.Abort();
+        }
+    }
+    
+    /**
+     * This method writes the information fields corresponding to identifier, where identifier is either "member" or "provider",
+     * to the file stream pointed to by writer.
+     * 
+     * @param writer the open file stream
+     * @param info the information object
+     * @param identifier to classify if we're writing the information of a member or a provider.
+     * @throws IOException 
+     */
+    public static void WriteInfo(BufferedWriter writer, final Information info, String identifier) throws IOException
+    {
+        writer.write(identifier+" name: "+info.GetName()+"\n");
+        writer.write(identifier+" number: "+info.GetID()+"\n");
+        writer.write(identifier+" street address: "+info.GetStreetAddress()+"\n");
+        writer.write(identifier+" city: "+info.GetCity()+"\n");
+        writer.write(identifier+" state: "+info.GetState()+"\n");
+        writer.write(identifier+" zip code: "+info.GetZipCode()+"\n");
+    }    
+    
+    /**
+     * This method generates the first part of the report for members and providers. It writes the Information components (e.g. name, address)
+     * and also gives a brief description of the file, whether it is manager generated or a result of the weekly processing, and
+     * if it is a member report or provider report
+     * 
+     * @param args Report parameters
+     * @param dirLoc Location of the directory for which to write the information in
+     * @param header MEMBER_HEADER or PROVIDER_HEADER, depending on whether we're creating a member report or provider report
+     * @param catalog Where the report is recorded
+     * 
+     * @return writer An open file stream so that the calling method can write the remaining parts of the report
+     * @throws IOException 
+     */
+    private static ReportWriter GenerateReportIntro(ReportParameters args, String dirLoc, ReportTemplate header, ReportCatalog catalog) throws IOException
+    {        
+        LocalDateTime startDate = args.refDate.minusDays((int)Utilities.DayDifference(Parameters.WEEK_START, args.refDate.getDayOfWeek()));
+        LocalDateTime endDate = startDate.plusDays(Parameters.WEEK_LENGTH);
+        String weekName = "Reports for "+Format.GetDateRange(startDate,endDate);
+        
+        ReportWriter writer = null;
+        if (args.isManagerReport || args.output == null) //Manager reports always go to the directory
+        {
+            FileUtilities.CreateDirectory(ReportCatalog.GetDirectory(dirLoc, args.info.GetID(), weekName));
+            writer = FileUtilities.OpenReportWriter(ReportGenerator.GetReportName(catalog, dirLoc, args.info.GetID(), startDate.toLocalDate(), args.isManagerReport));
+        }
+        else
+        {
+            writer = args.output.OpenReport(dirLoc, args.info.GetID(), weekName);
+            args.archived.add(new AbstractMap.SimpleEntry<String, Integer>(dirLoc, args.info.GetID())); //Catalogued once the archive is closed
+        }
+        String typeOfRequest = (args.isManagerReport ? "manager requested" : "weekly");
+        header.Render(writer, typeOfRequest, args.info.GetName(), args.info.GetID(), args.info.GetStreetAddress(), args.info.GetCity(), args.info.GetState(), args.info.GetZipCode(),
+                        startDate.toLocalDate(), args.refDate.toLocalDate());
+        
+        return writer;
+    }    
+    
+    /**
+     * Writes what comes after the report's header. For a manager requested report, this is the report kept
+     * in database's ReportCache if it's still up to date. Otherwise it's rendered by entryWriter into memory,
+     * kept, and then written. Weekly reports are rendered straight into writer.
+     * 
+     * @param writer The report, with the header already written
+     * @param args
+     * @param entityLoc FileUtilities.MEMBER_LOC or PROVIDERS_LOC
+     * @param version The version of the entity's records, read before args.iterator was gone through
+     * @param database
+     * @param entryWriter WriteMemberEntries or WriteProviderEntries
+     * @return What was written, the body is only filled in for manager requested reports
+     * @throws IOException 
+     */
+    private static ReportCache.Entry WriteBody(ReportWriter writer, ReportParameters args, final String entityLoc, final long version, ChocAnDPS database, EntryWriter entryWriter) throws IOException
+    {
+        if (!args.isManagerReport) //Written once, so there's no point keeping it
+        {
+            return entryWriter.Write(writer);
+        }
+        
+        ReportCache cache = database.GetReportCache();
+        long revision = Identification.GetRevision();
+        ReportCache.Entry body = cache.Get(entityLoc, args.info.GetID(), args.refDate, version, revision);
+        if (body == null)
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ReportWriter bodyWriter = new ReportWriter(Channels.newChannel(bytes));
+            try
+            {
+                body = entryWriter.Write(bodyWriter);
+            }finally
+            {
+                bodyWriter.close();
+            }
+            
+            body.refDate = args.refDate;
+            body.version = version;
+            body.revision = revision;
+            body.body = bytes.toByteArray();
+            cache.Put(entityLoc, args.info.GetID(), body);
+        }
+        
+        writer.Append(body.body);
+        return body;
+    }
+    
+    /**
+     * Writes the service records of a member report
+     * 
+     * @param writer
+     * @param args
+     * @param lookups Used to look up the providers and services
+     * @return The number of records written, in entries
+     * @throws IOException 
+     */
+    private static ReportCache.Entry WriteMemberEntries(ReportWriter writer, ReportParameters args, ReportLookups lookups) throws IOException
+    {
+        ReportCache.Entry written = new ReportCache.Entry();
+        
+        ServiceRecord currentRecord = args.iterator.next(); //Now write the service records associated with that member.
+        do
+        {           
+            ++written.entries;
+            Provider servProvider = lookups.LookUpProvider(currentRecord.GetProviderNumber());
+            ReportGenerator.MEMBER_ENTRY.Render(writer, currentRecord.GetServiceDate(), servProvider.GetName(), lookups.LookUpService(servProvider, currentRecord.GetServiceCode()).GetName());
+        } while (args.iterator.hasNext() && (Utilities.IsWithinDate((currentRecord = args.iterator.next()).GetCurrentDateTime(), args.refDate)));
+        
+        return written;
+    }
+    
+    /**
+     * Writes the service records of a provider report, followed by the totals
+     * 
+     * @param writer
+     * @param args
+     * @param lookups Used to look up the members and fees
+     * @return The number of records written and the totals, within their limits
+     * @throws IOException 
+     */
+    private static ReportCache.Entry WriteProviderEntries(ReportWriter writer, ReportParameters args, ReportLookups lookups) throws IOException
+    {
+        ReportCache.Entry written = new ReportCache.Entry();
+        int totalConsultations = 0;
+        BigDecimal totalFees = new BigDecimal("0");
+        
+        ServiceRecord currentRecord = args.iterator.next();    //Now write the services associated with that provider.     
+        do
+        {
+            int memberNumber = currentRecord.GetMemberNumber();
+            int serviceCode = currentRecord.GetServiceCode();
+            int providerNumber = currentRecord.GetProviderNumber();
+            BigDecimal fee = lookups.LookUpService(providerNumber, serviceCode).GetFee();
+            ReportGenerator.PROVIDER_ENTRY.Render(writer, currentRecord.GetServiceDate(), currentRecord.GetCurrentDateTime(), lookups.LookUpMember(memberNumber).GetName(), memberNumber, serviceCode, fee);
+
+            ++written.entries;
+            ++totalConsultations;
+            totalFees = totalFees.add(fee);
+        } while (args.iterator.hasNext() && (Utilities.IsWithinDate((currentRecord = args.iterator.next()).GetCurrentDateTime(), args.refDate)));
+        
+        written.totalConsultations = Utilities.AdjustIntToLimit(totalConsultations, Limits.MEMBER_CONSULTATIONS_LIMIT); //Make sure the consultations and fees are within the specified limits.   
+        written.totalFees = Utilities.AdjustFeeToLimit(totalFees, Limits.WEEKLY_FEE_LIMIT);
+        
+        ReportGenerator.PROVIDER_TOTALS.Render(writer, written.totalConsultations, written.totalFees);
+        
+        return written;
+    }
+    
+    /**
+     * Writes the part of a report after its header, see WriteBody
+     */
+    @FunctionalInterface
+    private interface EntryWriter
+    {
+        ReportCache.Entry Write(ReportWriter writer) throws IOException;
+    }
+    
+    /**
+     * Increments progress, if there is one
+     * 
+     * @param progress 
+     */
+    private static void CountProgress(AtomicInteger progress)
+    {
+        if (progress != null)
+        {
+            progress.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Ends event and, if a flight recording wants it, fills it in and commits it.
+     * 
+     * @param event The event, begun when the report was started
+     * @param reportType Member, Provider, EFT or Summary
+     * @param entityNumber The member or provider number, 0 for EFT and summary reports
+     * @param weekly True if this is part of the weekly processing
+     * @param entries The number of records or providers in the report
+     * @param writer The report's writer, already closed
+     */
+    private static void CommitReportEvent(ReportGeneratedEvent event, final String reportType, final int entityNumber, final boolean weekly, final int entries, final ReportWriter writer)
+    {
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.reportType = reportType;
+            event.entityNumber = entityNumber;
+            event.weekly = weekly;
+            event.entries = entries;
+            event.bytesWritten = writer.GetCount();
+            event.commit();
+        }
+    }
+    
+    /**
+     * Returns the path of the report file and records it in catalog. This is either some numerical valued file name
+     * if it is manager generated, or it has the name "Main.txt" if it is a result of the weekly processing.
+     * 
+     * Note that manager reports have the numerical values because different managers could request the same member or
+     * provider report several times during the week - the numerical values allows one to distinguish between newest
+     * and oldest reports. For example if a report "1.txt" existed already and a manager requested another report of this
+     * same kind, the new report would have the name "2.txt". The number comes from the catalog, so the existing reports
+     * don't have to be looked for; the file is only checked in case it was written while the catalog wasn't kept
+     * (e.g. the program was killed before saving it).
+     * 
+     * @param catalog
+     * @param entityLoc FileUtilities.MEMBER_LOC, PROVIDERS_LOC, EFT_LOC or SUMMARY_LOC
+     * @param id the member or provider number, 0 for EFT and summary reports
+     * @param weekStart the first day of the report's week
+     * @param isManagerReport to see if it is a manager report or not
+     * @return 
+     */
+    private static String GetReportName(ReportCatalog catalog, final String entityLoc, final int id, final LocalDate weekStart, final boolean isManagerReport)
+    {
+        String reportDir = ReportCatalog.GetDirectory(entityLoc, id, ReportCatalog.GetWeekName(weekStart));
+        String reportPath = null;
+        if (isManagerReport) //Get a file name if it is a manager report
+        {
+            do
+            {
+                reportPath = reportDir+"/"+catalog.NextReportNumber(entityLoc, id, weekStart)+".txt";
+            } while (FileUtilities.FileExists(reportPath));
+        }
+        else //Weekly generated, so the name is simply "Main.txt"
+        {
+            reportPath = reportDir+"/"+FileUtilities.WEEKLY_REPORT_LOC;
+            catalog.AddWeeklyReport(entityLoc, id, weekStart, false);
+        }      
+        
+        return reportPath;
+    }
+    
+    /**
+     * This method writes an individual entry in the EFT report
+     * 
+     * @param writer file to write to
+     * @param prov provider that we're writing the EFT entry about
+     * @param transferAmt the total amount of money that needs to be transferred
+     * @throws IOException 
+     */
+    private static void WriteEFTEntry(ReportWriter writer, Provider prov, BigDecimal transferAmt) throws IOException
+    {
+        ReportGenerator.EFT_ENTRY.Render(writer, prov.GetName(), prov.GetID(), transferAmt);
+    }
+    
+    /**
+     * This method writes an individual entry in the summary report
+     * 
+     * @param writer file to write to
+     * @param prov provider that we're writing the summary about
+     * @param totalConsultations total consultations for the provider
+     * @param totalFee total fees that are owed
+     * @throws IOException 
+     */
+    private static void WriteSummaryEntry(ReportWriter writer, Provider prov, int totalConsultations, BigDecimal totalFee) throws IOException
+    {
+        ReportGenerator.SUMMARY_ENTRY.Render(writer, prov.GetName(), totalConsultations, totalFee);
+    }
+    
+
+    /**
+     * This method extracts the total consultations and total fees of the provider from all of the records that are within refDate.
+     * Note that this assumes the provider has at least one record that satisfies the above criteria.
+     * 
+     * @param prov The provider whose totals we're extracting
+     * @param records The records associated with that provider
+     * @param refDate The reference date with which to compare to
+     * @param lookups Used to look up the fees
+     * @return A (Integer, BIgDecial) tuple containing the totalConsltations and totalFees for the provider
+     */
+    private static AbstractMap.SimpleEntry<Integer, BigDecimal> ExtractRecordTotals(Provider prov, Iterator<ServiceRecord> records, LocalDateTime refDate, ReportLookups lookups)
+    {
+        int totalConsultations = 0;
+        BigDecimal totalFees = new BigDecimal("0");
+        
+        ServiceRecord curRecord = records.next();
+        do
+        {
+            ++totalConsultations;
+            totalFees = totalFees.add(lookups.LookUpService(prov, curRecord.GetServiceCode()).GetFee());
+        } while (records.hasNext() && Utilities.IsWithinDate((curRecord = records.next()).GetCurrentDateTime(), refDate));
+        
+        return new AbstractMap.SimpleEntry<Integer, BigDecimal>(totalConsultations, totalFees);
+    }
+}
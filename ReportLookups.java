@@ -0,0 +1,89 @@
+import java.util.HashMap;
+
+/**
+ *
+ * @author Enis
+ * This remembers the providers and members looked up while writing reports, so that each of
+ * them is only looked up in the data center once per run. Looking them up in the data center is
+ * a search of its sorted sets (see Utilities.LookUpElement), and the same few providers come up
+ * on nearly every line of a report: a member usually sees the same provider all week, and every
+ * line of a provider's report is for that provider. A hash lookup saves most of those searches.
+ *
+ * A run is either a single manager requested report, or the whole weekly processing, where the
+ * members seen in one provider's report are also in the others'. Only the objects are kept, their
+ * names are read when the line is written, so a change to them during the run still shows up.
+ * Services aren't kept: they're looked up in the provider's directory for every line, which is
+ * a binary search (see Provider.LookUpService), so a change to a service's name or fee during
+ * the run shows up too. An element that doesn't exist isn't remembered.
+ *
+ * It isn't thread-safe, each run uses its own.
+ */
+public class ReportLookups
+{
+    private ChocAnDPS database = null;
+
+    private HashMap<Integer, Provider> providers = new HashMap<Integer, Provider>();
+    private HashMap<Integer, Member> members = new HashMap<Integer, Member>();
+
+    /**
+     *
+     * @param database_ Where the elements are looked up the first time
+     */
+    public ReportLookups(ChocAnDPS database_)
+    {
+        this.database = database_;
+    }
+
+    /**
+     *
+     * @param providerNum
+     * @return The provider, or null if they don't exist
+     */
+    public Provider LookUpProvider(final int providerNum)
+    {
+        Provider provider = this.providers.get(providerNum);
+        if (provider == null && (provider = this.database.LookUpProvider(providerNum)) != null)
+        {
+            this.providers.put(providerNum, provider);
+        }
+        return provider;
+    }
+
+    /**
+     *
+     * @param memberNum
+     * @return The member, or null if they don't exist
+     */
+    public Member LookUpMember(final int memberNum)
+    {
+        Member member = this.members.get(memberNum);
+        if (member == null && (member = this.database.LookUpMember(memberNum)) != null)
+        {
+            this.members.put(memberNum, member);
+        }
+        return member;
+    }
+
+    /**
+     *
+     * @param provider
+     * @param serviceCode
+     * @return The service in provider's directory, or null if it isn't there
+     */
+    public Service LookUpService(final Provider provider, final int serviceCode)
+    {
+        return provider.LookUpService(serviceCode);
+    }
+
+    /**
+     *
+     * @param providerNum
+     * @param serviceCode
+     * @return The service in the provider's directory, or null if either doesn't exist
+     */
+    public Service LookUpService(final int providerNum, final int serviceCode)
+    {
+        Provider provider = this.LookUpProvider(providerNum);
+        return (provider == null ? null : this.LookUpService(provider, serviceCode));
+    }
+}
@@ -0,0 +1,40 @@
+import java.io.IOException;
+
+/**
+ *
+ * @author Enis
+ * This is where the weekly member and provider reports are written to. The reports
+ * either go into each member's and provider's own directory, one file each (see
+ * DirectoryReportOutput), or all of a week's reports go into a single archive
+ * (see ArchiveReportOutput).
+ *
+ * Manager requested reports always go into the member's or provider's directory.
+ */
+public interface ReportOutput
+{
+    /**
+     * Opens the weekly report of the member or provider having id. The report is written
+     * when the returned writer is closed, which must happen before the next report is opened.
+     *
+     * @param entityLoc FileUtilities.MEMBER_LOC or FileUtilities.PROVIDERS_LOC
+     * @param id The member or provider number
+     * @param weekName The week's directory name, i.e. "Reports for " followed by the date range
+     * @return
+     * @throws IOException
+     */
+    ReportWriter OpenReport(String entityLoc, int id, String weekName) throws IOException;
+
+    /**
+     * Finishes writing the reports. Nothing may be opened afterwards.
+     *
+     * @throws IOException
+     */
+    void Close() throws IOException;
+
+    /**
+     * Gives up on the reports after something went wrong, releasing whatever is open and
+     * leaving none of what was written so far behind as if it were complete. Nothing may be
+     * opened afterwards.
+     */
+    void Abort();
+}
@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ *
+ * @author Enis
+ * This is one part of a report's layout (e.g. the header of a member report, or one service
+ * record in a provider report), compiled once so it can be rendered for every record without
+ * going through the layout again.
+ *
+ * A layout is plain text with fields written as ${name}, e.g.
+ *      \tDate of service: ${serviceDate}\n
+ * A literal $ is written as $$. Compiling splits the layout into the literal text between the
+ * fields, already encoded as ASCII bytes, and a slot for each field saying which of the values
+ * passed to Render goes there. The fields a template can use, and the order their values are
+ * passed in, are fixed by the code rendering it; the layout may use them in any order, more than
+ * once, or not at all.
+ *
+ * Each value is written according to its type (see ReportWriter):
+ *      String              as is
+ *      Integer, Long       in decimal
+ *      LocalDate           MM-DD-YYYY
+ *      LocalDateTime       MM-DD-YYYY HH:MM:SS
+ *      BigDecimal          in US dollars, e.g. $1,234.50
+ *
+ * The layouts ReportGenerator uses can be changed without recompiling by putting a file named
+ * after the template (e.g. member.entry.txt) in ChocAnFiles/Templates. The whole file, including
+ * its line breaks, is the layout. A template never changes once compiled, so it can be rendered
+ * from several threads at once.
+ */
+public class ReportTemplate
+{
+    /**
+     * The literal text before each slot, and the text after the last one.
+     * There is always one more literal than there are slots.
+     */
+    private byte[][] literals = null;
+
+    /**
+     * For each slot, the index of the value written there
+     */
+    private int[] slots = null;
+
+    /**
+     * The fields the template was compiled with
+     */
+    private String[] fields = null;
+
+    private ReportTemplate(byte[][] literals_, int[] slots_, String[] fields_)
+    {
+        this.literals = literals_;
+        this.slots = slots_;
+        this.fields = fields_;
+    }
+
+    /**
+     * Compiles layout. The values passed to Render are those of fields, in the same order.
+     *
+     * @param layout
+     * @param fields_ The names of the fields layout may use
+     * @return The compiled template
+     * @throws IllegalArgumentException If a field in layout isn't one of fields_, or a ${ isn't closed
+     */
+    public static ReportTemplate Compile(final String layout, final String... fields_)
+    {
+        ArrayList<byte[]> literals = new ArrayList<byte[]>();
+        ArrayList<Integer> slots = new ArrayList<Integer>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < layout.length())
+        {
+            char c = layout.charAt(i);
+            if (c == '$' && i + 1 < layout.length() && layout.charAt(i + 1) == '$') //Escaped $
+            {
+                literal.append('$');
+                i += 2;
+            }
+            else if (c == '$' && i + 1 < layout.length() && layout.charAt(i + 1) == '{') //A field
+            {
+                int end = layout.indexOf('}', i + 2);
+                if (end < 0)
+                {
+                    throw new IllegalArgumentException("Missing } after \""+layout.substring(i)+"\"");
+                }
+
+                String name = layout.substring(i + 2, end).trim();
+                int index = Arrays.asList(fields_).indexOf(name);
+                if (index < 0)
+                {
+                    throw new IllegalArgumentException("Unknown field ${"+name+"}, expected one of "+String.join(", ", fields_));
+                }
+
+                literals.add(literal.toString().getBytes(FileUtilities.FILE_DECODING));
+                literal.setLength(0);
+                slots.add(index);
+                i = end + 1;
+            }
+            else
+            {
+                literal.append(c);
+                ++i;
+            }
+        }
+        literals.add(literal.toString().getBytes(FileUtilities.FILE_DECODING));
+
+        int[] slotArray = new int[slots.size()];
+        for (int j = 0; j < slotArray.length; ++j)
+        {
+            slotArray[j] = slots.get(j);
+        }
+
+        return new ReportTemplate(literals.toArray(new byte[literals.size()][]), slotArray, fields_.clone());
+    }
+
+    /**
+     * Compiles the layout in ChocAnFiles/Templates/name.txt if there is one, otherwise defaultLayout.
+     * If the file can't be read or compiled, the error is printed and defaultLayout is used.
+     *
+     * @param name The template's name, e.g. member.entry
+     * @param defaultLayout
+     * @param fields_ The names of the fields the layout may use
+     * @return The compiled template
+     */
+    public static ReportTemplate Load(final String name, final String defaultLayout, final String... fields_)
+    {
+        String path = FileUtilities.FILE_LOC+"/"+FileUtilities.TEMPLATE_LOC+"/"+name+".txt";
+        try
+        {
+            return ReportTemplate.Compile(new String(Files.readAllBytes(Paths.get(path)), FileUtilities.FILE_DECODING), fields_);
+        }catch(NoSuchFileException ex) //No custom layout
+        {
+        }catch(IOException | IllegalArgumentException ex)
+        {
+            System.out.println("ERROR! The report template "+path+" could not be loaded, using the default one: "+ex.getMessage()+"\n");
+        }
+
+        return ReportTemplate.Compile(defaultLayout, fields_);
+    }
+
+    /**
+     * Writes the template to writer, with values in the slots.
+     *
+     * @param writer
+     * @param values The value of each field, in the order the fields were given when compiling
+     * @throws IOException
+     */
+    public void Render(ReportWriter writer, final Object... values) throws IOException
+    {
+        if (values.length != this.fields.length)
+        {
+            throw new IllegalArgumentException("Expected "+this.fields.length+" values, got "+values.length);
+        }
+
+        for (int i = 0; i < this.slots.length; ++i)
+        {
+            writer.Append(this.literals[i]);
+            ReportTemplate.AppendValue(writer, values[this.slots[i]]);
+        }
+        writer.Append(this.literals[this.slots.length]);
+    }
+
+    /**
+     *
+     * @return The names of the fields the template may use, in the order their values are passed to Render
+     */
+    public String[] GetFields()
+    {
+        return this.fields.clone();
+    }
+
+    /**
+     * Writes value to writer according to its type (see above)
+     *
+     * @param writer
+     * @param value
+     * @throws IOException
+     */
+    private static void AppendValue(ReportWriter writer, final Object value) throws IOException
+    {
+        if (value instanceof String)
+        {
+            writer.Append((String)value);
+        }
+        else if (value instanceof Integer || value instanceof Long)
+        {
+            writer.Append(((Number)value).longValue());
+        }
+        else if (value instanceof BigDecimal)
+        {
+            writer.AppendUSD((BigDecimal)value);
+        }
+        else if (value instanceof LocalDate)
+        {
+            writer.AppendDate((LocalDate)value);
+        }
+        else if (value instanceof LocalDateTime)
+        {
+            writer.AppendDateTime((LocalDateTime)value);
+        }
+        else
+        {
+            writer.Append(String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,467 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ *
+ * @author Enis
+ * This is what the reports are written with. The reports are ASCII text, so instead of going
+ * through a BufferedWriter and an encoder for every string, the characters are put straight
+ * into direct byte buffers. The Append methods write numbers, dates and fees as digits without
+ * building a String first, and return the writer so a line can be written in one statement.
+ *
+ * Each writer has up to BUFFER_COUNT buffers of BUFFER_SIZE bytes. When they are all full,
+ * they are written to the channel in a single gathering write. Most reports fit in the first
+ * buffer, so they take one write when closed. The buffers are allocated once per thread and
+ * reused by every report the thread writes afterwards; a thread can have several reports open
+ * at once (the weekly processing writes the EFT, summary and provider reports together), each
+ * gets its own set.
+ *
+ * Characters that aren't ASCII (which shouldn't be in the data center's files) are replaced
+ * with "?" by the thread's encoder, like the writers from FileUtilities.OpenWriter do.
+ *
+ * The number of bytes written is kept for the report's ReportGeneratedEvent. A ReportWriter
+ * must only be used by one thread at a time.
+ */
+public class ReportWriter extends Writer
+{
+    /**
+     * Size of each buffer in bytes
+     */
+    public static final int BUFFER_SIZE = 1 << 14;
+
+    /**
+     * Most buffers a writer fills before writing them to the channel
+     */
+    public static final int BUFFER_COUNT = 4;
+
+    /**
+     * Most sets of buffers kept per thread for reuse
+     */
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * Each thread's buffers that aren't in use by an open writer
+     */
+    private static final ThreadLocal<ArrayDeque<ByteBuffer[]>> POOL = ThreadLocal.withInitial(() -> new ArrayDeque<ByteBuffer[]>());
+
+    /**
+     * Each thread's encoder, only used for characters that aren't ASCII
+     */
+    private static final ThreadLocal<CharsetEncoder> ENCODER = ThreadLocal.withInitial(() -> FileUtilities.FILE_DECODING.newEncoder()
+                                                                        .onMalformedInput(CodingErrorAction.REPLACE)
+                                                                        .onUnmappableCharacter(CodingErrorAction.REPLACE));
+
+    private WritableByteChannel channel = null;
+
+    /**
+     * The buffers, and the one being filled. Buffers after it are allocated when first needed.
+     */
+    private ByteBuffer[] buffers = null;
+    private int current = 0;
+    private ByteBuffer buffer = null;
+
+    private long count = 0;
+
+    /**
+     * Where AppendDigits puts the digits of a number before copying them to the buffer
+     */
+    private byte[] digits = new byte[20];
+
+    /**
+     * Creates a writer writing to channel. The channel is closed along with the writer.
+     *
+     * @param channel_
+     */
+    public ReportWriter(WritableByteChannel channel_)
+    {
+        this.channel = channel_;
+        this.buffers = ReportWriter.POOL.get().poll();
+        if (this.buffers == null)
+        {
+            this.buffers = new ByteBuffer[ReportWriter.BUFFER_COUNT];
+            this.buffers[0] = ByteBuffer.allocateDirect(ReportWriter.BUFFER_SIZE);
+        }
+        this.buffer = this.buffers[0];
+    }
+
+    /**
+     * Appends s. Characters that aren't ASCII are replaced with "?".
+     *
+     * @param s
+     * @return This writer
+     * @throws IOException
+     */
+    public ReportWriter Append(final String s) throws IOException
+    {
+        this.write(s, 0, s.length());
+        return this;
+    }
+
+    /**
+     * Appends bytes, which must be ASCII text (e.g. a ReportTemplate's literal text)
+     *
+     * @param bytes
+     * @return This writer
+     * @throws IOException
+     */
+    public ReportWriter Append(final byte[] bytes) throws IOException
+    {
+        int offset = 0;
+        while (offset < bytes.length)
+        {
+            if (!this.buffer.hasRemaining())
+            {
+                this.NextBuffer();
+            }
+            int length = Math.min(this.buffer.remaining(), bytes.length - offset);
+            this.buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        this.count += bytes.length;
+        return this;
+    }
+
+    /**
+     * Appends c, which must be ASCII
+     *
+     * @param c
+     * @return This writer
+     * @throws IOException
+     */
+    public ReportWriter Append(final char c) throws IOException
+    {
+        if (!this.buffer.hasRemaining())
+        {
+            this.NextBuffer();
+        }
+        this.buffer.put((byte)c);
+        ++this.count;
+        return this;
+    }
+
+    /**
+     * Appends the decimal digits of n
+     *
+     * @param n
+     * @return This writer
+     * @throws IOException
+     */
+    public ReportWriter Append(final long n) throws IOException
+    {
+        if (n < 0)
+        {
+            if (n == Long.MIN_VALUE)
+            {
+                return this.Append(Long.toString(n));
+            }
+            this.Append('-');
+            return this.AppendDigits(-n, 1);
+        }
+
+        return this.AppendDigits(n, 1);
+    }
+
+    /**
+     * Appends date as MM-DD-YYYY (see Format.DATE)
+     *
+     * @param date
+     * @return This writer
+     * @throws IOException
+     */
+    public ReportWriter AppendDate(final LocalDate date) throws IOException
+    {
+        this.AppendDigits(date.getMonthValue(), 2).Append('-');
+        this.AppendDigits(date.getDayOfMonth(), 2).Append('-');
+        return this.AppendDigits(date.getYear(), 4);
+    }
+
+    /**
+     * Appends dateTime as MM-DD-YYYY HH:MM:SS (see Format.DATE and Format.TIME). Like Format.TIME,
+     * the hour goes from 1 to 24, so midnight is written as 24.
+     *
+     * @param dateTime
+     * @return This writer
+     * @throws IOException
+     */
+    public ReportWriter AppendDateTime(final LocalDateTime dateTime) throws IOException
+    {
+        this.AppendDate(dateTime.toLocalDate()).Append(' ');
+        this.AppendDigits(dateTime.getHour() == 0 ? 24 : dateTime.getHour(), 2).Append(':');
+        this.AppendDigits(dateTime.getMinute(), 2).Append(':');
+        return this.AppendDigits(dateTime.getSecond(), 2);
+    }
+
+    /**
+     * Appends amount in US dollars, rounded to the cent, e.g. $1,234.50 or -$3.00.
+     * This is the same as Format.USD_COST_FORMAT, without going through a double.
+     *
+     * @param amount
+     * @return This writer
+     * @throws IOException
+     */
+    public ReportWriter AppendUSD(final BigDecimal amount) throws IOException
+    {
+        BigInteger cents = amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue();
+        if (cents.bitLength() >= 63) //Too big for a long, never the case for a real fee
+        {
+            return this.Append(NumberFormat.getCurrencyInstance(Locale.US).format(amount));
+        }
+
+        long value = cents.longValue();
+        if (value < 0)
+        {
+            this.Append('-');
+            value = -value;
+        }
+        this.Append('$');
+
+        long dollars = value / 100;
+        long group = 1;
+        while (group <= dollars / 1000)
+        {
+            group *= 1000;
+        }
+        this.AppendDigits(dollars / group, 1); //The leading group isn't padded
+        for (group /= 1000; group > 0; group /= 1000)
+        {
+            this.Append(',').AppendDigits((dollars / group) % 1000, 3);
+        }
+
+        return this.Append('.').AppendDigits(value % 100, 2);
+    }
+
+    /**
+     *
+     * @return The number of bytes written so far
+     */
+    public long GetCount()
+    {
+        return this.count;
+    }
+
+    public void write(int c) throws IOException
+    {
+        if (c < 0x80)
+        {
+            this.Append((char)c);
+        }
+        else
+        {
+            this.Encode(CharBuffer.wrap(new char[] {(char)c}));
+        }
+    }
+
+    public void write(char[] cbuf, int off, int len) throws IOException
+    {
+        int end = off + len;
+        for (int i = off; i < end; ++i)
+        {
+            char c = cbuf[i];
+            if (c >= 0x80)
+            {
+                this.Encode(CharBuffer.wrap(cbuf, i, end - i));
+                return;
+            }
+            if (!this.buffer.hasRemaining())
+            {
+                this.NextBuffer();
+            }
+            this.buffer.put((byte)c);
+            ++this.count;
+        }
+    }
+
+    public void write(String str, int off, int len) throws IOException
+    {
+        int end = off + len;
+        for (int i = off; i < end; ++i)
+        {
+            char c = str.charAt(i);
+            if (c >= 0x80)
+            {
+                this.Encode(CharBuffer.wrap(str, i, end));
+                return;
+            }
+            if (!this.buffer.hasRemaining())
+            {
+                this.NextBuffer();
+            }
+            this.buffer.put((byte)c);
+            ++this.count;
+        }
+    }
+
+    /**
+     * Writes everything in the buffers to the channel.
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException
+    {
+        this.Drain();
+    }
+
+    /**
+     * Writes everything in the buffers to the channel, closes it and hands the buffers back
+     * to the thread's pool. Closing it again does nothing.
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException
+    {
+        if (this.buffers == null)
+        {
+            return;
+        }
+
+        try
+        {
+            this.Drain();
+        }finally
+        {
+            this.channel.close();
+            for (int i = 0; i <= this.current; ++i)
+            {
+                this.buffers[i].clear();
+            }
+            ArrayDeque<ByteBuffer[]> pool = ReportWriter.POOL.get();
+            if (pool.size() < ReportWriter.POOL_SIZE)
+            {
+                pool.push(this.buffers);
+            }
+            this.buffers = null;
+            this.buffer = null;
+        }
+    }
+
+    /**
+     * Appends n with at least width digits, padding it with zeros. n must not be negative.
+     *
+     * @param n
+     * @param width
+     * @return This writer
+     * @throws IOException
+     */
+    private ReportWriter AppendDigits(long n, final int width) throws IOException
+    {
+        byte[] digits = this.digits;
+        int start = digits.length;
+        do
+        {
+            digits[--start] = (byte)('0' + (n % 10));
+            n /= 10;
+        } while (n > 0);
+        while (digits.length - start < width)
+        {
+            digits[--start] = '0';
+        }
+
+        if (this.buffer.remaining() < digits.length - start)
+        {
+            this.NextBuffer();
+        }
+        this.buffer.put(digits, start, digits.length - start);
+        this.count += digits.length - start;
+        return this;
+    }
+
+    /**
+     * Encodes chars with the thread's encoder, for when they aren't all ASCII.
+     *
+     * @param chars
+     * @throws IOException
+     */
+    private void Encode(CharBuffer chars) throws IOException
+    {
+        CharsetEncoder encoder = ReportWriter.ENCODER.get();
+        encoder.reset();
+        CoderResult result = null;
+        do
+        {
+            int start = this.buffer.position();
+            result = encoder.encode(chars, this.buffer, true);
+            this.count += this.buffer.position() - start;
+            if (result.isOverflow())
+            {
+                this.NextBuffer();
+            }
+        } while (result.isOverflow());
+    }
+
+    /**
+     * Moves on to the next buffer, writing all of them to the channel first if they're full.
+     *
+     * @throws IOException
+     */
+    private void NextBuffer() throws IOException
+    {
+        if (this.current + 1 == this.buffers.length)
+        {
+            this.Drain();
+            return;
+        }
+
+        ++this.current;
+        if (this.buffers[this.current] == null)
+        {
+            this.buffers[this.current] = ByteBuffer.allocateDirect(ReportWriter.BUFFER_SIZE);
+        }
+        this.buffer = this.buffers[this.current];
+    }
+
+    /**
+     * Writes the buffers filled so far to the channel in one gathering write (or one after the
+     * other, if the channel can't do that), then starts again from the first buffer.
+     *
+     * @throws IOException
+     */
+    private void Drain() throws IOException
+    {
+        long remaining = 0;
+        for (int i = 0; i <= this.current; ++i)
+        {
+            this.buffers[i].flip();
+            remaining += this.buffers[i].remaining();
+        }
+
+        if (this.channel instanceof GatheringByteChannel)
+        {
+            while (remaining > 0)
+            {
+                remaining -= ((GatheringByteChannel)this.channel).write(this.buffers, 0, this.current + 1);
+            }
+        }
+        else
+        {
+            for (int i = 0; i <= this.current; ++i)
+            {
+                while (this.buffers[i].hasRemaining())
+                {
+                    this.channel.write(this.buffers[i]);
+                }
+            }
+        }
+
+        for (int i = 0; i <= this.current; ++i)
+        {
+            this.buffers[i].clear();
+        }
+        this.current = 0;
+        this.buffer = this.buffers[0];
+    }
+}
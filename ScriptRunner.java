@@ -0,0 +1,464 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ *
+ * @author Enis
+ * This class runs the data center without the terminals, for unattended jobs such as
+ * the nightly batch. It reads one command per line and carries it out with the same code
+ * the terminals use, but nothing is prompted for and no menus are printed. Only a single
+ * line is written per command, saying what was done, or the error if it failed.
+ *
+ * The commands are:
+ *      advance days N                  Advance the time by N days (at most 7, like AdvanceTimeTerminal)
+ *      advance hours N                 Advance the time by N hours (at most 7*24)
+ *      advance weeks N                 Fast-forward the time by N weeks (see SimulationEngine)
+ *      replay claims FILE              Replay the claims log in FILE, advancing the time along with it
+ *      report member N                 Generate the member report for member N
+ *      report provider N               Generate the provider report for provider N
+ *      report eft                      Generate the EFT report
+ *      report summary                  Generate the summary report
+ *      list member|provider N          List the reports of member or provider N, by week (see ReportCatalog)
+ *      list eft|summary                List the EFT or summary reports, by week
+ *      import N FILE                   Import the claims in FILE for provider N (see ClaimImporter)
+ *      enrol members FILE              Load the members in FILE (see EnrolmentLoader)
+ *      enrol providers FILE            Load the providers in FILE
+ *      export members                  Write the members to the output directory (see DataExporter)
+ *      export providers                Write the providers to the output directory
+ *      export records                  Write the service records on disk to the output directory
+ *      export metrics                  Write the metrics to the output directory (see Metrics)
+ *
+ * Blank lines and lines starting with # are skipped. A command that fails doesn't stop the
+ * script; the rest of the commands are still run, and Run returns how many failed.
+ * File names are the rest of the line, so they may contain spaces.
+ */
+public class ScriptRunner
+{
+    private ChocAnDPS dataCenter = null;
+
+    //Number of commands run and failed so far
+    private int commandsRun = 0;
+    private int commandsFailed = 0;
+
+    public ScriptRunner(final ChocAnDPS dataCenter_)
+    {
+        this.dataCenter = dataCenter_;
+    }
+
+    /**
+     * Runs every command in the script file. If scriptPath is "-", the commands are read from the standard input.
+     *
+     * @param scriptPath
+     * @return The number of commands that failed, or -1 if the script couldn't be opened
+     * @throws IOException
+     */
+    public int RunScript(final String scriptPath) throws IOException
+    {
+        BufferedReader reader = (scriptPath.equals("-") ? new BufferedReader(new InputStreamReader(System.in)) : FileUtilities.OpenReader(scriptPath));
+        if (reader == null)
+        {
+            System.out.println("ERROR: Could not open the script \""+scriptPath+"\"!");
+            return -1;
+        }
+
+        int failed = 0;
+        try
+        {
+            failed = this.Run(reader);
+        }finally
+        {
+            reader.close();
+        }
+
+        return failed;
+    }
+
+    /**
+     * Runs every command read from reader.
+     *
+     * @param reader
+     * @return The number of commands that failed
+     * @throws IOException
+     */
+    public int Run(BufferedReader reader) throws IOException
+    {
+        int failedBefore = this.commandsFailed;
+        String line = null;
+        while ((line = reader.readLine()) != null)
+        {
+            this.Execute(line);
+        }
+
+        return this.commandsFailed - failedBefore;
+    }
+
+    /**
+     * Carries out a single command.
+     *
+     * @param line The command
+     * @return True if the command succeeded (or the line was blank or a comment), false otherwise
+     */
+    public boolean Execute(final String line)
+    {
+        String command = line.trim();
+        if (command.isEmpty() || command.startsWith("#"))
+        {
+            return true;
+        }
+
+        this.commandsRun++;
+        String error = null;
+        try
+        {
+            error = this.Dispatch(command.split("\\s+", 3));
+        }catch(NumberFormatException ex)
+        {
+            error = "Invalid number";
+        }catch(IOException ex)
+        {
+            error = ex.getMessage();
+        }
+
+        if (error != null)
+        {
+            this.commandsFailed++;
+            System.out.println("ERROR: "+command+": "+error);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     *
+     * @return The number of commands run so far, not counting blank lines and comments
+     */
+    public int GetCommandsRun()
+    {
+        return this.commandsRun;
+    }
+
+    /**
+     *
+     * @return The number of commands that failed so far
+     */
+    public int GetCommandsFailed()
+    {
+        return this.commandsFailed;
+    }
+
+    /**
+     * Calls the method that carries out the command in words.
+     *
+     * @param words The command split into at most 3 words, the last one being the rest of the line
+     * @return null if the command succeeded, otherwise why it failed
+     * @throws IOException
+     */
+    private String Dispatch(final String[] words) throws IOException
+    {
+        String verb = words[0].toLowerCase(Locale.ROOT);
+        String object = (words.length > 1 ? words[1].toLowerCase(Locale.ROOT) : "");
+        String argument = (words.length > 2 ? words[2].trim() : "");
+
+        switch (verb)
+        {
+        case "advance":
+            return this.Advance(object, argument);
+        case "replay":
+            return this.Replay(object, argument);
+        case "report":
+            return this.Report(object, argument);
+        case "list":
+            return this.List(object, argument);
+        case "import":
+            return this.Import(object, argument);
+        case "enrol":
+            return this.Enrol(object, argument);
+        case "export":
+            return this.Export(object);
+        default:
+            return "Unknown command";
+        }
+    }
+
+    private String Advance(final String unit, final String amount) throws IOException
+    {
+        int t = Integer.parseInt(amount);
+        if (t < 0)
+        {
+            return "Negative time amount";
+        }
+
+        if (unit.equals("days"))
+        {
+            t = Utilities.AdjustIntToLimit(t, 7);
+            this.dataCenter.AdvanceTimeByDays(t);
+        }
+        else if (unit.equals("hours"))
+        {
+            t = Utilities.AdjustIntToLimit(t, 24*7);
+            this.dataCenter.AdvanceTimeByHours(t);
+        }
+        else if (unit.equals("weeks"))
+        {
+            SimulationEngine engine = new SimulationEngine(this.dataCenter);
+            engine.FastForward(t*(Parameters.WEEK_LENGTH + 1));
+        }
+        else
+        {
+            return "Expected days, hours or weeks";
+        }
+        this.dataCenter.AwaitWeeklyProcessing(); //So the following commands see the weekly reports and the filtered disk
+
+        System.out.println("Advanced by "+t+" "+unit+".");
+        return null;
+    }
+
+    /**
+     * Same as AdvanceTimeTerminal.ReplayClaims, without the prompt.
+     *
+     * @param type claims
+     * @param claimsPath
+     * @return
+     * @throws IOException
+     */
+    private String Replay(final String type, final String claimsPath) throws IOException
+    {
+        if (!type.equals("claims"))
+        {
+            return "Expected claims";
+        }
+
+        String outputDir = FileUtilities.FILE_LOC+"/"+FileUtilities.OUTPUT_LOC;
+        FileUtilities.CreateDirectory(outputDir);
+        String rejectionsPath = outputDir+"/"+FileUtilities.REJECTED_REPLAY_LOC;
+
+        SimulationEngine engine = new SimulationEngine(this.dataCenter);
+        if (!engine.Replay(claimsPath, rejectionsPath))
+        {
+            return "Could not open the claims log";
+        }
+
+        System.out.println("Replayed "+engine.GetClaimsReplayed()+" claims, "+engine.GetClaimsRejected()+" rejected, "+engine.GetWeeksProcessed()+" weeks of reports generated.");
+        return null;
+    }
+
+    private String Report(final String type, final String number) throws IOException
+    {
+        switch (type)
+        {
+        case "member":
+            return this.MemberReport(Integer.parseInt(number));
+        case "provider":
+            return this.ProviderReport(Integer.parseInt(number));
+        case "eft":
+            ReportGenerator.GenerateEFTReport(this.dataCenter);
+            System.out.println("EFT report generated.");
+            return null;
+        case "summary":
+            ReportGenerator.GenerateSummaryReport(this.dataCenter);
+            System.out.println("Summary report generated.");
+            return null;
+        default:
+            return "Expected member, provider, eft or summary";
+        }
+    }
+
+    /**
+     * Prints the weeks the entity has reports for, with the number of them, on one line.
+     *
+     * @param type member, provider, eft or summary
+     * @param number The member or provider number, ignored for eft and summary
+     * @return
+     */
+    private String List(final String type, final String number)
+    {
+        String entityLoc = null;
+        int id = 0;
+        switch (type)
+        {
+        case "member":
+            entityLoc = FileUtilities.MEMBER_LOC;
+            id = Integer.parseInt(number);
+            break;
+        case "provider":
+            entityLoc = FileUtilities.PROVIDERS_LOC;
+            id = Integer.parseInt(number);
+            break;
+        case "eft":
+            entityLoc = FileUtilities.EFT_LOC;
+            break;
+        case "summary":
+            entityLoc = FileUtilities.SUMMARY_LOC;
+            break;
+        default:
+            return "Expected member, provider, eft or summary";
+        }
+
+        this.dataCenter.AwaitWeeklyProcessing();
+        String line = entityLoc+(id == 0 ? "" : " "+id)+":";
+        List<ReportCatalog.Entry> entries = this.dataCenter.GetReportCatalog().ListReports(entityLoc, id);
+        for (ReportCatalog.Entry entry : entries)
+        {
+            line += " "+entry.GetWeekName()+" ("+(entry.weekly ? (entry.archived ? "archived weekly, " : "weekly, ") : "")+entry.managerReports+" manager requested);";
+        }
+        System.out.println(entries.isEmpty() ? line+" no reports." : line);
+        return null;
+    }
+
+    /**
+     * Same as ManagerTerminal.GenerateMemberReport, without the prompt.
+     *
+     * @param memberNum
+     * @return
+     * @throws IOException
+     */
+    private String MemberReport(final int memberNum) throws IOException
+    {
+        Member member = this.dataCenter.LookUpMember(memberNum);
+        if (member == null)
+        {
+            return "Invalid/nonexistant member number";
+        }
+
+        ReportParameters parameters = new ReportParameters();
+        parameters.iterator = this.dataCenter.GetServiceRecordDisk().StartAtMember(memberNum);
+        if (!parameters.iterator.hasNext() || !Utilities.IsWithinDate(parameters.iterator.next().GetCurrentDateTime(), this.dataCenter.GetGlobalDate()))
+        {
+            System.out.println("Member "+memberNum+" has no services this week, no report generated.");
+            return null;
+        }
+
+        parameters.SetParameters(member, this.dataCenter.GetServiceRecordDisk().StartAtMember(memberNum), this.dataCenter.GetGlobalDate(), true);
+        ReportGenerator.GenerateMemberReport(parameters, this.dataCenter);
+        System.out.println("Member report for "+memberNum+" generated.");
+        return null;
+    }
+
+    /**
+     * Same as ManagerTerminal.GenerateProviderReport, without the prompt.
+     *
+     * @param providerNum
+     * @return
+     * @throws IOException
+     */
+    private String ProviderReport(final int providerNum) throws IOException
+    {
+        Provider provider = this.dataCenter.LookUpProvider(providerNum);
+        if (provider == null)
+        {
+            return "Invalid/nonexistant provider number";
+        }
+
+        ReportParameters parameters = new ReportParameters();
+        parameters.iterator = this.dataCenter.GetServiceRecordDisk().StartAtProvider(providerNum);
+        if (!parameters.iterator.hasNext() || !Utilities.IsWithinDate(parameters.iterator.next().GetCurrentDateTime(), this.dataCenter.GetGlobalDate()))
+        {
+            System.out.println("Provider "+providerNum+" has no consultations this week, no report generated.");
+            return null;
+        }
+
+        parameters.SetParameters(provider, this.dataCenter.GetServiceRecordDisk().StartAtProvider(providerNum), this.dataCenter.GetGlobalDate(), true);
+        ReportGenerator.GenerateProviderReport(parameters, this.dataCenter);
+        System.out.println("Provider report for "+providerNum+" generated.");
+        return null;
+    }
+
+    /**
+     * Same as ProviderTerminal.ImportServiceRecords, for the given provider.
+     *
+     * @param number The provider number
+     * @param claimsPath
+     * @return
+     * @throws IOException
+     */
+    private String Import(final String number, final String claimsPath) throws IOException
+    {
+        Provider provider = this.dataCenter.LookUpProvider(Integer.parseInt(number));
+        if (provider == null)
+        {
+            return "Invalid/nonexistant provider number";
+        }
+
+        String providerDir = FileUtilities.FILE_LOC+"/"+FileUtilities.PROVIDERS_LOC+"/"+provider.GetID();
+        FileUtilities.CreateDirectory(providerDir);
+        String rejectionsPath = providerDir+"/"+FileUtilities.REJECTED_CLAIMS_LOC;
+
+        ClaimImporter importer = new ClaimImporter(this.dataCenter, provider);
+        if (!importer.Import(claimsPath, rejectionsPath))
+        {
+            return "Could not open the claims file";
+        }
+
+        System.out.println("Imported "+importer.GetAcceptedCount()+" claims for provider "+provider.GetID()+", "+importer.GetRejectedCount()+" rejected.");
+        return null;
+    }
+
+    /**
+     * Same as ModifyMembersTerminal.LoadMembersFromRoster or ModifyProvidersTerminal.LoadProvidersFromRoster.
+     *
+     * @param type members or providers
+     * @param rosterPath
+     * @return
+     * @throws IOException
+     */
+    private String Enrol(final String type, final String rosterPath) throws IOException
+    {
+        String outputDir = FileUtilities.FILE_LOC+"/"+FileUtilities.OUTPUT_LOC;
+        FileUtilities.CreateDirectory(outputDir);
+        String rejectionsPath = outputDir+"/"+FileUtilities.REJECTED_ENROLMENTS_LOC;
+
+        EnrolmentLoader loader = new EnrolmentLoader(this.dataCenter);
+        boolean opened = false;
+        if (type.equals("members"))
+        {
+            opened = loader.LoadMembers(rosterPath, rejectionsPath);
+        }
+        else if (type.equals("providers"))
+        {
+            opened = loader.LoadProviders(rosterPath, rejectionsPath);
+        }
+        else
+        {
+            return "Expected members or providers";
+        }
+
+        if (!opened)
+        {
+            return "Could not open the roster file";
+        }
+
+        System.out.println("Enrolled "+loader.GetLoadedCount()+" "+type+", "+loader.GetRejectedCount()+" rejected.");
+        return null;
+    }
+
+    private String Export(final String type) throws IOException
+    {
+        DataExporter exporter = new DataExporter(this.dataCenter);
+        int count = 0;
+        switch (type)
+        {
+        case "members":
+            count = exporter.ExportMembers();
+            break;
+        case "providers":
+            count = exporter.ExportProviders();
+            break;
+        case "records":
+            count = exporter.ExportServiceRecords();
+            break;
+        case "metrics":
+            exporter.ExportMetrics();
+            System.out.println("Exported the metrics.");
+            return null;
+        default:
+            return "Expected members, providers, records or metrics";
+        }
+
+        System.out.println("Exported "+count+" "+type+".");
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * @author Enis
+ * This is the catalog of every service offered by any provider, by service code. The first
+ * provider to offer a code gives it its canonical name and fee; they never change afterwards.
+ *
+ * Most providers offer the same services for the same fees, so a provider directory doesn't keep
+ * a Service for each of its entries. It keeps the codes it offers, sorted, and only keeps a fee of
+ * its own if it's different from the catalog's (see Provider). The catalog's fee, a BigDecimal,
+ * is then shared by every provider charging it.
+ *
+ * The catalog can be used from several threads.
+ */
+public class ServiceCatalog
+{
+    /**
+     * The catalog shared by every provider
+     */
+    public static final ServiceCatalog GLOBAL = new ServiceCatalog();
+
+    /**
+     * The canonical service of each code. They must not be changed.
+     */
+    private ConcurrentHashMap<Integer, Service> services = new ConcurrentHashMap<Integer, Service>();
+
+    /**
+     * Adds the service to the catalog if its code isn't there yet
+     *
+     * @param code
+     * @param name
+     * @param fee
+     * @return The canonical service with that code, which is the one given if the code is new
+     */
+    public Service Register(final int code, final String name, final BigDecimal fee)
+    {
+        Service canonical = this.services.get(code); //Most codes are already there, so avoid the locking in computeIfAbsent
+        if (canonical == null)
+        {
+            canonical = this.services.computeIfAbsent(code, key -> new Service(key, name, fee));
+        }
+        return canonical;
+    }
+
+    /**
+     *
+     * @param code
+     * @return The canonical service with that code, or null if no provider has offered it. It must not be changed.
+     */
+    public Service LookUp(final int code)
+    {
+        return this.services.get(code);
+    }
+
+    /**
+     *
+     * @return The number of service codes in the catalog
+     */
+    public int Size()
+    {
+        return this.services.size();
+    }
+}
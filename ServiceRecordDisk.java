@@ -1,199 +1,374 @@
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.Iterator;
-import java.util.ListIterator;
-import java.util.TreeSet;
-
-/**
- *
- * @author Enis
- * This is the disk that stores the service records associated with each provider
- * and member. Every time a member is served, that record gets written here.
- * Providers can also manually write their own records in the case
- * of hardware failure.
- * 
- * To avoid having to search the records one by one and figure out which record
- * belongs to what member when generating the reports, the fields recordsByMemberNum
- * and recordsByProviderNum were included that also organizes the records in "records"
- * by the corresponding member and provider that they are associated with.
- */
-public class ServiceRecordDisk
-{
-    /**
-     * The main data structure that stores the records. They are organized
-     * in chronological order.
-     */
-    private TreeSet<ServiceRecord> records = new TreeSet<ServiceRecord>();
-    
-    /**
-     * Organizes the records in "records" by member number.
-     */
-    private TreeSet<ServiceRecordList> recordsByMemberNum = new TreeSet<ServiceRecordList>();
-    
-    /**
-     * Organizes the records in "records" by provider number.
-     */
-    private TreeSet<ServiceRecordList> recordsByProviderNum = new TreeSet<ServiceRecordList>();
-    
-    /**
-     * 
-     */
-    public ServiceRecordDisk()
-    {
-    }
-    
-    /**
-     * Does a shallow copy of each field. Note that this was not used.
-     * @param o 
-     */
-    public ServiceRecordDisk(final ServiceRecordDisk o)
-    {     
-        this.records = o.records;
-        this.recordsByMemberNum = o.recordsByMemberNum;
-        this.recordsByProviderNum = o.recordsByProviderNum;
-    }
-    
-    /**
-     *
-     * @return The contents of the disk
-     */
-    public TreeSet<ServiceRecord> GetRecords()
-    {
-        return this.records;
-    }
-    
-    /**
-     * This method takes a new service record and adds them to the disk.
-     * It also updates the corresponding member and provider associated with
-     * the record in the recordsByMemberNum and recordsByProviderNum fields
-     * 
-     * @param newRecord 
-     */
-    public void WriteToDisk(final ServiceRecord newRecord)
-    {
-        this.records.add(newRecord); //Add to the main record
-        ServiceRecordList member = this.GetServiceList(this.recordsByMemberNum, newRecord.GetMemberNumber()); //Get the service records associated with the member listed in the record
-        ServiceRecordList provider = this.GetServiceList(this.recordsByProviderNum, newRecord.GetProviderNumber()); //Same as above, but for the provider
-        
-        //Update the corresponding records
-        member.AddServiceRecord(newRecord);
-        provider.AddServiceRecord(newRecord);
-    }
-    
-    /**
-     * Returns an iterator that allows one to traverse through the service records associated
-     * with memberNum.
-     * 
-     * @param memberNum the member number whose records we wish to traverse
-     * @return the corresponding iterator belonging to the member
-     */
-    public ListIterator<ServiceRecord> StartAtMember(int memberNum)
-    {
-        return this.GetServiceList(this.recordsByMemberNum, memberNum).Start();
-    }
-    
-    /**
-     * Returns an iterator that allows one to traverse through the service records associated
-     * with providerNum
-     * 
-     * @param providerNum the provider number whose records we wish to traverse
-     * @return the corresponding iterator belonging to the provider
-     */
-    public ListIterator<ServiceRecord> StartAtProvider(int providerNum)
-    {
-        return this.GetServiceList(this.recordsByProviderNum, providerNum).Start();
-    }
-
-    /**
-     * This function removes all records that have a chronological date <= to filterDate.
-     * 
-     * @param filterDate 
-     */
-    public void Filter(LocalDateTime filterDate)
-    {
-        Iterator<ServiceRecord> iterator = this.records.iterator();
-        ServiceRecord current = null;
-        
-        //Service records are organized in chronological order, so we can simply traverse
-        //and remove records while they are less than or equal to the filter date.
-        while (iterator.hasNext() && (Utilities.IsWithinDate((current = iterator.next()).GetCurrentDateTime(), filterDate)))
-        {
-            iterator.remove(); //Remove the record from the main disk.
-            
-            ServiceRecordList member = this.GetServiceList(this.recordsByMemberNum, current.GetMemberNumber());
-            ServiceRecordList provider = this.GetServiceList(this.recordsByProviderNum, current.GetProviderNumber());
-            
-            //Remove the record from the corresponding member's and provider's service records, if it exists
-            member.RemoveServiceRecord(current);
-            provider.RemoveServiceRecord(current);
-        }
-    }
-    
-    /**
-     * Writes the contents of the disk to the file contained in filePath, if any exist
-     * 
-     * @param filePath
-     * @throws IOException 
-     */
-    public void WriteRecordsTo(final String filePath) throws IOException
-    {
-        BufferedWriter writer = FileUtilities.OpenWriter(filePath);
-        Iterator<ServiceRecord> iterator = records.iterator();
-        if (iterator.hasNext())
-        {
-            String record = iterator.next().toString();
-            record += Format.SERVICE_RECORD_SEPARATOR; //I repeat code here to prevent having a new line
-            writer.write(record);            //inserted into the file after the first entry.
-            while (iterator.hasNext())      //This makes it easier to read from the file in case we have only one service record on disk
-            {
-                record = "\n"+iterator.next().toString();
-                record += Format.SERVICE_RECORD_SEPARATOR;
-                writer.write(record);
-            }            
-        }        
-        writer.close();        
-    }
-    
-    /**
-     * This function returns the service record list in treeToSearch associated with listKey.
-     * If no records exist, the function adds a new service record list having key listKey
-     * to the tree and returns it.
-     * 
-     * @param treeToSearch
-     * @param listKey
-     * @return 
-     */
-    private ServiceRecordList GetServiceList(TreeSet<ServiceRecordList> treeToSearch, int listKey)
-    {
-        ServiceRecordList listForSearch = new ServiceRecordList(listKey);
-        ServiceRecordList actualList = treeToSearch.floor(listForSearch);
-        
-        if (actualList == null || actualList.GetKey() != listKey) //The list doesn't exist, so we create it and add it to treeToSearch
-        {
-            treeToSearch.add(listForSearch);
-            actualList = listForSearch;
-        }
-        
-        return actualList;
-    }
-    
-    
-    /**
-     * Ignore, used for debugging purposes
-     * 
-     * @return 
-     */
-    public String toString()
-    {
-        String info = "";
-        Iterator<ServiceRecord> current = records.iterator();
-        while (current.hasNext())
-        {
-            info += current.next().toString() + "\n";
-        }
-        
-        return info;
-    }
-    
-}
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author Enis
+ * This is the disk that stores the service records associated with each provider
+ * and member. Every time a member is served, that record gets written here.
+ * Providers can also manually write their own records in the case
+ * of hardware failure.
+ * 
+ * To avoid having to search the records one by one and figure out which record
+ * belongs to what member when generating the reports, the fields recordsByMemberNum
+ * and recordsByProviderNum were included that also organizes the records in "records"
+ * by the corresponding member and provider that they are associated with.
+ * 
+ * Records can be written to the disk from several threads at once (e.g. one per provider
+ * terminal connected to the claim server) without any locking: the records and both indexes
+ * are concurrent data structures, and readers never see a ConcurrentModificationException.
+ */
+public class ServiceRecordDisk
+{
+    //Metrics, see Metrics.java
+    private static final LatencyHistogram WRITE_TIME = Metrics.Histogram("disk.write");
+    private static final LatencyHistogram BATCH_WRITE_TIME = Metrics.Histogram("disk.write.batch");
+    private static final LatencyHistogram FILTER_TIME = Metrics.Histogram("disk.filter");
+    private static final LongAdder RECORDS_WRITTEN = Metrics.Counter("disk.records.written");
+    private static final LongAdder RECORDS_FILTERED = Metrics.Counter("disk.records.filtered");
+    private static final LongAdder RECORDS_QUARANTINED = Metrics.Counter("disk.records.quarantined");
+    
+    /**
+     * The main data structure that stores the records. They are organized
+     * in chronological order.
+     */
+    private ConcurrentSkipListSet<ServiceRecord> records = new ConcurrentSkipListSet<ServiceRecord>();
+    
+    /**
+     * Organizes the records in "records" by member number.
+     */
+    private ConcurrentHashMap<Integer, ServiceRecordList> recordsByMemberNum = new ConcurrentHashMap<Integer, ServiceRecordList>();
+    
+    /**
+     * Organizes the records in "records" by provider number.
+     */
+    private ConcurrentHashMap<Integer, ServiceRecordList> recordsByProviderNum = new ConcurrentHashMap<Integer, ServiceRecordList>();
+    
+    /**
+     * 
+     */
+    public ServiceRecordDisk()
+    {
+    }
+    
+    /**
+     * Does a shallow copy of each field. Note that this was not used.
+     * @param o 
+     */
+    public ServiceRecordDisk(final ServiceRecordDisk o)
+    {     
+        this.records = o.records;
+        this.recordsByMemberNum = o.recordsByMemberNum;
+        this.recordsByProviderNum = o.recordsByProviderNum;
+    }
+    
+    /**
+     *
+     * @return The contents of the disk
+     */
+    public ConcurrentSkipListSet<ServiceRecord> GetRecords()
+    {
+        return this.records;
+    }
+    
+    /**
+     * This method takes a new service record and adds them to the disk.
+     * It also updates the corresponding member and provider associated with
+     * the record in the recordsByMemberNum and recordsByProviderNum fields, which gives both
+     * of their record lists a new version (see GetMemberVersion)
+     * 
+     * @param newRecord 
+     */
+    public void WriteToDisk(final ServiceRecord newRecord)
+    {
+        long start = System.nanoTime();
+        ClaimIngestedEvent event = new ClaimIngestedEvent();
+        event.begin();
+        this.records.add(newRecord); //Add to the main record
+        ServiceRecordList member = this.GetServiceList(this.recordsByMemberNum, newRecord.GetMemberNumber()); //Get the service records associated with the member listed in the record
+        ServiceRecordList provider = this.GetServiceList(this.recordsByProviderNum, newRecord.GetProviderNumber()); //Same as above, but for the provider
+        
+        //Update the corresponding records
+        member.AddServiceRecord(newRecord);
+        provider.AddServiceRecord(newRecord);
+        
+        ServiceRecordDisk.RECORDS_WRITTEN.increment();
+        ServiceRecordDisk.WRITE_TIME.RecordSince(start);
+        ServiceRecordDisk.CommitIngestedEvent(event, newRecord);
+    }
+    
+    /**
+     * Adds a batch of new service records to the disk, in the order given. This is what
+     * the ClaimIngestQueue uses to write the claims it has collected.
+     * 
+     * Consecutive records usually belong to the same provider (a provider serves one member
+     * after another), so the provider's list is only looked up again when the provider changes.
+     * 
+     * @param newRecords 
+     */
+    public void WriteToDisk(final Collection<ServiceRecord> newRecords)
+    {
+        long start = System.nanoTime();
+        ServiceRecordList provider = null;
+        Iterator<ServiceRecord> iterator = newRecords.iterator();
+        while (iterator.hasNext())
+        {
+            ServiceRecord newRecord = iterator.next();
+            ClaimIngestedEvent event = new ClaimIngestedEvent();
+            event.begin();
+            this.records.add(newRecord);
+            
+            if (provider == null || provider.GetKey() != newRecord.GetProviderNumber())
+            {
+                provider = this.GetServiceList(this.recordsByProviderNum, newRecord.GetProviderNumber());
+            }
+            this.GetServiceList(this.recordsByMemberNum, newRecord.GetMemberNumber()).AddServiceRecord(newRecord);
+            provider.AddServiceRecord(newRecord);
+            ServiceRecordDisk.CommitIngestedEvent(event, newRecord);
+        }
+        
+        ServiceRecordDisk.RECORDS_WRITTEN.add(newRecords.size());
+        ServiceRecordDisk.BATCH_WRITE_TIME.RecordSince(start);
+    }
+    
+    /**
+     * Returns an iterator that allows one to traverse through the service records associated
+     * with memberNum.
+     * 
+     * @param memberNum the member number whose records we wish to traverse
+     * @return the corresponding iterator belonging to the member
+     */
+    public Iterator<ServiceRecord> StartAtMember(int memberNum)
+    {
+        return this.GetServiceList(this.recordsByMemberNum, memberNum).Start();
+    }
+    
+    /**
+     * Returns an iterator that allows one to traverse through the service records associated
+     * with providerNum
+     * 
+     * @param providerNum the provider number whose records we wish to traverse
+     * @return the corresponding iterator belonging to the provider
+     */
+    public Iterator<ServiceRecord> StartAtProvider(int providerNum)
+    {
+        return this.GetServiceList(this.recordsByProviderNum, providerNum).Start();
+    }
+
+    /**
+     * 
+     * @param memberNum
+     * @return The version of the member's records (see ServiceRecordList.GetVersion). It changes
+     * whenever a record of theirs is written to or filtered from the disk.
+     */
+    public long GetMemberVersion(int memberNum)
+    {
+        return this.GetServiceList(this.recordsByMemberNum, memberNum).GetVersion();
+    }
+    
+    /**
+     * 
+     * @param providerNum
+     * @return The version of the provider's records, see GetMemberVersion
+     */
+    public long GetProviderVersion(int providerNum)
+    {
+        return this.GetServiceList(this.recordsByProviderNum, providerNum).GetVersion();
+    }
+
+    /**
+     * This function removes all records that have a chronological date <= to filterDate.
+     * 
+     * @param filterDate 
+     */
+    public void Filter(LocalDateTime filterDate)
+    {
+        Iterator<ServiceRecord> iterator = this.records.iterator();
+        ServiceRecord current = null;
+        
+        //Service records are organized in chronological order, so we can simply traverse
+        //and remove records while they are less than or equal to the filter date.
+        while (iterator.hasNext() && (Utilities.IsWithinDate((current = iterator.next()).GetCurrentDateTime(), filterDate)))
+        {
+            iterator.remove(); //Remove the record from the main disk.
+            
+            ServiceRecordList member = this.GetServiceList(this.recordsByMemberNum, current.GetMemberNumber());
+            ServiceRecordList provider = this.GetServiceList(this.recordsByProviderNum, current.GetProviderNumber());
+            
+            //Remove the record from the corresponding member's and provider's service records, if it exists
+            member.RemoveServiceRecord(current);
+            provider.RemoveServiceRecord(current);
+        }
+    }
+    
+    /**
+     * Takes a snapshot of every record on the disk with a chronological date <= closeDate.
+     * Records can keep being written to the disk while (and after) the snapshot is taken;
+     * ones written during it may or may not make it in, but the snapshot never changes afterwards.
+     * 
+     * @param closeDate
+     * @return The snapshot
+     */
+    public ServiceRecordSnapshot Snapshot(final LocalDateTime closeDate)
+    {
+        return new ServiceRecordSnapshot(this.records.iterator(), closeDate);
+    }
+    
+    /**
+     * Removes exactly the records in snapshot from the disk, once they've been reported on.
+     * Unlike filtering by date, this leaves alone any record that was written after the snapshot
+     * was taken, even if it is dated before the snapshot's closing date (e.g. a record for a
+     * service provided during a hardware failure). That record gets picked up by the next snapshot instead.
+     * 
+     * @param snapshot 
+     */
+    public void Filter(final ServiceRecordSnapshot snapshot)
+    {
+        long start = System.nanoTime();
+        HashSet<ServiceRecord> toRemove = snapshot.ToSet();
+        HashSet<Integer> members = new HashSet<Integer>();
+        HashSet<Integer> providers = new HashSet<Integer>();
+        
+        Iterator<ServiceRecord> iterator = snapshot.GetRecords().iterator();
+        while (iterator.hasNext())
+        {
+            ServiceRecord current = iterator.next();
+            this.records.remove(current);
+            members.add(current.GetMemberNumber());
+            providers.add(current.GetProviderNumber());
+        }
+        
+        //Go through each affected member's and provider's list once, rather than once per record
+        Iterator<Integer> keys = members.iterator();
+        while (keys.hasNext())
+        {
+            this.GetServiceList(this.recordsByMemberNum, keys.next()).RemoveServiceRecords(toRemove);
+        }
+        keys = providers.iterator();
+        while (keys.hasNext())
+        {
+            this.GetServiceList(this.recordsByProviderNum, keys.next()).RemoveServiceRecords(toRemove);
+        }
+        
+        ServiceRecordDisk.RECORDS_FILTERED.add(snapshot.Size());
+        ServiceRecordDisk.FILTER_TIME.RecordSince(start);
+    }
+    
+    /**
+     * Moves the records in snapshot off the disk and to the end of the file in filePath, which is
+     * created if it doesn't exist. The records are only removed once they were all written.
+     * 
+     * @param snapshot
+     * @param filePath
+     * @throws IOException If the records couldn't be written, in which case they stay on the disk
+     */
+    public void Quarantine(final ServiceRecordSnapshot snapshot, final String filePath) throws IOException
+    {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath), FileUtilities.FILE_DECODING, StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+        {
+            Iterator<ServiceRecord> iterator = snapshot.GetRecords().iterator();
+            while (iterator.hasNext())
+            {
+                writer.write(iterator.next().toString()+Format.SERVICE_RECORD_SEPARATOR+"\n");
+            }
+        }
+        
+        this.Filter(snapshot);
+        ServiceRecordDisk.RECORDS_QUARANTINED.add(snapshot.Size());
+    }
+    
+    /**
+     * Writes the contents of the disk to the file contained in filePath, if any exist
+     * 
+     * @param filePath
+     * @throws IOException 
+     */
+    public void WriteRecordsTo(final String filePath) throws IOException
+    {
+        BufferedWriter writer = FileUtilities.OpenWriter(filePath);
+        Iterator<ServiceRecord> iterator = records.iterator();
+        if (iterator.hasNext())
+        {
+            String record = iterator.next().toString();
+            record += Format.SERVICE_RECORD_SEPARATOR; //I repeat code here to prevent having a new line
+            writer.write(record);            //inserted into the file after the first entry.
+            while (iterator.hasNext())      //This makes it easier to read from the file in case we have only one service record on disk
+            {
+                record = "\n"+iterator.next().toString();
+                record += Format.SERVICE_RECORD_SEPARATOR;
+                writer.write(record);
+            }            
+        }        
+        writer.close();        
+    }
+    
+    /**
+     * Ends event and, if a flight recording wants it, fills it in from record and commits it.
+     * When no recording is running this is a single check, so it can be done for every record.
+     * 
+     * @param event
+     * @param record 
+     */
+    private static void CommitIngestedEvent(ClaimIngestedEvent event, final ServiceRecord record)
+    {
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.providerNumber = record.GetProviderNumber();
+            event.memberNumber = record.GetMemberNumber();
+            event.serviceCode = record.GetServiceCode();
+            event.commit();
+        }
+    }
+    
+    /**
+     * This function returns the service record list in mapToSearch associated with listKey.
+     * If no records exist, the function adds a new service record list having key listKey
+     * to the map and returns it. This is atomic, so two threads can't create two different
+     * lists for the same key.
+     * 
+     * @param mapToSearch
+     * @param listKey
+     * @return 
+     */
+    private ServiceRecordList GetServiceList(ConcurrentHashMap<Integer, ServiceRecordList> mapToSearch, int listKey)
+    {
+        ServiceRecordList actualList = mapToSearch.get(listKey); //Most lookups find the list, so avoid the locking in computeIfAbsent
+        
+        if (actualList == null) //The list doesn't exist, so we create it and add it to mapToSearch
+        {
+            actualList = mapToSearch.computeIfAbsent(listKey, key -> new ServiceRecordList(key));
+        }
+        
+        return actualList;
+    }
+    
+    
+    /**
+     * Ignore, used for debugging purposes
+     * 
+     * @return 
+     */
+    public String toString()
+    {
+        String info = "";
+        Iterator<ServiceRecord> current = records.iterator();
+        while (current.hasNext())
+        {
+            info += current.next().toString() + "\n";
+        }
+        
+        return info;
+    }
+    
+}
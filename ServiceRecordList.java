@@ -1,106 +1,156 @@
-import java.util.LinkedList;
-import java.util.ListIterator;
-
-/**
- *
- * @author Enis
- * The purpose of this class is to organize service records
- * by the corresponding member or provider to which they belong to.
- * 
- * Essentially, each member and provider will have a subset of the service records
- * on disk associated with them, and this class serves to keep track of that.
- * It is a wrapper to storing these records in a LinkedList that differentiates itself
- * from other ServiceRecordLists by a having a unique key, the member or provider number
- * 
- * Note the records themselves are stored in chronological order in the LinkedList.
- */
-public class ServiceRecordList implements Comparable<ServiceRecordList>
-{
-    /**
-     * The unique key identifying which member or provider these records belong to
-     */
-    private int key = 0;
-    /**
-     * The records associated with this provider or member.
-     */
-    private LinkedList<ServiceRecord> records = new LinkedList<ServiceRecord>();
-    
-    /**
-     * 
-     * @param key_ 
-     */
-    public ServiceRecordList(final int key_)
-    {
-        this.key = key_;
-    }
-    
-    /**
-     * Does a shallow copy of the records.
-     * Note that I never had to use the copy constructor, so this is OK.
-     * Normally it's better to do a deep copy of data structures.
-     * 
-     * @param o 
-     */
-    public ServiceRecordList(final ServiceRecordList o)
-    {
-        this.key = o.key;
-        
-        this.records = o.records;        
-    }
-    
-    /**
-     * 
-     * @return The unique key associated with this set of records
-     */
-    public int GetKey()
-    {
-        return this.key;
-    }
-
-    /**
-     * Adds s to the back of the linked list, since service records
-     * are in chronological order.
-     * 
-     * @param s 
-     */
-    public void AddServiceRecord(final ServiceRecord s)
-    {
-        this.records.addLast(s);
-    }
-    
-    /**
-     * Removes the record s, if it exists.
-     * 
-     * @param s
-     * @return True if the removal was successful, false otherwise
-     */
-    public boolean RemoveServiceRecord(final ServiceRecord s)
-    {
-        return this.records.remove(s);
-    }
-
-    /**
-     * 
-     * @return An iterator to the beginning of this list.
-     */
-    public ListIterator<ServiceRecord> Start()
-    {
-        return this.records.listIterator(0);
-    }
-    
-    /**
-     * Service record lists are organized by their key.
-     * 
-     * @param o
-     * @return 
-     */
-    public int compareTo(ServiceRecordList o)
-    {
-        if (key < o.key)
-            return -1;
-        else if (key > o.key)
-            return 1;
-        else
-            return 0;
-    }
-}
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author Enis
+ * The purpose of this class is to organize service records
+ * by the corresponding member or provider to which they belong to.
+ * 
+ * Essentially, each member and provider will have a subset of the service records
+ * on disk associated with them, and this class serves to keep track of that.
+ * It is a wrapper to storing these records in a linked list that differentiates itself
+ * from other ServiceRecordLists by a having a unique key, the member or provider number
+ * 
+ * Note the records themselves are stored in chronological order in the list. The list
+ * is a concurrent deque so that records can be appended while a report iterates over it.
+ * 
+ * Every change to the list gives it a new version (see GetVersion), which is how the
+ * ReportCache knows whether a report rendered from the list is still up to date.
+ */
+public class ServiceRecordList implements Comparable<ServiceRecordList>
+{
+    /**
+     * The unique key identifying which member or provider these records belong to
+     */
+    private int key = 0;
+    /**
+     * The records associated with this provider or member.
+     */
+    private ConcurrentLinkedDeque<ServiceRecord> records = new ConcurrentLinkedDeque<ServiceRecord>();
+    
+    /**
+     * Hands out the versions of every list, so that no two lists or changes share one
+     */
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    
+    /**
+     * Changed after every add or removal
+     */
+    private volatile long version = ServiceRecordList.VERSIONS.incrementAndGet();
+    
+    /**
+     * 
+     * @param key_ 
+     */
+    public ServiceRecordList(final int key_)
+    {
+        this.key = key_;
+    }
+    
+    /**
+     * Does a shallow copy of the records.
+     * Note that I never had to use the copy constructor, so this is OK.
+     * Normally it's better to do a deep copy of data structures.
+     * 
+     * @param o 
+     */
+    public ServiceRecordList(final ServiceRecordList o)
+    {
+        this.key = o.key;
+        
+        this.records = o.records;        
+    }
+    
+    /**
+     * 
+     * @return The unique key associated with this set of records
+     */
+    public int GetKey()
+    {
+        return this.key;
+    }
+
+    /**
+     * Adds s to the back of the linked list, since service records
+     * are in chronological order.
+     * 
+     * @param s 
+     */
+    public void AddServiceRecord(final ServiceRecord s)
+    {
+        this.records.addLast(s);
+        this.version = ServiceRecordList.VERSIONS.incrementAndGet(); //After the add, so whoever sees the new version also sees the record
+    }
+    
+    /**
+     * Removes the record s, if it exists.
+     * 
+     * @param s
+     * @return True if the removal was successful, false otherwise
+     */
+    public boolean RemoveServiceRecord(final ServiceRecord s)
+    {
+        boolean removed = this.records.remove(s);
+        if (removed)
+        {
+            this.version = ServiceRecordList.VERSIONS.incrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every record in this list that is also in toRemove, in a single pass over the list.
+     * 
+     * @param toRemove
+     * @return True if any records were removed
+     */
+    public boolean RemoveServiceRecords(final Set<ServiceRecord> toRemove)
+    {
+        boolean removed = this.records.removeIf(record -> toRemove.contains(record));
+        if (removed)
+        {
+            this.version = ServiceRecordList.VERSIONS.incrementAndGet();
+        }
+        return removed;
+    }
+    
+    /**
+     * 
+     * @return The list's version. It is different from every earlier one iff a record was added
+     * or removed since. Read it before going through the records, so that a record added meanwhile
+     * can only make the version newer than what was seen, never older.
+     */
+    public long GetVersion()
+    {
+        return this.version;
+    }
+
+    /**
+     * 
+     * @return An iterator to the beginning of this list. It never throws ConcurrentModificationException
+     * and sees records added after it was created, if it hasn't passed the end of the list yet.
+     */
+    public Iterator<ServiceRecord> Start()
+    {
+        return this.records.iterator();
+    }
+    
+    /**
+     * Service record lists are organized by their key.
+     * 
+     * @param o
+     * @return 
+     */
+    public int compareTo(ServiceRecordList o)
+    {
+        if (key < o.key)
+            return -1;
+        else if (key > o.key)
+            return 1;
+        else
+            return 0;
+    }
+}
@@ -0,0 +1,188 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author Enis
+ * This is a frozen copy of the service records on the disk that were written on or before
+ * some closing date (usually the end of the week). It is what the reports are generated from.
+ *
+ * The live disk keeps changing while the reports are written: provider terminals and the
+ * claim server go on adding records for the new week. Iterating over it directly could give
+ * a report records that the EFT and summary reports never saw, or filter out a record that
+ * came in after the reports were done and was never reported at all. Taking a snapshot first
+ * avoids both: every report of the week works off the same set of records, and afterwards
+ * exactly those records are removed from the disk (see ServiceRecordDisk.Filter).
+ *
+ * Like the disk, the records are also organized by member and provider number.
+ * None of the collections in here are ever modified after the snapshot is taken, so it can be
+ * read from several threads without any locking. The records themselves are shared with the disk,
+ * but a ServiceRecord never changes once written.
+ */
+public class ServiceRecordSnapshot
+{
+    /**
+     * Every record in the snapshot was written on or before this date
+     */
+    private LocalDateTime closeDate = null;
+
+    /**
+     * The records, in chronological order
+     */
+    private List<ServiceRecord> records = null;
+
+    /**
+     * The records organized by member and provider number, each in chronological order
+     */
+    private HashMap<Integer, List<ServiceRecord>> recordsByMemberNum = new HashMap<Integer, List<ServiceRecord>>();
+    private HashMap<Integer, List<ServiceRecord>> recordsByProviderNum = new HashMap<Integer, List<ServiceRecord>>();
+
+    /**
+     * Copies the records in iterator up to and including closeDate_. The iterator must go through the
+     * records in chronological order, which the disk's does.
+     *
+     * @param iterator
+     * @param closeDate_
+     */
+    ServiceRecordSnapshot(Iterator<ServiceRecord> iterator, final LocalDateTime closeDate_)
+    {
+        this.closeDate = closeDate_;
+
+        ArrayList<ServiceRecord> copy = new ArrayList<ServiceRecord>();
+        ServiceRecord current = null;
+        while (iterator.hasNext() && Utilities.IsWithinDate((current = iterator.next()).GetCurrentDateTime(), closeDate_))
+        {
+            copy.add(current);
+            ServiceRecordSnapshot.GetList(this.recordsByMemberNum, current.GetMemberNumber()).add(current);
+            ServiceRecordSnapshot.GetList(this.recordsByProviderNum, current.GetProviderNumber()).add(current);
+        }
+
+        this.records = Collections.unmodifiableList(copy);
+    }
+
+    /**
+     *
+     * @return The date the snapshot was closed at
+     */
+    public LocalDateTime GetCloseDate()
+    {
+        return this.closeDate;
+    }
+
+    /**
+     *
+     * @return The records in chronological order. The list can't be modified.
+     */
+    public List<ServiceRecord> GetRecords()
+    {
+        return this.records;
+    }
+
+    /**
+     *
+     * @return The number of records in the snapshot
+     */
+    public int Size()
+    {
+        return this.records.size();
+    }
+
+    /**
+     *
+     * @return The number of members with records in the snapshot
+     */
+    public int GetMemberCount()
+    {
+        return this.recordsByMemberNum.size();
+    }
+
+    /**
+     *
+     * @return The number of providers with records in the snapshot
+     */
+    public int GetProviderCount()
+    {
+        return this.recordsByProviderNum.size();
+    }
+
+    /**
+     * Returns an iterator over the records in the snapshot associated with memberNum.
+     * If the member has no records, the iterator is empty.
+     *
+     * @param memberNum
+     * @return
+     */
+    public Iterator<ServiceRecord> StartAtMember(final int memberNum)
+    {
+        return ServiceRecordSnapshot.Start(this.recordsByMemberNum, memberNum);
+    }
+
+    /**
+     * Returns an iterator over the records in the snapshot associated with providerNum.
+     * If the provider has no records, the iterator is empty.
+     *
+     * @param providerNum
+     * @return
+     */
+    public Iterator<ServiceRecord> StartAtProvider(final int providerNum)
+    {
+        return ServiceRecordSnapshot.Start(this.recordsByProviderNum, providerNum);
+    }
+
+    /**
+     *
+     * @param filter
+     * @return A snapshot with the same closing date, holding the records of this one that pass filter
+     */
+    public ServiceRecordSnapshot Select(Predicate<ServiceRecord> filter)
+    {
+        return new ServiceRecordSnapshot(this.records.stream().filter(filter).iterator(), this.closeDate);
+    }
+
+    /**
+     *
+     * @return The records as a set, used to remove exactly these records from the disk
+     */
+    HashSet<ServiceRecord> ToSet()
+    {
+        return new HashSet<ServiceRecord>(this.records);
+    }
+
+    /**
+     * Returns the list in map with key listKey, adding an empty one first if there isn't any.
+     *
+     * @param map
+     * @param listKey
+     * @return
+     */
+    private static List<ServiceRecord> GetList(HashMap<Integer, List<ServiceRecord>> map, final int listKey)
+    {
+        List<ServiceRecord> list = map.get(listKey);
+        if (list == null)
+        {
+            list = new ArrayList<ServiceRecord>();
+            map.put(listKey, list);
+        }
+
+        return list;
+    }
+
+    /**
+     * Returns a read-only iterator over the list in map with key listKey, or an empty iterator if there is none.
+     *
+     * @param map
+     * @param listKey
+     * @return
+     */
+    private static Iterator<ServiceRecord> Start(HashMap<Integer, List<ServiceRecord>> map, final int listKey)
+    {
+        List<ServiceRecord> list = map.get(listKey);
+        return (list == null ? Collections.<ServiceRecord>emptyIterator() : Collections.unmodifiableList(list).iterator());
+    }
+}
@@ -0,0 +1,284 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author Enis
+ * This class runs the data center forward by weeks, months or years at a time, for capacity
+ * planning and for checking the reports against historical claim logs. It can either just
+ * fast-forward the time, or replay a claims log while doing so.
+ *
+ * Either way, the end of each week is processed as a pipeline. When the time reaches the end
+ * of week N, only the snapshot of its records is taken (see ServiceRecordSnapshot); the reports
+ * are then generated and the records filtered on a background thread, while the time moves on
+ * and week N+1's claims are replayed. At most one week is processed at a time, so before the
+ * snapshot of week N+1 is taken, week N's processing is waited for (it has to be, otherwise
+ * the snapshot would still include week N's records). This also keeps the reports on disk in
+ * the same order as the weeks.
+ *
+ * The claims log is plain text with one claim per line, in the order they were received:
+ *      received date and time (MM-DD-YYYY HH:MM:SS),provider number,member number,service code,service date (MM-DD-YYYY),comments
+ *
+ * The received date and time is the data center's date when the claim came in. Before each
+ * claim is written, the time is advanced to it; a claim received before the current date is
+ * written at the current date. Claims are checked the same way as ones sent to the claim server
+ * (see ClaimProcessor.WriteServiceRecord). Blank lines and lines starting with # are skipped,
+ * and the claims that fail are copied to the rejection file with the reason, like ClaimImporter does.
+ *
+ * While the engine is running it replaces the data center's weekly processing
+ * (see ChocAnDPS.SetWeeklyProcessing), and puts it back when done.
+ */
+public class SimulationEngine
+{
+    private ChocAnDPS dataCenter = null;
+
+    /**
+     * The thread the weekly reports are generated on, and the week currently being processed by it
+     */
+    private ExecutorService reportWorker = null;
+    private Future<?> pendingWeek = null;
+
+    private DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern(Format.DATE + " " + Format.TIME);
+    private DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(Format.DATE);
+
+    //Totals so far
+    private long weeksProcessed = 0;
+    private long claimsReplayed = 0;
+    private long claimsRejected = 0;
+
+    public SimulationEngine(final ChocAnDPS dataCenter_)
+    {
+        this.dataCenter = dataCenter_;
+    }
+
+    /**
+     * Advances the time by numDays, generating the weekly reports of every week passed.
+     *
+     * @param numDays
+     * @throws IOException If the reports of one of the weeks couldn't be generated
+     */
+    public void FastForward(final long numDays) throws IOException
+    {
+        this.Start();
+        try
+        {
+            this.dataCenter.AdvanceTimeBySeconds(numDays*Parameters.SECONDS_PER_DAY);
+        }finally
+        {
+            this.Finish();
+        }
+    }
+
+    /**
+     * Replays the claims in claimsPath, advancing the time along with them and generating the
+     * weekly reports of every week passed. Afterwards the time is left at the last claim.
+     *
+     * @param claimsPath The claims log
+     * @param rejectionsPath Where the rejected claims are written
+     * @return True if the log was replayed, false if it couldn't be opened
+     * @throws IOException If the reports of one of the weeks couldn't be generated
+     */
+    public boolean Replay(final String claimsPath, final String rejectionsPath) throws IOException
+    {
+        BufferedReader reader = FileUtilities.OpenReader(claimsPath);
+        if (reader == null)
+        {
+            return false;
+        }
+        BufferedWriter rejections = FileUtilities.OpenWriter(rejectionsPath);
+        if (rejections == null)
+        {
+            reader.close();
+            return false;
+        }
+
+        ClaimProcessor processor = new ClaimProcessor(this.dataCenter);
+        this.Start();
+        try
+        {
+            String line = null;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null)
+            {
+                ++lineNumber;
+                if (line.trim().isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+
+                String error = this.ReplayClaim(processor, line);
+                if (error == null)
+                {
+                    this.claimsReplayed++;
+                }
+                else
+                {
+                    this.claimsRejected++;
+                    rejections.write("# Line "+lineNumber+": "+error+"\n"+line+"\n");
+                }
+            }
+        }finally
+        {
+            reader.close();
+            rejections.close();
+            this.Finish();
+        }
+
+        return true;
+    }
+
+    /**
+     *
+     * @return The number of weeks whose reports were generated
+     */
+    public long GetWeeksProcessed()
+    {
+        return this.weeksProcessed;
+    }
+
+    /**
+     *
+     * @return The number of claims written to the disk by Replay
+     */
+    public long GetClaimsReplayed()
+    {
+        return this.claimsReplayed;
+    }
+
+    /**
+     *
+     * @return The number of claims written to the rejection file by Replay
+     */
+    public long GetClaimsRejected()
+    {
+        return this.claimsRejected;
+    }
+
+    /**
+     * Advances the time to when the claim in line was received and writes it.
+     *
+     * @param processor
+     * @param line
+     * @return null if the claim was written, otherwise why it was rejected
+     * @throws IOException If the reports of one of the weeks couldn't be generated
+     */
+    private String ReplayClaim(ClaimProcessor processor, final String line) throws IOException
+    {
+        String[] fields = line.split(",", 6);
+        if (fields.length < 5)
+        {
+            return "ERROR: Expected received date and time, provider number, member number, service code, service date and comments";
+        }
+
+        LocalDateTime received = null;
+        LocalDate serviceDate = null;
+        int providerNum = 0;
+        int memberNum = 0;
+        int serviceCode = 0;
+        try
+        {
+            received = LocalDateTime.parse(fields[0].trim(), this.dateTimeFormat);
+            providerNum = Integer.parseInt(fields[1].trim());
+            memberNum = Integer.parseInt(fields[2].trim());
+            serviceCode = Integer.parseInt(fields[3].trim());
+            serviceDate = LocalDate.parse(fields[4].trim(), this.dateFormat);
+        }catch(DateTimeParseException | NumberFormatException ex)
+        {
+            return "ERROR: Invalid date, number or service code";
+        }
+
+        long timeToAdd = ChronoUnit.SECONDS.between(this.dataCenter.GetGlobalDate(), received);
+        if (timeToAdd > 0)
+        {
+            this.dataCenter.AdvanceTimeBySeconds(timeToAdd);
+        }
+
+        ClaimResult result = processor.WriteServiceRecord(providerNum, memberNum, serviceCode, serviceDate, (fields.length > 5 ? fields[5].trim() : ""));
+        return (result.accepted ? null : result.message);
+    }
+
+    /**
+     * Starts the report thread and takes over the data center's weekly processing.
+     */
+    private void Start()
+    {
+        this.reportWorker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weekly-reports");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dataCenter.SetWeeklyProcessing(this::ProcessWeek);
+    }
+
+    /**
+     * Waits for the last week's reports, then gives the data center its weekly processing back.
+     *
+     * @throws IOException If the last week's reports couldn't be generated
+     */
+    private void Finish() throws IOException
+    {
+        try
+        {
+            this.WaitForPendingWeek();
+        }finally
+        {
+            this.dataCenter.SetWeeklyProcessing(null);
+            this.reportWorker.shutdown();
+        }
+    }
+
+    /**
+     * The weekly processing used while the engine runs. Takes the week's snapshot and hands it to the report thread.
+     *
+     * @param database
+     * @throws IOException If the previous week's reports couldn't be generated
+     */
+    private void ProcessWeek(ChocAnDPS database) throws IOException
+    {
+        this.WaitForPendingWeek(); //The previous week's records must be filtered out before taking this week's snapshot
+
+        ServiceRecordSnapshot snapshot = database.GetServiceRecordDisk().Snapshot(database.GetGlobalDate());
+        this.pendingWeek = this.reportWorker.submit(() -> {
+            ReportGenerator.ProcessWeek(database, snapshot);
+            return null;
+        });
+    }
+
+    /**
+     * Waits until the week being processed on the report thread, if any, is done.
+     *
+     * @throws IOException If its reports couldn't be generated
+     */
+    private void WaitForPendingWeek() throws IOException
+    {
+        Future<?> pending = this.pendingWeek;
+        if (pending == null)
+        {
+            return;
+        }
+
+        this.pendingWeek = null;
+        try
+        {
+            pending.get();
+            this.weeksProcessed++;
+        }catch(InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("The weekly processing was interrupted", ex);
+        }catch(ExecutionException ex)
+        {
+            throw new IOException("The weekly reports could not be generated", ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * @author Enis
+ * This is a table of strings that gives each distinct string a code, so that a value repeated
+ * across many objects (e.g. the city of hundreds of thousands of members, or the name of a service
+ * that every provider offers) is only stored once, and each object just keeps its code. Two codes
+ * from the same dictionary are equal iff their strings are, so comparing them is an int comparison.
+ *
+ * Codes start at 0 and are never reused or taken back, even if no object uses the string anymore;
+ * the values these are used for come from a small set, so the table stays small. null has the code
+ * NULL_CODE. The dictionaries are filled as the members, providers and services are read in by the
+ * data center (see ChocAnDPS.ReadInfo and ReadProvider) or created afterwards.
+ *
+ * A dictionary can be used from several threads. Looking up a code's string doesn't lock,
+ * and neither does coding a string that is already in the table.
+ */
+public class StringDictionary
+{
+    /**
+     * Cities of the members and providers
+     */
+    public static final StringDictionary CITIES = new StringDictionary();
+
+    /**
+     * Names of the services in the provider directories
+     */
+    public static final StringDictionary SERVICE_NAMES = new StringDictionary();
+
+    /**
+     * Code of null
+     */
+    public static final int NULL_CODE = -1;
+
+    private ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<String, Integer>();
+
+    /**
+     * The string of each code. Replaced by a bigger copy when it's full, codes are only
+     * handed out after their string is in it.
+     */
+    private volatile String[] values = new String[64];
+    private int size = 0; //Guarded by this
+
+    /**
+     *
+     * @param value
+     * @return The code of value, adding it to the table if it isn't there yet
+     */
+    public int Encode(final String value)
+    {
+        if (value == null)
+        {
+            return StringDictionary.NULL_CODE;
+        }
+
+        Integer code = this.codes.get(value);
+        if (code == null)
+        {
+            code = this.Add(value);
+        }
+        return code;
+    }
+
+    /**
+     *
+     * @param code A code handed out by this dictionary, or NULL_CODE
+     * @return The string with that code
+     */
+    public String Decode(final int code)
+    {
+        return (code == StringDictionary.NULL_CODE ? null : this.values[code]);
+    }
+
+    /**
+     *
+     * @param value
+     * @return The string in the table equal to value (which is value itself if it's new)
+     */
+    public String Intern(final String value)
+    {
+        return this.Decode(this.Encode(value));
+    }
+
+    /**
+     *
+     * @return The number of distinct strings in the table
+     */
+    public synchronized int Size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Gives value the next code, unless another thread added it first
+     *
+     * @param value
+     * @return The code of value
+     */
+    private synchronized int Add(final String value)
+    {
+        Integer code = this.codes.get(value);
+        if (code != null)
+        {
+            return code;
+        }
+
+        if (this.size == this.values.length)
+        {
+            String[] bigger = new String[this.values.length*2];
+            System.arraycopy(this.values, 0, bigger, 0, this.size);
+            this.values = bigger;
+        }
+
+        String[] current = this.values;
+        current[this.size] = value;
+        this.values = current; //Publishes the new entry to Decode before anyone can have its code
+        this.codes.put(value, this.size);
+        return this.size++;
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ * @author Enis
+ * This class maps member, provider (or any other integer) IDs onto a fixed number of locks,
+ * or "stripes". Two threads working on the same ID always get the same lock, while threads
+ * working on different IDs usually get different ones and so don't block each other.
+ *
+ * This lets the data center guard changes to individual members and providers without
+ * having one lock per entity (which would be a lot of locks for a large member roll) or
+ * one lock for everything (which would serialize all of the provider terminals).
+ */
+public class StripedLock
+{
+    /**
+     * The locks. The length is always a power of two so that the stripe can be
+     * picked with a mask instead of a modulo.
+     */
+    private ReentrantLock[] stripes = null;
+
+    /**
+     *
+     * @param numStripes The minimum number of locks. Rounded up to the next power of two.
+     */
+    public StripedLock(final int numStripes)
+    {
+        int size = Integer.highestOneBit(Math.max(1, numStripes - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; ++i)
+        {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the lock guarding id. Callers should use it as
+     *
+     *      lock.lock();
+     *      try { ... } finally { lock.unlock(); }
+     *
+     * @param id The member, provider or service number
+     * @return The lock belonging to id's stripe
+     */
+    public ReentrantLock GetLock(final int id)
+    {
+        int h = id * 0x9E3779B9; //IDs are random 9 digit numbers, but spread them anyway in case they're sequential
+        return this.stripes[(h ^ (h >>> 16)) & (this.stripes.length - 1)];
+    }
+}
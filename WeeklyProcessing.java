@@ -0,0 +1,24 @@
+import java.io.IOException;
+
+/**
+ *
+ * @author Enis
+ * This is what the data center does at the end of every week, when the time is advanced
+ * past Friday 23:59:00. By default it is the data center's WeeklyScheduler, which queues the
+ * week and generates its reports in the background (see ReportGenerator.ProcessWeek). It can be
+ * replaced, e.g. the SimulationEngine uses its own report thread while it runs, see
+ * ChocAnDPS.SetWeeklyProcessing.
+ *
+ * It is called with the data center's date set to the end of the week, while the data center's
+ * clock is held, so the time can't move on until it returns.
+ */
+public interface WeeklyProcessing
+{
+    /**
+     * Does the processing for the week ending at dataCenter's current date.
+     *
+     * @param dataCenter
+     * @throws IOException
+     */
+    void Process(ChocAnDPS dataCenter) throws IOException;
+}
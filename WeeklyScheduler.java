@@ -0,0 +1,281 @@
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author Enis
+ * This is the data center's default weekly processing (see WeeklyProcessing). When the time
+ * is advanced past the end of the week (Friday 23:59:00, see Utilities.SecondsUntilWeekEnd),
+ * it only notes the week's closing date and returns right away. The reports are generated
+ * and the records filtered on a worker thread, so whoever advanced the time isn't kept
+ * waiting for them.
+ *
+ * The weeks are processed one at a time in the order they ended. Each week's snapshot is only
+ * taken when the worker gets to it, after the previous week's records were filtered out. Since
+ * provider dates are never behind the data center's, every record written after the end of the
+ * week is dated after it, so the snapshot still holds exactly that week's records.
+ *
+ * If writing the reports fails (e.g. the disk is full or a directory can't be created), the
+ * whole week is tried again after a delay, up to MAX_ATTEMPTS times. The reports are overwritten
+ * each time and the records are only filtered once every report was written. If every attempt
+ * fails, the week's records are left on the disk and are reported with the following week.
+ *
+ * Any other failure would only happen again on every try, and with every later week too, since
+ * the records would stay on the disk. It is usually caused by a record whose member, provider or
+ * service was removed after it was written (see ReportGenerator.IsReportable). So instead, those
+ * records are quarantined: they're moved off the disk to the end of QuarantinedRecords.txt for
+ * someone to look at, and the week is tried again without them. If no such record is found,
+ * the whole week is quarantined. Either way it is reported like a failed week.
+ *
+ * Anything that needs the reports or the records to be up to date (e.g. the manager terminal,
+ * or saving the data center) should call AwaitIdle first. The progress of the week being
+ * processed is given by GetStatus, and the totals are recorded in the Metrics registry.
+ */
+public class WeeklyScheduler implements WeeklyProcessing
+{
+    //Metrics, see Metrics.java
+    private static final LongAdder WEEKS_COMPLETED = Metrics.Counter("weekly.completed");
+    private static final LongAdder WEEKS_FAILED = Metrics.Counter("weekly.failed");
+    private static final LongAdder RETRIES = Metrics.Counter("weekly.retries");
+    private static final LongAdder WEEKS_QUARANTINED = Metrics.Counter("weekly.quarantined");
+
+    /**
+     * Most times a week's reports are tried before giving up
+     */
+    public static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * How long to wait before the first retry. Doubled for every retry after it.
+     */
+    public static final long RETRY_DELAY_MILLIS = 1000;
+
+    /**
+     * The thread the weeks are processed on
+     */
+    private ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "weekly-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Number of weeks that ended but haven't been processed yet, including the current one
+     */
+    private AtomicInteger pendingWeeks = new AtomicInteger();
+
+    //Progress of the week being processed. Only written by the worker.
+    private volatile LocalDateTime currentWeek = null; //Closing date, null if no week is being processed
+    private volatile int currentAttempt = 0;
+    private volatile int currentTotal = 0; //Number of member and provider reports to write
+    private AtomicInteger currentWritten = new AtomicInteger(); //Number of them written so far
+
+    /**
+     * Why the last week that failed did so, null if none has
+     */
+    private volatile String lastFailure = null;
+
+    /**
+     * Queues the week ending at dataCenter's date to be processed on the worker.
+     * If the scheduler was closed, the week is processed before returning.
+     *
+     * @param dataCenter
+     */
+    public void Process(ChocAnDPS dataCenter)
+    {
+        final LocalDateTime closeDate = dataCenter.GetGlobalDate();
+        this.pendingWeeks.incrementAndGet();
+        try
+        {
+            this.worker.execute(() -> this.RunWeek(dataCenter, closeDate));
+        }catch(RejectedExecutionException ex) //Closed, so nobody else will do it
+        {
+            this.RunWeek(dataCenter, closeDate);
+        }
+    }
+
+    /**
+     * Waits until every week queued so far has been processed (or has failed).
+     */
+    public void AwaitIdle()
+    {
+        if (this.pendingWeeks.get() == 0)
+        {
+            return;
+        }
+
+        try
+        {
+            this.worker.submit(() -> {}).get(); //The worker goes through the weeks in order, so this runs after all of them
+        }catch(RejectedExecutionException | ExecutionException ex)
+        {
+        }catch(InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Processes any weeks still queued and stops the worker. Weeks that end afterwards are
+     * processed right away by Process.
+     */
+    public void Close()
+    {
+        this.AwaitIdle();
+        this.worker.shutdown();
+    }
+
+    /**
+     *
+     * @return The number of weeks that ended but haven't been processed yet
+     */
+    public int GetPendingWeeks()
+    {
+        return this.pendingWeeks.get();
+    }
+
+    /**
+     *
+     * @return A line describing what the scheduler is doing, e.g. for a terminal to print
+     */
+    public String GetStatus()
+    {
+        String status = null;
+        LocalDateTime week = this.currentWeek;
+        if (week == null)
+        {
+            status = "idle";
+        }
+        else
+        {
+            status = "generating the reports for the week ending "+week.format(DateTimeFormatter.ofPattern(Format.DATE))
+                        +" ("+this.currentWritten.get()+" of "+this.currentTotal+" written"
+                        +(this.currentAttempt > 1 ? ", attempt "+this.currentAttempt+" of "+WeeklyScheduler.MAX_ATTEMPTS : "")+")";
+
+            int waiting = this.pendingWeeks.get() - 1;
+            if (waiting > 0)
+            {
+                status += ", "+waiting+" more week(s) waiting";
+            }
+        }
+
+        String failure = this.lastFailure;
+        return (failure == null ? status : status+". Last failure: "+failure);
+    }
+
+    /**
+     * Processes the week ending at closeDate, retrying if the reports can't be written.
+     * Runs on the worker.
+     *
+     * @param dataCenter
+     * @param closeDate
+     */
+    private void RunWeek(ChocAnDPS dataCenter, final LocalDateTime closeDate)
+    {
+        this.currentWeek = closeDate;
+        try
+        {
+            ServiceRecordSnapshot snapshot = dataCenter.GetServiceRecordDisk().Snapshot(closeDate);
+            long delay = WeeklyScheduler.RETRY_DELAY_MILLIS;
+            int attempt = 1;
+            while (true)
+            {
+                this.currentTotal = snapshot.GetMemberCount() + snapshot.GetProviderCount();
+                this.currentAttempt = attempt;
+                this.currentWritten.set(0);
+                try
+                {
+                    ReportGenerator.ProcessWeek(dataCenter, snapshot, this.currentWritten);
+                    WeeklyScheduler.WEEKS_COMPLETED.increment();
+                    return;
+                }catch(IOException ex)
+                {
+                    if (attempt == WeeklyScheduler.MAX_ATTEMPTS)
+                    {
+                        this.Fail(closeDate, "could not be generated: "+ex.getMessage());
+                        return;
+                    }
+                }catch(RuntimeException ex) //Would fail the same way again, see above
+                {
+                    if (snapshot.Size() == 0 || (snapshot = this.Quarantine(dataCenter, snapshot, ex)) == null)
+                    {
+                        return;
+                    }
+                    continue; //Right away, nothing needs time to recover
+                }
+
+                ++attempt;
+                WeeklyScheduler.RETRIES.increment();
+                Thread.sleep(delay);
+                delay *= 2;
+            }
+        }catch(InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }finally
+        {
+            this.currentWeek = null;
+            this.pendingWeeks.decrementAndGet();
+        }
+    }
+
+    /**
+     * Moves the records of snapshot that the reports can't be generated from off the disk (all of them,
+     * if none of them stands out), after its reports failed with ex. Runs on the worker.
+     *
+     * @param dataCenter
+     * @param snapshot
+     * @param ex
+     * @return The records of the week that are left, or null if there are none to try again with
+     */
+    private ServiceRecordSnapshot Quarantine(ChocAnDPS dataCenter, ServiceRecordSnapshot snapshot, RuntimeException ex)
+    {
+        ReportLookups lookups = new ReportLookups(dataCenter);
+        ServiceRecordSnapshot quarantined = snapshot.Select(record -> !ReportGenerator.IsReportable(lookups, record));
+        if (quarantined.Size() == 0)
+        {
+            quarantined = snapshot;
+        }
+
+        String path = FileUtilities.FILE_LOC+"/"+FileUtilities.QUARANTINED_RECORD_LOC;
+        try
+        {
+            dataCenter.GetServiceRecordDisk().Quarantine(quarantined, path);
+        }catch(IOException ioEx)
+        {
+            this.Fail(snapshot.GetCloseDate(), "could not be generated ("+ex+"), and its records could not be quarantined: "+ioEx.getMessage());
+            return null;
+        }
+
+        this.Fail(snapshot.GetCloseDate(), "could not be generated ("+ex+"). "+quarantined.Size()+" of its "+snapshot.Size()
+                    +" service record(s) were moved to "+path+((quarantined == snapshot) ? "" : ", the others are being reported on"));
+        WeeklyScheduler.WEEKS_QUARANTINED.increment();
+        if (quarantined == snapshot)
+        {
+            return null;
+        }
+
+        HashSet<ServiceRecord> removed = quarantined.ToSet();
+        return snapshot.Select(record -> !removed.contains(record));
+    }
+
+    /**
+     * Records and prints why the week ending at closeDate failed
+     *
+     * @param closeDate
+     * @param reason What happened to the week's reports
+     */
+    private void Fail(final LocalDateTime closeDate, final String reason)
+    {
+        this.lastFailure = "The reports for the week ending "+closeDate.format(DateTimeFormatter.ofPattern(Format.DATE))+" "+reason;
+        WeeklyScheduler.WEEKS_FAILED.increment();
+        System.out.println("ERROR! "+this.lastFailure+"\n");
+    }
+}
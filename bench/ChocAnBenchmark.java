@@ -0,0 +1,452 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ *
+ * @author Enis
+ * This is the benchmark suite for the data center's core data paths:
+ *      LookUpMember        ChocAnDPS.LookUpMember                      ns per lookup
+ *      LookUpProvider      ChocAnDPS.LookUpProvider                    ns per lookup
+ *      WriteToDisk         ServiceRecordDisk.WriteToDisk, one by one   ns per record
+ *      Filter              ServiceRecordDisk.Filter of a week          ns per record
+ *      WeeklyReports       ReportGenerator.GenerateWeeklyReports       ms per week
+ *      Startup             ChocAnDPS() reading a saved data center     ms per load
+ *      Exit                ChocAnDPS.Exit saving the data center       ms per save
+ *
+ * It is run with "make bench", or by hand as
+ *      java -cp .:bench ChocAnBenchmark [options]
+ * with the options
+ *      -members 1000,10000,...     Member roll sizes to run at (default 1000,10000,100000,1000000)
+ *      -claims N                   Claims per member in the week (default 10, at most 10M claims in all)
+ *      -benchmarks A,B,...         Only run these benchmarks (default all)
+ *      -warmup N                   Warmup iterations, not measured (default 2)
+ *      -iterations N               Measured iterations (default 5)
+ *      -jvm "ARGS"                 Extra arguments for the forked JVMs, e.g. "-Xmx8g"
+ *      -dir DIR                    Where the forked data centers are written (default the temp directory)
+ *
+ * FileUtilities.FILE_LOC is fixed when the JVM starts, and what one roll size leaves behind in the
+ * heap and JIT would skew the next one, so every roll size runs in a fresh JVM, forked with its own
+ * working directory (much like JMH forks). The fork generates a data center of that size (see
+ * DataSetGenerator), loads it, runs the benchmarks and prints its results back to this process,
+ * which prints the table.
+ *
+ * JMH itself isn't used because the project is built with plain javac and has no dependencies.
+ */
+public class ChocAnBenchmark
+{
+    /**
+     * Most claims put in the week, whatever the roll size
+     */
+    public static final long MAX_CLAIMS = 10000000;
+
+    /**
+     * Lookups done per measured iteration of the lookup benchmarks
+     */
+    public static final int LOOKUPS_PER_ITERATION = 1000000;
+
+    /**
+     * Prefix of the lines a fork uses to send its results back
+     */
+    private static final String RESULT_PREFIX = "RESULT\t";
+
+    //The options
+    private long[] memberCounts = {1000, 10000, 100000, 1000000};
+    private int claimsPerMember = 10;
+    private List<String> benchmarks = null;
+    private int warmupIterations = 2;
+    private int measuredIterations = 5;
+    private String jvmArgs = "";
+    private String workDir = System.getProperty("java.io.tmpdir")+"/chocan-bench";
+
+    public static void main(String[] args) throws Exception
+    {
+        ChocAnBenchmark bench = new ChocAnBenchmark();
+        if (args.length > 0 && args[0].equals("-fork"))
+        {
+            bench.ParseOptions(Arrays.copyOfRange(args, 2, args.length));
+            bench.RunFork(Long.parseLong(args[1]));
+        }
+        else
+        {
+            bench.ParseOptions(args);
+            bench.RunAll();
+        }
+    }
+
+    private void ParseOptions(String[] args)
+    {
+        for (int i = 0; i + 1 < args.length; i += 2)
+        {
+            switch (args[i])
+            {
+            case "-members":
+                this.memberCounts = Arrays.stream(args[i+1].split(",")).mapToLong(Long::parseLong).toArray();
+                break;
+            case "-claims":
+                this.claimsPerMember = Integer.parseInt(args[i+1]);
+                break;
+            case "-benchmarks":
+                this.benchmarks = Arrays.asList(args[i+1].split(","));
+                break;
+            case "-warmup":
+                this.warmupIterations = Integer.parseInt(args[i+1]);
+                break;
+            case "-iterations":
+                this.measuredIterations = Integer.parseInt(args[i+1]);
+                break;
+            case "-jvm":
+                this.jvmArgs = args[i+1];
+                break;
+            case "-dir":
+                this.workDir = args[i+1];
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option "+args[i]);
+            }
+        }
+    }
+
+    /**
+     * The options to pass on to a fork
+     *
+     * @return
+     */
+    private List<String> ForkOptions()
+    {
+        ArrayList<String> options = new ArrayList<String>();
+        options.addAll(Arrays.asList("-claims", ""+this.claimsPerMember, "-warmup", ""+this.warmupIterations, "-iterations", ""+this.measuredIterations));
+        if (this.benchmarks != null)
+        {
+            options.addAll(Arrays.asList("-benchmarks", String.join(",", this.benchmarks)));
+        }
+
+        return options;
+    }
+
+    /**
+     * Forks a JVM for every roll size and prints the results as they come in.
+     *
+     * @throws Exception
+     */
+    private void RunAll() throws Exception
+    {
+        System.out.println(String.format("%-16s %10s %10s %14s %12s  %s", "Benchmark", "Members", "Claims", "Score", "Error", "Units"));
+        for (int i = 0; i < this.memberCounts.length; ++i)
+        {
+            long members = this.memberCounts[i];
+            File dir = new File(this.workDir+"/"+members);
+            ChocAnBenchmark.DeleteRecursively(dir);
+            dir.mkdirs();
+
+            ArrayList<String> command = new ArrayList<String>();
+            command.add(System.getProperty("java.home")+"/bin/java");
+            if (!this.jvmArgs.trim().isEmpty())
+            {
+                command.addAll(Arrays.asList(this.jvmArgs.trim().split("\\s+")));
+            }
+            command.addAll(Arrays.asList("-cp", ChocAnBenchmark.AbsoluteClassPath(), "-Duser.dir="+dir.getAbsolutePath(), "ChocAnBenchmark", "-fork", ""+members));
+            command.addAll(this.ForkOptions());
+
+            Process fork = new ProcessBuilder(command).directory(dir).redirectErrorStream(true).start();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(fork.getInputStream()));
+            String line = null;
+            while ((line = reader.readLine()) != null)
+            {
+                System.out.println(line.startsWith(ChocAnBenchmark.RESULT_PREFIX) ? line.substring(ChocAnBenchmark.RESULT_PREFIX.length()) : "# "+line);
+            }
+            if (fork.waitFor() != 0)
+            {
+                System.out.println("# The fork for "+members+" members failed");
+            }
+        }
+    }
+
+    /**
+     * Runs every benchmark at one roll size. This is what runs in the forked JVM.
+     *
+     * @param memberCount
+     * @throws Exception
+     */
+    private void RunFork(final long memberCount) throws Exception
+    {
+        PrintStream results = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); //Keep the data center's messages out of the timings
+
+        long claimCount = Math.min(ChocAnBenchmark.MAX_CLAIMS, memberCount * this.claimsPerMember);
+        Fixture fixture = new Fixture((int)memberCount, claimCount);
+
+        ArrayList<Benchmark> suite = fixture.Benchmarks();
+        for (int i = 0; i < suite.size(); ++i)
+        {
+            Benchmark benchmark = suite.get(i);
+            if (this.benchmarks != null && !this.benchmarks.contains(benchmark.name))
+            {
+                continue;
+            }
+
+            double[] scores = new double[this.measuredIterations];
+            for (int j = 0; j < this.warmupIterations + this.measuredIterations; ++j)
+            {
+                benchmark.Setup();
+                long start = System.nanoTime();
+                long ops = benchmark.Run();
+                long elapsed = System.nanoTime() - start;
+                benchmark.TearDown();
+                if (j >= this.warmupIterations)
+                {
+                    scores[j - this.warmupIterations] = (double)elapsed / benchmark.unitNanos / Math.max(1, ops);
+                }
+            }
+
+            double mean = Arrays.stream(scores).average().orElse(0);
+            double error = Math.sqrt(Arrays.stream(scores).map(s -> (s - mean) * (s - mean)).sum() / Math.max(1, scores.length - 1));
+            results.println(ChocAnBenchmark.RESULT_PREFIX+String.format("%-16s %10d %10d %14.3f %12.3f  %s",
+                            benchmark.name, memberCount, claimCount, mean, error, benchmark.unit+"/op"));
+        }
+        results.println(ChocAnBenchmark.RESULT_PREFIX+"# sink "+fixture.sink); //So the JIT can't throw the lookups away
+
+        fixture.dataCenter.GetClaimQueue().Close();
+    }
+
+    /**
+     * The fork runs in another directory, so the class path has to be given to it with absolute paths
+     *
+     * @return
+     */
+    private static String AbsoluteClassPath()
+    {
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        for (int i = 0; i < entries.length; ++i)
+        {
+            entries[i] = new File(entries[i]).getAbsolutePath();
+        }
+
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void DeleteRecursively(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (int i = 0; i < children.length; ++i)
+            {
+                ChocAnBenchmark.DeleteRecursively(children[i]);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * One benchmark. Setup and TearDown run around every iteration and aren't timed.
+     */
+    private static abstract class Benchmark
+    {
+        String name = null;
+        String unit = null;
+        double unitNanos = 1;
+
+        Benchmark(final String name_, final String unit_)
+        {
+            this.name = name_;
+            this.unit = unit_;
+            this.unitNanos = (unit_.equals("ms") ? 1e6 : 1);
+        }
+
+        void Setup() throws IOException
+        {
+        }
+
+        /**
+         *
+         * @return The number of operations done, the score is per operation
+         * @throws IOException
+         */
+        abstract long Run() throws IOException;
+
+        void TearDown()
+        {
+        }
+    }
+
+    /**
+     * The data center the benchmarks run against. It is written by the DataSetGenerator with its
+     * default seed and skew, so every run at the same roll size gets the same members, providers and claims.
+     */
+    private static class Fixture
+    {
+        Random random = new Random(300);
+        ChocAnDPS dataCenter = null;
+        LocalDateTime closeDate = null;
+        int[] memberNums = null;
+        int[] providerNums = null;
+        ArrayList<ServiceRecord> claims = null;
+        long sink = 0;
+
+        Fixture(final int memberCount, final long claimCount) throws IOException
+        {
+            DataSetGenerator generator = new DataSetGenerator();
+            generator.members = memberCount;
+            generator.claims = claimCount;
+            generator.Generate(FileUtilities.FILE_LOC);
+            this.closeDate = generator.closeDate;
+            this.memberNums = generator.GetMemberNumbers();
+            this.providerNums = generator.GetProviderNumbers();
+
+            this.dataCenter = new ChocAnDPS();
+            this.claims = new ArrayList<ServiceRecord>(this.dataCenter.GetServiceRecordDisk().GetRecords());
+        }
+
+        /**
+         * Looks up random member (or provider) numbers, a tenth of which don't exist.
+         *
+         * @param nums
+         * @return
+         */
+        int[] LookupKeys(final int[] nums)
+        {
+            int[] keys = new int[ChocAnBenchmark.LOOKUPS_PER_ITERATION];
+            for (int i = 0; i < keys.length; ++i)
+            {
+                keys[i] = nums[this.random.nextInt(nums.length)] + (this.random.nextInt(10) == 0 ? 1 : 0);
+            }
+
+            return keys;
+        }
+
+        ArrayList<Benchmark> Benchmarks()
+        {
+            ArrayList<Benchmark> suite = new ArrayList<Benchmark>();
+            final Fixture fixture = this;
+
+            final int[] memberKeys = this.LookupKeys(this.memberNums);
+            suite.add(new Benchmark("LookUpMember", "ns")
+            {
+                long Run()
+                {
+                    for (int i = 0; i < memberKeys.length; ++i)
+                    {
+                        fixture.sink += (fixture.dataCenter.LookUpMember(memberKeys[i]) == null ? 0 : 1);
+                    }
+                    return memberKeys.length;
+                }
+            });
+
+            final int[] providerKeys = this.LookupKeys(this.providerNums);
+            suite.add(new Benchmark("LookUpProvider", "ns")
+            {
+                long Run()
+                {
+                    for (int i = 0; i < providerKeys.length; ++i)
+                    {
+                        fixture.sink += (fixture.dataCenter.LookUpProvider(providerKeys[i]) == null ? 0 : 1);
+                    }
+                    return providerKeys.length;
+                }
+            });
+
+            suite.add(new Benchmark("WriteToDisk", "ns")
+            {
+                ServiceRecordDisk disk = null;
+
+                void Setup()
+                {
+                    this.disk = new ServiceRecordDisk();
+                }
+
+                long Run()
+                {
+                    for (int i = 0; i < fixture.claims.size(); ++i)
+                    {
+                        this.disk.WriteToDisk(fixture.claims.get(i));
+                    }
+                    return fixture.claims.size();
+                }
+
+                void TearDown()
+                {
+                    this.disk = null;
+                }
+            });
+
+            suite.add(new Benchmark("Filter", "ns")
+            {
+                ServiceRecordDisk disk = null;
+                ServiceRecordSnapshot snapshot = null;
+
+                void Setup()
+                {
+                    this.disk = new ServiceRecordDisk();
+                    this.disk.WriteToDisk(fixture.claims);
+                    this.snapshot = this.disk.Snapshot(fixture.closeDate);
+                }
+
+                long Run()
+                {
+                    this.disk.Filter(this.snapshot);
+                    return this.snapshot.Size();
+                }
+
+                void TearDown()
+                {
+                    this.disk = null;
+                    this.snapshot = null;
+                }
+            });
+
+            suite.add(new Benchmark("WeeklyReports", "ms")
+            {
+                ServiceRecordSnapshot snapshot = null;
+
+                void Setup()
+                {
+                    this.snapshot = fixture.dataCenter.GetServiceRecordDisk().Snapshot(fixture.closeDate);
+                }
+
+                long Run() throws IOException
+                {
+                    ReportGenerator.GenerateWeeklyReports(fixture.dataCenter, this.snapshot);
+                    return 1;
+                }
+            });
+
+            suite.add(new Benchmark("Startup", "ms")
+            {
+                ChocAnDPS loaded = null;
+
+                long Run() throws IOException
+                {
+                    this.loaded = new ChocAnDPS();
+                    return 1;
+                }
+
+                void TearDown()
+                {
+                    fixture.sink += this.loaded.GetMemberDatabase().size();
+                    this.loaded.GetClaimQueue().Close();
+                    this.loaded = null;
+                }
+            });
+
+            suite.add(new Benchmark("Exit", "ms")
+            {
+                long Run() throws IOException
+                {
+                    fixture.dataCenter.Exit();
+                    return 1;
+                }
+            });
+
+            return suite;
+        }
+    }
+}
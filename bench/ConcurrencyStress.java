@@ -0,0 +1,375 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ * @author Enis
+ * This is a stress test of the data center's locking: it runs claims, member suspensions and
+ * time advances all at once for a while, then checks that the service records on the disk are
+ * still consistent with the indexes of them by member and by provider.
+ *
+ * Three kinds of threads run at the same time:
+ *      1) Claimers, which serve random members at random providers with ClaimProcessor.ServeMember,
+ *         as the terminals and the claim server do, as fast as they can
+ *      2) Suspenders, which flip the status of random members while holding their lock,
+ *         as UpdateMemberTerminal does
+ *      3) A clock, which advances the data center's time one hour at a time, so that the weekly
+ *         processing runs (and filters the records of the closed week) several times during the run
+ *
+ * When they have all stopped and the last weekly processing is done, every record in
+ * ServiceRecordDisk.GetRecords() must be in the list of its member and in the list of its
+ * provider exactly once, and those lists must hold nothing else. Any difference is printed and
+ * the test exits with status 1.
+ *
+ * It always runs against a data center it generates first (see DataSetGenerator) in the
+ * ChocAnFiles directory of the working directory. The weekly processing writes its reports there
+ * and filters the closed weeks out of the service records, so it refuses to start if there's a
+ * ChocAnFiles directory already, rather than change a real data center. It is run from an empty directory as
+ *      java -cp /path/to/ChocAn:/path/to/ChocAn/bench ConcurrencyStress [options]
+ * or with "make stress", which runs it in a fresh bench/stress. The options are (defaults in brackets)
+ *      -generate N         Members in the generated data center [2000]
+ *      -claimers N         Claimer threads [16]
+ *      -suspenders N       Suspender threads [2]
+ *      -duration S         Length of the run in seconds [20]
+ *      -tick MS            Milliseconds between the clock's advances [10]
+ *      -seed N             Seed of the random numbers [300]
+ *
+ * The data center isn't saved at the end, but the reports and EFT files of the weeks closed during
+ * the run are left in the generated directory.
+ */
+public class ConcurrencyStress
+{
+    //The options, see above
+    private int generateMembers = 2000;
+    private int claimers = 16;
+    private int suspenders = 2;
+    private int durationSeconds = 20;
+    private int tickMillis = 10;
+    private long seed = 300;
+
+    private ChocAnDPS dataCenter = null;
+    private volatile boolean running = true;
+
+    //Totals over the run
+    private AtomicLong accepted = new AtomicLong();
+    private AtomicLong rejected = new AtomicLong();
+    private AtomicLong suspensions = new AtomicLong();
+    private AtomicLong hours = new AtomicLong();
+
+    public static void main(String[] args) throws Exception
+    {
+        ConcurrencyStress stress = new ConcurrencyStress();
+        for (int i = 0; i+1 < args.length; i += 2)
+        {
+            switch (args[i])
+            {
+            case "-generate":
+                stress.generateMembers = Integer.parseInt(args[i+1]);
+                break;
+            case "-claimers":
+                stress.claimers = Integer.parseInt(args[i+1]);
+                break;
+            case "-suspenders":
+                stress.suspenders = Integer.parseInt(args[i+1]);
+                break;
+            case "-duration":
+                stress.durationSeconds = Integer.parseInt(args[i+1]);
+                break;
+            case "-tick":
+                stress.tickMillis = Integer.parseInt(args[i+1]);
+                break;
+            case "-seed":
+                stress.seed = Long.parseLong(args[i+1]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option "+args[i]);
+            }
+        }
+
+        System.exit(stress.Run() ? 0 : 1);
+    }
+
+    /**
+     *
+     * @return Whether the records were consistent at the end
+     * @throws Exception
+     */
+    private boolean Run() throws Exception
+    {
+        PrintStream out = System.out;
+        if (FileUtilities.FileExists(FileUtilities.FILE_LOC))
+        {
+            out.println("ERROR! "+FileUtilities.FILE_LOC+" already exists. Run the stress test from an empty directory, it generates its own data center.");
+            return false;
+        }
+
+        DataSetGenerator generator = new DataSetGenerator();
+        generator.members = this.generateMembers;
+        generator.seed = this.seed;
+        generator.Generate(FileUtilities.FILE_LOC);
+        out.println("Generated "+generator.members+" members and "+generator.GetProviderCount()+" providers in "+FileUtilities.FILE_LOC);
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); //The data center's messages would only slow it down
+        this.dataCenter = new ChocAnDPS();
+        Member[] members = this.dataCenter.GetMemberDatabase().toArray(new Member[0]);
+        int[] memberNums = this.dataCenter.GetMemberDatabase().stream().mapToInt(Member::GetID).toArray();
+        Provider[] providers = this.dataCenter.GetProviderDatabase().toArray(new Provider[0]);
+        int recordsBefore = this.dataCenter.GetServiceRecordDisk().GetRecords().size();
+        out.println("Loaded "+memberNums.length+" members, "+providers.length+" providers and "+recordsBefore+" service records. Running "
+                    +this.claimers+" claimers, "+this.suspenders+" suspenders and the clock for "+this.durationSeconds+"s.");
+
+        ClaimProcessor processor = new ClaimProcessor(this.dataCenter);
+        ArrayList<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < this.claimers; ++i)
+        {
+            threads.add(new Claimer(processor, providers, memberNums, new Random(this.seed + i)));
+        }
+        for (int i = 0; i < this.suspenders; ++i)
+        {
+            threads.add(new Suspender(members, new Random(this.seed - i - 1)));
+        }
+        threads.add(new Clock());
+        for (int i = 0; i < threads.size(); ++i)
+        {
+            threads.get(i).start();
+        }
+
+        Thread.sleep(this.durationSeconds * 1000L);
+        this.running = false;
+        for (int i = 0; i < threads.size(); ++i)
+        {
+            threads.get(i).join();
+        }
+        this.dataCenter.AwaitWeeklyProcessing();
+
+        ServiceRecordDisk disk = this.dataCenter.GetServiceRecordDisk(); //Flushes the claim queue
+        ArrayList<String> errors = this.Check(disk, memberNums, providers);
+        int recordsAfter = disk.GetRecords().size();
+        this.dataCenter.GetClaimQueue().Close();
+        System.setOut(out);
+
+        out.println();
+        out.println(String.format("Claims:              %d accepted, %d rejected", this.accepted.get(), this.rejected.get()));
+        out.println(String.format("Status changes:      %d", this.suspensions.get()));
+        out.println(String.format("Simulated hours:     %d", this.hours.get()));
+        out.println(String.format("Records on disk:     %d (%d before)", recordsAfter, recordsBefore));
+        if (recordsAfter > recordsBefore + this.accepted.get())
+        {
+            errors.add("There are more records on the disk than were there before plus the accepted claims");
+        }
+
+        out.println();
+        for (int i = 0; i < errors.size() && i < 20; ++i)
+        {
+            out.println("ERROR! "+errors.get(i));
+        }
+        if (errors.size() > 20)
+        {
+            out.println("... and "+(errors.size()-20)+" more");
+        }
+        out.println(errors.isEmpty() ? "PASSED" : "FAILED");
+        return errors.isEmpty();
+    }
+
+    /**
+     * Checks that the records on the disk agree with the member and provider record lists
+     *
+     * @param disk
+     * @param memberNums
+     * @param providers
+     * @return What's wrong, if anything
+     */
+    private ArrayList<String> Check(ServiceRecordDisk disk, int[] memberNums, Provider[] providers)
+    {
+        ArrayList<String> errors = new ArrayList<String>();
+        Set<ServiceRecord> records = disk.GetRecords();
+
+        //Every member and provider that has a list, whether or not they're still in the database
+        TreeSet<Integer> memberKeys = new TreeSet<Integer>();
+        TreeSet<Integer> providerKeys = new TreeSet<Integer>();
+        for (int i = 0; i < memberNums.length; ++i)
+        {
+            memberKeys.add(memberNums[i]);
+        }
+        for (int i = 0; i < providers.length; ++i)
+        {
+            providerKeys.add(providers[i].GetID());
+        }
+        for (ServiceRecord record : records)
+        {
+            memberKeys.add(record.GetMemberNumber());
+            providerKeys.add(record.GetProviderNumber());
+        }
+
+        HashSet<ServiceRecord> inMemberLists = new HashSet<ServiceRecord>();
+        for (int memberNum : memberKeys)
+        {
+            for (Iterator<ServiceRecord> it = disk.StartAtMember(memberNum); it.hasNext(); )
+            {
+                ServiceRecord record = it.next();
+                if (record.GetMemberNumber() != memberNum)
+                {
+                    errors.add("The list of member "+memberNum+" holds a record of member "+record.GetMemberNumber()+": "+record);
+                }
+                if (!inMemberLists.add(record))
+                {
+                    errors.add("A record is in the member lists more than once: "+record);
+                }
+                if (!records.contains(record))
+                {
+                    errors.add("The list of member "+memberNum+" holds a record that isn't on the disk: "+record);
+                }
+            }
+        }
+
+        HashSet<ServiceRecord> inProviderLists = new HashSet<ServiceRecord>();
+        for (int providerNum : providerKeys)
+        {
+            for (Iterator<ServiceRecord> it = disk.StartAtProvider(providerNum); it.hasNext(); )
+            {
+                ServiceRecord record = it.next();
+                if (record.GetProviderNumber() != providerNum)
+                {
+                    errors.add("The list of provider "+providerNum+" holds a record of provider "+record.GetProviderNumber()+": "+record);
+                }
+                if (!inProviderLists.add(record))
+                {
+                    errors.add("A record is in the provider lists more than once: "+record);
+                }
+                if (!records.contains(record))
+                {
+                    errors.add("The list of provider "+providerNum+" holds a record that isn't on the disk: "+record);
+                }
+            }
+        }
+
+        for (ServiceRecord record : records)
+        {
+            if (!inMemberLists.contains(record))
+            {
+                errors.add("A record on the disk isn't in its member's list: "+record);
+            }
+            if (!inProviderLists.contains(record))
+            {
+                errors.add("A record on the disk isn't in its provider's list: "+record);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Serves random members at random providers, as fast as it can
+     */
+    private class Claimer extends Thread
+    {
+        private ClaimProcessor processor = null;
+        private Provider[] providers = null;
+        private int[][] serviceCodes = null; //Of each provider
+        private int[] memberNums = null;
+        private Random random = null;
+
+        Claimer(ClaimProcessor processor_, Provider[] providers_, int[] memberNums_, Random random_)
+        {
+            super("claimer");
+            this.processor = processor_;
+            this.providers = providers_;
+            this.serviceCodes = new int[providers_.length][];
+            for (int i = 0; i < providers_.length; ++i)
+            {
+                Provider.Directory directory = providers_[i].GetDirectory();
+                this.serviceCodes[i] = new int[directory.GetServiceCount()];
+                for (int j = 0; j < this.serviceCodes[i].length; ++j)
+                {
+                    this.serviceCodes[i][j] = directory.GetCode(j);
+                }
+            }
+            this.memberNums = memberNums_;
+            this.random = random_;
+        }
+
+        public void run()
+        {
+            while (ConcurrencyStress.this.running)
+            {
+                int provider = this.random.nextInt(this.providers.length);
+                int[] codes = this.serviceCodes[provider];
+                int serviceCode = (codes.length > 0 ? codes[this.random.nextInt(codes.length)] : 0);
+                int memberNum = this.memberNums[this.random.nextInt(this.memberNums.length)];
+
+                ClaimResult result = this.processor.ServeMember(this.providers[provider].GetID(), memberNum, serviceCode, "");
+                (result.accepted ? ConcurrencyStress.this.accepted : ConcurrencyStress.this.rejected).incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Suspends and reinstates random members
+     */
+    private class Suspender extends Thread
+    {
+        private Member[] members = null;
+        private Random random = null;
+
+        Suspender(Member[] members_, Random random_)
+        {
+            super("suspender");
+            this.members = members_;
+            this.random = random_;
+        }
+
+        public void run()
+        {
+            while (ConcurrencyStress.this.running)
+            {
+                Member member = this.members[this.random.nextInt(this.members.length)];
+                ReentrantLock lock = ConcurrencyStress.this.dataCenter.GetMemberLock(member.GetID());
+                lock.lock();
+                try
+                {
+                    member.SetStatus(!member.GetStatus());
+                }finally
+                {
+                    lock.unlock();
+                }
+                ConcurrencyStress.this.suspensions.incrementAndGet();
+                LockSupport.parkNanos(100000);
+            }
+        }
+    }
+
+    /**
+     * Advances the data center's time an hour every tick
+     */
+    private class Clock extends Thread
+    {
+        Clock()
+        {
+            super("clock");
+        }
+
+        public void run()
+        {
+            try
+            {
+                while (ConcurrencyStress.this.running)
+                {
+                    ConcurrencyStress.this.dataCenter.AdvanceTimeByHours(1);
+                    ConcurrencyStress.this.hours.incrementAndGet();
+                    LockSupport.parkNanos(ConcurrencyStress.this.tickMillis * 1000000L);
+                }
+            }catch(Exception e)
+            {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,400 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ *
+ * @author Enis
+ * This class generates a synthetic ChocAn data center of any size, for the benchmarks and
+ * load tests. It writes the files ChocAnDPS reads straight into a ChocAnFiles directory:
+ *      ChocAnParameters.txt    the data center's date (the close date below)
+ *      MemberRoster.txt        the members
+ *      ProviderRoster.txt      the providers and their provider directories
+ *      ServiceRecords.txt      the claims of the current week, in chronological order
+ *
+ * Everything is drawn from a Random with the given seed, so the same options always give
+ * byte-for-byte the same files.
+ *
+ * Real traffic isn't spread evenly: a few providers see most of the members, and a few members
+ * use most of the services. So the provider and the member of every claim are drawn from a Zipf
+ * distribution with exponent skew (0 is uniform, 1 is the classic 80/20-ish case). Which providers
+ * and members are the popular ones is shuffled, so they aren't simply the lowest numbers.
+ * Each provider's directory is drawn from a shared catalog of services, as real providers offer
+ * many of the same services.
+ *
+ * It is run as
+ *      java -cp .:bench DataSetGenerator [options]
+ * with the options (defaults in brackets)
+ *      -dir DIR            The directory the ChocAnFiles directory is written in [.]
+ *      -members N          Number of members [10000]
+ *      -providers N        Number of providers [members/100, at least 5]
+ *      -services N         Services in each provider directory [10]
+ *      -catalog N          Distinct services the directories are drawn from [200]
+ *      -claims N           Claims in the week [10 per member]
+ *      -skew S             Zipf exponent of the provider and member popularity [1.0]
+ *      -suspended F        Fraction of suspended members [0.05]
+ *      -date "MM-DD-YYYY HH:MM:SS"     The data center's date; claims span the week up to it [11-06-2015 12:00:00]
+ *      -seed N             Seed of the random numbers [300]
+ */
+public class DataSetGenerator
+{
+    //The options, see above
+    public int members = 10000;
+    public int providers = -1; //-1 means members/100
+    public int servicesPerProvider = 10;
+    public int catalogSize = 200;
+    public long claims = -1; //-1 means 10 per member
+    public double skew = 1.0;
+    public double suspendedFraction = 0.05;
+    public LocalDateTime closeDate = LocalDateTime.of(2015, 11, 6, 12, 0, 0);
+    public long seed = 300;
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+                                                 "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+                                                "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin"};
+    private static final String[] STREETS = {"Main St", "Oak Ave", "Pine St", "Maple Dr", "Cedar Ln", "Elm St", "Lake Rd", "Hill St", "Park Ave", "Burnside St"};
+    private static final String[][] CITIES = {{"Portland", "OR", "972"}, {"Seattle", "WA", "981"}, {"Boise", "ID", "837"}, {"Sacramento", "CA", "958"},
+                                              {"Salem", "OR", "973"}, {"Spokane", "WA", "992"}, {"Eugene", "OR", "974"}, {"Reno", "NV", "895"}};
+    private static final String[] SERVICE_KINDS = {"Therapy", "Counseling", "Dietitian", "Group Session", "Workshop", "Exercise Class", "Aerobics", "Check-up"};
+    private static final String[] COMMENTS = {"Went well.", "Member was late.", "Follow-up next week.", "Making good progress!", "Rescheduled from Monday."};
+
+    private Random random = null;
+    private DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern(Format.DATE+" "+Format.TIME);
+    private DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(Format.DATE);
+
+    //What was generated, in the order it was written
+    private int[] memberNums = null;
+    private int[] providerNums = null;
+    private int[][] directories = null; //Indices into the catalog, per provider
+    private int[] catalogCodes = null;
+
+    public static void main(String[] args) throws IOException
+    {
+        DataSetGenerator generator = new DataSetGenerator();
+        String dir = ".";
+        for (int i = 0; i + 1 < args.length; i += 2)
+        {
+            switch (args[i])
+            {
+            case "-dir":
+                dir = args[i+1];
+                break;
+            case "-members":
+                generator.members = Integer.parseInt(args[i+1]);
+                break;
+            case "-providers":
+                generator.providers = Integer.parseInt(args[i+1]);
+                break;
+            case "-services":
+                generator.servicesPerProvider = Integer.parseInt(args[i+1]);
+                break;
+            case "-catalog":
+                generator.catalogSize = Integer.parseInt(args[i+1]);
+                break;
+            case "-claims":
+                generator.claims = Long.parseLong(args[i+1]);
+                break;
+            case "-skew":
+                generator.skew = Double.parseDouble(args[i+1]);
+                break;
+            case "-suspended":
+                generator.suspendedFraction = Double.parseDouble(args[i+1]);
+                break;
+            case "-date":
+                generator.closeDate = LocalDateTime.parse(args[i+1], DateTimeFormatter.ofPattern(Format.DATE+" "+Format.TIME));
+                break;
+            case "-seed":
+                generator.seed = Long.parseLong(args[i+1]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option "+args[i]);
+            }
+        }
+
+        String fileLoc = dir+"/ChocAnFiles";
+        long start = System.nanoTime();
+        generator.Generate(fileLoc);
+        System.out.println("Generated "+generator.members+" members, "+generator.GetProviderCount()+" providers and "+generator.GetClaimCount()
+                           +" claims in "+fileLoc+" ("+(System.nanoTime() - start) / 1000000+" ms)");
+    }
+
+    public int GetProviderCount()
+    {
+        return (this.providers >= 0 ? this.providers : Math.max(5, this.members / 100));
+    }
+
+    public long GetClaimCount()
+    {
+        return (this.claims >= 0 ? this.claims : 10L * this.members);
+    }
+
+    /**
+     *
+     * @return The member numbers, in ascending order
+     */
+    public int[] GetMemberNumbers()
+    {
+        return this.memberNums;
+    }
+
+    /**
+     *
+     * @return The provider numbers, in ascending order
+     */
+    public int[] GetProviderNumbers()
+    {
+        return this.providerNums;
+    }
+
+    /**
+     * Writes the data center into fileLoc, which is created if it doesn't exist.
+     * Any data center already there is overwritten.
+     *
+     * @param fileLoc
+     * @throws IOException
+     */
+    public void Generate(final String fileLoc) throws IOException
+    {
+        this.random = new Random(this.seed);
+        FileUtilities.CreateDirectory(fileLoc);
+        FileUtilities.CreateDirectory(fileLoc+"/"+FileUtilities.MEMBER_LOC);
+        FileUtilities.CreateDirectory(fileLoc+"/"+FileUtilities.PROVIDERS_LOC);
+
+        BufferedWriter writer = FileUtilities.OpenWriter(fileLoc+"/"+FileUtilities.CHOC_AN_PARAMETERS_FILE_LOC);
+        writer.write(this.closeDate.format(this.dateTimeFormat)+"\n");
+        writer.close();
+
+        this.memberNums = this.DistinctNumbers(this.members, 100000000, 999999999);
+        this.providerNums = this.DistinctNumbers(this.GetProviderCount(), 100000000, 999999999);
+        this.catalogCodes = this.DistinctNumbers(this.catalogSize, 100000, 999999);
+
+        this.WriteMembers(fileLoc+"/"+FileUtilities.MEMBER_ROSTER_LOC);
+        this.WriteProviders(fileLoc+"/"+FileUtilities.PROVIDER_ROSTER_LOC);
+        this.WriteClaims(fileLoc+"/"+FileUtilities.SERVICE_RECORD_LOC);
+    }
+
+    private void WriteMembers(final String path) throws IOException
+    {
+        BufferedWriter writer = new BufferedWriter(FileUtilities.OpenWriter(path), FileUtilities.ROSTER_BUFFER_SIZE);
+        for (int i = 0; i < this.memberNums.length; ++i)
+        {
+            writer.write(this.memberNums[i]+"\n"+this.Address(this.PersonName())+"\n"+(this.random.nextDouble() >= this.suspendedFraction)+"\n");
+        }
+        writer.close();
+    }
+
+    private void WriteProviders(final String path) throws IOException
+    {
+        //The catalog's names and fees, shared by every directory that has the service
+        String[] names = new String[this.catalogSize];
+        BigDecimal[] fees = new BigDecimal[this.catalogSize];
+        for (int i = 0; i < this.catalogSize; ++i)
+        {
+            String kind = DataSetGenerator.SERVICE_KINDS[this.random.nextInt(DataSetGenerator.SERVICE_KINDS.length)];
+            names[i] = Utilities.AdjustStringToLimit(kind+" "+(i+1), Limits.SERVICE_NAME_LENGTH_LIMIT);
+            fees[i] = BigDecimal.valueOf(2000 + this.random.nextInt(30000), 2); //$20.00 to $319.99
+        }
+
+        int directorySize = Math.min(this.servicesPerProvider, this.catalogSize);
+        this.directories = new int[this.providerNums.length][];
+        BufferedWriter writer = new BufferedWriter(FileUtilities.OpenWriter(path), FileUtilities.ROSTER_BUFFER_SIZE);
+        for (int i = 0; i < this.providerNums.length; ++i)
+        {
+            this.directories[i] = this.Sample(this.catalogSize, directorySize);
+            writer.write(this.providerNums[i]+"\n"+this.Address(this.ProviderName())+"\n"+this.closeDate.format(this.dateTimeFormat)+"\n"+directorySize+"\n");
+            for (int j = 0; j < directorySize; ++j)
+            {
+                int service = this.directories[i][j];
+                writer.write(this.catalogCodes[service]+"\n"+names[service]+"\n"+fees[service].toPlainString()+"\n");
+            }
+        }
+        writer.close();
+    }
+
+    /**
+     * Writes the week's claims, from the Saturday the week starts on up to the close date.
+     * The times are drawn and sorted first, since the disk's file is in chronological order.
+     *
+     * @param path
+     * @throws IOException
+     */
+    private void WriteClaims(final String path) throws IOException
+    {
+        LocalDateTime weekStart = this.closeDate.toLocalDate().with(TemporalAdjusters.previousOrSame(Parameters.WEEK_START)).atStartOfDay();
+        long weekSeconds = Math.max(1, Duration.between(weekStart, this.closeDate).getSeconds());
+
+        long count = this.GetClaimCount();
+        if (count > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalArgumentException("Too many claims: "+count);
+        }
+        long[] offsets = new long[(int)count];
+        for (int i = 0; i < offsets.length; ++i)
+        {
+            offsets[i] = (long)(this.random.nextDouble() * (weekSeconds + 1));
+        }
+        Arrays.sort(offsets);
+
+        ZipfSampler providerSampler = new ZipfSampler(this.providerNums.length, this.skew, this.random);
+        ZipfSampler memberSampler = new ZipfSampler(this.memberNums.length, this.skew, this.random);
+
+        BufferedWriter writer = new BufferedWriter(FileUtilities.OpenWriter(path), FileUtilities.ROSTER_BUFFER_SIZE);
+        for (int i = 0; i < offsets.length; ++i)
+        {
+            LocalDateTime written = weekStart.plusSeconds(offsets[i]);
+            LocalDate serviceDate = (this.random.nextInt(20) == 0 ? written.toLocalDate().minusDays(1 + this.random.nextInt(3)) : written.toLocalDate()); //Some are written after a hardware failure
+            int provider = providerSampler.Next();
+            int[] directory = this.directories[provider];
+            String comments = (this.random.nextInt(4) == 0 ? DataSetGenerator.COMMENTS[this.random.nextInt(DataSetGenerator.COMMENTS.length)] : "");
+
+            writer.write((i == 0 ? "" : "\n")+written.format(this.dateTimeFormat)+"\n"+serviceDate.format(this.dateFormat)+"\n"+this.providerNums[provider]+"\n"
+                         +this.memberNums[memberSampler.Next()]+"\n"+this.catalogCodes[directory[this.random.nextInt(directory.length)]]+"\n"
+                         +comments+"\n"+Format.SERVICE_RECORD_SEPARATOR);
+        }
+        writer.close();
+    }
+
+    /**
+     * Draws count distinct numbers in [low, high], returned in ascending order.
+     *
+     * @param count
+     * @param low
+     * @param high
+     * @return
+     */
+    private int[] DistinctNumbers(final int count, final int low, final int high)
+    {
+        if (count > high - low + 1)
+        {
+            throw new IllegalArgumentException("Can't draw "+count+" distinct numbers between "+low+" and "+high);
+        }
+
+        HashSet<Integer> seen = new HashSet<Integer>(count * 2);
+        int[] nums = new int[count];
+        for (int i = 0; i < count; ++i)
+        {
+            int num = 0;
+            do
+            {
+                num = low + this.random.nextInt(high - low + 1);
+            } while (!seen.add(num));
+            nums[i] = num;
+        }
+        Arrays.sort(nums);
+
+        return nums;
+    }
+
+    /**
+     * Draws count distinct indices out of [0, n)
+     *
+     * @param n
+     * @param count
+     * @return
+     */
+    private int[] Sample(final int n, final int count)
+    {
+        int[] all = new int[n];
+        for (int i = 0; i < n; ++i)
+        {
+            all[i] = i;
+        }
+        for (int i = 0; i < count; ++i) //Partial Fisher-Yates shuffle
+        {
+            int j = i + this.random.nextInt(n - i);
+            int swap = all[i];
+            all[i] = all[j];
+            all[j] = swap;
+        }
+
+        return Arrays.copyOf(all, count);
+    }
+
+    private String PersonName()
+    {
+        return DataSetGenerator.FIRST_NAMES[this.random.nextInt(DataSetGenerator.FIRST_NAMES.length)]+" "
+               +DataSetGenerator.LAST_NAMES[this.random.nextInt(DataSetGenerator.LAST_NAMES.length)];
+    }
+
+    private String ProviderName()
+    {
+        return DataSetGenerator.LAST_NAMES[this.random.nextInt(DataSetGenerator.LAST_NAMES.length)]+" Wellness";
+    }
+
+    /**
+     * The name followed by a random street address, city, state and ZIP, one per line, within the limits
+     *
+     * @param name
+     * @return
+     */
+    private String Address(final String name)
+    {
+        String[] city = DataSetGenerator.CITIES[this.random.nextInt(DataSetGenerator.CITIES.length)];
+        String street = (1 + this.random.nextInt(9999))+" "+DataSetGenerator.STREETS[this.random.nextInt(DataSetGenerator.STREETS.length)];
+
+        return Utilities.AdjustStringToLimit(name, Limits.INFO_NAME_LENGTH_LIMIT)+"\n"
+               +Utilities.AdjustStringToLimit(street, Limits.STREET_ADDRESS_LENGTH_LIMIT)+"\n"
+               +city[0]+"\n"+city[1]+"\n"+city[2]+String.format("%02d", this.random.nextInt(100));
+    }
+
+    /**
+     * Draws indices in [0, n) following a Zipf distribution with exponent s: the k-th most popular
+     * index is drawn with probability proportional to 1/k^s. The ranks are shuffled onto the indices.
+     * Drawing is a binary search in the cumulative distribution, so it's O(log n).
+     */
+    static class ZipfSampler
+    {
+        private double[] cumulative = null;
+        private int[] rankToIndex = null;
+        private Random random = null;
+
+        ZipfSampler(final int n, final double s, Random random_)
+        {
+            this.random = random_;
+            this.cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; ++k)
+            {
+                sum += 1.0 / Math.pow(k + 1, s);
+                this.cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; ++k)
+            {
+                this.cumulative[k] /= sum;
+            }
+
+            this.rankToIndex = new int[n];
+            for (int i = 0; i < n; ++i)
+            {
+                this.rankToIndex[i] = i;
+            }
+            for (int i = n - 1; i > 0; --i)
+            {
+                int j = this.random.nextInt(i + 1);
+                int swap = this.rankToIndex[i];
+                this.rankToIndex[i] = this.rankToIndex[j];
+                this.rankToIndex[j] = swap;
+            }
+        }
+
+        int Next()
+        {
+            int rank = Arrays.binarySearch(this.cumulative, this.random.nextDouble());
+            if (rank < 0)
+            {
+                rank = -rank - 1;
+            }
+
+            return this.rankToIndex[Math.min(rank, this.rankToIndex.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *
+ * @author Enis
+ * This is a closed-loop load test of the data center: it measures how many claims per second
+ * it sustains, and how long each one takes, while a simulated week of provider traffic goes on.
+ *
+ * Every simulated provider is a thread that does what a provider at a ProviderTerminal does,
+ * over and over: wait for the next member to walk in (the think time, drawn from an exponential
+ * distribution, as arrivals are random), then serve them. Serving a member is ClaimProcessor.ServeMember,
+ * which validates the member, looks up the service in the provider's directory and writes the
+ * record, exactly as the terminal and the claim server do. The member is drawn with the same
+ * Zipf skew as the DataSetGenerator, so some suspended members are served (and rejected) too.
+ *
+ * Meanwhile a clock thread advances the data center's time with ChocAnDPS.AdvanceTimeByHours,
+ * spreading the simulated hours evenly over the run. The generated data centers close on a
+ * Friday at noon, so with the default 24 hours the weekly processing runs halfway through the
+ * load (in the background, see WeeklyScheduler), and its effect on the latency shows up in the results.
+ *
+ * It always runs against a data center it generates first (see DataSetGenerator) in the
+ * ChocAnFiles directory of the working directory. The weekly processing writes its reports there,
+ * so it refuses to start if there's a ChocAnFiles directory already, rather than change a real
+ * data center. It is run from an empty directory as
+ *      java -cp /path/to/ChocAn:/path/to/ChocAn/bench LoadTestHarness [options]
+ * with the options (defaults in brackets)
+ *      -generate N         Members in the generated data center [10000]
+ *      -providers N        Simulated providers, i.e. threads [64]
+ *      -think MS           Mean think time between claims, in milliseconds. 0 runs flat out. [5]
+ *      -duration S         Length of the run in seconds, after the warmup [60]
+ *      -warmup S           Seconds of load before the measurements start [10]
+ *      -hours N            Simulated hours the clock advances over the run [24]
+ *      -save true|false    Save the data center at the end [false]
+ *      -seed N             Seed of the random numbers [300]
+ *
+ * The data center isn't saved at the end unless -save is given, but the reports and EFT files of
+ * the week closed during the run are left in the generated directory.
+ */
+public class LoadTestHarness
+{
+    //The options, see above
+    private int generateMembers = 10000;
+    private int simulatedProviders = 64;
+    private double meanThinkMillis = 5;
+    private int durationSeconds = 60;
+    private int warmupSeconds = 10;
+    private int simulatedHours = 24;
+    private boolean save = false;
+    private long seed = 300;
+
+    private ChocAnDPS dataCenter = null;
+    private volatile boolean measuring = false;
+    private volatile boolean running = true;
+
+    //Totals over the measured part of the run
+    private AtomicLong accepted = new AtomicLong();
+    private AtomicLong rejected = new AtomicLong();
+    private AtomicLong weeklyRuns = new AtomicLong();
+    private volatile long longestTickNanos = 0;
+
+    public static void main(String[] args) throws Exception
+    {
+        LoadTestHarness harness = new LoadTestHarness();
+        for (int i = 0; i + 1 < args.length; i += 2)
+        {
+            switch (args[i])
+            {
+            case "-generate":
+                harness.generateMembers = Integer.parseInt(args[i+1]);
+                break;
+            case "-providers":
+                harness.simulatedProviders = Integer.parseInt(args[i+1]);
+                break;
+            case "-think":
+                harness.meanThinkMillis = Double.parseDouble(args[i+1]);
+                break;
+            case "-duration":
+                harness.durationSeconds = Integer.parseInt(args[i+1]);
+                break;
+            case "-warmup":
+                harness.warmupSeconds = Integer.parseInt(args[i+1]);
+                break;
+            case "-hours":
+                harness.simulatedHours = Integer.parseInt(args[i+1]);
+                break;
+            case "-save":
+                harness.save = Boolean.parseBoolean(args[i+1]);
+                break;
+            case "-seed":
+                harness.seed = Long.parseLong(args[i+1]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option "+args[i]);
+            }
+        }
+
+        harness.Run();
+    }
+
+    private void Run() throws Exception
+    {
+        PrintStream out = System.out;
+        if (FileUtilities.FileExists(FileUtilities.FILE_LOC))
+        {
+            out.println("ERROR! "+FileUtilities.FILE_LOC+" already exists. Run the load test from an empty directory, it generates its own data center.");
+            System.exit(1);
+        }
+
+        DataSetGenerator generator = new DataSetGenerator();
+        generator.members = this.generateMembers;
+        generator.seed = this.seed;
+        generator.Generate(FileUtilities.FILE_LOC);
+        out.println("Generated "+generator.members+" members and "+generator.GetProviderCount()+" providers in "+FileUtilities.FILE_LOC);
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); //The data center's messages would only slow it down
+        this.dataCenter = new ChocAnDPS();
+        int[] memberNums = this.dataCenter.GetMemberDatabase().stream().mapToInt(Member::GetID).toArray();
+        Provider[] providers = this.dataCenter.GetProviderDatabase().toArray(new Provider[0]);
+        out.println("Loaded "+memberNums.length+" members, "+providers.length+" providers and "+this.dataCenter.GetServiceRecordDisk().GetRecords().size()
+                    +" service records. Running "+this.simulatedProviders+" simulated providers for "+this.warmupSeconds+"s warmup + "+this.durationSeconds+"s.");
+
+        ClaimProcessor processor = new ClaimProcessor(this.dataCenter);
+        ArrayList<SimulatedProvider> simulated = new ArrayList<SimulatedProvider>();
+        CountDownLatch done = new CountDownLatch(this.simulatedProviders);
+        for (int i = 0; i < this.simulatedProviders; ++i)
+        {
+            SimulatedProvider provider = new SimulatedProvider(processor, providers[i % providers.length], memberNums, new Random(this.seed + i), done);
+            simulated.add(provider);
+            provider.start();
+        }
+
+        Thread.sleep(this.warmupSeconds * 1000L);
+        this.measuring = true;
+        long start = System.nanoTime();
+        this.RunClock(start);
+        this.measuring = false;
+        long elapsed = System.nanoTime() - start;
+        this.running = false;
+        done.await();
+
+        this.dataCenter.GetClaimQueue().Flush();
+        LatencyHistogram latencies = new LatencyHistogram();
+        for (int i = 0; i < simulated.size(); ++i)
+        {
+            latencies.Add(simulated.get(i).latencies);
+        }
+        this.PrintResults(out, elapsed, latencies);
+
+        if (this.save)
+        {
+            this.dataCenter.Exit();
+        }
+        else
+        {
+            this.dataCenter.GetClaimQueue().Close();
+        }
+        System.setOut(out);
+    }
+
+    /**
+     * Advances the clock one simulated hour at a time, evenly over the measured part of the run.
+     *
+     * @param start When the measurements started
+     * @throws IOException
+     */
+    private void RunClock(final long start) throws IOException
+    {
+        long runNanos = this.durationSeconds * 1000000000L;
+        for (int hour = 1; hour <= this.simulatedHours; ++hour)
+        {
+            long tickAt = start + runNanos * hour / (this.simulatedHours + 1);
+            this.SleepUntil(tickAt);
+
+            WeekEndWatch before = new WeekEndWatch(this.dataCenter);
+            long tickStart = System.nanoTime();
+            this.dataCenter.AdvanceTimeByHours(1);
+            long tickNanos = System.nanoTime() - tickStart;
+            this.longestTickNanos = Math.max(this.longestTickNanos, tickNanos);
+            if (before.CrossedWeekEnd(this.dataCenter))
+            {
+                this.weeklyRuns.incrementAndGet();
+            }
+        }
+        this.SleepUntil(start + runNanos);
+    }
+
+    private void SleepUntil(final long nanoTime)
+    {
+        long remaining = 0;
+        while ((remaining = nanoTime - System.nanoTime()) > 0)
+        {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private void PrintResults(PrintStream out, final long elapsedNanos, LatencyHistogram latencies)
+    {
+        this.dataCenter.AwaitWeeklyProcessing(); //So the records on disk don't include a week still being processed
+        double seconds = elapsedNanos / 1e9;
+        long total = this.accepted.get() + this.rejected.get();
+        out.println();
+        out.println(String.format("Claims:              %d (%d accepted, %d rejected)", total, this.accepted.get(), this.rejected.get()));
+        out.println(String.format("Throughput:          %.1f claims/s", total / seconds));
+        out.println(String.format("Latency (us):        p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f",
+                                  latencies.Percentile(50) / 1e3, latencies.Percentile(90) / 1e3, latencies.Percentile(99) / 1e3,
+                                  latencies.Percentile(99.9) / 1e3, latencies.GetMax() / 1e3));
+        out.println(String.format("Weekly processing:   %d run(s), longest clock tick %.1f ms", this.weeklyRuns.get(), this.longestTickNanos / 1e6));
+        out.println(String.format("Records on disk:     %d", this.dataCenter.GetServiceRecordDisk().GetRecords().size()));
+        out.println();
+        out.print(this.dataCenter.GetClaimQueue());
+        out.println();
+        out.print(Metrics.Dump());
+    }
+
+    /**
+     * Remembers the data center's date, to tell whether an advance went past the end of the week
+     */
+    private static class WeekEndWatch
+    {
+        private long secondsUntilWeekEnd = 0;
+        private LocalDateTime date = null;
+
+        WeekEndWatch(ChocAnDPS dataCenter)
+        {
+            this.date = dataCenter.GetGlobalDate();
+            this.secondsUntilWeekEnd = Utilities.SecondsUntilWeekEnd(this.date);
+        }
+
+        boolean CrossedWeekEnd(ChocAnDPS dataCenter)
+        {
+            return Duration.between(this.date, dataCenter.GetGlobalDate()).getSeconds() > this.secondsUntilWeekEnd;
+        }
+    }
+
+    /**
+     * One provider at a terminal, serving one member after another
+     */
+    private class SimulatedProvider extends Thread
+    {
+        private ClaimProcessor processor = null;
+        private Provider provider = null;
+        private int[] serviceCodes = null;
+        private int[] memberNums = null;
+        private Random random = null;
+        private DataSetGenerator.ZipfSampler members = null;
+        private CountDownLatch done = null;
+        LatencyHistogram latencies = new LatencyHistogram();
+
+        SimulatedProvider(ClaimProcessor processor_, Provider provider_, int[] memberNums_, Random random_, CountDownLatch done_)
+        {
+            super("provider-"+provider_.GetID());
+            this.setDaemon(true);
+            this.processor = processor_;
+            this.provider = provider_;
+            this.serviceCodes = provider_.GetProviderDirectory().stream().mapToInt(Service::GetID).toArray();
+            this.memberNums = memberNums_;
+            this.random = random_;
+            this.members = new DataSetGenerator.ZipfSampler(memberNums_.length, 1.0, random_);
+            this.done = done_;
+        }
+
+        public void run()
+        {
+            try
+            {
+                while (LoadTestHarness.this.running)
+                {
+                    if (LoadTestHarness.this.meanThinkMillis > 0)
+                    {
+                        double think = -Math.log(1 - this.random.nextDouble()) * LoadTestHarness.this.meanThinkMillis; //Exponentially distributed
+                        LockSupport.parkNanos((long)(think * 1e6));
+                    }
+
+                    int memberNum = this.memberNums[this.members.Next()];
+                    int serviceCode = (this.serviceCodes.length > 0 ? this.serviceCodes[this.random.nextInt(this.serviceCodes.length)] : 0);
+
+                    long start = System.nanoTime();
+                    ClaimResult result = this.processor.ServeMember(this.provider.GetID(), memberNum, serviceCode, "");
+                    long latency = System.nanoTime() - start;
+
+                    if (LoadTestHarness.this.measuring)
+                    {
+                        this.latencies.Record(latency);
+                        (result.accepted ? LoadTestHarness.this.accepted : LoadTestHarness.this.rejected).incrementAndGet();
+                    }
+                }
+            }finally
+            {
+                this.done.countDown();
+            }
+        }
+    }
+}